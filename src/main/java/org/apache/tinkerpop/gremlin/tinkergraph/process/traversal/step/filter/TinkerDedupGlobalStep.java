@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.filter;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.ElementIdSet;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerEdge;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Replaces a plain {@code DedupGlobalStep}, i.e. one without {@code by()} modulation or dedup labels: vertices and edges
+ * are deduplicated by their (long) id in an {@link ElementIdSet}, rather than by keeping the elements themselves in a
+ * {@code HashSet}. Inside a {@code repeat()}, e.g. {@code repeat(out().dedup()).emit()}, the step keeps track of all
+ * vertices visited so far, hence the frontier only ever holds new vertices. All other objects are deduplicated as usual.
+ */
+public final class TinkerDedupGlobalStep<S> extends FilterStep<S> {
+
+    private static final Set<TraverserRequirement> REQUIREMENTS = Collections.singleton(TraverserRequirement.BULK);
+
+    private ElementIdSet vertexIds;
+    private ElementIdSet edgeIds;
+    private Set<Object> duplicateSet = new HashSet<>();
+
+    public TinkerDedupGlobalStep(final Traversal.Admin traversal) {
+        super(traversal);
+    }
+
+    @Override
+    protected boolean filter(final Traverser.Admin<S> traverser) {
+        traverser.setBulk(1L);
+        final S object = traverser.get();
+        if (object instanceof TinkerVertex && ((TinkerVertex) object).id() instanceof Long) {
+            if (null == this.vertexIds)
+                this.vertexIds = new ElementIdSet((TinkerGraph) ((TinkerVertex) object).graph());
+            return this.vertexIds.add((Long) ((Element) object).id());
+        } else if (object instanceof TinkerEdge && ((TinkerEdge) object).id() instanceof Long) {
+            if (null == this.edgeIds)
+                this.edgeIds = new ElementIdSet((TinkerGraph) ((TinkerEdge) object).graph());
+            return this.edgeIds.add((Long) ((Element) object).id());
+        } else {
+            return this.duplicateSet.add(object);
+        }
+    }
+
+    @Override
+    public TinkerDedupGlobalStep<S> clone() {
+        final TinkerDedupGlobalStep<S> clone = (TinkerDedupGlobalStep<S>) super.clone();
+        clone.vertexIds = null;
+        clone.edgeIds = null;
+        clone.duplicateSet = new HashSet<>();
+        return clone;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.vertexIds = null;
+        this.edgeIds = null;
+        this.duplicateSet.clear();
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return REQUIREMENTS;
+    }
+}
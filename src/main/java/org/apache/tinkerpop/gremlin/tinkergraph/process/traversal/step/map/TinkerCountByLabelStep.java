@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Counts all vertices or edges by label, optionally filtered by label {@link HasContainer}s, e.g. for
+ * {@code g.V().groupCount().by(label)}: the counts are read from the label partitions, i.e. in time proportional to the
+ * number of labels, without iterating over (or, with on-disk overflow, deserializing) the elements.
+ */
+public final class TinkerCountByLabelStep<S extends Element> extends AbstractStep<S, Map<String, Long>> implements HasContainerHolder {
+
+    private final Class<S> elementClass;
+    private final List<HasContainer> hasContainers = new ArrayList<>();
+    private boolean done = false;
+
+    public TinkerCountByLabelStep(final Traversal.Admin traversal, final Class<S> elementClass, final List<HasContainer> hasContainers) {
+        super(traversal);
+        this.elementClass = elementClass;
+        hasContainers.forEach(this::addHasContainer);
+    }
+
+    @Override
+    protected Traverser.Admin<Map<String, Long>> processNextStart() throws NoSuchElementException {
+        if (!this.done) {
+            this.done = true;
+            final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+            final P<String> labelPredicate = labelPredicate();
+            final Map<String, Long> counts = Vertex.class.isAssignableFrom(this.elementClass) ?
+                    graph.vertexCountsByLabel(labelPredicate) :
+                    graph.edgeCountsByLabel(labelPredicate);
+            return this.getTraversal().getTraverserGenerator().generate(counts, (Step) this, 1L);
+        } else
+            throw FastNoSuchElementException.instance();
+    }
+
+    /** @return all label filters combined, or `null` if there are none */
+    private P<String> labelPredicate() {
+        if (this.hasContainers.isEmpty())
+            return null;
+        final List<P<String>> labelPredicates = new ArrayList<>(this.hasContainers.size());
+        this.hasContainers.forEach(hasContainer -> labelPredicates.add((P<String>) hasContainer.getPredicate()));
+        return labelPredicates.size() == 1 ? labelPredicates.get(0) : new AndP<>(labelPredicates);
+    }
+
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return Collections.unmodifiableList(this.hasContainers);
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        this.hasContainers.add(hasContainer);
+    }
+
+    @Override
+    public String toString() {
+        return this.hasContainers.isEmpty() ?
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase()) :
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase(), this.hasContainers);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.elementClass.hashCode() ^ this.hasContainers.hashCode();
+    }
+
+    @Override
+    public void reset() {
+        this.done = false;
+    }
+}
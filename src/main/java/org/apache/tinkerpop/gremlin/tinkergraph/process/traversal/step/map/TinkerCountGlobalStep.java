@@ -19,30 +19,49 @@
 
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.AndP;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
+ * Counts all vertices or edges, optionally filtered by {@link HasContainer}s. Label filters are answered from the label
+ * partitions and a single equality filter on an indexed key from the index, i.e. without iterating over the elements.
+ *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep<S, Long> {
+public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep<S, Long> implements HasContainerHolder {
 
     private final Class<S> elementClass;
+    private final List<HasContainer> hasContainers = new ArrayList<>();
     private boolean done = false;
 
     public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass) {
+        this(traversal, elementClass, Collections.emptyList());
+    }
+
+    public TinkerCountGlobalStep(final Traversal.Admin traversal, final Class<S> elementClass, final List<HasContainer> hasContainers) {
         super(traversal);
         this.elementClass = elementClass;
+        hasContainers.forEach(this::addHasContainer);
     }
 
     @Override
@@ -50,22 +69,76 @@ public final class TinkerCountGlobalStep<S extends Element> extends AbstractStep
         if (!this.done) {
             this.done = true;
             final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
-            return this.getTraversal().getTraverserGenerator().generate(Vertex.class.isAssignableFrom(this.elementClass) ?
-                            (long) TinkerHelper.getVertices(graph).size() :
-                            (long) TinkerHelper.getEdges(graph).size(),
-                    (Step) this, 1L);
+            return this.getTraversal().getTraverserGenerator().generate(count(graph), (Step) this, 1L);
         } else
             throw FastNoSuchElementException.instance();
     }
 
+    private long count(final TinkerGraph graph) {
+        final boolean countVertices = Vertex.class.isAssignableFrom(this.elementClass);
+        if (this.hasContainers.isEmpty())
+            return countVertices ? graph.vertexCount() : graph.edgeCount();
+
+        if (isLabelFilter(this.hasContainers)) {
+            final List<P<String>> labelPredicates = new ArrayList<>(this.hasContainers.size());
+            this.hasContainers.forEach(hasContainer -> labelPredicates.add((P<String>) hasContainer.getPredicate()));
+            final P<String> labelPredicate = labelPredicates.size() == 1 ? labelPredicates.get(0) : new AndP<>(labelPredicates);
+            return countVertices ? graph.vertexCount(labelPredicate) : graph.edgeCount(labelPredicate);
+        }
+
+        if (isIndexedEquality(graph, this.elementClass, this.hasContainers)) {
+            final HasContainer hasContainer = this.hasContainers.get(0);
+            return countVertices ?
+                    TinkerHelper.countVertexIndex(graph, hasContainer.getKey(), hasContainer.getValue()) :
+                    TinkerHelper.countEdgeIndex(graph, hasContainer.getKey(), hasContainer.getValue());
+        }
+
+        // the index may have been dropped since the strategy was applied
+        final Iterator<? extends Element> elements = countVertices ? graph.vertices() : graph.edges();
+        long count = 0;
+        while (elements.hasNext()) {
+            if (TinkerHelper.testAll(elements.next(), this.hasContainers))
+                count++;
+        }
+        return count;
+    }
+
+    /** @return true if all given containers filter on the element label */
+    public static boolean isLabelFilter(final List<HasContainer> hasContainers) {
+        for (final HasContainer hasContainer : hasContainers) {
+            if (!T.label.getAccessor().equals(hasContainer.getKey()))
+                return false;
+        }
+        return !hasContainers.isEmpty();
+    }
+
+    /** @return true if there is exactly one container, and it tests a key that's indexed for the given element class for equality */
+    public static boolean isIndexedEquality(final TinkerGraph graph, final Class<? extends Element> elementClass, final List<HasContainer> hasContainers) {
+        return hasContainers.size() == 1 &&
+                hasContainers.get(0).getBiPredicate() == Compare.eq &&
+                graph.getIndexedKeys(elementClass).contains(hasContainers.get(0).getKey());
+    }
+
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return Collections.unmodifiableList(this.hasContainers);
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        this.hasContainers.add(hasContainer);
+    }
+
     @Override
     public String toString() {
-        return StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase());
+        return this.hasContainers.isEmpty() ?
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase()) :
+                StringFactory.stepString(this, this.elementClass.getSimpleName().toLowerCase(), this.hasContainers);
     }
 
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.elementClass.hashCode();
+        return super.hashCode() ^ this.elementClass.hashCode() ^ this.hasContainers.hashCode();
     }
 
     @Override
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Operator;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ReducingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+import org.apache.tinkerpop.gremlin.util.function.ConstantSupplier;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
+/**
+ * Replaces a {@code VertexStep} followed by a {@code CountGlobalStep}, e.g. {@code out('AST').count()}: sums up the
+ * degrees of the incoming vertices, as read from their adjacency sets, rather than iterating over the adjacent elements.
+ * An optional limit caps the count, for a {@code RangeGlobalStep} between the two steps, e.g. {@code outE().limit(5).count()}.
+ */
+public final class TinkerDegreeCountStep extends ReducingBarrierStep<Vertex, Long> {
+
+    private static final Set<TraverserRequirement> REQUIREMENTS = Collections.singleton(TraverserRequirement.BULK);
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private final long limit;
+
+    public TinkerDegreeCountStep(final Traversal.Admin traversal, final Direction direction, final String[] edgeLabels, final long limit) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.limit = limit;
+        this.setSeedSupplier(new ConstantSupplier<>(0L));
+        if (limit == Long.MAX_VALUE)
+            this.setReducingBiOperator((BinaryOperator) Operator.sumLong);
+        else
+            this.setReducingBiOperator(new LimitedSum(limit));
+    }
+
+    @Override
+    public Long projectTraverser(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        final long degree;
+        if (!(vertex instanceof TinkerVertex))
+            degree = IteratorUtils.count(vertex.edges(this.direction, this.edgeLabels));
+        else if (this.edgeLabels.length == 1)
+            degree = ((TinkerVertex) vertex).degree(this.direction, this.edgeLabels[0]);
+        else
+            degree = ((TinkerVertex) vertex).degree(this.direction, this.edgeLabels);
+        return Math.min(degree * traverser.bulk(), this.limit);
+    }
+
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    public String[] getEdgeLabels() {
+        return this.edgeLabels;
+    }
+
+    public long getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return REQUIREMENTS;
+    }
+
+    @Override
+    public String toString() {
+        return this.limit == Long.MAX_VALUE ?
+                StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels)) :
+                StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.limit);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.direction.hashCode() ^ Long.hashCode(this.limit);
+        for (final String edgeLabel : this.edgeLabels) {
+            result ^= edgeLabel.hashCode();
+        }
+        return result;
+    }
+
+    /** sum that never exceeds the given limit - all summands are non-negative, so the result is `min(sum, limit)` */
+    private static final class LimitedSum implements BinaryOperator<Long>, Serializable {
+        private final long limit;
+
+        private LimitedSum(final long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public Long apply(final Long a, final Long b) {
+            return Math.min(a + b, this.limit);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Replaces a {@code PropertiesStep} that returns values, e.g. {@code values('name')}: for specialized elements the values
+ * are read directly from their fields (see {@link TinkerHelper#propertyValue(Element, String)}), rather than wrapping each
+ * one in a {@code Property} first. All other elements are handled as usual.
+ */
+public final class TinkerPropertiesStep<E> extends PropertiesStep<E> {
+
+    public TinkerPropertiesStep(final Traversal.Admin traversal, final String... propertyKeys) {
+        super(traversal, PropertyType.VALUE, propertyKeys);
+    }
+
+    @Override
+    protected Iterator<E> flatMap(final Traverser.Admin<Element> traverser) {
+        final Element element = traverser.get();
+        if (this.propertyKeys.length == 0 || !TinkerHelper.hasDirectPropertyValues(element))
+            return super.flatMap(traverser);
+        return new ValueIterator<>(element, this.propertyKeys);
+    }
+
+    /** iterates over the non-null values of the given keys, reading each one only when it's needed */
+    private static final class ValueIterator<E> implements Iterator<E> {
+        private final Element element;
+        private final String[] keys;
+        private int index = 0;
+        private E next;
+
+        private ValueIterator(final Element element, final String[] keys) {
+            this.element = element;
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.next == null && this.index < this.keys.length) {
+                this.next = TinkerHelper.propertyValue(this.element, this.keys[this.index++]);
+            }
+            return this.next != null;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            final E value = this.next;
+            this.next = null;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertyMapStep;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces a {@code PropertyMapStep} that returns values and has no {@code by()} modulation, e.g. {@code valueMap()} or
+ * {@code valueMap(true, 'name')}: for specialized elements the map is built from the values read directly from their
+ * fields (see {@link TinkerHelper#propertyValue(Element, String)}), rather than from {@code Property} wrappers.
+ * All other elements are handled as usual.
+ */
+public final class TinkerPropertyMapStep<K, E> extends PropertyMapStep<K, E> {
+
+    public TinkerPropertyMapStep(final Traversal.Admin traversal, final boolean includeTokens, final String... propertyKeys) {
+        super(traversal, includeTokens, PropertyType.VALUE, propertyKeys);
+    }
+
+    @Override
+    protected Map<K, E> map(final Traverser.Admin<Element> traverser) {
+        final Element element = traverser.get();
+        if (null != this.propertyTraversal || !TinkerHelper.hasDirectPropertyValues(element))
+            return super.map(traverser);
+
+        final boolean isVertex = element instanceof Vertex;
+        final Collection<String> keys = this.propertyKeys.length == 0 ? element.keys() : Arrays.asList(this.propertyKeys);
+        final Map<Object, Object> map = new HashMap<>();
+        for (final String key : keys) {
+            final Object value = TinkerHelper.propertyValue(element, key);
+            if (null == value)
+                continue;
+            if (isVertex) {
+                // vertex properties may have multiple values, hence valueMap() returns them as lists
+                final List<Object> values = new ArrayList<>(1);
+                values.add(value);
+                map.put(key, values);
+            } else {
+                map.put(key, value);
+            }
+        }
+        if (this.includeTokens) {
+            map.put(T.id, element.id());
+            map.put(T.label, element.label());
+        }
+        return (Map) map;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.ReachabilityIndex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.ShortestPath;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerVertex;
+
+import java.util.Arrays;
+
+/**
+ * Replaces {@code repeat(out('X')).until(is(target))} where only a single result is needed, e.g.
+ * {@code ...path().limit(1)}: finds a shortest path from each incoming vertex to the target with a {@link ShortestPath}
+ * search, and emits the target with the vertices along that path added to the traverser's path (if it is tracked).
+ * Vertices that cannot reach the target are filtered out, and so is the target itself if the {@code repeat()} body
+ * has a {@code simplePath()}, as the path from a vertex to itself is a cycle.
+ */
+public final class TinkerShortestPathStep extends AbstractStep<Vertex, Vertex> {
+
+    private final Direction direction;
+    private final String[] edgeLabels;
+    private final long targetId;
+    private final int maxDepth;
+    /* `until()` before `repeat()`, i.e. the target itself matches with an empty path */
+    private final boolean untilFirst;
+    /* the `repeat()` body has a `simplePath()` */
+    private final boolean simplePath;
+    private Boolean pathRequired;
+
+    public TinkerShortestPathStep(final Traversal.Admin traversal, final Direction direction, final String[] edgeLabels,
+                                  final long targetId, final int maxDepth, final boolean untilFirst, final boolean simplePath) {
+        super(traversal);
+        this.direction = direction;
+        this.edgeLabels = edgeLabels;
+        this.targetId = targetId;
+        this.maxDepth = maxDepth;
+        this.untilFirst = untilFirst;
+        this.simplePath = simplePath;
+    }
+
+    @Override
+    protected Traverser.Admin<Vertex> processNextStart() {
+        while (true) {
+            final Traverser.Admin<Vertex> traverser = this.starts.next();
+            final Vertex source = traverser.get();
+            if (!(source instanceof TinkerVertex) || !(source.id() instanceof Long))
+                throw new IllegalStateException("shortest path search requires TinkerGraph vertices with long ids, but got " + source);
+            if ((Long) source.id() == this.targetId) {
+                if (this.untilFirst)
+                    return traverser;
+                else if (this.simplePath)
+                    continue;
+            }
+
+            final TinkerGraph graph = (TinkerGraph) source.graph();
+            final ReachabilityIndex reachabilityIndex = reachabilityIndex(graph);
+            if (null != reachabilityIndex) {
+                final boolean reachable = this.direction == Direction.OUT ?
+                        reachabilityIndex.isReachable((Long) source.id(), this.targetId) :
+                        reachabilityIndex.isReachable(this.targetId, (Long) source.id());
+                if (!reachable)
+                    continue;
+                return traverser.split(graph.vertexById(this.targetId), this);
+            }
+
+            final long[] path = ShortestPath.find(graph, (Long) source.id(), this.targetId, this.direction, this.edgeLabels, this.maxDepth);
+            if (path == null)
+                continue;
+            Traverser.Admin<Vertex> current = traverser;
+            for (int i = 1; i < path.length; i++) {
+                current = current.split(graph.vertexById(path[i]), this);
+            }
+            return current;
+        }
+    }
+
+    /** @return the graph's reachability index for the edge labels, if the vertices along the path are not needed */
+    private ReachabilityIndex reachabilityIndex(final TinkerGraph graph) {
+        if (null == this.pathRequired)
+            this.pathRequired = TraversalHelper.getRootTraversal(this.getTraversal()).getTraverserRequirements().contains(TraverserRequirement.PATH);
+        if (this.pathRequired || this.direction == Direction.BOTH || this.maxDepth != ShortestPath.UNLIMITED_DEPTH)
+            return null;
+        return graph.getReachabilityIndex(this.edgeLabels);
+    }
+
+    public Direction getDirection() {
+        return this.direction;
+    }
+
+    public String[] getEdgeLabels() {
+        return this.edgeLabels;
+    }
+
+    public long getTargetId() {
+        return this.targetId;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return this.maxDepth == ShortestPath.UNLIMITED_DEPTH ?
+                StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.targetId) :
+                StringFactory.stepString(this, this.direction, Arrays.asList(this.edgeLabels), this.targetId, this.maxDepth);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode() ^ this.direction.hashCode() ^ Long.hashCode(this.targetId) ^ this.maxDepth ^ Boolean.hashCode(this.untilFirst) ^ (Boolean.hashCode(this.simplePath) << 1);
+        for (final String edgeLabel : this.edgeLabels) {
+            result ^= edgeLabel.hashCode();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.CollectingBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.util.TraverserSet;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalUtil;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Replaces an {@code OrderGlobalStep} with a single comparator that is followed by a {@code RangeGlobalStep}, e.g.
+ * {@code order().by('lineNumber').limit(20)}: only the first {@code limit} traversers are kept while the incoming
+ * traversers are consumed, in a bounded heap, rather than collecting and sorting all of them. The range step remains in
+ * place and cuts the result as usual. Traversers that compare equal retain their incoming order, as with a full sort.
+ */
+public final class TinkerTopKStep<S, C> extends CollectingBarrierStep<S> implements TraversalParent {
+
+    private Traversal.Admin<S, C> valueTraversal;
+    private final Comparator<C> comparator;
+    private final long limit;
+
+    public TinkerTopKStep(final Traversal.Admin traversal, final Traversal.Admin<S, C> valueTraversal, final Comparator<C> comparator, final long limit) {
+        super(traversal);
+        this.valueTraversal = this.integrateChild(valueTraversal);
+        this.comparator = comparator;
+        this.limit = limit;
+    }
+
+    @Override
+    public void processAllStarts() {
+        final Comparator<Ranked<S, C>> ranking = this.ranking();
+        // the head of the heap is the lowest ranked traverser that is kept so far
+        final PriorityQueue<Ranked<S, C>> heap = new PriorityQueue<>(11, ranking.reversed());
+        long bulk = 0;
+        long position = 0;
+        while (this.starts.hasNext()) {
+            final Traverser.Admin<S> traverser = this.starts.next();
+            final C value = TraversalUtil.apply(traverser, this.valueTraversal);
+            // traversers arrive in increasing position, hence ties with the head rank lower than the head
+            if (bulk >= this.limit && (heap.isEmpty() || this.comparator.compare(value, heap.peek().value) >= 0))
+                continue;
+            heap.add(new Ranked<>(traverser, value, position++));
+            bulk += traverser.bulk();
+            while (!heap.isEmpty() && bulk - heap.peek().traverser.bulk() >= this.limit) {
+                bulk -= heap.poll().traverser.bulk();
+            }
+        }
+
+        final List<Ranked<S, C>> ranked = new ArrayList<>(heap);
+        ranked.sort(ranking);
+        for (final Ranked<S, C> entry : ranked) {
+            this.traverserSet.add(entry.traverser);
+        }
+    }
+
+    @Override
+    public void barrierConsumer(final TraverserSet<S> traverserSet) {
+        // already sorted while collecting
+    }
+
+    private Comparator<Ranked<S, C>> ranking() {
+        return (a, b) -> {
+            final int result = this.comparator.compare(a.value, b.value);
+            return result != 0 ? result : Long.compare(a.position, b.position);
+        };
+    }
+
+    public Traversal.Admin<S, C> getValueTraversal() {
+        return this.valueTraversal;
+    }
+
+    public Comparator<C> getComparator() {
+        return this.comparator;
+    }
+
+    public long getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public List<Traversal.Admin<S, C>> getLocalChildren() {
+        return Collections.singletonList(this.valueTraversal);
+    }
+
+    @Override
+    public void setTraversal(final Traversal.Admin<?, ?> parentTraversal) {
+        super.setTraversal(parentTraversal);
+        this.integrateChild(this.valueTraversal);
+    }
+
+    @Override
+    public TinkerTopKStep<S, C> clone() {
+        final TinkerTopKStep<S, C> clone = (TinkerTopKStep<S, C>) super.clone();
+        clone.valueTraversal = this.valueTraversal.clone();
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.valueTraversal, this.comparator, this.limit);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.valueTraversal.hashCode() ^ this.comparator.hashCode() ^ Long.hashCode(this.limit);
+    }
+
+    private static final class Ranked<S, C> {
+        private final Traverser.Admin<S> traverser;
+        private final C value;
+        private final long position;
+
+        private Ranked(final Traverser.Admin<S> traverser, final C value, final long position) {
+            this.traverser = traverser;
+            this.value = value;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedTinkerEdge;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedTinkerVertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@code VertexStep} with the filters of the following {@code HasStep}s folded into the adjacency expansion, e.g.
+ * {@code outE('X').has('k', v).inV()}: the edge filters are evaluated on the traversed edges before their adjacent
+ * vertices are resolved, and the adjacent vertex filters on the resolved vertices.
+ * Edge label filters are expected to be folded into the edge labels by the strategy, so that the expansion only reads
+ * the matching adjacency sets.
+ * With a batch size above one, the step pulls a block of traversers at once: the adjacency of every distinct vertex in
+ * the block is read from its primitive id sets, and the adjacent elements of the whole block are resolved
+ * with a single lookup, which reads them from the on-disk overflow in bulk. Traversers are emitted in the same order as
+ * without batching. Only specialized vertices are expanded in batches, others one by one.
+ */
+public final class TinkerVertexStep<E extends Element> extends VertexStep<E> implements HasContainerHolder {
+
+    private final List<HasContainer> edgeHasContainers = new ArrayList<>();
+    private final List<HasContainer> vertexHasContainers = new ArrayList<>();
+
+    /* a block is closed early once it has this many adjacent elements, which bounds the memory for wide fan-outs */
+    private static final int MAX_BATCH_ELEMENTS = 10000;
+    private int batchSize = 1;
+    private Iterator<Traverser.Admin<E>> batch = Collections.emptyIterator();
+
+    public TinkerVertexStep(final Traversal.Admin traversal, final Class<E> returnClass, final Direction direction, final String... edgeLabels) {
+        super(traversal, returnClass, direction, edgeLabels);
+    }
+
+    @Override
+    protected Iterator<E> flatMap(final Traverser.Admin<Vertex> traverser) {
+        final Vertex vertex = traverser.get();
+        if (this.returnsEdge())
+            return (Iterator<E>) filter(vertex.edges(this.getDirection(), this.getEdgeLabels()), this.edgeHasContainers);
+        else if (this.edgeHasContainers.isEmpty())
+            return (Iterator<E>) filter(vertex.vertices(this.getDirection(), this.getEdgeLabels()), this.vertexHasContainers);
+        else {
+            final Iterator<Edge> edges = filter(vertex.edges(this.getDirection(), this.getEdgeLabels()), this.edgeHasContainers);
+            return (Iterator<E>) filter(IteratorUtils.map(edges, edge -> adjacentVertex(vertex, edge)), this.vertexHasContainers);
+        }
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        if (this.batchSize <= 1)
+            return super.processNextStart();
+        while (!this.batch.hasNext()) {
+            this.batch = this.expandBatch();
+        }
+        return this.batch.next();
+    }
+
+    /** @return the traversers for the adjacent elements of the next block of incoming traversers, in order */
+    private Iterator<Traverser.Admin<E>> expandBatch() {
+        final List<Traverser.Admin<Vertex>> traversers = new ArrayList<>(this.batchSize);
+        traversers.add(this.starts.next()); // throws once the incoming traversers are exhausted
+        final TLongObjectMap<long[]> adjacentIdsByVertexId = new TLongObjectHashMap<>();
+        final TLongSet adjacentIds = new TLongHashSet();
+        TinkerGraph graph = null;
+        for (int i = 0; i < traversers.size(); i++) {
+            final Vertex vertex = traversers.get(i).get();
+            if (vertex instanceof SpecializedTinkerVertex && !adjacentIdsByVertexId.containsKey((Long) vertex.id())) {
+                // the same iterators that `vertices()` and `edges()` resolve, so that the order is the same as without batching
+                final TLongIterator idIterator = this.returnsVertex() ?
+                        ((SpecializedTinkerVertex) vertex).adjacentVertexIds(this.getDirection(), this.getEdgeLabels()) :
+                        ((SpecializedTinkerVertex) vertex).edgeIds(this.getDirection(), this.getEdgeLabels());
+                final TLongArrayList ids = new TLongArrayList();
+                while (idIterator.hasNext())
+                    ids.add(idIterator.next());
+                adjacentIdsByVertexId.put((Long) vertex.id(), ids.toArray());
+                adjacentIds.addAll(ids);
+                graph = (TinkerGraph) vertex.graph();
+            }
+            if (traversers.size() < this.batchSize && adjacentIds.size() < MAX_BATCH_ELEMENTS && this.starts.hasNext())
+                traversers.add(this.starts.next());
+        }
+        final TLongObjectMap<E> adjacentElements = null == graph ? new TLongObjectHashMap<>() : resolve(graph, adjacentIds);
+
+        final List<Traverser.Admin<E>> expanded = new ArrayList<>();
+        final List<HasContainer> hasContainers = this.getHasContainers();
+        for (final Traverser.Admin<Vertex> traverser : traversers) {
+            final long[] ids = traverser.get() instanceof SpecializedTinkerVertex ? adjacentIdsByVertexId.get((Long) traverser.get().id()) : null;
+            if (null == ids) {
+                this.flatMap(traverser).forEachRemaining(element -> expanded.add(traverser.split(element, this)));
+                continue;
+            }
+            for (final long id : ids) {
+                final E element = adjacentElements.get(id);
+                if (null != element && (hasContainers.isEmpty() || TinkerHelper.testAll(element, hasContainers)))
+                    expanded.add(traverser.split(element, this));
+            }
+        }
+        return expanded.iterator();
+    }
+
+    private TLongObjectMap<E> resolve(final TinkerGraph graph, final TLongSet ids) {
+        final TLongObjectMap<E> elementsById = new TLongObjectHashMap<>(ids.size());
+        if (ids.isEmpty())
+            return elementsById; // no ids would mean all elements
+        final Object[] boxedIds = new Object[ids.size()];
+        int i = 0;
+        for (final long id : ids.toArray()) {
+            boxedIds[i++] = id;
+        }
+        final Iterator<? extends Element> elements = this.returnsVertex() ? graph.vertices(boxedIds) : graph.edges(boxedIds);
+        elements.forEachRemaining(element -> elementsById.put((Long) element.id(), (E) element));
+        return elementsById;
+    }
+
+    /** number of incoming traversers that are expanded at once - only steps without edge filters on adjacent vertices can batch */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize > 1 && this.returnsVertex() && !this.edgeHasContainers.isEmpty())
+            throw new IllegalStateException("a step with edge filters can't expand its adjacent vertices in batches: " + this);
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.batch = Collections.emptyIterator();
+    }
+
+    @Override
+    public TinkerVertexStep<E> clone() {
+        final TinkerVertexStep<E> clone = (TinkerVertexStep<E>) super.clone();
+        clone.batch = Collections.emptyIterator();
+        return clone;
+    }
+
+    private static <T extends Element> Iterator<T> filter(final Iterator<T> iterator, final List<HasContainer> hasContainers) {
+        return hasContainers.isEmpty() ? iterator : IteratorUtils.filter(iterator, element -> TinkerHelper.testAll(element, hasContainers));
+    }
+
+    private Vertex adjacentVertex(final Vertex vertex, final Edge edge) {
+        switch (this.getDirection()) {
+            case OUT:
+                return edge.inVertex();
+            case IN:
+                return edge.outVertex();
+            default:
+                // specialized edges know their vertex ids without loading the vertices
+                final Object outVertexId = edge instanceof SpecializedTinkerEdge ? ((SpecializedTinkerEdge) edge).outVertexId : edge.outVertex().id();
+                return vertex.id().equals(outVertexId) ? edge.inVertex() : edge.outVertex();
+        }
+    }
+
+    /** @return the filters on the traversed edges */
+    public List<HasContainer> getEdgeHasContainers() {
+        return Collections.unmodifiableList(this.edgeHasContainers);
+    }
+
+    /** @return the filters on the adjacent vertices */
+    public List<HasContainer> getVertexHasContainers() {
+        return Collections.unmodifiableList(this.vertexHasContainers);
+    }
+
+    public void addEdgeHasContainer(final HasContainer hasContainer) {
+        this.edgeHasContainers.add(hasContainer);
+    }
+
+    public void addVertexHasContainer(final HasContainer hasContainer) {
+        if (this.returnsEdge())
+            throw new IllegalStateException("adjacent vertex filters require a step that returns vertices: " + this);
+        this.vertexHasContainers.add(hasContainer);
+    }
+
+    /** @return the filters on the emitted elements */
+    @Override
+    public List<HasContainer> getHasContainers() {
+        return this.returnsEdge() ? this.getEdgeHasContainers() : this.getVertexHasContainers();
+    }
+
+    @Override
+    public void addHasContainer(final HasContainer hasContainer) {
+        if (this.returnsEdge())
+            this.addEdgeHasContainer(hasContainer);
+        else
+            this.addVertexHasContainer(hasContainer);
+    }
+
+    @Override
+    public String toString() {
+        if (this.edgeHasContainers.isEmpty() && this.vertexHasContainers.isEmpty())
+            return super.toString();
+        else
+            return StringFactory.stepString(this, this.getDirection(), Arrays.asList(this.getEdgeLabels()), this.getReturnClass().getSimpleName().toLowerCase(), this.edgeHasContainers, this.vertexHasContainers);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.edgeHasContainers.hashCode() ^ Integer.rotateLeft(this.vertexHasContainers.hashCode(), 1) ^ (this.batchSize << 8);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TraversalResultCache;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Replaces all steps of a traversal whose results are in the {@link TraversalResultCache}: emits the cached results,
+ * with their bulks, without touching the graph.
+ */
+public final class TinkerCachedResultsStep<E> extends AbstractStep<E, E> {
+
+    private static final Set<TraverserRequirement> REQUIREMENTS = Collections.singleton(TraverserRequirement.BULK);
+
+    private final TraversalResultCache.Results results;
+    private int index;
+
+    public TinkerCachedResultsStep(final Traversal.Admin traversal, final TraversalResultCache.Results results) {
+        super(traversal);
+        this.results = results;
+    }
+
+    @Override
+    protected Traverser.Admin<E> processNextStart() {
+        if (this.index == this.results.size())
+            throw FastNoSuchElementException.instance();
+        final Traverser.Admin<E> traverser = this.getTraversal().getTraverserGenerator().generate(
+                (E) this.results.get(this.index), (Step) this, this.results.bulk(this.index));
+        this.index++;
+        return traverser;
+    }
+
+    public TraversalResultCache.Results getResults() {
+        return this.results;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.index = 0;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return REQUIREMENTS;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.results.size());
+    }
+}
@@ -19,6 +19,8 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
@@ -29,11 +31,13 @@ import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.GraphStatistics;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
 import java.util.*;
+import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
 
 /**
@@ -42,7 +46,16 @@ import java.util.stream.Collectors;
  */
 public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E> implements HasContainerHolder {
 
-    private final List<HasContainer> hasContainers = new ArrayList<>();
+    private static final Random RANDOM = new Random();
+
+    private List<HasContainer> hasContainers = new ArrayList<>();
+    /* pushed down `sample(n)` and `coin(p)` - only set if all hasContainers are label filters, see TinkerGraphSampleStrategy */
+    private int sampleSize = -1;
+    private double coinProbability = -1;
+    /* pushed down `order().by(id)` and `range(low, high)` - only set if all hasContainers are label or id range filters, see TinkerGraphIdRangeStrategy */
+    private boolean orderedById = false;
+    private long rangeLow = 0;
+    private long rangeHigh = -1;
 
     public TinkerGraphStep(final GraphStep<S, E> originalGraphStep) {
         super(originalGraphStep.getTraversal(), originalGraphStep.getReturnClass(), originalGraphStep.isStartStep(), originalGraphStep.getIds());
@@ -52,80 +65,350 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
         // but that allowed the filter in g.V(v).has('k','v') to be ignored.  this created problems for
         // PartitionStrategy which wants to prevent someone from passing "v" from one TraversalSource to
         // another TraversalSource using a different partition
-        this.setIteratorSupplier(() -> (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges()));
+        this.setIteratorSupplier(this::elements);
+    }
+
+    private Iterator<E> elements() {
+        if (this.matchesNoLabel())
+            return Collections.emptyIterator();
+        if (this.isSampling())
+            return this.sampledElements();
+        if (this.orderedById || this.isRanged() ||
+                (hasIdContainer() && null != findIdBounds() && null == getIndexKey(this.returnClass)))
+            return this.idOrderedElements();
+        return (Iterator<E>) (Vertex.class.isAssignableFrom(this.returnClass) ? this.vertices() : this.edges());
+    }
+
+    /** picks the elements by their position in the label partitions, or falls back to sampling while iterating over all of them */
+    private Iterator<E> sampledElements() {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final boolean isVertex = Vertex.class.isAssignableFrom(this.returnClass);
+        final P<String> labelPredicate = findLabelPredicate();
+        final Iterator<? extends Element> sampled;
+        if (null == this.ids || this.ids.length > 0)
+            sampled = null;
+        else if (this.sampleSize >= 0)
+            sampled = isVertex ?
+                    graph.sampleVertices(labelPredicate, this.sampleSize, RANDOM) :
+                    graph.sampleEdges(labelPredicate, this.sampleSize, RANDOM);
+        else
+            sampled = isVertex ?
+                    graph.coinVertices(labelPredicate, this.coinProbability, RANDOM) :
+                    graph.coinEdges(labelPredicate, this.coinProbability, RANDOM);
+        if (null != sampled)
+            return (Iterator<E>) sampled;
+
+        final Iterator<E> elements = (Iterator<E>) (isVertex ? this.vertices() : this.edges());
+        if (this.sampleSize < 0)
+            return IteratorUtils.filter(elements, element -> RANDOM.nextDouble() < this.coinProbability);
+        // reservoir sampling
+        final List<E> reservoir = new ArrayList<>(Math.min(this.sampleSize, 1024));
+        long seen = 0;
+        while (elements.hasNext()) {
+            final E element = elements.next();
+            seen++;
+            if (reservoir.size() < this.sampleSize)
+                reservoir.add(element);
+            else {
+                final long position = (long) (RANDOM.nextDouble() * seen);
+                if (position < this.sampleSize)
+                    reservoir.set((int) position, element);
+            }
+        }
+        return reservoir.iterator();
+    }
+
+    /** iterates over the sorted ids of the label partitions, or falls back to sorting the elements if the graph has ids other than longs */
+    private Iterator<E> idOrderedElements() {
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final boolean isVertex = Vertex.class.isAssignableFrom(this.returnClass);
+        final long[] idBounds = findIdBounds();
+        // positions within the label partitions match the positions in the result, hence the range can be skipped to
+        final boolean isPositional = isIdRangeFilter(this.hasContainers);
+        Iterator<E> elements = null;
+        if (null != this.ids && 0 == this.ids.length && null != idBounds) {
+            final long skip = isPositional ? this.rangeLow : 0;
+            elements = (Iterator<E>) (isVertex ?
+                    graph.verticesByIdRange(findLabelPredicate(), idBounds[0], idBounds[1], skip) :
+                    graph.edgesByIdRange(findLabelPredicate(), idBounds[0], idBounds[1], skip));
+        }
+        long skip = this.rangeLow;
+        if (null != elements) {
+            if (isPositional)
+                skip = 0;
+            else
+                elements = IteratorUtils.filter(elements, element -> TinkerHelper.testAll(element, this.hasContainers));
+        } else {
+            elements = (Iterator<E>) (isVertex ? this.vertices() : this.edges());
+            if (this.orderedById) {
+                final List<E> sorted = IteratorUtils.list(elements);
+                sorted.sort((a, b) -> Order.asc.compare(a.id(), b.id()));
+                elements = sorted.iterator();
+            }
+        }
+        for (long i = 0; i < skip && elements.hasNext(); i++) {
+            elements.next();
+        }
+        return this.rangeHigh < 0 ? elements : limit(elements, this.rangeHigh - this.rangeLow);
+    }
+
+    private static <E> Iterator<E> limit(final Iterator<E> iterator, final long limit) {
+        return new Iterator<E>() {
+            private long count = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.count < limit && iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!this.hasNext())
+                    throw new NoSuchElementException();
+                this.count++;
+                return iterator.next();
+            }
+        };
     }
 
     private Iterator<? extends Edge> edges() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
         final HasContainer indexedContainer = getIndexKey(Edge.class);
-        final Optional<HasContainer> hasLabelContainer = findHasLabelStep();
+        final P<String> labelPredicate = findLabelPredicate();
         // ids are present, filter on them first
         if (null == this.ids)
             return Collections.emptyIterator();
         else if (this.ids.length > 0)
             return this.iteratorList(graph.edges(this.ids));
-        else if (graph.ondiskOverflowEnabled && hasLabelContainer.isPresent())
-            return graph.edgesByLabel((P<String>) hasLabelContainer.get().getPredicate());
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.edges()) :
-                    TinkerHelper.queryEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).stream()
-                            .filter(edge -> HasContainer.testAll(edge, this.hasContainers))
-                            .collect(Collectors.<Edge>toList()).iterator();
+        else if (graph.ondiskOverflowEnabled && null != labelPredicate && this.hasContainers.size() == 1)
+            return graph.edgesByLabel(labelPredicate);
+        else if (null == indexedContainer || isLabelScanCheaper(graph, Edge.class, indexedContainer, labelPredicate)) {
+            final Iterator<Edge> parallelScan = this.hasContainers.isEmpty() ? null :
+                    graph.parallelEdgeScan(labelPredicate, edge -> TinkerHelper.testAll(edge, this.hasContainers));
+            if (null != parallelScan)
+                return parallelScan;
+            return graph.ondiskOverflowEnabled && null != labelPredicate ?
+                    this.iteratorList(graph.edgesByLabel(labelPredicate)) : this.iteratorList(graph.edges());
+        } else
+            return TinkerHelper.queryEdgeIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).stream()
+                    .filter(edge -> TinkerHelper.testAll(edge, this.hasContainers))
+                    .collect(Collectors.<Edge>toList()).iterator();
     }
 
     private Iterator<? extends Vertex> vertices() {
         final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
         final HasContainer indexedContainer = getIndexKey(Vertex.class);
-        final Optional<HasContainer> hasLabelContainer = findHasLabelStep();
+        final P<String> labelPredicate = findLabelPredicate();
         // ids are present, filter on them first
         if (null == this.ids)
             return Collections.emptyIterator();
         else if (this.ids.length > 0)
             return this.iteratorList(graph.vertices(this.ids));
-        else if (graph.ondiskOverflowEnabled && hasLabelContainer.isPresent())
-            return graph.verticesByLabel((P<String>) hasLabelContainer.get().getPredicate());
-        else
-            return null == indexedContainer ?
-                    this.iteratorList(graph.vertices()) :
-                    IteratorUtils.filter(TinkerHelper.queryVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).iterator(),
-                            vertex -> HasContainer.testAll(vertex, this.hasContainers));
-    }
-
-    // only optimize if hasLabel is the _only_ hasContainer, since that's the simplest case
-    // TODO implement other cases as well, e.g. for `g.V.hasLabel(lbl).has(k,v)`
-    private Optional<HasContainer> findHasLabelStep() {
-        if (hasContainers.size() == 1) {
-            if (T.label.getAccessor().equals(hasContainers.get(0).getKey())) {
-                return Optional.of(hasContainers.get(0));
+        else if (graph.ondiskOverflowEnabled && null != labelPredicate && this.hasContainers.size() == 1)
+            return graph.verticesByLabel(labelPredicate);
+        else if (null == indexedContainer || isLabelScanCheaper(graph, Vertex.class, indexedContainer, labelPredicate)) {
+            final Iterator<Vertex> parallelScan = this.hasContainers.isEmpty() ? null :
+                    graph.parallelVertexScan(labelPredicate, vertex -> TinkerHelper.testAll(vertex, this.hasContainers));
+            if (null != parallelScan)
+                return parallelScan;
+            return graph.ondiskOverflowEnabled && null != labelPredicate ?
+                    this.iteratorList(graph.verticesByLabel(labelPredicate)) : this.iteratorList(graph.vertices());
+        } else
+            return IteratorUtils.filter(TinkerHelper.queryVertexIndex(graph, indexedContainer.getKey(), indexedContainer.getPredicate().getValue()).iterator(),
+                    vertex -> TinkerHelper.testAll(vertex, this.hasContainers));
+    }
+
+    /** @return the predicate of the first label filter, which restricts parallel scans to the matching label partitions - `null` if there is none */
+    private P<String> findLabelPredicate() {
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (T.label.getAccessor().equals(hasContainer.getKey()))
+                return (P<String>) hasContainer.getPredicate();
+        }
+        return null;
+    }
+
+    /** e.g. `hasLabel(within([]))`, as set by TinkerGraphSchemaStrategy if the schema doesn't allow any label to match */
+    private boolean matchesNoLabel() {
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (T.label.getAccessor().equals(hasContainer.getKey()) && hasContainer.getBiPredicate() == Contains.within &&
+                    hasContainer.getValue() instanceof Collection && ((Collection<?>) hasContainer.getValue()).isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    private boolean hasIdContainer() {
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (T.id.getAccessor().equals(hasContainer.getKey()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the inclusive bounds `[from, to]` that all id filters amount to, e.g. `[6, Long.MAX_VALUE]` for
+     * `has(id, gt(5))` - `null` if there is an id filter that isn't a range on integral ids
+     */
+    private long[] findIdBounds() {
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (!T.id.getAccessor().equals(hasContainer.getKey()))
+                continue;
+            if (!isIdRangeContainer(hasContainer))
+                return null;
+            final BiPredicate<?, ?> biPredicate = hasContainer.getPredicate().getBiPredicate();
+            final long value = ((Number) hasContainer.getPredicate().getValue()).longValue();
+            if (biPredicate == Compare.gt && value == Long.MAX_VALUE || biPredicate == Compare.lt && value == Long.MIN_VALUE)
+                return new long[]{Long.MAX_VALUE, Long.MIN_VALUE};
+            if (biPredicate == Compare.gt)
+                from = Math.max(from, value + 1);
+            else if (biPredicate == Compare.gte)
+                from = Math.max(from, value);
+            else if (biPredicate == Compare.lt)
+                to = Math.min(to, value - 1);
+            else if (biPredicate == Compare.lte)
+                to = Math.min(to, value);
+            else {
+                from = Math.max(from, value);
+                to = Math.min(to, value);
             }
         }
-        return Optional.empty();
+        return new long[]{from, to};
+    }
+
+    private static boolean isIdRangeContainer(final HasContainer hasContainer) {
+        final BiPredicate<?, ?> biPredicate = hasContainer.getPredicate().getBiPredicate();
+        final Object value = hasContainer.getPredicate().getValue();
+        return T.id.getAccessor().equals(hasContainer.getKey()) &&
+                (biPredicate == Compare.gt || biPredicate == Compare.gte || biPredicate == Compare.lt || biPredicate == Compare.lte || biPredicate == Compare.eq) &&
+                (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte);
+    }
+
+    /**
+     * @return true if the given filters only select a range of integral ids within at most one set of label partitions,
+     * e.g. `hasLabel('method').has(id, gt(5))`, i.e. the filtered elements can be addressed by their position
+     */
+    public static boolean isIdRangeFilter(final List<HasContainer> hasContainers) {
+        int labelFilters = 0;
+        for (final HasContainer hasContainer : hasContainers) {
+            if (T.label.getAccessor().equals(hasContainer.getKey()))
+                labelFilters++;
+            else if (!isIdRangeContainer(hasContainer))
+                return false;
+        }
+        return labelFilters <= 1;
     }
 
+    /** @return the equality filter on an indexed key that matches the fewest elements, according to the graph statistics */
     private HasContainer getIndexKey(final Class<? extends Element> indexedClass) {
-        final Set<String> indexedKeys = ((TinkerGraph) this.getTraversal().getGraph().get()).getIndexedKeys(indexedClass);
+        final TinkerGraph graph = (TinkerGraph) this.getTraversal().getGraph().get();
+        final Set<String> indexedKeys = graph.getIndexedKeys(indexedClass);
+
+        HasContainer cheapest = null;
+        double cheapestSelectivity = Double.MAX_VALUE;
+        for (final HasContainer hasContainer : this.hasContainers) {
+            if (hasContainer.getPredicate().getBiPredicate() != Compare.eq || !indexedKeys.contains(hasContainer.getKey()))
+                continue;
+            final double selectivity = graph.statistics().selectivity(indexedClass, hasContainer);
+            if (selectivity < cheapestSelectivity) {
+                cheapest = hasContainer;
+                cheapestSelectivity = selectivity;
+            }
+        }
+        return cheapest;
+    }
+
+    /**
+     * @return true if the label partitions that the label filter selects hold fewer elements than the index returns for
+     * the given filter - only graphs with on-disk overflow can iterate over label partitions
+     */
+    private static boolean isLabelScanCheaper(final TinkerGraph graph, final Class<? extends Element> elementClass,
+                                              final HasContainer indexedContainer, final P<String> labelPredicate) {
+        if (!graph.ondiskOverflowEnabled || null == labelPredicate)
+            return false;
+        final GraphStatistics statistics = graph.statistics();
+        return statistics.elementCount(elementClass, labelPredicate) <
+                statistics.selectivity(elementClass, indexedContainer) * statistics.elementCount(elementClass, null);
+    }
+
+    /** emit `sampleSize` elements chosen uniformly at random, like a subsequent `sample(sampleSize)` */
+    public void setSampleSize(final int sampleSize) {
+        this.sampleSize = sampleSize;
+        this.coinProbability = -1;
+    }
+
+    /** emit each element with the given probability, like a subsequent `coin(probability)` */
+    public void setCoinProbability(final double coinProbability) {
+        this.coinProbability = coinProbability;
+        this.sampleSize = -1;
+    }
+
+    public int getSampleSize() {
+        return this.sampleSize;
+    }
+
+    public double getCoinProbability() {
+        return this.coinProbability;
+    }
+
+    public boolean isSampling() {
+        return this.sampleSize >= 0 || this.coinProbability >= 0;
+    }
+
+    /** emit the elements in ascending order of their ids, like a subsequent `order().by(id)` */
+    public void setOrderedById(final boolean orderedById) {
+        this.orderedById = orderedById;
+    }
+
+    /** emit only the elements from `low` (inclusive) to `high` (exclusive, or all if it's `-1`), like a subsequent `range(low, high)` */
+    public void setRange(final long low, final long high) {
+        this.rangeLow = low;
+        this.rangeHigh = high;
+    }
+
+    public boolean isOrderedById() {
+        return this.orderedById;
+    }
+
+    public long getRangeLow() {
+        return this.rangeLow;
+    }
+
+    public long getRangeHigh() {
+        return this.rangeHigh;
+    }
 
-        final Iterator<HasContainer> itty = IteratorUtils.filter(hasContainers.iterator(),
-                c -> c.getPredicate().getBiPredicate() == Compare.eq && indexedKeys.contains(c.getKey()));
-        return itty.hasNext() ? itty.next() : null;
+    public boolean isRanged() {
+        return this.rangeLow > 0 || this.rangeHigh >= 0;
     }
 
     @Override
     public String toString() {
-        if (this.hasContainers.isEmpty())
+        final List<String> pushedDown = new ArrayList<>();
+        if (this.sampleSize >= 0)
+            pushedDown.add("sample(" + this.sampleSize + ")");
+        if (this.coinProbability >= 0)
+            pushedDown.add("coin(" + this.coinProbability + ")");
+        if (this.orderedById)
+            pushedDown.add("order(id)");
+        if (this.isRanged())
+            pushedDown.add("range(" + this.rangeLow + "," + this.rangeHigh + ")");
+        if (this.hasContainers.isEmpty() && pushedDown.isEmpty())
             return super.toString();
-        else
+        else if (pushedDown.isEmpty())
             return 0 == this.ids.length ?
                     StringFactory.stepString(this, this.returnClass.getSimpleName().toLowerCase(), this.hasContainers) :
                     StringFactory.stepString(this, this.returnClass.getSimpleName().toLowerCase(), Arrays.toString(this.ids), this.hasContainers);
+        else
+            return StringFactory.stepString(this, this.returnClass.getSimpleName().toLowerCase(), this.hasContainers, String.join(",", pushedDown));
     }
 
     private <E extends Element> Iterator<E> iteratorList(final Iterator<E> iterator) {
         final List<E> list = new ArrayList<>();
         while (iterator.hasNext()) {
             final E e = iterator.next();
-            if (HasContainer.testAll(e, this.hasContainers))
+            if (TinkerHelper.testAll(e, this.hasContainers))
                 list.add(e);
         }
         return list.iterator();
@@ -146,8 +429,26 @@ public final class TinkerGraphStep<S, E extends Element> extends GraphStep<S, E>
             this.hasContainers.add(hasContainer);
     }
 
+    @Override
+    public void removeHasContainer(final HasContainer hasContainer) {
+        this.hasContainers.remove(hasContainer);
+    }
+
+    /** the iterator supplier must refer to the clone, not to this step and its traversal - e.g. for traversal templates */
+    @Override
+    public TinkerGraphStep<S, E> clone() {
+        final TinkerGraphStep<S, E> clone = (TinkerGraphStep<S, E>) super.clone();
+        clone.hasContainers = new ArrayList<>(this.hasContainers.size());
+        for (final HasContainer hasContainer : this.hasContainers) {
+            clone.hasContainers.add(hasContainer.clone());
+        }
+        clone.setIteratorSupplier(clone::elements);
+        return clone;
+    }
+
     @Override
     public int hashCode() {
-        return super.hashCode() ^ this.hasContainers.hashCode();
+        return super.hashCode() ^ this.hasContainers.hashCode() ^ Integer.hashCode(this.sampleSize) ^ Double.hashCode(this.coinProbability) ^
+                Boolean.hashCode(this.orderedById) ^ Long.hashCode(this.rangeLow) ^ Long.hashCode(this.rangeHigh << 16);
     }
 }
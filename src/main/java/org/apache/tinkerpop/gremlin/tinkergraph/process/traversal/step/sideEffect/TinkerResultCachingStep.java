@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TraversalResultCache;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Appended to traversals whose results may be cached: passes all traversers through and records their objects and
+ * bulks - once the traversal is exhausted, they are put into the {@link TraversalResultCache}. Traversals that aren't
+ * iterated to the end, or that have more results than the cache accepts, are not cached.
+ */
+public final class TinkerResultCachingStep<S> extends AbstractStep<S, S> {
+
+    private static final Set<TraverserRequirement> REQUIREMENTS = Collections.singleton(TraverserRequirement.BULK);
+
+    private final TinkerGraph graph;
+    private final Bytecode bytecode;
+    private TraversalResultCache.Results results;
+    private boolean done;
+
+    public TinkerResultCachingStep(final Traversal.Admin traversal, final TinkerGraph graph, final Bytecode bytecode) {
+        super(traversal);
+        this.graph = graph;
+        this.bytecode = bytecode;
+    }
+
+    @Override
+    protected Traverser.Admin<S> processNextStart() {
+        if (!this.done && null == this.results)
+            this.results = new TraversalResultCache.Results(this.graph.version());
+        if (!this.starts.hasNext()) {
+            if (null != this.results)
+                this.graph.resultCache().put(this.bytecode, this.results);
+            this.results = null;
+            this.done = true;
+            throw FastNoSuchElementException.instance();
+        }
+        final Traverser.Admin<S> traverser = this.starts.next();
+        if (null != this.results) {
+            if (this.results.size() >= this.graph.resultCache().getMaxResults() ||
+                    !this.results.add(traverser.get(), traverser.bulk())) {
+                this.results = null;
+                this.done = true;
+            }
+        }
+        return traverser;
+    }
+
+    @Override
+    public TinkerResultCachingStep<S> clone() {
+        final TinkerResultCachingStep<S> clone = (TinkerResultCachingStep<S>) super.clone();
+        clone.results = null;
+        clone.done = false;
+        return clone;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.results = null;
+        this.done = false;
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        return REQUIREMENTS;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GroupCountStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.LabelStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentityStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountByLabelStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This strategy replaces a traversal that counts all vertices or edges by their label with a
+ * {@link TinkerCountByLabelStep}, which reads the counts from the label partitions rather than iterating over the
+ * elements. Label filters are supported as well.
+ *
+ * @example <pre>
+ * g.V().groupCount().by(label)               // is replaced by TinkerCountByLabelStep
+ * g.E().label().groupCount()                 // is replaced by TinkerCountByLabelStep
+ * g.V().hasLabel(x,y).groupCount().by(label) // is replaced by TinkerCountByLabelStep
+ * g.V().has(k,v).groupCount().by(label)      // is not replaced
+ * </pre>
+ */
+public final class TinkerGraphCountByLabelStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphCountByLabelStrategy INSTANCE = new TinkerGraphCountByLabelStrategy();
+
+    private TinkerGraphCountByLabelStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (!(traversal.getParent() instanceof EmptyStep) || TraversalHelper.onGraphComputer(traversal))
+            return;
+        final List<Step> steps = traversal.getSteps();
+        if (steps.size() < 2 ||
+                !(steps.get(0) instanceof GraphStep) ||
+                0 != ((GraphStep) steps.get(0)).getIds().length ||
+                !(steps.get(steps.size() - 1) instanceof GroupCountStep))
+            return;
+
+        final GroupCountStep<?, ?> groupCountStep = (GroupCountStep<?, ?>) steps.get(steps.size() - 1);
+        int last = steps.size() - 1;
+        if (steps.get(last - 1) instanceof LabelStep && groupCountStep.getLocalChildren().isEmpty())
+            last--;  // label().groupCount()
+        else if (groupCountStep.getLocalChildren().size() != 1 || !isLabelTraversal(groupCountStep.getLocalChildren().get(0)))
+            return;
+
+        final List<HasContainer> hasContainers = new ArrayList<>();
+        for (int i = 1; i < last; i++) {
+            final Step current = steps.get(i);
+            if (current instanceof HasStep)
+                hasContainers.addAll(((HasContainerHolder) current).getHasContainers());
+            else if (!(current instanceof IdentityStep || current instanceof NoOpBarrierStep))
+                return;
+        }
+        if (!hasContainers.isEmpty() && !TinkerCountGlobalStep.isLabelFilter(hasContainers))
+            return;
+
+        final Class<? extends Element> elementClass = ((GraphStep<?, ?>) steps.get(0)).getReturnClass();
+        final TinkerCountByLabelStep<?> countByLabelStep = new TinkerCountByLabelStep<>(traversal, elementClass, hasContainers);
+        TraversalHelper.copyLabels(groupCountStep, countByLabelStep, false);
+        TraversalHelper.removeAllSteps(traversal);
+        traversal.addStep(countByLabelStep);
+    }
+
+    /** i.e. `by(label)` or `by(label())` */
+    private static boolean isLabelTraversal(final Traversal.Admin<?, ?> traversal) {
+        if (traversal instanceof TokenTraversal)
+            return ((TokenTraversal<?, ?>) traversal).getToken() == T.label;
+        return traversal.getSteps().size() == 1 && traversal.getStartStep() instanceof LabelStep;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPost() {
+        return Collections.singleton(TinkerGraphStepStrategy.class);
+    }
+
+    public static TinkerGraphCountByLabelStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -22,7 +22,10 @@ package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.opti
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Barrier;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.MapStep;
@@ -30,26 +33,32 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.AggregateStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentityStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SideEffectStep;
-import org.apache.tinkerpop.gremlin.process.traversal.step.util.CollectingBarrierStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 /**
- * This strategy will do a direct {@link org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerHelper#getVertices}
- * size call if the traversal is a count of the vertices and edges of the graph or a one-to-one map chain thereof.
+ * This strategy will do a direct {@link TinkerGraph#vertexCount()} or {@link TinkerGraph#edgeCount()} call if the
+ * traversal is a count of the vertices and edges of the graph or a one-to-one map chain thereof. Counts filtered by
+ * label are answered from the label partitions, counts filtered by a single equality on an indexed key from the index.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  * @example <pre>
  * g.V().count()               // is replaced by TinkerCountGlobalStep
  * g.V().map(out()).count()    // is replaced by TinkerCountGlobalStep
  * g.E().label().count()       // is replaced by TinkerCountGlobalStep
+ * g.V().hasLabel(x,y).count() // is replaced by TinkerCountGlobalStep
+ * g.V().has(k,v).count()      // is replaced by TinkerCountGlobalStep if k is indexed
  * </pre>
  */
 public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
@@ -69,19 +78,37 @@ public final class TinkerGraphCountStrategy extends AbstractTraversalStrategy<Tr
                 0 != ((GraphStep) steps.get(0)).getIds().length ||
                 !(steps.get(steps.size() - 1) instanceof CountGlobalStep))
             return;
+        final List<HasContainer> hasContainers = new ArrayList<>();
+        boolean afterBarrier = false;
         for (int i = 1; i < steps.size() - 1; i++) {
             final Step current = steps.get(i);
+            if (current instanceof HasStep) {
+                if (afterBarrier)
+                    return;
+                hasContainers.addAll(((HasContainerHolder) current).getHasContainers());
+                continue;
+            }
             if (!(//current instanceof MapStep ||  // MapSteps will not necessarily emit an element as demonstrated in https://issues.apache.org/jira/browse/TINKERPOP-1958
                     current instanceof IdentityStep ||
-                    current instanceof NoOpBarrierStep ||
-                    current instanceof CollectingBarrierStep) ||
+                    current instanceof NoOpBarrierStep) ||  // collecting barriers, e.g. sample(), don't necessarily emit all elements
                     (current instanceof TraversalParent &&
                             TraversalHelper.anyStepRecursively(s -> (s instanceof SideEffectStep || s instanceof AggregateStep), (TraversalParent) current)))
                 return;
+            if (current instanceof Barrier)
+                afterBarrier = true;
         }
         final Class<? extends Element> elementClass = ((GraphStep<?, ?>) steps.get(0)).getReturnClass();
+        if (!hasContainers.isEmpty() &&
+                !TinkerCountGlobalStep.isLabelFilter(hasContainers) &&
+                !isIndexedEquality(traversal, elementClass, hasContainers))
+            return;
         TraversalHelper.removeAllSteps(traversal);
-        traversal.addStep(new TinkerCountGlobalStep<>(traversal, elementClass));
+        traversal.addStep(new TinkerCountGlobalStep<>(traversal, elementClass, hasContainers));
+    }
+
+    private static boolean isIndexedEquality(final Traversal.Admin<?, ?> traversal, final Class<? extends Element> elementClass, final List<HasContainer> hasContainers) {
+        final Graph graph = traversal.getGraph().orElse(null);
+        return graph instanceof TinkerGraph && TinkerCountGlobalStep.isIndexedEquality((TinkerGraph) graph, elementClass, hasContainers);
     }
 
     @Override
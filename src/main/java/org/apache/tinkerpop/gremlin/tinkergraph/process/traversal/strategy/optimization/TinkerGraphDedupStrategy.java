@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.filter.TinkerDedupGlobalStep;
+
+/**
+ * This strategy replaces {@code dedup()} steps without {@code by()} modulation and dedup labels with a
+ * {@link TinkerDedupGlobalStep}, which keeps track of the elements seen so far by their ids in a bitset (or a primitive
+ * set) rather than in a {@code HashSet} of elements. Strategies are applied to child traversals as well, hence this also
+ * covers the visited-state tracking of {@code repeat()} bodies.
+ *
+ * @example <pre>
+ * g.V().out().dedup()                      // is replaced by TinkerDedupGlobalStep
+ * g.V(x).repeat(out('CALL').dedup()).emit() // dedup() is replaced by TinkerDedupGlobalStep
+ * g.V().dedup().by('name')                 // is not replaced
+ * </pre>
+ */
+public final class TinkerGraphDedupStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphDedupStrategy INSTANCE = new TinkerGraphDedupStrategy();
+
+    private TinkerGraphDedupStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final DedupGlobalStep<?> dedupStep : TraversalHelper.getStepsOfClass(DedupGlobalStep.class, traversal)) {
+            if (!dedupStep.getLocalChildren().isEmpty() || !dedupStep.getScopeKeys().isEmpty())
+                continue;
+            final TinkerDedupGlobalStep<?> tinkerDedupStep = new TinkerDedupGlobalStep<>(traversal);
+            TraversalHelper.copyLabels(dedupStep, tinkerDedupStep, false);
+            TraversalHelper.replaceStep((Step) dedupStep, tinkerDedupStep, traversal);
+        }
+    }
+
+    public static TinkerGraphDedupStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.CountGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerDegreeCountStep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This strategy replaces adjacency expansions that are only counted with a {@link TinkerDegreeCountStep}, which reads
+ * the sizes of the vertices' adjacency sets rather than loading every adjacent edge (e.g. from the on-disk overflow).
+ *
+ * @example <pre>
+ * g.V(x).out('AST').count()                   // is replaced by TinkerDegreeCountStep
+ * g.V().where(outE('CALL').count().is(gt(3))) // outE('CALL').limit(4).count() is replaced by TinkerDegreeCountStep
+ * g.V().local(bothE().count())                // is replaced by TinkerDegreeCountStep
+ * </pre>
+ */
+public final class TinkerGraphDegreeCountStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphDegreeCountStrategy INSTANCE = new TinkerGraphDegreeCountStrategy();
+
+    private TinkerGraphDegreeCountStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final VertexStep<?> vertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            if (!vertexStep.getLabels().isEmpty())
+                continue;
+            final List<Step> replacedSteps = new ArrayList<>();
+            replacedSteps.add(vertexStep);
+            Step<?, ?> currentStep = vertexStep.getNextStep();
+            while (currentStep instanceof NoOpBarrierStep && currentStep.getLabels().isEmpty()) {
+                replacedSteps.add(currentStep);
+                currentStep = currentStep.getNextStep();
+            }
+            long limit = Long.MAX_VALUE;
+            if (currentStep instanceof RangeGlobalStep && currentStep.getLabels().isEmpty() && ((RangeGlobalStep) currentStep).getLowRange() == 0) {
+                final long highRange = ((RangeGlobalStep) currentStep).getHighRange();
+                if (highRange != -1) limit = highRange;
+                replacedSteps.add(currentStep);
+                currentStep = currentStep.getNextStep();
+            }
+            if (!(currentStep instanceof CountGlobalStep))
+                continue;
+            replacedSteps.add(currentStep);
+
+            final TinkerDegreeCountStep degreeCountStep = new TinkerDegreeCountStep(traversal, vertexStep.getDirection(), vertexStep.getEdgeLabels(), limit);
+            TraversalHelper.copyLabels(currentStep, degreeCountStep, false);
+            TraversalHelper.insertBeforeStep(degreeCountStep, (Step) vertexStep, traversal);
+            replacedSteps.forEach(traversal::removeStep);
+        }
+    }
+
+    public static TinkerGraphDegreeCountStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.TraversalFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.GraphStatistics;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This strategy uses the {@link GraphStatistics} of the graph to order conjunctive filters by the estimated fraction of
+ * elements that pass them, so that the filters which rule out the most elements are tested first. It orders the
+ * filters of a {@link TinkerGraphStep} and of a {@link HasStep}, and runs of adjacent edge existence filters like
+ * {@code where(out('sungBy'))}, which pass a vertex less likely the lower its average degree for the edge labels is.
+ *
+ * @example <pre>
+ * g.V().has('songType', 'cover').has('name', 'Bertha')     // tests the name first, as it has more distinct values
+ * g.V().has('performances', gt(10)).has('name', 'Bertha')  // tests the name first, as ranges are assumed to pass a third
+ * g.V().where(out('followedBy')).where(out('writtenBy'))   // tests writtenBy first, if it has the lower average degree
+ * </pre>
+ */
+public final class TinkerGraphFilterOrderStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphFilterOrderStrategy INSTANCE = new TinkerGraphFilterOrderStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            TinkerGraphStepStrategy.class,
+            TinkerGraphSchemaStrategy.class));
+
+    private TinkerGraphFilterOrderStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+        final Graph graph = traversal.getGraph().orElse(null);
+        if (!(graph instanceof TinkerGraph))
+            return;
+        final GraphStatistics statistics = ((TinkerGraph) graph).statistics();
+
+        final List<Step<?, ?>> existenceFilters = new ArrayList<>();
+        String vertexLabel = null;
+        for (final Step<?, ?> step : new ArrayList<>(traversal.getSteps())) {
+            if (step instanceof TinkerGraphStep || step instanceof HasStep)
+                order((HasContainerHolder) step, elementClass(step), statistics);
+            if (null != edgeExistenceStep(step) && step.getLabels().isEmpty()) { // labelled steps must stay where their label is
+                existenceFilters.add(step);
+                continue;
+            }
+            order(existenceFilters, vertexLabel, traversal, statistics);
+            existenceFilters.clear();
+            if (step instanceof TinkerGraphStep && Vertex.class.isAssignableFrom(((TinkerGraphStep<?, ?>) step).getReturnClass()))
+                vertexLabel = singleLabel(((TinkerGraphStep<?, ?>) step).getHasContainers());
+            else if (null == edgeExistenceStep(step))
+                vertexLabel = null;
+        }
+        order(existenceFilters, vertexLabel, traversal, statistics);
+    }
+
+    private static void order(final HasContainerHolder holder, final Class<? extends Element> elementClass, final GraphStatistics statistics) {
+        final List<HasContainer> hasContainers = new ArrayList<>(holder.getHasContainers());
+        final List<HasContainer> ordered = new ArrayList<>(hasContainers);
+        ordered.sort(Comparator.comparingDouble(hasContainer -> statistics.selectivity(elementClass, hasContainer)));
+        if (ordered.equals(hasContainers))
+            return;
+        hasContainers.forEach(holder::removeHasContainer);
+        ordered.forEach(holder::addHasContainer);
+    }
+
+    private static void order(final List<Step<?, ?>> existenceFilters, final String vertexLabel, final Traversal.Admin<?, ?> traversal, final GraphStatistics statistics) {
+        if (existenceFilters.size() < 2)
+            return;
+        final List<Step<?, ?>> ordered = new ArrayList<>(existenceFilters);
+        ordered.sort(Comparator.comparingDouble(step -> {
+            final VertexStep<?> vertexStep = edgeExistenceStep(step);
+            return Math.min(1.0, statistics.averageDegree(vertexLabel, vertexStep.getDirection(), vertexStep.getEdgeLabels()));
+        }));
+        if (ordered.equals(existenceFilters))
+            return;
+        final int index = traversal.getSteps().indexOf(existenceFilters.get(0));
+        existenceFilters.forEach(traversal::removeStep);
+        for (int i = 0; i < ordered.size(); i++) {
+            traversal.addStep(index + i, ordered.get(i));
+        }
+    }
+
+    /** @return the edge step of a `where(out('label'))` filter, `null` for any other step */
+    private static VertexStep<?> edgeExistenceStep(final Step<?, ?> step) {
+        if (!(step instanceof TraversalFilterStep))
+            return null;
+        final Traversal.Admin<?, ?> filterTraversal = ((TraversalFilterStep<?>) step).getLocalChildren().get(0);
+        return filterTraversal.getSteps().size() == 1 && filterTraversal.getStartStep() instanceof VertexStep ?
+                (VertexStep<?>) filterTraversal.getStartStep() : null;
+    }
+
+    /** @return the class of the elements that the given step filters, `null` if it isn't known */
+    private static Class<? extends Element> elementClass(final Step<?, ?> step) {
+        if (step instanceof TinkerGraphStep)
+            return ((TinkerGraphStep<?, ?>) step).getReturnClass();
+        final Step<?, ?> previousStep = step.getPreviousStep();
+        if (previousStep instanceof TinkerGraphStep)
+            return ((TinkerGraphStep<?, ?>) previousStep).getReturnClass();
+        if (previousStep instanceof VertexStep)
+            return ((VertexStep<?>) previousStep).returnsVertex() ? Vertex.class : Edge.class;
+        if (previousStep instanceof EdgeVertexStep || previousStep instanceof EdgeOtherVertexStep)
+            return Vertex.class;
+        return null;
+    }
+
+    private static String singleLabel(final List<HasContainer> hasContainers) {
+        for (final HasContainer hasContainer : hasContainers) {
+            if (T.label.getAccessor().equals(hasContainer.getKey()) && hasContainer.getBiPredicate() == Compare.eq)
+                return (String) hasContainer.getValue();
+        }
+        return null;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static TinkerGraphFilterOrderStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.javatuples.Pair;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * This strategy pushes an ascending {@code order().by(id)} and a {@code range(low, high)} with an offset, which directly
+ * follow a {@link TinkerGraphStep} that filters by label and id range only, down into the {@link TinkerGraphStep}: it
+ * then iterates over the sorted ids of the label partitions and skips to the offset by position, hence keyset and
+ * offset pagination cost time proportional to the page size. Id range filters, e.g. {@code has(id, gt(x))}, are
+ * answered from the sorted ids by {@link TinkerGraphStep} itself. A {@code limit()} without an offset is left alone,
+ * since it already stops the iteration early.
+ *
+ * @example <pre>
+ * g.V().hasLabel('method').has(id, gt(1000)).order().by(id).limit(100) // order() is pushed down into TinkerGraphStep
+ * g.V().hasLabel('method').range(1000, 1100)                           // range() is pushed down into TinkerGraphStep
+ * g.V().hasLabel('method').order().by(id).range(1000, 1100)            // both are pushed down into TinkerGraphStep
+ * g.V().has('name', 'main').range(1000, 1100)                          // is not pushed down, as there is a property filter
+ * g.V().order().by(id, decr).limit(100)                                // is not pushed down
+ * </pre>
+ */
+public final class TinkerGraphIdRangeStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphIdRangeStrategy INSTANCE = new TinkerGraphIdRangeStrategy();
+
+    private TinkerGraphIdRangeStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final TinkerGraphStep<?, ?> graphStep : TraversalHelper.getStepsOfClass(TinkerGraphStep.class, traversal)) {
+            if (!(graphStep.getPreviousStep() instanceof EmptyStep) || graphStep.isSampling() || graphStep.isOrderedById() || graphStep.isRanged() ||
+                    0 != graphStep.getIds().length || !TinkerGraphStep.isIdRangeFilter(graphStep.getHasContainers()))
+                continue;
+            Step<?, ?> nextStep = graphStep.getNextStep();
+            if (nextStep instanceof OrderGlobalStep && isAscendingById((OrderGlobalStep<?, ?>) nextStep)) {
+                graphStep.setOrderedById(true);
+                TraversalHelper.copyLabels(nextStep, graphStep, false);
+                traversal.removeStep(nextStep);
+                nextStep = graphStep.getNextStep();
+            }
+            if (nextStep instanceof RangeGlobalStep && ((RangeGlobalStep<?>) nextStep).getLowRange() > 0) {
+                graphStep.setRange(((RangeGlobalStep<?>) nextStep).getLowRange(), ((RangeGlobalStep<?>) nextStep).getHighRange());
+                TraversalHelper.copyLabels(nextStep, graphStep, false);
+                traversal.removeStep(nextStep);
+            }
+        }
+    }
+
+    /** i.e. `order().by(id)` or `order().by(id, asc)` */
+    private static boolean isAscendingById(final OrderGlobalStep<?, ?> orderStep) {
+        if (orderStep.getComparators().size() != 1)
+            return false;
+        final Pair<? extends Traversal.Admin<?, ?>, ? extends Comparator<?>> comparator = orderStep.getComparators().get(0);
+        return comparator.getValue0() instanceof TokenTraversal && ((TokenTraversal<?, ?>) comparator.getValue0()).getToken() == T.id &&
+                comparator.getValue1() == Order.asc;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(TinkerGraphStepStrategy.class);
+    }
+
+    public static TinkerGraphIdRangeStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertyMapStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.filter.TinkerHasStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerPropertiesStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerPropertyMapStep;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This strategy replaces the steps that read property values with their TinkerGraph counterparts, which read the values
+ * of specialized elements directly from their fields rather than allocating a {@code Property} per value first:
+ * {@code values()} is replaced by a {@link TinkerPropertiesStep}, {@code valueMap()} without {@code by()} modulation by a
+ * {@link TinkerPropertyMapStep} and the remaining {@code has()} filters by a {@link TinkerHasStep}. It is applied after
+ * the strategies that fold {@code has()} filters into the graph and vertex steps.
+ *
+ * @example <pre>
+ * g.V().hasLabel('song').values('name')              // values() is replaced by TinkerPropertiesStep
+ * g.V().valueMap(true, 'name', 'songType')           // is replaced by TinkerPropertyMapStep
+ * g.V(x).out().as('a').has('performances', gt(100)) // has() is replaced by TinkerHasStep
+ * g.V().properties('name')                           // is not replaced, as it returns the properties themselves
+ * </pre>
+ */
+public final class TinkerGraphPropertyStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphPropertyStrategy INSTANCE = new TinkerGraphPropertyStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            TinkerGraphStepStrategy.class,
+            TinkerGraphCountStrategy.class,
+            TinkerGraphVertexStepStrategy.class,
+            TinkerGraphShortestPathStrategy.class));
+
+    private TinkerGraphPropertyStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final PropertiesStep<?> propertiesStep : TraversalHelper.getStepsOfClass(PropertiesStep.class, traversal)) {
+            if (propertiesStep.getReturnType() != PropertyType.VALUE)
+                continue;
+            final TinkerPropertiesStep<?> tinkerPropertiesStep = new TinkerPropertiesStep<>(traversal, propertiesStep.getPropertyKeys());
+            TraversalHelper.copyLabels(propertiesStep, tinkerPropertiesStep, false);
+            TraversalHelper.replaceStep((Step) propertiesStep, tinkerPropertiesStep, traversal);
+        }
+
+        for (final PropertyMapStep<?, ?> propertyMapStep : TraversalHelper.getStepsOfClass(PropertyMapStep.class, traversal)) {
+            if (propertyMapStep.getReturnType() != PropertyType.VALUE || !propertyMapStep.getLocalChildren().isEmpty())
+                continue;
+            final TinkerPropertyMapStep<?, ?> tinkerPropertyMapStep = new TinkerPropertyMapStep<>(traversal,
+                    propertyMapStep.isIncludeTokens(), propertyMapStep.getPropertyKeys());
+            TraversalHelper.copyLabels(propertyMapStep, tinkerPropertyMapStep, false);
+            TraversalHelper.replaceStep((Step) propertyMapStep, tinkerPropertyMapStep, traversal);
+        }
+
+        for (final HasStep<?> hasStep : TraversalHelper.getStepsOfClass(HasStep.class, traversal)) {
+            final TinkerHasStep<?> tinkerHasStep = new TinkerHasStep<>(traversal,
+                    hasStep.getHasContainers().toArray(new HasContainer[hasStep.getHasContainers().size()]));
+            TraversalHelper.copyLabels(hasStep, tinkerHasStep, false);
+            TraversalHelper.replaceStep((Step) hasStep, tinkerHasStep, traversal);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static TinkerGraphPropertyStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.ComparatorHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.SideEffectCapable;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.CoinStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.SampleGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.SampleLocalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerCachedResultsStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerResultCachingStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TraversalResultCache;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.javatuples.Pair;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This strategy answers read-only traversals from the {@link TraversalResultCache}, if the graph has one: if the results
+ * of a traversal with the same bytecode are cached for the current graph version, all steps are replaced with a
+ * {@link TinkerCachedResultsStep}, otherwise a {@link TinkerResultCachingStep} is appended that caches the results once
+ * the traversal is exhausted. Traversals that mutate the graph, have side-effects, lambdas or random results are not
+ * cached. As it replaces the whole traversal, it is applied after all other TinkerGraph strategies.
+ *
+ * @example <pre>
+ * g.V().has('name', 'DARK STAR').out('followedBy').toList() // is cached
+ * g.V().out().sample(1)                                     // is not cached, as its results are random
+ * g.V().aggregate('x').cap('x')                             // is not cached, as it has side-effects
+ * </pre>
+ */
+public final class TinkerGraphResultCacheStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphResultCacheStrategy INSTANCE = new TinkerGraphResultCacheStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> PRIORS = new HashSet<>(Arrays.asList(
+            TinkerGraphStepStrategy.class,
+            TinkerGraphCountStrategy.class,
+            TinkerGraphCountByLabelStrategy.class,
+            TinkerGraphDegreeCountStrategy.class,
+            TinkerGraphVertexStepStrategy.class,
+            TinkerGraphDedupStrategy.class,
+            TinkerGraphShortestPathStrategy.class,
+            TinkerGraphPropertyStrategy.class,
+            TinkerGraphTopKStrategy.class,
+            TinkerGraphSampleStrategy.class,
+            TinkerGraphIdRangeStrategy.class,
+            TinkerGraphSchemaStrategy.class,
+            TinkerGraphFilterOrderStrategy.class));
+
+    private TinkerGraphResultCacheStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal) || !(traversal.getParent() instanceof EmptyStep))
+            return;
+        final Graph graph = traversal.getGraph().orElse(null);
+        if (!(graph instanceof TinkerGraph) || null == ((TinkerGraph) graph).resultCache() || !isCacheable(traversal))
+            return;
+
+        final Bytecode bytecode = traversal.getBytecode();
+        final TraversalResultCache.Results results = ((TinkerGraph) graph).resultCache().get(bytecode);
+        if (null != results) {
+            while (!traversal.getSteps().isEmpty())
+                traversal.removeStep(0);
+            traversal.addStep(new TinkerCachedResultsStep<>(traversal, results));
+        } else {
+            traversal.addStep(new TinkerResultCachingStep<>(traversal, (TinkerGraph) graph, bytecode));
+        }
+    }
+
+    private static boolean isCacheable(final Traversal.Admin<?, ?> traversal) {
+        if (traversal.getBytecode().getStepInstructions().isEmpty())
+            return false;
+        for (final Bytecode.Instruction instruction : traversal.getBytecode().getSourceInstructions()) {
+            if (instruction.getOperator().equals(TraversalSource.Symbols.withSideEffect) || instruction.getOperator().equals(TraversalSource.Symbols.withSack))
+                return false;
+        }
+        return !TraversalHelper.anyStepRecursively(TinkerGraphResultCacheStrategy::isUncacheable, traversal);
+    }
+
+    /** steps that mutate the graph, have side-effects, hold lambdas (which may do either) or return random results */
+    private static boolean isUncacheable(final Step<?, ?> step) {
+        if (step instanceof Mutating || step instanceof SideEffectCapable || step instanceof LambdaHolder ||
+                step instanceof CoinStep || step instanceof SampleGlobalStep || step instanceof SampleLocalStep ||
+                (step instanceof TinkerGraphStep && ((TinkerGraphStep<?, ?>) step).isSampling()))
+            return true;
+        if (step instanceof ComparatorHolder) {
+            for (final Pair<?, ?> comparator : ((ComparatorHolder<?, ?>) step).getComparators()) {
+                if (comparator.getValue1() == Order.shuffle)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return PRIORS;
+    }
+
+    public static TinkerGraphResultCacheStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ConstantTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.CoinStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.SampleGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This strategy pushes a {@code sample(n)} or {@code coin(p)} step that directly follows a {@link TinkerGraphStep}
+ * without ids, which filters by label only, down into the {@link TinkerGraphStep}: it picks the elements by their
+ * position in the label partitions, hence the cost scales with the sample size rather than with the number of elements.
+ * Neither step exposes its parameter in this version of TinkerPop, so they're read reflectively - if that fails, the
+ * strategy doesn't do anything.
+ *
+ * @example <pre>
+ * g.V().hasLabel('method').sample(10)    // sample(10) is pushed down into TinkerGraphStep
+ * g.E().coin(0.01)                       // coin(0.01) is pushed down into TinkerGraphStep
+ * g.V().has('name', 'main').sample(10)   // is not pushed down, as there is a property filter
+ * g.V().sample(10).by('weight')          // is not pushed down, as it's a weighted sample
+ * </pre>
+ */
+public final class TinkerGraphSampleStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphSampleStrategy INSTANCE = new TinkerGraphSampleStrategy();
+
+    private static final Field AMOUNT_TO_SAMPLE = field(SampleGlobalStep.class, "amountToSample");
+    private static final Field PROBABILITY = field(CoinStep.class, "probability");
+
+    private TinkerGraphSampleStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final TinkerGraphStep<?, ?> graphStep : TraversalHelper.getStepsOfClass(TinkerGraphStep.class, traversal)) {
+            if (!(graphStep.getPreviousStep() instanceof EmptyStep) || graphStep.isSampling() || graphStep.isOrderedById() || graphStep.isRanged() ||
+                    0 != graphStep.getIds().length || graphStep.getHasContainers().size() > 1 ||
+                    (!graphStep.getHasContainers().isEmpty() && !TinkerCountGlobalStep.isLabelFilter(graphStep.getHasContainers())))
+                continue;
+            final Step<?, ?> nextStep = graphStep.getNextStep();
+            if (nextStep instanceof SampleGlobalStep && null != AMOUNT_TO_SAMPLE && isUnweighted((SampleGlobalStep<?>) nextStep)) {
+                graphStep.setSampleSize((int) read(AMOUNT_TO_SAMPLE, nextStep));
+            } else if (nextStep instanceof CoinStep && null != PROBABILITY) {
+                graphStep.setCoinProbability((double) read(PROBABILITY, nextStep));
+            } else
+                continue;
+            TraversalHelper.copyLabels(nextStep, graphStep, false);
+            traversal.removeStep(nextStep);
+        }
+    }
+
+    /** i.e. without `by()`, which defaults to a constant weight */
+    private static boolean isUnweighted(final SampleGlobalStep<?> sampleStep) {
+        final List<? extends Traversal.Admin<?, ?>> weights = sampleStep.getLocalChildren();
+        return weights.size() == 1 && weights.get(0) instanceof ConstantTraversal;
+    }
+
+    private static Field field(final Class<?> clazz, final String name) {
+        try {
+            final Field field = clazz.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Object read(final Field field, final Object target) {
+        try {
+            return field.get(target);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(TinkerGraphStepStrategy.class);
+    }
+
+    public static TinkerGraphSampleStrategy instance() {
+        return INSTANCE;
+    }
+}
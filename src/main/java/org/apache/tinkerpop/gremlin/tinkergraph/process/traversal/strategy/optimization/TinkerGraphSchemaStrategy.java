@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.FilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.NoneStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.TraversalFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PropertiesStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.IdentityStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedElementSchema;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This strategy uses the schema of a graph with specialized elements, see {@link SpecializedElementSchema}, to follow
+ * the labels that the elements of a traversal can have from step to step. A {@link TinkerGraphStep} is narrowed to the
+ * labels that can pass the filters and edge steps that directly follow it, so that only their label partitions are
+ * scanned, and a step that no element can pass is replaced with a {@link NoneStep}.
+ *
+ * @example <pre>
+ * g.V().has('performances', gt(10))              // becomes g.V().hasLabel('song').has('performances', gt(10))
+ * g.V().out('sungBy')                            // becomes g.V().hasLabel('song').out('sungBy')
+ * g.V().hasLabel('song').out('unknownEdge')      // becomes g.V().hasLabel(within([])).none()
+ * g.V().hasLabel('artist').out()                // becomes g.V().hasLabel(within([])).none(), as artists have no out edges
+ * g.V().has('name', 'Garcia')                    // is not changed, as all labels have a name
+ * </pre>
+ */
+public final class TinkerGraphSchemaStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphSchemaStrategy INSTANCE = new TinkerGraphSchemaStrategy();
+
+    private static final Set<Class<? extends ProviderOptimizationStrategy>> POSTS = new HashSet<>(Arrays.asList(
+            TinkerGraphDegreeCountStrategy.class,
+            TinkerGraphVertexStepStrategy.class,
+            TinkerGraphDedupStrategy.class,
+            TinkerGraphShortestPathStrategy.class,
+            TinkerGraphPropertyStrategy.class,
+            TinkerGraphTopKStrategy.class,
+            TinkerGraphSampleStrategy.class,
+            TinkerGraphIdRangeStrategy.class));
+
+    private TinkerGraphSchemaStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+        final Graph graph = traversal.getGraph().orElse(null);
+        final SpecializedElementSchema schema = graph instanceof TinkerGraph ? ((TinkerGraph) graph).schema() : null;
+        if (null == schema)
+            return;
+
+        // labels that the current elements can have, `null` if unknown
+        Set<String> labels = null;
+        boolean vertices = true;
+        for (final Step<?, ?> step : new ArrayList<>(traversal.getSteps())) {
+            final TinkerGraphStep<?, ?> graphStep = step.getPreviousStep() instanceof TinkerGraphStep ? (TinkerGraphStep<?, ?>) step.getPreviousStep() : null;
+            final String propertyKey = propertyKey(step);
+            if (step instanceof TinkerGraphStep) {
+                vertices = Vertex.class.isAssignableFrom(((TinkerGraphStep<?, ?>) step).getReturnClass());
+                labels = passing(schema, vertices, vertices ? schema.vertexLabels() : schema.edgeLabels(), ((TinkerGraphStep<?, ?>) step).getHasContainers());
+                narrow((TinkerGraphStep<?, ?>) step, schema, labels);
+                if (labels.isEmpty())
+                    return;
+            } else if (step instanceof HasContainerHolder || null != propertyKey) {
+                if (null == labels)
+                    continue;
+                labels = step instanceof HasContainerHolder ?
+                        passing(schema, vertices, labels, ((HasContainerHolder) step).getHasContainers()) :
+                        schema.labelsWithKey(vertices, labels, propertyKey);
+                if (null != graphStep)
+                    narrow(graphStep, schema, labels);
+                if (labels.isEmpty()) {
+                    prune(step, traversal);
+                    return;
+                }
+            } else if (step instanceof VertexStep) {
+                final VertexStep<?> vertexStep = (VertexStep<?>) step;
+                final Set<String> vertexLabels = null != labels && vertices ? labels : schema.vertexLabels();
+                final List<String> requestedEdgeLabels = Arrays.asList(vertexStep.getEdgeLabels());
+                final Set<String> edgeLabels = schema.edgeLabels(vertexLabels, vertexStep.getDirection());
+                if (!requestedEdgeLabels.isEmpty())
+                    edgeLabels.retainAll(requestedEdgeLabels);
+                if (null != graphStep && null != labels && vertices)
+                    narrow(graphStep, schema, schema.vertexLabelsWithEdges(labels, vertexStep.getDirection(), requestedEdgeLabels));
+                if (edgeLabels.isEmpty()) {
+                    prune(step, traversal);
+                    return;
+                }
+                vertices = vertexStep.returnsVertex();
+                labels = vertices ? schema.vertexLabels(edgeLabels, vertexStep.getDirection().opposite()) : edgeLabels;
+            } else if (step instanceof EdgeVertexStep || step instanceof EdgeOtherVertexStep) {
+                final Direction end = step instanceof EdgeVertexStep ? ((EdgeVertexStep) step).getDirection() : Direction.BOTH;
+                labels = null != labels && !vertices ? schema.vertexLabels(labels, end) : null;
+                vertices = true;
+            } else if (!(step instanceof FilterStep || step instanceof IdentityStep || step instanceof NoOpBarrierStep || step instanceof SideEffectStep)) {
+                labels = null;
+            }
+        }
+    }
+
+    private static Set<String> passing(final SpecializedElementSchema schema, final boolean vertices, Set<String> labels, final List<HasContainer> hasContainers) {
+        for (final HasContainer hasContainer : hasContainers) {
+            labels = schema.labelsPassing(vertices, labels, hasContainer);
+        }
+        return labels;
+    }
+
+    /** @return the key of a `has(key)` filter, i.e. `filter(values(key))` - `null` for anything else */
+    private static String propertyKey(final Step<?, ?> step) {
+        if (!(step instanceof TraversalFilterStep))
+            return null;
+        final Traversal.Admin<?, ?> filterTraversal = ((TraversalFilterStep<?>) step).getLocalChildren().get(0);
+        if (filterTraversal.getSteps().size() != 1 || !(filterTraversal.getStartStep() instanceof PropertiesStep))
+            return null;
+        final PropertiesStep<?> propertiesStep = (PropertiesStep<?>) filterTraversal.getStartStep();
+        return propertiesStep.getPropertyKeys().length == 1 && propertiesStep.getReturnType() == PropertyType.VALUE ?
+                propertiesStep.getPropertyKeys()[0] : null;
+    }
+
+    /** replaces the label filters of the given step with one for the given labels, unless they already amount to that */
+    private static void narrow(final TinkerGraphStep<?, ?> graphStep, final SpecializedElementSchema schema, final Set<String> labels) {
+        final boolean vertices = Vertex.class.isAssignableFrom(graphStep.getReturnClass());
+        final List<HasContainer> labelContainers = new ArrayList<>();
+        for (final HasContainer hasContainer : graphStep.getHasContainers()) {
+            if (T.label.getAccessor().equals(hasContainer.getKey()))
+                labelContainers.add(hasContainer);
+        }
+        if (passing(schema, vertices, vertices ? schema.vertexLabels() : schema.edgeLabels(), labelContainers).equals(labels))
+            return;
+        labelContainers.forEach(graphStep::removeHasContainer);
+        graphStep.addHasContainer(new HasContainer(T.label.getAccessor(),
+                labels.size() == 1 ? P.eq(labels.iterator().next()) : P.within(new ArrayList<>(new TreeSet<>(labels)))));
+    }
+
+    /** no element can pass the given step */
+    private static void prune(final Step<?, ?> step, final Traversal.Admin<?, ?> traversal) {
+        final NoneStep<?> noneStep = new NoneStep<>(traversal);
+        TraversalHelper.copyLabels(step, noneStep, false);
+        TraversalHelper.replaceStep((Step) step, noneStep, traversal);
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(TinkerGraphStepStrategy.class);
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPost() {
+        return POSTS;
+    }
+
+    public static TinkerGraphSchemaStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.IsStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.PathFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerShortestPathStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.ShortestPath;
+
+import java.util.Collection;
+
+/**
+ * This strategy replaces a {@code repeat()} that walks from vertex to vertex until it reaches a given target with a
+ * {@link TinkerShortestPathStep}, if only one result is needed. The generic {@code repeat()} enumerates walks (and their
+ * paths) depth-first, which may take exponentially long (or forever, with cycles) until the first one reaches the
+ * target - the replacement returns a shortest path instead, found by a bidirectional breadth-first search. A body with
+ * {@code simplePath()} is only replaced if the {@code repeat()} directly follows the start vertices, since the path
+ * before the {@code repeat()} would otherwise restrict the vertices that the walk may visit.
+ *
+ * @example <pre>
+ * g.V(x).repeat(out('CFG')).until(is(y)).path().limit(1)       // is replaced by TinkerShortestPathStep
+ * g.V(x).repeat(out('CFG').simplePath()).until(hasId(7)).limit(1) // is replaced by TinkerShortestPathStep
+ * g.V(x).repeat(out('CFG')).until(is(y)).path()                // is not replaced, as all paths are needed
+ * g.V(x).out().repeat(out('CFG').simplePath()).until(is(y)).limit(1) // is not replaced, as the walk must avoid x
+ * </pre>
+ */
+public final class TinkerGraphShortestPathStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphShortestPathStrategy INSTANCE = new TinkerGraphShortestPathStrategy();
+
+    /* `simplePath()` without `from()`, `to()` or `by()` - a shortest path between two distinct vertices is always simple */
+    private static final int SIMPLE_PATH_HASH_CODE = new PathFilterStep<>(EmptyTraversal.instance(), true).hashCode();
+
+    private TinkerGraphShortestPathStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final RepeatStep<?> repeatStep : TraversalHelper.getStepsOfClass(RepeatStep.class, traversal)) {
+            if (hasLabels(repeatStep) || null != repeatStep.getEmitTraversal() || !isLimitedToOneResult(repeatStep.getNextStep()))
+                continue;
+            final VertexStep<?> vertexStep = adjacentVertexStep(repeatStep.getRepeatTraversal());
+            final Long targetId = targetId(repeatStep.getUntilTraversal());
+            if (null == vertexStep || null == targetId)
+                continue;
+            final boolean simplePath = TraversalHelper.hasStepOfClass(PathFilterStep.class, repeatStep.getRepeatTraversal());
+            if (simplePath && !followsStartVertices(repeatStep))
+                continue;
+
+            final TinkerShortestPathStep shortestPathStep = new TinkerShortestPathStep(traversal, vertexStep.getDirection(),
+                    vertexStep.getEdgeLabels(), targetId, ShortestPath.UNLIMITED_DEPTH, repeatStep.untilFirst, simplePath);
+            TraversalHelper.replaceStep((Step) repeatStep, shortestPathStep, traversal);
+        }
+    }
+
+    /** hidden labels are only markers of other strategies, e.g. of `IncidentToAdjacentStrategy` */
+    private static boolean hasLabels(final Step<?, ?> step) {
+        return step.getLabels().stream().anyMatch(label -> !Graph.Hidden.isHidden(label));
+    }
+
+    /** i.e. the path of the traversers that enter the `repeat()` consists of their start vertex only */
+    private static boolean followsStartVertices(final RepeatStep<?> repeatStep) {
+        final Step<?, ?> previousStep = repeatStep.getPreviousStep();
+        return repeatStep.getTraversal().getParent() instanceof EmptyStep && previousStep instanceof GraphStep &&
+                previousStep.getPreviousStep() instanceof EmptyStep && ((GraphStep<?, ?>) previousStep).returnsVertex();
+    }
+
+    /** `limit(1)`, optionally preceded by `path()` */
+    private static boolean isLimitedToOneResult(Step<?, ?> step) {
+        if (step instanceof PathStep)
+            step = step.getNextStep();
+        return step instanceof RangeGlobalStep && ((RangeGlobalStep) step).getLowRange() == 0 && ((RangeGlobalStep) step).getHighRange() == 1;
+    }
+
+    /** @return the only step of a `repeat()` body like `out('X')`, optionally followed by `simplePath()` and barriers */
+    private static VertexStep<?> adjacentVertexStep(final Traversal.Admin<?, ?> repeatTraversal) {
+        final Step<?, ?> startStep = repeatTraversal.getStartStep();
+        if (startStep.getClass() != VertexStep.class || !((VertexStep<?>) startStep).returnsVertex() || hasLabels(startStep))
+            return null;
+        Step<?, ?> currentStep = startStep.getNextStep();
+        while ((currentStep instanceof NoOpBarrierStep || (currentStep instanceof PathFilterStep && currentStep.hashCode() == SIMPLE_PATH_HASH_CODE)) &&
+                !hasLabels(currentStep)) {
+            currentStep = currentStep.getNextStep();
+        }
+        return currentStep instanceof RepeatStep.RepeatEndStep ? (VertexStep<?>) startStep : null;
+    }
+
+    /** @return the long id of the vertex in `until(is(v))` or `until(hasId(id))` */
+    private static Long targetId(final Traversal.Admin<?, ?> untilTraversal) {
+        if (null == untilTraversal || untilTraversal.getSteps().size() != 1)
+            return null;
+        final Step<?, ?> step = untilTraversal.getStartStep();
+        if (step instanceof IsStep) {
+            final P<?> predicate = ((IsStep<?>) step).getPredicate();
+            return predicate.getBiPredicate() == Compare.eq && predicate.getValue() instanceof Vertex ?
+                    asLongId(((Vertex) predicate.getValue()).id()) : null;
+        } else if (step instanceof HasStep && ((HasStep<?>) step).getHasContainers().size() == 1) {
+            final HasContainer hasContainer = ((HasStep<?>) step).getHasContainers().get(0);
+            if (!hasContainer.getKey().equals(T.id.getAccessor()))
+                return null;
+            else if (hasContainer.getBiPredicate() == Compare.eq)
+                return asLongId(hasContainer.getValue());
+            else if (hasContainer.getBiPredicate() == Contains.within && ((Collection<?>) hasContainer.getValue()).size() == 1)
+                return asLongId(((Collection<?>) hasContainer.getValue()).iterator().next());
+        }
+        return null;
+    }
+
+    private static Long asLongId(Object id) {
+        if (id instanceof Vertex)
+            id = ((Vertex) id).id();
+        return id instanceof Long || id instanceof Integer ? ((Number) id).longValue() : null;
+    }
+
+    public static TinkerGraphShortestPathStrategy instance() {
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerTopKStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.javatuples.Pair;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * This strategy replaces an {@code order().by(key[, order])} step that directly follows a {@link TinkerGraphStep} and
+ * is directly followed by a {@code range()} or {@code limit()} step with a {@link TinkerTopKStep}, which keeps only the
+ * top elements in a bounded heap while scanning, rather than sorting all of them. The index of TinkerGraph is a hash
+ * index, hence there is no ordered index to read the top elements from.
+ *
+ * @example <pre>
+ * g.V().hasLabel('method').order().by('lineNumber').limit(20)        // order() is replaced by TinkerTopKStep
+ * g.V().hasLabel('method').order().by('lineNumber', decr).range(5, 10) // order() is replaced by TinkerTopKStep
+ * g.V().order().by('name').by('lineNumber').limit(20)                // is not replaced, as it has two comparators
+ * g.V().out().order().by('name').limit(20)                          // is not replaced
+ * </pre>
+ */
+public final class TinkerGraphTopKStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphTopKStrategy INSTANCE = new TinkerGraphTopKStrategy();
+
+    private TinkerGraphTopKStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+
+        for (final OrderGlobalStep<?, ?> orderStep : TraversalHelper.getStepsOfClass(OrderGlobalStep.class, traversal)) {
+            if (!(orderStep.getPreviousStep() instanceof TinkerGraphStep) || !(orderStep.getNextStep() instanceof RangeGlobalStep) ||
+                    orderStep.getComparators().size() != 1)
+                continue;
+            final Pair<? extends Traversal.Admin<?, ?>, ? extends Comparator<?>> comparator = orderStep.getComparators().get(0);
+            final long high = ((RangeGlobalStep<?>) orderStep.getNextStep()).getHighRange();
+            if (!(comparator.getValue0() instanceof ElementValueTraversal) || comparator.getValue1() == Order.shuffle || high < 0)
+                continue;
+
+            final TinkerTopKStep<?, ?> topKStep = new TinkerTopKStep<>(traversal, (Traversal.Admin) comparator.getValue0().clone(), comparator.getValue1(), high);
+            TraversalHelper.copyLabels(orderStep, topKStep, false);
+            TraversalHelper.replaceStep((Step) orderStep, topKStep, traversal);
+        }
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(TinkerGraphStepStrategy.class);
+    }
+
+    public static TinkerGraphTopKStrategy instance() {
+        return INSTANCE;
+    }
+}
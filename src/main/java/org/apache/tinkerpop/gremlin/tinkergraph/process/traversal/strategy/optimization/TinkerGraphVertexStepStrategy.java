@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.step.LambdaHolder;
+import org.apache.tinkerpop.gremlin.process.traversal.step.Mutating;
+import org.apache.tinkerpop.gremlin.process.traversal.step.SideEffectCapable;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.PathFilterStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.NoOpBarrierStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.TreeStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.SideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.TreeSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This strategy folds the {@code HasStep}s following a {@code VertexStep} into a {@link TinkerVertexStep}.
+ * Edge label filters narrow the edge labels, so that only the matching adjacency sets are read, and for an incident
+ * edge step followed by filters and its adjacent vertex step, the edge filters are evaluated before the adjacent
+ * vertices are resolved. On graphs whose vertices keep their adjacency in primitive id sets, the steps also expand
+ * their incoming traversers in batches, see {@link TinkerVertexStep#setBatchSize}.
+ *
+ * @example <pre>
+ * g.V(x).outE('X').has('k', v).inV()     // is replaced by TinkerVertexStep(OUT,[X],vertex,[k.eq(v)],[])
+ * g.V(x).bothE().hasLabel('X', 'Y')      // is replaced by TinkerVertexStep(BOTH,[X, Y],edge,[~label.within([X, Y])],[])
+ * g.V(x).out('X').hasLabel('METHOD')     // is replaced by TinkerVertexStep(OUT,[X],vertex,[],[~label.eq(METHOD)])
+ * </pre>
+ */
+public final class TinkerGraphVertexStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.ProviderOptimizationStrategy> implements TraversalStrategy.ProviderOptimizationStrategy {
+
+    private static final TinkerGraphVertexStepStrategy INSTANCE = new TinkerGraphVertexStepStrategy();
+
+    /* steps that see the edges of `outE().inV()` in the path - folding away the adjacent vertex step would hide them */
+    private static final List<Class> PATH_STEP_CLASSES = Arrays.asList(PathStep.class, PathFilterStep.class, TreeStep.class, TreeSideEffectStep.class, LambdaHolder.class);
+
+    private TinkerGraphVertexStepStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.onGraphComputer(traversal))
+            return;
+        final Graph graph = traversal.getGraph().orElse(null);
+        final int batchSize = graph instanceof TinkerGraph ? ((TinkerGraph) graph).vertexStepBatchSize() : 1;
+
+        for (final VertexStep<?> originalVertexStep : TraversalHelper.getStepsOfClass(VertexStep.class, traversal)) {
+            final List<Step> foldedSteps = new ArrayList<>();
+            final Set<String> labels = new HashSet<>(originalVertexStep.getLabels());
+            final List<HasContainer> edgeHasContainers = new ArrayList<>();
+            final List<HasContainer> vertexHasContainers = new ArrayList<>();
+            Class<? extends Element> returnClass = originalVertexStep.getReturnClass();
+
+            Step<?, ?> currentStep = collectHasContainers(originalVertexStep.getNextStep(),
+                    originalVertexStep.returnsEdge() ? edgeHasContainers : vertexHasContainers, foldedSteps, labels);
+            if (originalVertexStep.returnsEdge() && labels.isEmpty() && isAdjacentVertexStep(currentStep, originalVertexStep.getDirection()) &&
+                    !TraversalHelper.hasStepOfAssignableClassRecursively(PATH_STEP_CLASSES, TraversalHelper.getRootTraversal(traversal))) {
+                returnClass = Vertex.class;
+                foldedSteps.add(currentStep);
+                labels.addAll(currentStep.getLabels());
+                collectHasContainers(currentStep.getNextStep(), vertexHasContainers, foldedSteps, labels);
+            }
+            final boolean batched = batchSize > 1 && (Edge.class.equals(returnClass) || edgeHasContainers.isEmpty()) &&
+                    isBatchable(originalVertexStep, traversal);
+            if (foldedSteps.isEmpty() && !batched)
+                continue;
+
+            final TinkerVertexStep<?> tinkerVertexStep = new TinkerVertexStep<>(traversal, returnClass, originalVertexStep.getDirection(),
+                    narrowEdgeLabels(originalVertexStep.getEdgeLabels(), edgeHasContainers));
+            edgeHasContainers.forEach(tinkerVertexStep::addEdgeHasContainer);
+            vertexHasContainers.forEach(tinkerVertexStep::addVertexHasContainer);
+            labels.forEach(tinkerVertexStep::addLabel);
+            if (batched)
+                tinkerVertexStep.setBatchSize(batchSize);
+            TraversalHelper.replaceStep((Step) originalVertexStep, tinkerVertexStep, traversal);
+            foldedSteps.forEach(traversal::removeStep);
+        }
+    }
+
+    /** folds the `HasStep`s starting at the given step, skipping over barriers
+     *  @return the first step that could not be folded */
+    private static Step<?, ?> collectHasContainers(Step<?, ?> currentStep, final List<HasContainer> hasContainers, final List<Step> foldedSteps, final Set<String> labels) {
+        while (currentStep instanceof HasStep || (currentStep instanceof NoOpBarrierStep && currentStep.getLabels().isEmpty())) {
+            if (currentStep instanceof HasStep) {
+                hasContainers.addAll(((HasStep<?>) currentStep).getHasContainers());
+                labels.addAll(currentStep.getLabels());
+                foldedSteps.add(currentStep);
+            }
+            currentStep = currentStep.getNextStep();
+        }
+        return currentStep;
+    }
+
+    /**
+     * expanding a block of traversers at once pulls them before the ones in front of them were expanded, which must not
+     * be observable: there must be no side effects or lambdas upstream, no mutations anywhere and no limit downstream,
+     * which asks for the laziness of expanding one traverser at a time
+     */
+    private static boolean isBatchable(final Step<?, ?> vertexStep, final Traversal.Admin<?, ?> traversal) {
+        if (TraversalHelper.hasStepOfAssignableClassRecursively(Mutating.class, TraversalHelper.getRootTraversal(traversal)))
+            return false;
+        for (Step<?, ?> step = vertexStep.getPreviousStep(); !(step instanceof EmptyStep); step = step.getPreviousStep()) {
+            if (step instanceof SideEffectCapable || step instanceof SideEffectStep || step instanceof LambdaHolder)
+                return false;
+        }
+        for (Step<?, ?> step = vertexStep.getNextStep(); !(step instanceof EmptyStep); step = step.getNextStep()) {
+            if (step instanceof RangeGlobalStep)
+                return false;
+        }
+        return true;
+    }
+
+    /** i.e. `inV()` after `outE()`, `outV()` after `inE()` or `otherV()` after any incident edge step */
+    private static boolean isAdjacentVertexStep(final Step<?, ?> step, final Direction direction) {
+        return step instanceof EdgeOtherVertexStep ||
+                (step instanceof EdgeVertexStep && direction != Direction.BOTH && ((EdgeVertexStep) step).getDirection() == direction.opposite());
+    }
+
+    /** restricts the edge labels to the ones accepted by `eq` and `within` label filters - the filters themselves
+     *  remain in place, so labels that don't exist in both never match. Repeated edge labels emit their edges once per
+     *  occurrence, so they are kept as they are */
+    private static String[] narrowEdgeLabels(final String[] edgeLabels, final List<HasContainer> edgeHasContainers) {
+        String[] narrowedLabels = edgeLabels;
+        for (final HasContainer hasContainer : edgeHasContainers) {
+            if (!T.label.getAccessor().equals(hasContainer.getKey()))
+                continue;
+            final P<?> predicate = hasContainer.getPredicate();
+            final Collection<?> acceptedLabels;
+            if (predicate.getBiPredicate() == Compare.eq)
+                acceptedLabels = Collections.singleton(predicate.getValue());
+            else if (predicate.getBiPredicate() == Contains.within)
+                acceptedLabels = (Collection<?>) predicate.getValue();
+            else
+                continue;
+
+            final List<String> accepted = new ArrayList<>();
+            if (narrowedLabels.length == 0) { // all labels, i.e. each edge once
+                for (final Object label : new LinkedHashSet<>(acceptedLabels)) {
+                    if (label instanceof String)
+                        accepted.add((String) label);
+                }
+            } else {
+                for (final String label : narrowedLabels) {
+                    if (acceptedLabels.contains(label))
+                        accepted.add(label);
+                }
+            }
+            if (accepted.isEmpty())
+                return edgeLabels;
+            narrowedLabels = accepted.toArray(new String[accepted.size()]);
+        }
+        return narrowedLabels;
+    }
+
+    @Override
+    public Set<Class<? extends ProviderOptimizationStrategy>> applyPrior() {
+        return Collections.singleton(TinkerGraphDegreeCountStrategy.class);
+    }
+
+    public static TinkerGraphVertexStepStrategy instance() {
+        return INSTANCE;
+    }
+}
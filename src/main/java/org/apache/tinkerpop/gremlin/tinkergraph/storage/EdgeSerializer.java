@@ -18,7 +18,6 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.storage;
 
-import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedElementFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedTinkerEdge;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
@@ -27,16 +26,13 @@ import org.msgpack.core.MessagePack;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
-import java.util.Map;
 
 public class EdgeSerializer extends Serializer<SpecializedTinkerEdge> {
 
   protected final TinkerGraph graph;
-  protected final Map<String, SpecializedElementFactory.ForEdge> edgeFactoryByLabel;
 
-  public EdgeSerializer(TinkerGraph graph, Map<String, SpecializedElementFactory.ForEdge> edgeFactoryByLabel) {
+  public EdgeSerializer(TinkerGraph graph) {
     this.graph = graph;
-    this.edgeFactoryByLabel = edgeFactoryByLabel;
   }
 
   @Override
@@ -44,7 +40,12 @@ public class EdgeSerializer extends Serializer<SpecializedTinkerEdge> {
     MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
     packer.packLong((Long) edge.id());
     packer.packString(edge.label());
-    packProperties(packer, edge.properties());
+    final byte[] serializedProperties = edge.getSerializedProperties();
+    if (serializedProperties != null) { // properties haven't been modified since deserialization - no need to decode them
+      packer.writePayload(serializedProperties);
+    } else {
+      packProperties(packer, edge.properties());
+    }
     packer.packLong(edge.outVertexId);
     packer.packLong(edge.inVertexId);
 
@@ -54,15 +55,22 @@ public class EdgeSerializer extends Serializer<SpecializedTinkerEdge> {
 
   @Override
   public SpecializedTinkerEdge deserialize(byte[] bytes) throws IOException {
+    if (null == bytes)
+      return null;
+
     MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes);
     Long id = unpacker.unpackLong();
     String label = unpacker.unpackString();
-    Object[] keyValues = unpackProperties(unpacker.unpackValue().asMapValue().map());
+    byte[] serializedProperties = readSerializedProperties(unpacker, bytes);
     long outVertexId = unpacker.unpackLong();
     long inVertexId = unpacker.unpackLong();
 
-    SpecializedTinkerEdge edge = edgeFactoryByLabel.get(label).createEdge(id, graph, outVertexId, inVertexId);
-    ElementHelper.attachProperties(edge, keyValues);
+    SpecializedElementFactory.ForEdge edgeFactory = graph.specializedEdgeFactory(label);
+    if (edgeFactory == null) {
+      throw new AssertionError("edgeFactory not found for id=" + id + ", label=" + label);
+    }
+    SpecializedTinkerEdge edge = edgeFactory.createEdge(id, graph, outVertexId, inVertexId);
+    edge.setSerializedProperties(serializedProperties);
 
     edge.setModifiedSinceLastSerialization(false);
     return edge;
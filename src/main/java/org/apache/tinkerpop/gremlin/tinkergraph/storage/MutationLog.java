@@ -0,0 +1,410 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.storage;
+
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessageUnpacker;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of all mutations in overflow mode. Modified elements may only exist in the on-heap cache, so after a
+ * crash the log is replayed on top of the last durable state of the on-disk overflow stores.
+ * All operations are idempotent when replayed on a state that already contains (some of) them.
+ *
+ * Record format: `[length: int][crc32: int][payload]`, payload being msgpack `type, elementId, ...`
+ * Mutations are appended to an in-memory buffer, and a single flusher thread writes (and fsyncs) all pending records
+ * at once (group commit).
+ */
+public class MutationLog implements Closeable {
+
+  public enum FsyncPolicy {
+    /** each mutation blocks until it is fsynced - concurrent mutations share a single fsync */
+    ALWAYS,
+    /** pending mutations are written and fsynced every `flushIntervalMillis`, i.e. a crash may lose the last interval */
+    BATCH,
+    /** pending mutations are written every `flushIntervalMillis`, fsync is left to the OS */
+    NEVER
+  }
+
+  /** callbacks for `replay` */
+  public interface Handler {
+    void addVertex(long id, String label);
+    void addEdge(long id, String label, long outVertexId, long inVertexId);
+    void setVertexProperty(long id, VertexProperty.Cardinality cardinality, String key, Object value);
+    void setEdgeProperty(long id, String key, Object value);
+    /** replaces all properties of the vertex, given as raw properties segment (see `Serializer.packVertexProperties`) */
+    void setVertexProperties(long id, byte[] serializedProperties);
+    void removeVertexProperty(long id, String key);
+    void removeEdgeProperty(long id, String key);
+    void removeVertex(long id);
+    void removeEdge(long id);
+  }
+
+  private static final byte ADD_VERTEX = 1;
+  private static final byte ADD_EDGE = 2;
+  private static final byte SET_VERTEX_PROPERTY = 3;
+  private static final byte SET_EDGE_PROPERTY = 4;
+  private static final byte REMOVE_VERTEX_PROPERTY = 5;
+  private static final byte REMOVE_EDGE_PROPERTY = 6;
+  private static final byte REMOVE_VERTEX = 7;
+  private static final byte REMOVE_EDGE = 8;
+  private static final byte SET_VERTEX_PROPERTIES = 9;
+
+  private final File file;
+  private final FileChannel channel;
+  private final FsyncPolicy fsyncPolicy;
+  private final long flushIntervalMillis;
+  private final Thread flusher;
+
+  /** guards `pending` and the sequence numbers. lock order: `channelLock` before `lock` */
+  private final Object lock = new Object();
+  private final Object channelLock = new Object();
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+  private final DataOutputStream pendingOut = new DataOutputStream(pending);
+  private long appendedSeq = 0;
+  private long durableSeq = 0;
+  private volatile boolean closed = false;
+  private volatile IOException failure;
+
+  public MutationLog(File file, FsyncPolicy fsyncPolicy, long flushIntervalMillis) throws IOException {
+    this.file = file;
+    this.fsyncPolicy = fsyncPolicy;
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.channel.position(channel.size());
+    this.flusher = new Thread(this::flushLoop, "tinkergraph-mutation-log-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  public void addVertex(long id, String label) {
+    try {
+      MessageBufferPacker packer = newRecord(ADD_VERTEX, id);
+      packer.packString(label);
+      append(packer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public void addEdge(long id, String label, long outVertexId, long inVertexId) {
+    try {
+      MessageBufferPacker packer = newRecord(ADD_EDGE, id);
+      packer.packString(label);
+      packer.packLong(outVertexId);
+      packer.packLong(inVertexId);
+      append(packer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public void setVertexProperty(long id, VertexProperty.Cardinality cardinality, String key, Object value) {
+    try {
+      MessageBufferPacker packer = newRecord(SET_VERTEX_PROPERTY, id);
+      packer.packInt(cardinality.ordinal());
+      packer.packString(key);
+      Serializer.packValue(packer, key, value);
+      append(packer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public void setEdgeProperty(long id, String key, Object value) {
+    try {
+      MessageBufferPacker packer = newRecord(SET_EDGE_PROPERTY, id);
+      packer.packString(key);
+      Serializer.packValue(packer, key, value);
+      append(packer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** for vertices with multi- and meta-properties, whose changes can't be expressed by `setVertexProperty` */
+  public void setVertexProperties(long id, byte[] serializedProperties) {
+    try {
+      MessageBufferPacker packer = newRecord(SET_VERTEX_PROPERTIES, id);
+      packer.packBinaryHeader(serializedProperties.length);
+      packer.writePayload(serializedProperties);
+      append(packer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public void removeVertexProperty(long id, String key) {
+    removeProperty(REMOVE_VERTEX_PROPERTY, id, key);
+  }
+
+  public void removeEdgeProperty(long id, String key) {
+    removeProperty(REMOVE_EDGE_PROPERTY, id, key);
+  }
+
+  private void removeProperty(byte type, long id, String key) {
+    try {
+      MessageBufferPacker packer = newRecord(type, id);
+      packer.packString(key);
+      append(packer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public void removeVertex(long id) {
+    removeElement(REMOVE_VERTEX, id);
+  }
+
+  public void removeEdge(long id) {
+    removeElement(REMOVE_EDGE, id);
+  }
+
+  private void removeElement(byte type, long id) {
+    try {
+      append(newRecord(type, id));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private MessageBufferPacker newRecord(byte type, long id) throws IOException {
+    MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
+    packer.packByte(type);
+    packer.packLong(id);
+    return packer;
+  }
+
+  private void append(MessageBufferPacker packer) throws IOException {
+    if (failure != null) throw new IOException("mutation log " + file + " is broken", failure);
+    if (closed) throw new IOException("mutation log " + file + " is already closed");
+    final byte[] payload = packer.toByteArray();
+    final CRC32 crc = new CRC32();
+    crc.update(payload);
+
+    synchronized (lock) {
+      pendingOut.writeInt(payload.length);
+      pendingOut.writeInt((int) crc.getValue());
+      pendingOut.write(payload);
+      final long seq = ++appendedSeq;
+      if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+        lock.notifyAll();
+        awaitDurable(seq);
+      }
+    }
+  }
+
+  /** must hold `lock` */
+  private void awaitDurable(long seq) throws IOException {
+    while (durableSeq < seq && failure == null) {
+      try {
+        lock.wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("interrupted while waiting for mutation log to be written", e);
+      }
+    }
+    if (failure != null) throw new IOException("mutation log " + file + " is broken", failure);
+  }
+
+  private void flushLoop() {
+    while (true) {
+      try {
+        synchronized (lock) {
+          if (!closed && (fsyncPolicy != FsyncPolicy.ALWAYS || pending.size() == 0)) {
+            lock.wait(flushIntervalMillis);
+          }
+          if (closed && pending.size() == 0) return;
+        }
+        writePending(fsyncPolicy != FsyncPolicy.NEVER);
+      } catch (InterruptedException e) {
+        return;
+      } catch (IOException e) {
+        synchronized (lock) {
+          failure = e;
+          lock.notifyAll();
+        }
+        return;
+      }
+    }
+  }
+
+  private void writePending(boolean fsync) throws IOException {
+    synchronized (channelLock) {
+      final byte[] batch;
+      final long batchSeq;
+      synchronized (lock) {
+        if (pending.size() == 0) return;
+        batch = pending.toByteArray();
+        batchSeq = appendedSeq;
+        pending.reset();
+      }
+
+      final ByteBuffer buffer = ByteBuffer.wrap(batch);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (fsync) channel.force(false);
+
+      synchronized (lock) {
+        durableSeq = batchSeq;
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /** writes and fsyncs all pending mutations, regardless of the fsync policy */
+  public void sync() throws IOException {
+    if (failure != null) throw new IOException("mutation log " + file + " is broken", failure);
+    writePending(false);
+    synchronized (channelLock) {
+      channel.force(false);
+    }
+  }
+
+  /** discards all mutations, e.g. after they have been checkpointed into the overflow stores */
+  public void truncate() throws IOException {
+    synchronized (channelLock) {
+      synchronized (lock) {
+        pending.reset();
+        durableSeq = appendedSeq;
+        lock.notifyAll();
+      }
+      channel.truncate(0);
+      channel.force(true);
+    }
+  }
+
+  /** size of the log on disk, in bytes */
+  public long size() throws IOException {
+    return channel.size();
+  }
+
+  /**
+   * Replays all mutations in the log. Must be called before any mutations are appended.
+   * A torn or corrupt record (e.g. the process died while writing it) ends the replay and is cut off the log.
+   * @return number of replayed mutations
+   */
+  public long replay(Handler handler) throws IOException {
+    long count = 0;
+    long validLength = 0;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      while (true) {
+        final byte[] payload;
+        try {
+          final int length = in.readInt();
+          final int checksum = in.readInt();
+          if (length < 0 || length > channel.size()) break;
+          payload = new byte[length];
+          in.readFully(payload);
+          final CRC32 crc = new CRC32();
+          crc.update(payload);
+          if ((int) crc.getValue() != checksum) break;
+        } catch (EOFException e) {
+          break;
+        }
+        replay(payload, handler);
+        validLength += 8 + payload.length;
+        count++;
+      }
+    }
+
+    synchronized (channelLock) {
+      if (validLength < channel.size()) {
+        channel.truncate(validLength);
+        channel.force(true);
+      }
+      channel.position(validLength);
+    }
+    return count;
+  }
+
+  private void replay(byte[] payload, Handler handler) throws IOException {
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(payload);
+    final byte type = unpacker.unpackByte();
+    final long id = unpacker.unpackLong();
+    switch (type) {
+      case ADD_VERTEX:
+        handler.addVertex(id, unpacker.unpackString());
+        break;
+      case ADD_EDGE:
+        handler.addEdge(id, unpacker.unpackString(), unpacker.unpackLong(), unpacker.unpackLong());
+        break;
+      case SET_VERTEX_PROPERTY: {
+        final VertexProperty.Cardinality cardinality = VertexProperty.Cardinality.values()[unpacker.unpackInt()];
+        final String key = unpacker.unpackString();
+        handler.setVertexProperty(id, cardinality, key, Serializer.unpackValue(key, unpacker.unpackValue().asArrayValue()));
+        break;
+      }
+      case SET_EDGE_PROPERTY: {
+        final String key = unpacker.unpackString();
+        handler.setEdgeProperty(id, key, Serializer.unpackValue(key, unpacker.unpackValue().asArrayValue()));
+        break;
+      }
+      case SET_VERTEX_PROPERTIES:
+        handler.setVertexProperties(id, unpacker.readPayload(unpacker.unpackBinaryHeader()));
+        break;
+      case REMOVE_VERTEX_PROPERTY:
+        handler.removeVertexProperty(id, unpacker.unpackString());
+        break;
+      case REMOVE_EDGE_PROPERTY:
+        handler.removeEdgeProperty(id, unpacker.unpackString());
+        break;
+      case REMOVE_VERTEX:
+        handler.removeVertex(id);
+        break;
+      case REMOVE_EDGE:
+        handler.removeEdge(id);
+        break;
+      default:
+        throw new IOException("unknown mutation type " + type + " in " + file);
+    }
+  }
+
+  /** writes all pending mutations and stops the flusher thread */
+  @Override
+  public void close() throws IOException {
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    sync();
+    channel.close();
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.storage;
+
+import org.h2.mvstore.MVStore;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elements are re-serialized on every dirty eviction, which leaves old versions behind in the overflow stores, i.e.
+ * the fill rate of their chunks drops and the files grow. This periodically compacts the stores in the background:
+ * chunks are rewritten once the live data ratio drops below `targetFillRate`, and the file is shrunk once its own
+ * fill rate drops below it. Each run rewrites at most `writeBudgetBytes` per store, to limit the I/O impact.
+ */
+public class OverflowStoreMaintenance implements Closeable {
+
+  private final Map<String, MVStore> storesByName;
+  private final int targetFillRate;
+  private final int writeBudgetBytes;
+  private final Map<String, StoreStats> statsByName = new LinkedHashMap<>();
+  private ScheduledExecutorService scheduler;
+
+  public OverflowStoreMaintenance(Map<String, MVStore> storesByName, int targetFillRate, int writeBudgetBytes) {
+    this.storesByName = storesByName;
+    this.targetFillRate = targetFillRate;
+    this.writeBudgetBytes = writeBudgetBytes;
+    storesByName.keySet().forEach(name -> statsByName.put(name, new StoreStats()));
+  }
+
+  public synchronized void start(long intervalMillis) {
+    if (scheduler != null) throw new IllegalStateException("already started");
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "tinkergraph-overflow-maintenance");
+      thread.setDaemon(true);
+      return thread;
+    });
+    scheduler.scheduleWithFixedDelay(this::compact, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /** runs one compaction pass over all stores, within the write budget */
+  public synchronized void compact() {
+    for (Map.Entry<String, MVStore> entry : storesByName.entrySet()) {
+      final MVStore store = entry.getValue();
+      if (store.isClosed()) continue;
+      final StoreStats stats = statsByName.get(entry.getKey());
+
+      final long start = System.currentTimeMillis();
+      boolean compacted = false;
+      if (store.getCurrentFillRate() < targetFillRate) {
+        compacted = store.compact(targetFillRate, writeBudgetBytes);
+      }
+      final int fileFillRate = store.getFileStore().getFillRate();
+      if (fileFillRate < targetFillRate) {
+        // `compactMoveChunks` doesn't report whether it moved anything, so compare the file before and after
+        final long fileSize = store.getFileStore().size();
+        store.compactMoveChunks(targetFillRate, writeBudgetBytes);
+        compacted |= store.getFileStore().size() != fileSize || store.getFileStore().getFillRate() != fileFillRate;
+      }
+      if (compacted) {
+        stats.lastCompactionTimestamp = start;
+        stats.lastCompactionMillis = System.currentTimeMillis() - start;
+        stats.compactionCount++;
+      }
+    }
+  }
+
+  /** @return statistics for all stores, by store name */
+  public synchronized Map<String, StoreStats> stats() {
+    final Map<String, StoreStats> result = new LinkedHashMap<>();
+    for (Map.Entry<String, MVStore> entry : storesByName.entrySet()) {
+      final MVStore store = entry.getValue();
+      final StoreStats stats = statsByName.get(entry.getKey()).copy();
+      if (!store.isClosed()) {
+        stats.fileSize = store.getFileStore().size();
+        stats.fileFillRate = store.getFileStore().getFillRate();
+        stats.liveDataRatio = store.getCurrentFillRate();
+      }
+      result.put(entry.getKey(), stats);
+    }
+    return result;
+  }
+
+  /** stops the background compaction, waiting for a running pass to finish */
+  @Override
+  public void close() {
+    final ScheduledExecutorService scheduler;
+    synchronized (this) {
+      scheduler = this.scheduler;
+      this.scheduler = null;
+    }
+    if (scheduler == null) return;
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static class StoreStats {
+    /** size of the store file, in bytes */
+    public long fileSize;
+    /** percentage of the file that is used by chunks */
+    public int fileFillRate;
+    /** percentage of the chunk data that is live, i.e. not superseded by a newer version */
+    public int liveDataRatio;
+    public long lastCompactionTimestamp;
+    public long lastCompactionMillis;
+    public long compactionCount;
+
+    private StoreStats copy() {
+      final StoreStats copy = new StoreStats();
+      copy.fileSize = fileSize;
+      copy.fileFillRate = fileFillRate;
+      copy.liveDataRatio = liveDataRatio;
+      copy.lastCompactionTimestamp = lastCompactionTimestamp;
+      copy.lastCompactionMillis = lastCompactionMillis;
+      copy.compactionCount = compactionCount;
+      return copy;
+    }
+
+    @Override
+    public String toString() {
+      return "StoreStats{fileSize=" + fileSize + ", fileFillRate=" + fileFillRate + ", liveDataRatio=" + liveDataRatio
+          + ", lastCompactionTimestamp=" + lastCompactionTimestamp + ", lastCompactionMillis=" + lastCompactionMillis
+          + ", compactionCount=" + compactionCount + "}";
+    }
+  }
+}
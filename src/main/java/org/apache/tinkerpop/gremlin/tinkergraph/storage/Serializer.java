@@ -20,16 +20,25 @@ package org.apache.tinkerpop.gremlin.tinkergraph.storage;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.tinkerpop.gremlin.structure.Property;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessagePacker;
+import org.msgpack.core.MessageUnpacker;
 import org.msgpack.value.ArrayValue;
 import org.msgpack.value.FloatValue;
 import org.msgpack.value.IntegerValue;
 import org.msgpack.value.Value;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public abstract class Serializer<A> {
 
@@ -39,7 +48,7 @@ public abstract class Serializer<A> {
   /** when deserializing, msgpack can't differentiate between e.g. int and long, so we need to encode the type as well - doing that with an array
    *  i.e. format is: Map[PropertyName, Array(TypeId, PropertyValue)]
    * */
-  protected void packProperties(MessageBufferPacker packer, Iterator<? extends Property> propertyIterator) throws IOException {
+  protected static void packProperties(MessageBufferPacker packer, Iterator<? extends Property> propertyIterator) throws IOException {
     LinkedList<Property> properties = new LinkedList<>();
     while (propertyIterator.hasNext()) {
       properties.add(propertyIterator.next());
@@ -48,82 +57,203 @@ public abstract class Serializer<A> {
     packer.packMapHeader(properties.size());
     for (Property property : properties) {
       packer.packString(property.key());
-      Object value = property.value();
-
-      packer.packArrayHeader(2);
-      // encode their type as well - as is, we can't differentiate between int and long
-      if (value.getClass() == Boolean.class) {
-        packer.packShort((short) 1);
-        packer.packBoolean((Boolean) value);
-      } else if (value.getClass() == String.class) {
-        packer.packShort((short) 2);
-        packer.packString((String) value);
-      } else if (value.getClass() == Byte.class) {
-        packer.packShort((short) 3);
-        packer.packByte((Byte) value);
-      } else if (value.getClass() == Short.class) {
-        packer.packShort((short) 4);
-        packer.packShort((Short) value);
-      } else if (value.getClass() == Integer.class) {
-        packer.packShort((short) 5);
-        packer.packInt((int) value);
-      } else if (value.getClass() == Long.class) {
-        packer.packShort((short) 6);
-        packer.packLong((Long) value);
-      } else if (value.getClass() == Float.class) {
-        packer.packShort((short) 7);
-        packer.packFloat((Float) value);
-      } else if (value.getClass() == Double.class) {
-        packer.packShort((short) 8);
-        packer.packDouble((Double) value);
-      } else throw new NotImplementedException("value type `" + value.getClass() + "` not yet supported (key=" + property.key() + ")");
+      packValue(packer, property.key(), property.value());
     }
   }
 
+  /** like `packProperties`, but with support for multi- and meta-properties, as used by schemaless vertices
+   *  i.e. format is: Map[PropertyName, Array(Array(Array(TypeId, VertexPropertyId), Array(TypeId, PropertyValue), Map[MetaPropertyName, Array(TypeId, MetaPropertyValue)]))]
+   * */
+  protected static void packVertexProperties(MessageBufferPacker packer, Iterator<? extends VertexProperty> propertyIterator) throws IOException {
+    Map<String, List<VertexProperty>> propertiesByKey = new LinkedHashMap<>();
+    while (propertyIterator.hasNext()) {
+      VertexProperty property = propertyIterator.next();
+      propertiesByKey.computeIfAbsent(property.key(), key -> new ArrayList<>()).add(property);
+    }
+
+    packer.packMapHeader(propertiesByKey.size());
+    for (Map.Entry<String, List<VertexProperty>> entry : propertiesByKey.entrySet()) {
+      packer.packString(entry.getKey());
+      packer.packArrayHeader(entry.getValue().size());
+      for (VertexProperty property : entry.getValue()) {
+        packer.packArrayHeader(3);
+        packId(packer, property.key(), property.id());
+        packValue(packer, property.key(), property.value());
+        packProperties(packer, property.properties());
+      }
+    }
+  }
+
+  /** @return a raw properties segment in the format of `packVertexProperties` */
+  public static byte[] packVertexProperties(Iterator<? extends VertexProperty> propertyIterator) throws IOException {
+    MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
+    packVertexProperties(packer, propertyIterator);
+    return packer.toByteArray();
+  }
+
+  /** like `packValue`, for the ids of all built-in id managers, i.e. long, integer, UUID and string ids */
+  public static void packId(MessagePacker packer, String key, Object id) throws IOException {
+    if (isPackable(id)) {
+      packValue(packer, key, id);
+    } else throw new NotImplementedException("id type `" + id.getClass() + "` not yet supported (key=" + key + ")");
+  }
+
+  /** format: Array(TypeId, PropertyValue) */
+  public static void packValue(MessagePacker packer, String key, Object value) throws IOException {
+    packer.packArrayHeader(2);
+    // encode their type as well - as is, we can't differentiate between int and long
+    if (value.getClass() == Boolean.class) {
+      packer.packShort((short) 1);
+      packer.packBoolean((Boolean) value);
+    } else if (value.getClass() == String.class) {
+      packer.packShort((short) 2);
+      packer.packString((String) value);
+    } else if (value.getClass() == Byte.class) {
+      packer.packShort((short) 3);
+      packer.packByte((Byte) value);
+    } else if (value.getClass() == Short.class) {
+      packer.packShort((short) 4);
+      packer.packShort((Short) value);
+    } else if (value.getClass() == Integer.class) {
+      packer.packShort((short) 5);
+      packer.packInt((int) value);
+    } else if (value.getClass() == Long.class) {
+      packer.packShort((short) 6);
+      packer.packLong((Long) value);
+    } else if (value.getClass() == Float.class) {
+      packer.packShort((short) 7);
+      packer.packFloat((Float) value);
+    } else if (value.getClass() == Double.class) {
+      packer.packShort((short) 8);
+      packer.packDouble((Double) value);
+    } else if (value.getClass() == UUID.class) {
+      packer.packShort((short) 9);
+      packer.packString(value.toString());
+    } else throw new NotImplementedException("value type `" + value.getClass() + "` not yet supported (key=" + key + ")");
+  }
+
+  /** @return whether `packValue` supports the type of the given value */
+  public static boolean isPackable(Object value) {
+    final Class<?> type = value.getClass();
+    return type == Boolean.class || type == String.class || type == Byte.class || type == Short.class
+        || type == Integer.class || type == Long.class || type == Float.class || type == Double.class || type == UUID.class;
+  }
+
+  /** @return the given value as written by `packValue`, i.e. distinct values (of any type) have distinct bytes */
+  public static byte[] packValue(String key, Object value) throws IOException {
+    MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
+    packValue(packer, key, value);
+    return packer.toByteArray();
+  }
+
   protected Object[] unpackProperties(Map<Value, Value> properties) {
     Object[] keyValues = new Object[properties.size() * 2];
     int idx = 0;
     for (Map.Entry<Value, Value> entry : properties.entrySet()) {
       String key = entry.getKey().asStringValue().asString();
       keyValues[idx++] = key;
+      keyValues[idx++] = unpackValue(key, entry.getValue().asArrayValue());
+    }
+    return keyValues;
+  }
+
+  /** unpacks all properties of a raw properties segment, as written by `packProperties`
+   *  @return keyValues, i.e. `[key1, value1, key2, value2, ...]` */
+  public static Object[] unpackProperties(byte[] serializedProperties) throws IOException {
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(serializedProperties);
+    int propertyCount = unpacker.unpackMapHeader();
+    Object[] keyValues = new Object[propertyCount * 2];
+    int idx = 0;
+    for (int i = 0; i < propertyCount; i++) {
+      String key = unpacker.unpackString();
+      keyValues[idx++] = key;
+      keyValues[idx++] = unpackValue(key, unpacker.unpackValue().asArrayValue());
+    }
+    return keyValues;
+  }
 
-      ArrayValue typeAndValue = entry.getValue().asArrayValue();
-      short type = typeAndValue.get(0).asIntegerValue().asShort();
-
-      final Object value;
-      Value packedValue = typeAndValue.get(1);
-
-      switch (type) {
-        case 1:
-          value = packedValue.asBooleanValue().getBoolean();
-          break;
-        case 2:
-          value = packedValue.asStringValue().asString();
-          break;
-        case 3:
-          value = packedValue.asIntegerValue().asByte();
-          break;
-        case 4:
-          value = packedValue.asIntegerValue().asShort();
-          break;
-        case 5:
-          value = packedValue.asIntegerValue().asInt();
-          break;
-        case 6:
-          value = packedValue.asIntegerValue().asLong();
-          break;
-        case 7:
-          value = packedValue.asFloatValue().toFloat();
-          break;
-        case 8:
-          value = packedValue.asFloatValue().toDouble();
-          break;
-        default:
-          throw new NotImplementedException("type prefix `" + type + "` not yet supported (key=" + key + ", packedValue=" + packedValue + ")");
+  /** unpacks a single property from a raw properties segment (as written by `packProperties`), skipping over all others
+   *  @return the property value, or `null` if the segment doesn't contain the given key */
+  public static Object unpackProperty(byte[] serializedProperties, String key) throws IOException {
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(serializedProperties);
+    int propertyCount = unpacker.unpackMapHeader();
+    for (int i = 0; i < propertyCount; i++) {
+      if (key.equals(unpacker.unpackString())) {
+        return unpackValue(key, unpacker.unpackValue().asArrayValue());
+      } else {
+        unpacker.skipValue();
       }
+    }
+    return null;
+  }
 
-      keyValues[idx++] = value;
+  /** unpacks a raw properties segment, as written by `packVertexProperties`
+   *  @return one `[key, vertexPropertyId, value, metaKeyValues]` entry per vertex property */
+  public static List<Object[]> unpackVertexProperties(byte[] serializedProperties) throws IOException {
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(serializedProperties);
+    List<Object[]> vertexProperties = new ArrayList<>();
+    int keyCount = unpacker.unpackMapHeader();
+    for (int i = 0; i < keyCount; i++) {
+      String key = unpacker.unpackString();
+      int valueCount = unpacker.unpackArrayHeader();
+      for (int j = 0; j < valueCount; j++) {
+        unpacker.unpackArrayHeader();
+        Object id = unpackValue(key, unpacker.unpackValue().asArrayValue());
+        Object value = unpackValue(key, unpacker.unpackValue().asArrayValue());
+        int metaPropertyCount = unpacker.unpackMapHeader();
+        Object[] metaKeyValues = new Object[metaPropertyCount * 2];
+        int idx = 0;
+        for (int k = 0; k < metaPropertyCount; k++) {
+          String metaKey = unpacker.unpackString();
+          metaKeyValues[idx++] = metaKey;
+          metaKeyValues[idx++] = unpackValue(metaKey, unpacker.unpackValue().asArrayValue());
+        }
+        vertexProperties.add(new Object[]{key, id, value, metaKeyValues});
+      }
+    }
+    return vertexProperties;
+  }
+
+  /** reads the properties segment (as written by `packProperties`) at the current position without decoding it */
+  protected byte[] readSerializedProperties(MessageUnpacker unpacker, byte[] bytes) throws IOException {
+    int start = (int) unpacker.getTotalReadBytes();
+    unpacker.skipValue();
+    return Arrays.copyOfRange(bytes, start, (int) unpacker.getTotalReadBytes());
+  }
+
+  /** vertices and edges are both serialized as `id, label, ...` - this only reads the label */
+  public static String unpackLabel(byte[] bytes) throws IOException {
+    MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes);
+    unpacker.skipValue();
+    return unpacker.unpackString();
+  }
+
+  /** counterpart of `packValue` */
+  public static Object unpackValue(String key, ArrayValue typeAndValue) {
+    short type = typeAndValue.get(0).asIntegerValue().asShort();
+    Value packedValue = typeAndValue.get(1);
+
+    switch (type) {
+      case 1:
+        return packedValue.asBooleanValue().getBoolean();
+      case 2:
+        return packedValue.asStringValue().asString();
+      case 3:
+        return packedValue.asIntegerValue().asByte();
+      case 4:
+        return packedValue.asIntegerValue().asShort();
+      case 5:
+        return packedValue.asIntegerValue().asInt();
+      case 6:
+        return packedValue.asIntegerValue().asLong();
+      case 7:
+        return packedValue.asFloatValue().toFloat();
+      case 8:
+        return packedValue.asFloatValue().toDouble();
+      case 9:
+        return UUID.fromString(packedValue.asStringValue().asString());
+      default:
+        throw new NotImplementedException("type prefix `" + type + "` not yet supported (key=" + key + ", packedValue=" + packedValue + ")");
     }
-    return keyValues;
   }
 }
@@ -19,14 +19,16 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.storage;
 
 import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongLongIterator;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
 import gnu.trove.set.TLongSet;
 import org.apache.commons.collections.IteratorUtils;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
-import org.apache.tinkerpop.gremlin.structure.VertexProperty;
-import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.SchemalessTinkerVertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedElementFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.SpecializedTinkerVertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
@@ -41,22 +43,31 @@ import java.util.stream.Collectors;
 public class VertexSerializer extends Serializer<Vertex> {
 
   protected final TinkerGraph graph;
-  protected final Map<String, SpecializedElementFactory.ForVertex> vertexFactoryByLabel;
 
-  public VertexSerializer(TinkerGraph graph, Map<String, SpecializedElementFactory.ForVertex> vertexFactoryByLabel) {
+  public VertexSerializer(TinkerGraph graph) {
     this.graph = graph;
-    this.vertexFactoryByLabel = vertexFactoryByLabel;
   }
 
   @Override
   public byte[] serialize(Vertex vertex) throws IOException {
     MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
     ((SpecializedTinkerVertex) vertex).acquireModificationLock();
-    packer.packLong((Long) vertex.id());
-    packer.packString(vertex.label());
-    packProperties(packer, vertex.properties());
-    packEdgeIds(packer, vertex);
-    ((SpecializedTinkerVertex) vertex).releaseModificationLock();
+    try {
+      packer.packLong((Long) vertex.id());
+      packer.packString(vertex.label());
+      final byte[] serializedProperties = ((SpecializedTinkerVertex) vertex).getSerializedProperties();
+      if (serializedProperties != null) { // properties haven't been modified since deserialization - no need to decode them
+        packer.writePayload(serializedProperties);
+      } else if (vertex instanceof SchemalessTinkerVertex) {
+        packVertexProperties(packer, vertex.properties());
+      } else {
+        packProperties(packer, vertex.properties());
+      }
+      packEdgeIds(packer, vertex);
+      packAdjacentVertexIds(packer, (SpecializedTinkerVertex) vertex);
+    } finally {
+      ((SpecializedTinkerVertex) vertex).releaseModificationLock();
+    }
 
     return packer.toByteArray();
   }
@@ -86,6 +97,22 @@ public class VertexSerializer extends Serializer<Vertex> {
     }
   }
 
+  /** format: `Map<EdgeId, AdjacentVertexId>` - written after the edge ids, so that vertices serialized without it can still be read */
+  private void packAdjacentVertexIds(MessageBufferPacker packer, SpecializedTinkerVertex vertex) throws IOException {
+    final TLongLongMap adjacentVertexIdByEdgeId = vertex.adjacentVertexIdByEdgeId();
+    if (adjacentVertexIdByEdgeId == null) {
+      packer.packMapHeader(0);
+      return;
+    }
+    packer.packMapHeader(adjacentVertexIdByEdgeId.size());
+    final TLongLongIterator iter = adjacentVertexIdByEdgeId.iterator();
+    while (iter.hasNext()) {
+      iter.advance();
+      packer.packLong(iter.key());
+      packer.packLong(iter.value());
+    }
+  }
+
   @Override
   public SpecializedTinkerVertex deserialize(byte[] bytes) throws IOException {
     if (null == bytes)
@@ -94,29 +121,38 @@ public class VertexSerializer extends Serializer<Vertex> {
     MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes);
     Long id = unpacker.unpackLong();
     String label = unpacker.unpackString();
-    Object[] keyValues = unpackProperties(unpacker.unpackValue().asMapValue().map());
+    byte[] serializedProperties = readSerializedProperties(unpacker, bytes);
 
-    SpecializedElementFactory.ForVertex vertexFactory = vertexFactoryByLabel.get(label);
+    SpecializedElementFactory.ForVertex vertexFactory = graph.specializedVertexFactory(label);
     if (vertexFactory == null) {
       throw new AssertionError("vertexFactory not found for id=" + id + ", label=" + label);
     }
     SpecializedTinkerVertex vertex = vertexFactory.createVertex(id, graph);
-    ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
+    vertex.setSerializedProperties(serializedProperties);
 
     Map<String, long[]> inEdgeIdsByLabel = unpackEdges(unpacker);
     Map<String, long[]> outEdgeIdsByLabel = unpackEdges(unpacker);
+    TLongLongMap adjacentVertexIdByEdgeId = unpackAdjacentVertexIds(unpacker);
 
     inEdgeIdsByLabel.entrySet().stream().forEach(entry -> {
       String edgeLabel = entry.getKey();
       for (long edgeId : entry.getValue()) {
-        vertex.addSpecializedInEdge(edgeLabel, edgeId);
+        if (adjacentVertexIdByEdgeId.containsKey(edgeId)) {
+          vertex.addSpecializedInEdge(edgeLabel, edgeId, adjacentVertexIdByEdgeId.get(edgeId));
+        } else {
+          vertex.addSpecializedInEdge(edgeLabel, edgeId);
+        }
       }
     });
 
     outEdgeIdsByLabel.entrySet().stream().forEach(entry -> {
       String edgeLabel = entry.getKey();
       for (long edgeId : entry.getValue()) {
-        vertex.addSpecializedOutEdge(edgeLabel, edgeId);
+        if (adjacentVertexIdByEdgeId.containsKey(edgeId)) {
+          vertex.addSpecializedOutEdge(edgeLabel, edgeId, adjacentVertexIdByEdgeId.get(edgeId));
+        } else {
+          vertex.addSpecializedOutEdge(edgeLabel, edgeId);
+        }
       }
     });
 
@@ -140,4 +176,15 @@ public class VertexSerializer extends Serializer<Vertex> {
     return edgeIdsByLabel;
   }
 
+  /** format: `Map<EdgeId, AdjacentVertexId>`, which is missing for vertices that were serialized before it was introduced */
+  private TLongLongMap unpackAdjacentVertexIds(MessageUnpacker unpacker) throws IOException {
+    if (!unpacker.hasNext()) return new TLongLongHashMap(0);
+    int edgeCount = unpacker.unpackMapHeader();
+    TLongLongMap adjacentVertexIdByEdgeId = new TLongLongHashMap(edgeCount);
+    for (int i = 0; i < edgeCount; i++) {
+      adjacentVertexIdByEdgeId.put(unpacker.unpackLong(), unpacker.unpackLong());
+    }
+    return adjacentVertexIdByEdgeId;
+  }
+
 }
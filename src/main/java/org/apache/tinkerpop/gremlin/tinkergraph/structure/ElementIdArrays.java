@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.Element;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Compact, sorted arrays of the ids of all vertices (or edges) by label, which allow positional access into the label
+ * partitions - e.g. to sample elements in time proportional to the sample size rather than to the number of elements,
+ * or to iterate over a range of ids in ascending order.
+ * The arrays are built on first use and dropped on any addition or removal of an element, since positions are only
+ * stable for a given set of elements.
+ */
+final class ElementIdArrays {
+
+    /* marks graphs with ids other than longs, which can't be put into the arrays */
+    private static final Map<String, long[]> UNSUPPORTED = Collections.emptyMap();
+
+    private final Supplier<Map<String, long[]>> builder;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Map<String, long[]> idsByLabel;
+
+    ElementIdArrays(final Supplier<Map<String, long[]>> builder) {
+        this.builder = builder;
+    }
+
+    /** the arrays will be rebuilt on next use */
+    void invalidate() {
+        this.generation.incrementAndGet();
+        this.idsByLabel = null;
+    }
+
+    /**
+     * @return ids of `sampleSize` distinct elements with a label that matches the given predicate (or any label if it's
+     * `null`), chosen uniformly at random - or `null` if the graph has ids other than longs
+     */
+    long[] sample(final P<String> labelPredicate, final int sampleSize, final Random random) {
+        final List<long[]> partitions = partitions(labelPredicate);
+        if (null == partitions)
+            return null;
+        final long total = size(partitions);
+        if (sampleSize >= total)
+            return concat(partitions, total);
+
+        // Floyd's algorithm: draws exactly `sampleSize` distinct positions
+        final TLongHashSet positions = new TLongHashSet(sampleSize);
+        for (long j = total - sampleSize; j < total; j++) {
+            final long position = (long) (random.nextDouble() * (j + 1));
+            if (!positions.add(position))
+                positions.add(j);
+        }
+        final long[] sortedPositions = positions.toArray();
+        Arrays.sort(sortedPositions);
+        return idsAt(partitions, sortedPositions);
+    }
+
+    /**
+     * @return ids of the elements with a label that matches the given predicate (or any label if it's `null`), each one
+     * chosen with the given probability - or `null` if the graph has ids other than longs
+     */
+    long[] coin(final P<String> labelPredicate, final double probability, final Random random) {
+        final List<long[]> partitions = partitions(labelPredicate);
+        if (null == partitions)
+            return null;
+        final long total = size(partitions);
+        if (probability >= 1.0d)
+            return concat(partitions, total);
+        if (probability <= 0.0d)
+            return new long[0];
+
+        // geometric gaps between the chosen positions: skips the elements that aren't chosen rather than visiting them
+        final double logOfMiss = Math.log(1.0d - probability);
+        final TLongArrayList positions = new TLongArrayList((int) Math.min(Integer.MAX_VALUE, (long) (total * probability) + 16));
+        long position = -1;
+        while (true) {
+            position += 1 + (long) Math.floor(Math.log(1.0d - random.nextDouble()) / logOfMiss);
+            if (position < 0 || position >= total)
+                break;
+            positions.add(position);
+        }
+        return idsAt(partitions, positions.toArray());
+    }
+
+    /**
+     * @return ids between `fromId` and `toId` (both inclusive) of the elements with a label that matches the given
+     * predicate (or any label if it's `null`), in ascending order, skipping the first `skip` of them - or `null` if the
+     * graph has ids other than longs
+     */
+    TLongIterator idRange(final P<String> labelPredicate, final long fromId, final long toId, final long skip) {
+        final List<long[]> partitions = partitions(labelPredicate);
+        if (null == partitions)
+            return null;
+        final int[] cursors = new int[partitions.size()];
+        final int[] ends = new int[partitions.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = insertionPoint(partitions.get(i), fromId, false);
+            ends[i] = fromId > toId ? cursors[i] : insertionPoint(partitions.get(i), toId, true);
+        }
+        final MergingIterator iterator = new MergingIterator(partitions, cursors, ends);
+        iterator.skip(skip);
+        return iterator;
+    }
+
+    /** @return index of the first id that's greater than (or equal to, unless `exclusive`) the given one */
+    private static int insertionPoint(final long[] ids, final long id, final boolean exclusive) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0)
+            return -index - 1;
+        return exclusive ? index + 1 : index;
+    }
+
+    private List<long[]> partitions(final P<String> labelPredicate) {
+        Map<String, long[]> idsByLabel = this.idsByLabel;
+        if (null == idsByLabel) {
+            final long generation = this.generation.get();
+            idsByLabel = this.builder.get();
+            // don't keep arrays that were built while elements were added or removed
+            if (generation == this.generation.get())
+                this.idsByLabel = idsByLabel;
+        }
+        if (idsByLabel == UNSUPPORTED)
+            return null;
+        final List<long[]> partitions = new ArrayList<>();
+        for (final Map.Entry<String, long[]> entry : idsByLabel.entrySet()) {
+            if (null == labelPredicate || labelPredicate.test(entry.getKey()))
+                partitions.add(entry.getValue());
+        }
+        return partitions;
+    }
+
+    private static long size(final List<long[]> partitions) {
+        long size = 0;
+        for (final long[] ids : partitions) {
+            size += ids.length;
+        }
+        return size;
+    }
+
+    private static long[] concat(final List<long[]> partitions, final long total) {
+        final long[] result = new long[(int) total];
+        int offset = 0;
+        for (final long[] ids : partitions) {
+            System.arraycopy(ids, 0, result, offset, ids.length);
+            offset += ids.length;
+        }
+        return result;
+    }
+
+    /** @param positions sorted positions within the concatenation of all partitions */
+    private static long[] idsAt(final List<long[]> partitions, final long[] positions) {
+        final long[] result = new long[positions.length];
+        int partition = 0;
+        long offset = 0;
+        for (int i = 0; i < positions.length; i++) {
+            while (positions[i] - offset >= partitions.get(partition).length) {
+                offset += partitions.get(partition).length;
+                partition++;
+            }
+            result[i] = partitions.get(partition)[(int) (positions[i] - offset)];
+        }
+        return result;
+    }
+
+    /** merges the sorted ranges `[cursors[i], ends[i])` of all partitions */
+    private static final class MergingIterator implements TLongIterator {
+        private final List<long[]> partitions;
+        private final int[] cursors;
+        private final int[] ends;
+
+        private MergingIterator(final List<long[]> partitions, final int[] cursors, final int[] ends) {
+            this.partitions = partitions;
+            this.cursors = cursors;
+            this.ends = ends;
+        }
+
+        /** a single partition can be skipped by position, otherwise the merge has to walk over the skipped ids */
+        private void skip(final long skip) {
+            if (this.partitions.size() == 1) {
+                this.cursors[0] = (int) Math.min(this.ends[0], this.cursors[0] + skip);
+                return;
+            }
+            for (long i = 0; i < skip && hasNext(); i++) {
+                next();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            for (int i = 0; i < this.cursors.length; i++) {
+                if (this.cursors[i] < this.ends[i])
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public long next() {
+            int min = -1;
+            for (int i = 0; i < this.cursors.length; i++) {
+                if (this.cursors[i] < this.ends[i] &&
+                        (min < 0 || this.partitions.get(i)[this.cursors[i]] < this.partitions.get(min)[this.cursors[min]]))
+                    min = i;
+            }
+            if (min < 0)
+                throw new NoSuchElementException();
+            return this.partitions.get(min)[this.cursors[min]++];
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** builds the arrays for an in-memory graph, from all its elements */
+    static Map<String, long[]> fromElements(final Collection<? extends Element> elements) {
+        final Map<String, TLongArrayList> idLists = new HashMap<>();
+        for (final Element element : elements) {
+            if (!(element.id() instanceof Long))
+                return UNSUPPORTED;
+            idLists.computeIfAbsent(element.label(), label -> new TLongArrayList()).add((Long) element.id());
+        }
+        final Map<String, long[]> idsByLabel = new HashMap<>(idLists.size());
+        for (final Map.Entry<String, TLongArrayList> entry : idLists.entrySet()) {
+            final long[] ids = entry.getValue().toArray();
+            Arrays.sort(ids);
+            idsByLabel.put(entry.getKey(), ids);
+        }
+        return idsByLabel;
+    }
+
+    /** builds the arrays for a graph with on-disk overflow, from its label partitions */
+    static Map<String, long[]> fromLabelPartitions(final Map<String, TLongSet> elementIdsByLabel) {
+        final Map<String, long[]> idsByLabel = new HashMap<>(elementIdsByLabel.size());
+        for (final Map.Entry<String, TLongSet> entry : elementIdsByLabel.entrySet()) {
+            final long[] ids = entry.getValue().toArray();
+            Arrays.sort(ids);
+            idsByLabel.put(entry.getKey(), ids);
+        }
+        return idsByLabel;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import java.util.BitSet;
+
+/**
+ * Set of element ids for visited-state tracking, e.g. in {@code dedup()}: ids within the contiguous id space handed out
+ * by the graph's id counter go into a bitset, all others (e.g. custom ids on a sparse id space) into a primitive hash set.
+ * Not thread-safe.
+ */
+public final class ElementIdSet {
+
+    /* the id space is only treated as dense if it's at most this many times larger than the number of elements */
+    private static final long MAX_SPARSENESS = 4;
+    private static final long MIN_DENSE_ID_LIMIT = 1024;
+
+    private final int denseIdLimit;
+    private final BitSet denseIds = new BitSet();
+    private TLongSet sparseIds;
+
+    public ElementIdSet(final TinkerGraph graph) {
+        final long idSpaceSize = graph.currentId.get() + 1;
+        final long elementCount = graph.vertexCount() + graph.edgeCount();
+        this.denseIdLimit = idSpaceSize <= Math.max(MAX_SPARSENESS * elementCount, MIN_DENSE_ID_LIMIT) ?
+                (int) Math.min(idSpaceSize, Integer.MAX_VALUE) : 0;
+    }
+
+    /** @return `true` if the set did not contain the given id yet */
+    public boolean add(final long id) {
+        if (id >= 0 && id < denseIdLimit) {
+            if (denseIds.get((int) id)) return false;
+            denseIds.set((int) id);
+            return true;
+        }
+        if (sparseIds == null) sparseIds = new TLongHashSet();
+        return sparseIds.add(id);
+    }
+
+    public boolean contains(final long id) {
+        if (id >= 0 && id < denseIdLimit) return denseIds.get((int) id);
+        return sparseIds != null && sparseIds.contains(id);
+    }
+
+    public void clear() {
+        denseIds.clear();
+        sparseIds = null;
+    }
+}
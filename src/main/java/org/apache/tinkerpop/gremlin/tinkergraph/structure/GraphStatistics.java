@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * A lightweight catalog of statistics about the elements of a graph, which is kept up to date on every mutation and
+ * allows to estimate how many elements pass a filter, e.g. to pick the cheapest way to find the start elements of a
+ * traversal. It consists of
+ * - the number of elements by label, as kept by the graph anyway
+ * - an estimate of the number of distinct values by property key, from a HyperLogLog sketch per key
+ * - the number of edges by vertex label, edge label and direction, i.e. the average degrees
+ * Distinct values are only ever added to the sketches, so the estimates don't go down when values are removed. Edges
+ * and values that were restored from the on-disk overflow when opening the graph aren't counted - for them, the
+ * estimates fall back to the overall number of edges and to fixed selectivities.
+ */
+public final class GraphStatistics {
+
+    /** estimated fraction of elements that pass a filter whose selectivity can't be derived from the statistics */
+    public static final double DEFAULT_SELECTIVITY = 0.1;
+    /** estimated fraction of elements that pass a range filter, e.g. `has('age', gt(30))` */
+    public static final double RANGE_SELECTIVITY = 1.0 / 3;
+
+    private final TinkerGraph graph;
+    private final Map<String, DistinctValueSketch> vertexValueSketches = new ConcurrentHashMap<>();
+    private final Map<String, DistinctValueSketch> edgeValueSketches = new ConcurrentHashMap<>();
+    /* vertex label -> edge label -> number of edges */
+    private final Map<String, Map<String, AtomicLong>> outEdgeCounts = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, AtomicLong>> inEdgeCounts = new ConcurrentHashMap<>();
+    private final AtomicLong recordedEdges = new AtomicLong();
+
+    GraphStatistics(final TinkerGraph graph) {
+        this.graph = graph;
+    }
+
+    /** @return the number of vertices with a label that matches the given predicate, or of all vertices if it's `null` */
+    public long vertexCount(final P<String> labelPredicate) {
+        return null == labelPredicate ? this.graph.vertexCount() : this.graph.vertexCount(labelPredicate);
+    }
+
+    /** @return the number of edges with a label that matches the given predicate, or of all edges if it's `null` */
+    public long edgeCount(final P<String> labelPredicate) {
+        return null == labelPredicate ? this.graph.edgeCount() : this.graph.edgeCount(labelPredicate);
+    }
+
+    public long elementCount(final Class<? extends Element> elementClass, final P<String> labelPredicate) {
+        return Vertex.class.isAssignableFrom(elementClass) ? vertexCount(labelPredicate) : edgeCount(labelPredicate);
+    }
+
+    /** @return the estimated number of distinct values of the given property key, `0` if no value was recorded */
+    public long distinctValues(final Class<? extends Element> elementClass, final String key) {
+        final DistinctValueSketch sketch = sketches(elementClass).get(key);
+        return null == sketch ? 0 : sketch.estimate();
+    }
+
+    /**
+     * @return the average number of edges with the given labels (any label if there are none) in the given direction
+     * of vertices with the given label (any label if it's `null`)
+     */
+    public double averageDegree(final String vertexLabel, final Direction direction, final String... edgeLabels) {
+        final long vertices = vertexCount(null == vertexLabel ? null : P.eq(vertexLabel));
+        if (vertices == 0)
+            return 0;
+        final long edges;
+        if (this.recordedEdges.get() == 0 && this.graph.edgeCount() > 0) // only restored edges, which are known by label only
+            edges = (direction == Direction.BOTH ? 2 : 1) * edgeCount(edgeLabels.length == 0 ? null : P.within(edgeLabels)) *
+                    vertices / Math.max(1, vertexCount(null));
+        else if (direction == Direction.BOTH)
+            edges = edgeCount(this.outEdgeCounts, vertexLabel, edgeLabels) + edgeCount(this.inEdgeCounts, vertexLabel, edgeLabels);
+        else
+            edges = edgeCount(direction == Direction.OUT ? this.outEdgeCounts : this.inEdgeCounts, vertexLabel, edgeLabels);
+        return (double) edges / vertices;
+    }
+
+    /** @return the estimated number of elements that pass all of the given filters */
+    public double estimateCount(final Class<? extends Element> elementClass, final Collection<HasContainer> hasContainers) {
+        P<String> labelPredicate = null;
+        for (final HasContainer hasContainer : hasContainers) {
+            if (T.label.getAccessor().equals(hasContainer.getKey()))
+                labelPredicate = null == labelPredicate ? (P<String>) hasContainer.getPredicate() : labelPredicate.and((P<String>) hasContainer.getPredicate());
+        }
+        double count = elementCount(elementClass, labelPredicate);
+        for (final HasContainer hasContainer : hasContainers) {
+            if (!T.label.getAccessor().equals(hasContainer.getKey()))
+                count *= selectivity(elementClass, hasContainer);
+        }
+        return count;
+    }
+
+    /**
+     * @return the estimated fraction of elements of the given class (vertices or edges, or `null` if unknown) that
+     * pass the given filter - for equality on an indexed key, it's the exact fraction
+     */
+    public double selectivity(final Class<? extends Element> elementClass, final HasContainer hasContainer) {
+        final String key = hasContainer.getKey();
+        final BiPredicate<?, ?> biPredicate = hasContainer.getBiPredicate();
+        final Object value = hasContainer.getValue();
+        if (null == elementClass)
+            return T.id.getAccessor().equals(key) && biPredicate == Compare.eq ? 0 : defaultSelectivity(biPredicate);
+        final long elements = Math.max(1, elementCount(elementClass, null));
+        if (T.label.getAccessor().equals(key))
+            return (double) elementCount(elementClass, (P<String>) hasContainer.getPredicate()) / elements;
+        if (T.id.getAccessor().equals(key)) {
+            if (biPredicate == Compare.eq)
+                return 1.0 / elements;
+            if (biPredicate == Contains.within && value instanceof Collection)
+                return Math.min(1.0, (double) ((Collection<?>) value).size() / elements);
+            return defaultSelectivity(biPredicate);
+        }
+        if (biPredicate == Compare.eq && this.graph.getIndexedKeys(elementClass).contains(key))
+            return (double) (Vertex.class.isAssignableFrom(elementClass) ?
+                    TinkerHelper.countVertexIndex(this.graph, key, value) : TinkerHelper.countEdgeIndex(this.graph, key, value)) / elements;
+        final long distinctValues = distinctValues(elementClass, key);
+        if (distinctValues == 0)
+            return defaultSelectivity(biPredicate);
+        if (biPredicate == Compare.eq)
+            return 1.0 / distinctValues;
+        if (biPredicate == Compare.neq)
+            return 1.0 - 1.0 / distinctValues;
+        if (biPredicate == Contains.within && value instanceof Collection)
+            return Math.min(1.0, (double) ((Collection<?>) value).size() / distinctValues);
+        if (biPredicate == Contains.without && value instanceof Collection)
+            return Math.max(0.0, 1.0 - (double) ((Collection<?>) value).size() / distinctValues);
+        return defaultSelectivity(biPredicate);
+    }
+
+    private static double defaultSelectivity(final BiPredicate<?, ?> biPredicate) {
+        if (biPredicate == Compare.gt || biPredicate == Compare.gte || biPredicate == Compare.lt || biPredicate == Compare.lte)
+            return RANGE_SELECTIVITY;
+        if (biPredicate == Compare.neq || biPredicate == Contains.without)
+            return 1.0 - DEFAULT_SELECTIVITY;
+        return DEFAULT_SELECTIVITY;
+    }
+
+    private static long edgeCount(final Map<String, Map<String, AtomicLong>> edgeCounts, final String vertexLabel, final String... edgeLabels) {
+        long count = 0;
+        for (final Map.Entry<String, Map<String, AtomicLong>> byVertexLabel : edgeCounts.entrySet()) {
+            if (null != vertexLabel && !vertexLabel.equals(byVertexLabel.getKey()))
+                continue;
+            for (final Map.Entry<String, AtomicLong> byEdgeLabel : byVertexLabel.getValue().entrySet()) {
+                if (edgeLabels.length == 0 || Arrays.asList(edgeLabels).contains(byEdgeLabel.getKey()))
+                    count += byEdgeLabel.getValue().get();
+            }
+        }
+        return count;
+    }
+
+    private Map<String, DistinctValueSketch> sketches(final Class<? extends Element> elementClass) {
+        return Vertex.class.isAssignableFrom(elementClass) ? this.vertexValueSketches : this.edgeValueSketches;
+    }
+
+    void propertySet(final Class<? extends Element> elementClass, final String key, final Object value) {
+        if (null == value || T.label.getAccessor().equals(key))
+            return;
+        sketches(elementClass).computeIfAbsent(key, k -> new DistinctValueSketch()).add(value);
+    }
+
+    void edgeAdded(final String label, final Vertex outVertex, final Vertex inVertex) {
+        updateEdgeCount(this.outEdgeCounts, outVertex, label, 1);
+        updateEdgeCount(this.inEdgeCounts, inVertex, label, 1);
+        this.recordedEdges.incrementAndGet();
+    }
+
+    void edgeRemoved(final String label, final Vertex outVertex, final Vertex inVertex) {
+        updateEdgeCount(this.outEdgeCounts, outVertex, label, -1);
+        updateEdgeCount(this.inEdgeCounts, inVertex, label, -1);
+    }
+
+    private static void updateEdgeCount(final Map<String, Map<String, AtomicLong>> edgeCounts, final Vertex vertex, final String edgeLabel, final long delta) {
+        if (null == vertex)
+            return;
+        final AtomicLong count = edgeCounts.computeIfAbsent(vertex.label(), l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(edgeLabel, l -> new AtomicLong());
+        // edges that were restored from disk weren't counted, so their removal mustn't make the count negative
+        count.updateAndGet(c -> Math.max(0, c + delta));
+    }
+
+    void clear() {
+        this.vertexValueSketches.clear();
+        this.edgeValueSketches.clear();
+        this.outEdgeCounts.clear();
+        this.inEdgeCounts.clear();
+        this.recordedEdges.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "GraphStatistics[vertexKeys=" + this.vertexValueSketches.keySet() + ", edgeKeys=" + this.edgeValueSketches.keySet() + "]";
+    }
+
+    /**
+     * HyperLogLog sketch with 2^10 registers, i.e. 1KB per property key and a standard error of about 3%. Concurrent
+     * additions may race on a register, which only ever loses an update, i.e. slightly lowers the estimate.
+     */
+    static final class DistinctValueSketch {
+        private static final int PRECISION = 10;
+        private static final int REGISTERS = 1 << PRECISION;
+        private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+        private final byte[] registers = new byte[REGISTERS];
+
+        void add(final Object value) {
+            final int hash = hash(value);
+            final int register = hash >>> (Integer.SIZE - PRECISION);
+            final byte rank = (byte) (Integer.numberOfLeadingZeros((hash << PRECISION) | (1 << (PRECISION - 1))) + 1);
+            if (rank > this.registers[register])
+                this.registers[register] = rank;
+        }
+
+        long estimate() {
+            double sum = 0;
+            int zeros = 0;
+            for (final byte rank : this.registers) {
+                sum += 1.0 / (1L << rank);
+                if (rank == 0)
+                    zeros++;
+            }
+            if (zeros == REGISTERS)
+                return 0;
+            final double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+            if (estimate <= 2.5 * REGISTERS && zeros > 0) // linear counting is more accurate for small cardinalities
+                return Math.round(REGISTERS * Math.log((double) REGISTERS / zeros));
+            return Math.round(estimate);
+        }
+
+        /* numbers that are equal in gremlin (e.g. 1 and 1L) must hash alike; the finalizer of murmur3 spreads the bits */
+        private static int hash(final Object value) {
+            int h = value instanceof Number && !(value instanceof Double || value instanceof Float) ?
+                    Long.hashCode(((Number) value).longValue()) : value.hashCode();
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+}
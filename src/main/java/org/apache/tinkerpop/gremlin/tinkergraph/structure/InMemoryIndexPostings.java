@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps all postings on heap.
+ */
+final class InMemoryIndexPostings implements IndexPostings {
+
+    private final Map<String, Map<Object, TLongSet>> index = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(final String key, final Object value, final long id) {
+        Map<Object, TLongSet> keyMap = this.index.get(key);
+        if (null == keyMap) {
+            this.index.putIfAbsent(key, new ConcurrentHashMap<>());
+            keyMap = this.index.get(key);
+        }
+        TLongSet ids = keyMap.get(value);
+        if (null == ids) {
+            keyMap.putIfAbsent(value, new TLongHashSet());
+            ids = keyMap.get(value);
+        }
+        ids.add(id);
+    }
+
+    @Override
+    public void remove(final String key, final Object value, final long id) {
+        final Map<Object, TLongSet> keyMap = this.index.get(key);
+        if (null != keyMap) {
+            TLongSet ids = keyMap.get(value);
+            if (null != ids) {
+                ids.remove(id);
+                if (ids.size() == 0) {
+                    keyMap.remove(value);
+                }
+            }
+        }
+    }
+
+    @Override
+    public TLongSet get(final String key, final Object value) {
+        final Map<Object, TLongSet> keyMap = this.index.get(key);
+        return null == keyMap ? null : keyMap.get(value);
+    }
+
+    @Override
+    public long count(final String key, final Object value) {
+        final TLongSet ids = get(key, value);
+        return null == ids ? 0 : ids.size();
+    }
+
+    @Override
+    public void removeId(final String key, final long id) {
+        final Map<Object, TLongSet> keyMap = this.index.get(key);
+        if (null != keyMap) {
+            for (TLongSet ids : keyMap.values()) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    @Override
+    public void removeKey(final String key) {
+        if (this.index.containsKey(key))
+            this.index.remove(key).clear();
+    }
+
+    @Override
+    public void flush() {
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.set.TLongSet;
+
+/**
+ * Storage of the postings (i.e. element ids by property key and value) of a {@link TinkerIndex}.
+ */
+interface IndexPostings {
+
+    void add(final String key, final Object value, final long id);
+
+    void remove(final String key, final Object value, final long id);
+
+    /** @return ids of all elements with the given property value, or `null` if there are none */
+    TLongSet get(final String key, final Object value);
+
+    long count(final String key, final Object value);
+
+    /** removes the given id from all postings of the given key, e.g. if the element's value is unknown */
+    void removeId(final String key, final long id);
+
+    void removeKey(final String key);
+
+    /** persists any pending changes */
+    void flush();
+}
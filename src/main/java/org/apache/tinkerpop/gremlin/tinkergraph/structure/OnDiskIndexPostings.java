@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.Serializer;
+import org.h2.mvstore.MVMap;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps postings in a sorted map in the on-disk overflow store, so that indices don't need to fit on the heap.
+ * The most recently used postings are cached on heap, and written back when they are evicted from that cache (or on
+ * `flush`).
+ *
+ * Postings are stored as `long[]` by `key \0 serializedValue`, with the value serialized like element properties (see
+ * {@link Serializer#packValue}), i.e. distinct values always have distinct postings. Values of types that can't be
+ * serialized that way are kept on heap instead.
+ */
+final class OnDiskIndexPostings implements IndexPostings {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final MVMap<String, long[]> postings;
+    private final LinkedHashMap<String, CachedPostings> cache;
+    /* postings of values that can't be serialized */
+    private final InMemoryIndexPostings unpackableValues = new InMemoryIndexPostings();
+
+    OnDiskIndexPostings(final MVMap<String, long[]> postings, final int maxCachedPostings) {
+        this.postings = postings;
+        this.cache = new LinkedHashMap<String, CachedPostings>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedPostings> eldest) {
+                if (size() <= maxCachedPostings) return false;
+                writeBack(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void add(final String key, final Object value, final long id) {
+        if (!Serializer.isPackable(value)) {
+            unpackableValues.add(key, value, id);
+            return;
+        }
+        final CachedPostings cached = load(postingsKey(key, value));
+        if (cached.ids.add(id)) cached.dirty = true;
+    }
+
+    @Override
+    public synchronized void remove(final String key, final Object value, final long id) {
+        if (!Serializer.isPackable(value)) {
+            unpackableValues.remove(key, value, id);
+            return;
+        }
+        final CachedPostings cached = load(postingsKey(key, value));
+        if (cached.ids.remove(id)) cached.dirty = true;
+    }
+
+    @Override
+    public synchronized TLongSet get(final String key, final Object value) {
+        if (!Serializer.isPackable(value)) return unpackableValues.get(key, value);
+        final CachedPostings cached = load(postingsKey(key, value));
+        return cached.ids.isEmpty() ? null : new TLongHashSet(cached.ids);
+    }
+
+    @Override
+    public synchronized long count(final String key, final Object value) {
+        if (!Serializer.isPackable(value)) return unpackableValues.count(key, value);
+        final String postingsKey = postingsKey(key, value);
+        final CachedPostings cached = cache.get(postingsKey);
+        if (cached != null) return cached.ids.size();
+        final long[] ids = postings.get(postingsKey);
+        return ids == null ? 0 : ids.length;
+    }
+
+    @Override
+    public synchronized void removeId(final String key, final long id) {
+        unpackableValues.removeId(key, id);
+        flush();
+        final String prefix = key + SEPARATOR;
+        final List<String> postingsKeys = new ArrayList<>();
+        final Iterator<String> iter = postings.keyIterator(prefix);
+        while (iter.hasNext()) {
+            final String postingsKey = iter.next();
+            if (!postingsKey.startsWith(prefix)) break;
+            postingsKeys.add(postingsKey);
+        }
+        for (String postingsKey : postingsKeys) {
+            final long[] ids = postings.get(postingsKey);
+            for (long candidate : ids) {
+                if (candidate == id) {
+                    remove(postingsKey, id);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void remove(final String postingsKey, final long id) {
+        final CachedPostings cached = load(postingsKey);
+        if (cached.ids.remove(id)) cached.dirty = true;
+    }
+
+    @Override
+    public synchronized void removeKey(final String key) {
+        unpackableValues.removeKey(key);
+        final String prefix = key + SEPARATOR;
+        cache.keySet().removeIf(postingsKey -> postingsKey.startsWith(prefix));
+        final List<String> postingsKeys = new ArrayList<>();
+        final Iterator<String> iter = postings.keyIterator(prefix);
+        while (iter.hasNext()) {
+            final String postingsKey = iter.next();
+            if (!postingsKey.startsWith(prefix)) break;
+            postingsKeys.add(postingsKey);
+        }
+        postingsKeys.forEach(postings::remove);
+    }
+
+    @Override
+    public synchronized void flush() {
+        for (Map.Entry<String, CachedPostings> entry : cache.entrySet()) {
+            writeBack(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private CachedPostings load(final String postingsKey) {
+        CachedPostings cached = cache.get(postingsKey);
+        if (cached == null) {
+            final long[] ids = postings.get(postingsKey);
+            cached = new CachedPostings(ids == null ? new TLongHashSet() : new TLongHashSet(ids));
+            cache.put(postingsKey, cached);
+        }
+        return cached;
+    }
+
+    private void writeBack(final String postingsKey, final CachedPostings cached) {
+        if (!cached.dirty) return;
+        if (cached.ids.isEmpty()) {
+            postings.remove(postingsKey);
+        } else {
+            postings.put(postingsKey, cached.ids.toArray());
+        }
+        cached.dirty = false;
+    }
+
+    /** the serialized value is mapped to chars one byte at a time, i.e. the key is as unique as the bytes */
+    private static String postingsKey(final String key, final Object value) {
+        try {
+            return key + SEPARATOR + new String(Serializer.packValue(key, value), StandardCharsets.ISO_8859_1);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class CachedPostings {
+        private final TLongSet ids;
+        private boolean dirty = false;
+
+        private CachedPostings(final TLongSet ids) {
+            this.ids = ids;
+        }
+    }
+}
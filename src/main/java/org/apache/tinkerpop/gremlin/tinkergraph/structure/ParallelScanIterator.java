@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Evaluates a filter over a (full scan) stream of elements on a fork-join pool. The stream is split into chunks of
+ * `chunkSize` elements, and at most one chunk per worker is scanned ahead of the consumer: each chunk's matches are
+ * collected into a list, and the next chunks are only submitted as the consumer advances.
+ * The workers never wait for the consumer, i.e. an abandoned iterator (e.g. of a traversal that stopped at a `limit`
+ * and was never closed) holds no workers - its chunks in flight just complete, and no further ones are submitted.
+ * Matches are returned in scan order.
+ * Closing the iterator (e.g. by closing the traversal) cancels the chunks in flight.
+ */
+final class ParallelScanIterator<E> implements CloseableIterator<E> {
+
+    private final ForkJoinPool pool;
+    private final Predicate<E> filter;
+    private final long chunkSize;
+    /* ranges of the stream that weren't submitted yet, the next one on top */
+    private final Deque<Spliterator<E>> unscanned = new ArrayDeque<>();
+    private final Deque<ForkJoinTask<List<E>>> inFlight = new ArrayDeque<>();
+    private Iterator<E> matches = Collections.emptyIterator();
+    private boolean closed = false;
+
+    ParallelScanIterator(final ForkJoinPool pool, final Stream<E> elements, final Predicate<E> filter, final int chunkSize) {
+        this.pool = pool;
+        this.filter = filter;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.unscanned.push(elements.spliterator());
+        this.submitChunks();
+    }
+
+    private void submitChunks() {
+        while (this.inFlight.size() < this.pool.getParallelism()) {
+            final Spliterator<E> chunk = this.nextChunk();
+            if (chunk == null) return;
+            this.inFlight.add(this.pool.submit(() -> {
+                final List<E> chunkMatches = new ArrayList<>();
+                chunk.forEachRemaining(element -> {
+                    if (this.filter.test(element)) chunkMatches.add(element);
+                });
+                return chunkMatches;
+            }));
+        }
+    }
+
+    /** splits the next (at most) `chunkSize` elements off the unscanned ranges - ranges that can't be split are
+     *  scanned as one chunk */
+    private Spliterator<E> nextChunk() {
+        Spliterator<E> chunk = this.unscanned.poll();
+        if (chunk == null) return null;
+        while (chunk.estimateSize() > this.chunkSize) {
+            final Spliterator<E> prefix = chunk.trySplit();
+            if (prefix == null) break;
+            this.unscanned.push(chunk);
+            chunk = prefix;
+        }
+        return chunk;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.matches.hasNext()) {
+            final ForkJoinTask<List<E>> chunk = this.inFlight.poll();
+            if (this.closed || chunk == null) return false;
+            this.submitChunks();
+            try {
+                this.matches = chunk.join().iterator();
+            } catch (RuntimeException e) {
+                this.close();
+                throw new RuntimeException("parallel scan failed", e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public E next() {
+        if (!this.hasNext()) throw new NoSuchElementException();
+        return this.matches.next();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.inFlight.forEach(chunk -> chunk.cancel(false));
+        this.inFlight.clear();
+        this.unscanned.clear();
+        this.matches = Collections.emptyIterator();
+    }
+}
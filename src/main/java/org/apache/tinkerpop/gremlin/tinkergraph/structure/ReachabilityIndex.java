@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Answers reachability queries along the outgoing edges with the given labels, e.g. `CALL` closures, without
+ * traversing the graph. The strongly connected components are collapsed into a DAG, and each component gets an
+ * interval from a few randomised post-order labelings of that DAG (computed in parallel): a component can only reach
+ * another one if its intervals contain the other one's, which rules out most unreachable pairs right away - the
+ * remaining candidates are checked with a DFS on the DAG that is pruned by the same intervals.
+ * The index is built on first use, kept on edge additions that don't connect anything new, and rebuilt after any
+ * other modification of edges with its labels.
+ */
+public final class ReachabilityIndex {
+
+    /* number of independent interval labelings - every one rules out more unreachable pairs, but costs two ints per component */
+    private static final int LABELINGS = 3;
+
+    private final TinkerGraph graph;
+    private final Set<String> edgeLabels;
+    private volatile Snapshot snapshot;
+
+    ReachabilityIndex(final TinkerGraph graph, final Set<String> edgeLabels) {
+        this.graph = graph;
+        this.edgeLabels = Collections.unmodifiableSet(new HashSet<>(edgeLabels));
+    }
+
+    public Set<String> getEdgeLabels() {
+        return edgeLabels;
+    }
+
+    /**
+     * @return `true` if there is a path of at least one edge from the source to the target, following outgoing edges
+     * with the index's labels - i.e. a vertex only reaches itself if it's on a cycle
+     */
+    public boolean isReachable(final long sourceId, final long targetId) {
+        return snapshot().isReachable(sourceId, targetId);
+    }
+
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    /** the index will be rebuilt on next use */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /** an edge that connects vertices which were already connected doesn't change reachability */
+    void edgeAdded(final String label, final Object outVertexId, final Object inVertexId) {
+        if (!edgeLabels.contains(label)) return;
+        final Snapshot current = snapshot;
+        if (current != null && !(outVertexId instanceof Long && inVertexId instanceof Long && current.isReachable((Long) outVertexId, (Long) inVertexId)))
+            invalidate();
+    }
+
+    void edgeRemoved(final String label) {
+        if (edgeLabels.contains(label)) invalidate();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = build();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build() {
+        final TLongIntHashMap indexById = new TLongIntHashMap(1024, 0.5f, -1L, -1);
+        final TIntArrayList sources = new TIntArrayList();
+        final TIntArrayList targets = new TIntArrayList();
+        final Iterator<Edge> edges = graph.ondiskOverflowEnabled ?
+                graph.edgesByLabel(P.within(edgeLabels)) :
+                graph.edges.values().stream().filter(edge -> edgeLabels.contains(edge.label())).iterator();
+        while (edges.hasNext()) {
+            final Edge edge = edges.next();
+            sources.add(index(indexById, outVertexId(edge)));
+            targets.add(index(indexById, inVertexId(edge)));
+        }
+
+        final int vertexCount = indexById.size();
+        final int[][] adjacency = adjacency(vertexCount, sources, targets);
+        final int[] componentByVertex = new int[vertexCount];
+        final int componentCount = stronglyConnectedComponents(adjacency, componentByVertex);
+
+        // successors of each component, and whether it's on a cycle (i.e. has more than one vertex, or a self loop)
+        final TIntHashSet[] successorSets = new TIntHashSet[componentCount];
+        final BitSet cyclic = new BitSet(componentCount);
+        final int[] componentSizes = new int[componentCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            final int component = componentByVertex[vertex];
+            if (++componentSizes[component] > 1) cyclic.set(component);
+            for (final int adjacent : adjacency[vertex]) {
+                final int adjacentComponent = componentByVertex[adjacent];
+                if (adjacentComponent == component) {
+                    if (adjacent == vertex) cyclic.set(component);
+                } else {
+                    if (successorSets[component] == null) successorSets[component] = new TIntHashSet();
+                    successorSets[component].add(adjacentComponent);
+                }
+            }
+        }
+        final int[][] successors = new int[componentCount][];
+        for (int component = 0; component < componentCount; component++) {
+            successors[component] = successorSets[component] == null ? new int[0] : successorSets[component].toArray();
+        }
+
+        final int[][] lows = new int[LABELINGS][];
+        final int[][] posts = new int[LABELINGS][];
+        graph.parallelScanPool().submit(() -> IntStream.range(0, LABELINGS).parallel().forEach(labeling -> {
+            lows[labeling] = new int[componentCount];
+            posts[labeling] = new int[componentCount];
+            label(successors, new Random(labeling), lows[labeling], posts[labeling]);
+        })).join();
+
+        final TLongIntHashMap componentById = new TLongIntHashMap(vertexCount, 0.5f, -1L, -1);
+        indexById.forEachEntry((id, index) -> {
+            componentById.put(id, componentByVertex[index]);
+            return true;
+        });
+        return new Snapshot(componentById, successors, cyclic, lows, posts);
+    }
+
+    private static long outVertexId(final Edge edge) {
+        if (edge instanceof SpecializedTinkerEdge) return ((SpecializedTinkerEdge) edge).outVertexId;
+        return vertexId(edge.outVertex().id());
+    }
+
+    private static long inVertexId(final Edge edge) {
+        if (edge instanceof SpecializedTinkerEdge) return ((SpecializedTinkerEdge) edge).inVertexId;
+        return vertexId(edge.inVertex().id());
+    }
+
+    private static long vertexId(final Object id) {
+        if (!(id instanceof Long))
+            throw new IllegalStateException("reachability index requires long vertex ids, but got " + id);
+        return (Long) id;
+    }
+
+    private static int index(final TLongIntHashMap indexById, final long id) {
+        final int index = indexById.get(id);
+        if (index != -1) return index;
+        indexById.put(id, indexById.size());
+        return indexById.size() - 1;
+    }
+
+    private static int[][] adjacency(final int vertexCount, final TIntArrayList sources, final TIntArrayList targets) {
+        final int[] degrees = new int[vertexCount];
+        for (int i = 0; i < sources.size(); i++) degrees[sources.get(i)]++;
+        final int[][] adjacency = new int[vertexCount][];
+        for (int vertex = 0; vertex < vertexCount; vertex++) adjacency[vertex] = new int[degrees[vertex]];
+        for (int i = 0; i < sources.size(); i++) {
+            final int source = sources.get(i);
+            adjacency[source][--degrees[source]] = targets.get(i);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Tarjan's algorithm, without recursion. Components are numbered in the order they are completed, which is a
+     * reverse topological order: edges between components always lead to a lower component number.
+     * @return number of components
+     */
+    private static int stronglyConnectedComponents(final int[][] adjacency, final int[] componentByVertex) {
+        final int vertexCount = adjacency.length;
+        final int[] order = new int[vertexCount];
+        final int[] lowLink = new int[vertexCount];
+        Arrays.fill(order, -1);
+        final BitSet onStack = new BitSet(vertexCount);
+        final int[] stack = new int[vertexCount];
+        final int[] callStack = new int[vertexCount];
+        final int[] nextAdjacent = new int[vertexCount];
+        int stackSize = 0, nextOrder = 0, componentCount = 0;
+
+        for (int root = 0; root < vertexCount; root++) {
+            if (order[root] != -1) continue;
+            int callDepth = 0;
+            callStack[callDepth++] = root;
+            order[root] = lowLink[root] = nextOrder++;
+            stack[stackSize++] = root;
+            onStack.set(root);
+            while (callDepth > 0) {
+                final int vertex = callStack[callDepth - 1];
+                if (nextAdjacent[vertex] < adjacency[vertex].length) {
+                    final int adjacent = adjacency[vertex][nextAdjacent[vertex]++];
+                    if (order[adjacent] == -1) {
+                        order[adjacent] = lowLink[adjacent] = nextOrder++;
+                        stack[stackSize++] = adjacent;
+                        onStack.set(adjacent);
+                        callStack[callDepth++] = adjacent;
+                    } else if (onStack.get(adjacent)) {
+                        lowLink[vertex] = Math.min(lowLink[vertex], order[adjacent]);
+                    }
+                } else {
+                    callDepth--;
+                    if (lowLink[vertex] == order[vertex]) {
+                        int member;
+                        do {
+                            member = stack[--stackSize];
+                            onStack.clear(member);
+                            componentByVertex[member] = componentCount;
+                        } while (member != vertex);
+                        componentCount++;
+                    }
+                    if (callDepth > 0) {
+                        final int caller = callStack[callDepth - 1];
+                        lowLink[caller] = Math.min(lowLink[caller], lowLink[vertex]);
+                    }
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    /**
+     * One randomised post-order labeling of the DAG: every component gets the interval `[low, post]`, where `low` is
+     * the lowest post-order number among the components it reaches - hence it contains the intervals of all of them.
+     */
+    private static void label(final int[][] successors, final Random random, final int[] lows, final int[] posts) {
+        final int componentCount = successors.length;
+        final int[] roots = IntStream.range(0, componentCount).toArray();
+        for (int i = componentCount - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int root = roots[i];
+            roots[i] = roots[j];
+            roots[j] = root;
+        }
+        final BitSet visited = new BitSet(componentCount);
+        final int[] callStack = new int[componentCount];
+        final int[] visitedSuccessors = new int[componentCount];
+        final int[] firstSuccessor = new int[componentCount];
+        int nextPost = 0;
+        for (final int root : roots) {
+            if (visited.get(root)) continue;
+            int callDepth = 0;
+            callStack[callDepth++] = root;
+            visited.set(root);
+            lows[root] = Integer.MAX_VALUE;
+            firstSuccessor[root] = successors[root].length == 0 ? 0 : random.nextInt(successors[root].length);
+            while (callDepth > 0) {
+                final int component = callStack[callDepth - 1];
+                final int[] componentSuccessors = successors[component];
+                if (visitedSuccessors[component] < componentSuccessors.length) {
+                    final int successor = componentSuccessors[(firstSuccessor[component] + visitedSuccessors[component]++) % componentSuccessors.length];
+                    if (!visited.get(successor)) {
+                        visited.set(successor);
+                        lows[successor] = Integer.MAX_VALUE;
+                        firstSuccessor[successor] = successors[successor].length == 0 ? 0 : random.nextInt(successors[successor].length);
+                        callStack[callDepth++] = successor;
+                    } else {
+                        lows[component] = Math.min(lows[component], lows[successor]);
+                    }
+                } else {
+                    callDepth--;
+                    posts[component] = nextPost++;
+                    lows[component] = Math.min(lows[component], posts[component]);
+                    if (callDepth > 0) {
+                        final int caller = callStack[callDepth - 1];
+                        lows[caller] = Math.min(lows[caller], lows[component]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private final TLongIntHashMap componentById;
+        private final int[][] successors;
+        private final BitSet cyclic;
+        private final int[][] lows;
+        private final int[][] posts;
+
+        private Snapshot(final TLongIntHashMap componentById, final int[][] successors, final BitSet cyclic, final int[][] lows, final int[][] posts) {
+            this.componentById = componentById;
+            this.successors = successors;
+            this.cyclic = cyclic;
+            this.lows = lows;
+            this.posts = posts;
+        }
+
+        private boolean isReachable(final long sourceId, final long targetId) {
+            final int source = componentById.get(sourceId);
+            final int target = componentById.get(targetId);
+            if (source == -1 || target == -1) return false;
+            if (source == target) return sourceId != targetId || cyclic.get(source);
+            if (!mayReach(source, target)) return false;
+
+            // depth-first search on the DAG, only following components whose intervals contain the target's
+            final BitSet visited = new BitSet();
+            final TIntArrayList stack = new TIntArrayList();
+            stack.add(source);
+            visited.set(source);
+            while (!stack.isEmpty()) {
+                final int component = stack.removeAt(stack.size() - 1);
+                for (final int successor : successors[component]) {
+                    if (successor == target) return true;
+                    if (!visited.get(successor) && mayReach(successor, target)) {
+                        visited.set(successor);
+                        stack.add(successor);
+                    }
+                }
+            }
+            return false;
+        }
+
+        /** components only lead to lower component numbers, and the intervals of a component contain those of all components it reaches */
+        private boolean mayReach(final int source, final int target) {
+            if (source < target) return false;
+            for (int labeling = 0; labeling < LABELINGS; labeling++) {
+                if (lows[labeling][target] < lows[labeling][source] || posts[labeling][target] > posts[labeling][source])
+                    return false;
+            }
+            return true;
+        }
+    }
+}
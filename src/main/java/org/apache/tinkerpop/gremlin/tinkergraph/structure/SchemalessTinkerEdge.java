@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.structure.Property;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+
+/* Edge for generic (i.e. not specialized) graphs with on-disk overflow: properties are held in the generic property map */
+public class SchemalessTinkerEdge extends SpecializedTinkerEdge {
+
+    public SchemalessTinkerEdge(TinkerGraph graph, Long id, long outVertexId, String label, long inVertexId) {
+        super(graph, id, outVertexId, label, inVertexId, Collections.emptySet());
+    }
+
+    @Override
+    public Set<String> keys() {
+        decodeSerializedProperties();
+        return properties == null ? Collections.emptySet() : properties.keySet();
+    }
+
+    @Override
+    protected <V> Property<V> specificProperty(String key) {
+        return properties == null ? Property.empty() : properties.getOrDefault(key, Property.empty());
+    }
+
+    @Override
+    protected <V> Property<V> updateSpecificProperty(String key, V value) {
+        final Property<V> property = new TinkerProperty<>(this, key, value);
+        if (properties == null) properties = new HashMap<>();
+        properties.put(key, property);
+        return property;
+    }
+
+    @Override
+    protected void removeSpecificProperty(String key) {
+        if (properties != null) properties.remove(key);
+    }
+
+    /** there is no fixed set of keys, so a partially decoded properties segment could never be dropped */
+    @Override
+    protected void decodeSerializedProperty(String key) {
+        decodeSerializedProperties();
+    }
+
+    public static SpecializedElementFactory.ForEdge<SchemalessTinkerEdge> factory(final String label) {
+        return new SpecializedElementFactory.ForEdge<SchemalessTinkerEdge>() {
+            @Override
+            public String forLabel() {
+                return label;
+            }
+
+            @Override
+            public SchemalessTinkerEdge createEdge(Long id, TinkerGraph graph, Long outVertexId, Long inVertexId) {
+                return new SchemalessTinkerEdge(graph, id, outVertexId, label, inVertexId);
+            }
+        };
+    }
+}
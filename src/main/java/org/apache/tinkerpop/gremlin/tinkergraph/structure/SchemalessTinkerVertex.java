@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.map.hash.THashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.Serializer;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.org.apache.tinkerpop.gremlin.util.iterator.TLongMultiIterator;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+
+import java.io.IOException;
+import java.util.*;
+
+/* Vertex for generic (i.e. not specialized) graphs with on-disk overflow: properties are held in the generic
+ * property map (including multi- and meta-properties), adjacent edges are referenced by id, grouped by label. */
+public class SchemalessTinkerVertex extends SpecializedTinkerVertex {
+
+    private final Map<String, TLongSet> outEdgeIdsByLabel = new THashMap<>(4);
+    private final Map<String, TLongSet> inEdgeIdsByLabel = new THashMap<>(4);
+
+    public SchemalessTinkerVertex(Long id, String label, TinkerGraph graph) {
+        super(id, label, graph, Collections.emptySet());
+    }
+
+    @Override
+    public Set<String> keys() {
+        decodeSerializedProperties();
+        return properties == null ? Collections.emptySet() : properties.keySet();
+    }
+
+    @Override
+    protected <V> VertexProperty<V> specificProperty(String key) {
+        final List<VertexProperty> list = properties == null ? null : properties.get(key);
+        if (list == null || list.isEmpty()) {
+            return VertexProperty.empty();
+        } else if (list.size() > 1) {
+            throw Vertex.Exceptions.multiplePropertiesExistForProvidedKey(key);
+        } else {
+            return list.get(0);
+        }
+    }
+
+    @Override
+    public boolean supportsMultiProperties() {
+        return true;
+    }
+
+    @Override
+    protected <V> Iterator<VertexProperty<V>> specificProperties(String key) {
+        final List<VertexProperty> list = properties == null ? null : properties.get(key);
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyIterator();
+        } else if (list.size() == 1) {
+            return IteratorUtils.of(list.get(0));
+        } else {
+            return (Iterator) new ArrayList<>(list).iterator();
+        }
+    }
+
+    /** same semantics as `TinkerVertex.property`, i.e. supports all cardinalities, vertex property ids and meta-properties */
+    @Override
+    public <V> VertexProperty<V> property(VertexProperty.Cardinality cardinality, String key, V value, Object... keyValues) {
+        if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
+        ElementHelper.legalPropertyKeyValueArray(keyValues);
+        ElementHelper.validateProperty(key, value);
+        decodeSerializedProperties();
+        final Optional<VertexProperty<V>> optionalVertexProperty = ElementHelper.stageVertexProperty(this, cardinality, key, value, keyValues);
+        if (optionalVertexProperty.isPresent()) return optionalVertexProperty.get();
+
+        final Optional<Object> optionalId = ElementHelper.getIdValue(keyValues);
+        final Object idValue = optionalId.isPresent() ?
+            graph.vertexPropertyIdManager.convert(optionalId.get()) :
+            graph.vertexPropertyIdManager.getNextId(graph);
+
+        acquireModificationLock();
+        try {
+            setModifiedSinceLastSerialization(true);
+            // meta-properties are attached before the vertex property is added, so that they are logged along with it
+            final VertexProperty<V> vertexProperty = new TinkerVertexProperty<>(idValue, this, key, value, keyValues);
+            addVertexProperty(vertexProperty);
+            TinkerHelper.autoUpdateIndex(this, key, value, null);
+            logProperties();
+            graph.mutated();
+            return vertexProperty;
+        } finally {
+            releaseModificationLock();
+        }
+    }
+
+    /** @return whether the given vertex property (rather than one with the same key and value) belongs to this vertex */
+    boolean contains(VertexProperty vertexProperty) {
+        final List<VertexProperty> list = properties == null ? null : properties.get(vertexProperty.key());
+        if (list == null) return false;
+        for (VertexProperty candidate : list) {
+            if (candidate == vertexProperty) return true;
+        }
+        return false;
+    }
+
+    /** logs all properties of this vertex as a single mutation, since individual property mutations can't express
+     *  vertex property ids, multi- or meta-properties */
+    void logProperties() {
+        if (graph.mutationLog == null) return;
+        decodeSerializedProperties();
+        final List<VertexProperty> vertexProperties = new ArrayList<>();
+        if (properties != null) properties.values().forEach(vertexProperties::addAll);
+        try {
+            graph.mutationLog.setVertexProperties((long) id, Serializer.packVertexProperties(vertexProperties.iterator()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected <V> VertexProperty<V> updateSpecificProperty(VertexProperty.Cardinality cardinality, String key, V value) {
+        if (cardinality != VertexProperty.Cardinality.list && properties != null) properties.remove(key);
+        final VertexProperty<V> vertexProperty =
+            new TinkerVertexProperty<>(graph.vertexPropertyIdManager.getNextId(graph), this, key, value);
+        addVertexProperty(vertexProperty);
+        return vertexProperty;
+    }
+
+    private void addVertexProperty(VertexProperty vertexProperty) {
+        if (properties == null) properties = new HashMap<>();
+        properties.computeIfAbsent(vertexProperty.key(), k -> new ArrayList<>(1)).add(vertexProperty);
+    }
+
+    @Override
+    protected void removeSpecificProperty(String key) {
+        if (properties != null) properties.remove(key);
+    }
+
+    /** the serialized properties segment can't be partially decoded, since it may contain multi- and meta-properties */
+    @Override
+    protected void decodeSerializedProperty(String key) {
+        decodeSerializedProperties();
+    }
+
+    @Override
+    protected void decodeSerializedProperties() {
+        if (getSerializedProperties() == null) return;
+        synchronized (this) {
+            final byte[] serializedProperties = getSerializedProperties();
+            if (serializedProperties == null) return;
+            // attaching meta-properties marks this vertex as modified, but decoding doesn't change anything
+            final boolean modifiedSinceLastSerialization = isModifiedSinceLastSerialization();
+            try {
+                for (Object[] vertexProperty : Serializer.unpackVertexProperties(serializedProperties)) {
+                    addVertexProperty(new TinkerVertexProperty<>(
+                        vertexProperty[1], this, (String) vertexProperty[0], vertexProperty[2], (Object[]) vertexProperty[3]));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            setSerializedProperties(null);
+            setModifiedSinceLastSerialization(modifiedSinceLastSerialization);
+        }
+    }
+
+    @Override
+    protected TLongIterator specificEdges(Direction direction, String... edgeLabels) {
+        final List<TLongIterator> iterators = new ArrayList<>();
+        if (direction == Direction.IN || direction == Direction.BOTH) {
+            addEdgeIdIterators(iterators, inEdgeIdsByLabel, edgeLabels);
+        }
+        if (direction == Direction.OUT || direction == Direction.BOTH) {
+            addEdgeIdIterators(iterators, outEdgeIdsByLabel, edgeLabels);
+        }
+        return new TLongMultiIterator(iterators);
+    }
+
+    private void addEdgeIdIterators(List<TLongIterator> iterators, Map<String, TLongSet> edgeIdsByLabel, String... edgeLabels) {
+        if (edgeLabels.length == 0) {
+            for (TLongSet edgeIds : edgeIdsByLabel.values()) {
+                iterators.add(edgeIds.iterator());
+            }
+        } else {
+            for (String label : edgeLabels) {
+                final TLongSet edgeIds = edgeIdsByLabel.get(label);
+                if (edgeIds != null) iterators.add(edgeIds.iterator());
+            }
+        }
+    }
+
+    @Override
+    protected void removeSpecificOutEdge(Long edgeId) {
+        for (TLongSet edgeIds : outEdgeIdsByLabel.values()) {
+            edgeIds.remove(edgeId);
+        }
+    }
+
+    @Override
+    protected void removeSpecificInEdge(Long edgeId) {
+        for (TLongSet edgeIds : inEdgeIdsByLabel.values()) {
+            edgeIds.remove(edgeId);
+        }
+    }
+
+    @Override
+    public Map<String, TLongSet> edgeIdsByLabel(Direction direction) {
+        if (direction.equals(Direction.IN)) {
+            return inEdgeIdsByLabel;
+        } else if (direction.equals(Direction.OUT)) {
+            return outEdgeIdsByLabel;
+        } else {
+            throw new NotImplementedException("not implemented for direction=" + direction);
+        }
+    }
+
+    @Override
+    public void addSpecializedOutEdge(String edgeLabel, long edgeId) {
+        outEdgeIdsByLabel.computeIfAbsent(edgeLabel, label -> new TLongHashSet()).add(edgeId);
+    }
+
+    @Override
+    public void addSpecializedInEdge(String edgeLabel, long edgeId) {
+        inEdgeIdsByLabel.computeIfAbsent(edgeLabel, label -> new TLongHashSet()).add(edgeId);
+    }
+
+    public static SpecializedElementFactory.ForVertex<SchemalessTinkerVertex> factory(final String label) {
+        return new SpecializedElementFactory.ForVertex<SchemalessTinkerVertex>() {
+            @Override
+            public String forLabel() {
+                return label;
+            }
+
+            @Override
+            public SchemalessTinkerVertex createVertex(Long id, TinkerGraph graph) {
+                return new SchemalessTinkerVertex(id, label, graph);
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+/**
+ * Bidirectional breadth-first search on the adjacency of a graph with long ids: a forward search from the source and a
+ * backward search from the target, expanding the smaller frontier one level at a time via
+ * {@link TinkerVertex#forEachNeighborId}, i.e. without resolving edges or building path objects.
+ */
+public final class ShortestPath {
+
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    private ShortestPath() {
+    }
+
+    /**
+     * @return the ids of the vertices on a shortest path from the source to the target, following edges in the given
+     * direction with any of the given labels (or any label if none are given), with at most `maxDepth` edges -
+     * `null` if there is no such path. A path from a vertex to itself has at least one edge, i.e. it is a cycle.
+     */
+    public static long[] find(final TinkerGraph graph, final long sourceId, final long targetId, final Direction direction,
+                              final String[] edgeLabels, final int maxDepth) {
+        final Search forward = new Search(graph, sourceId, direction, edgeLabels);
+        final Search backward = new Search(graph, targetId, direction.opposite(), edgeLabels);
+        final Meeting meeting = new Meeting();
+        // all paths with at most `forward.depth + backward.depth` edges have been seen once both searches have reached that depth
+        while (meeting.length > forward.depth + backward.depth + 1 && forward.depth + backward.depth < maxDepth &&
+                !forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+            if (forward.frontier.size() <= backward.frontier.size())
+                forward.expand(backward, meeting, false);
+            else
+                backward.expand(forward, meeting, true);
+        }
+        if (!meeting.found() || meeting.length > maxDepth)
+            return null;
+
+        final TLongArrayList path = new TLongArrayList(meeting.length + 1);
+        forward.appendPathFromRoot(meeting.forwardId, path);
+        path.reverse();
+        backward.appendPathFromRoot(meeting.backwardId, path);
+        return path.toArray();
+    }
+
+    /** @return `true` if there is a path from the source to the target with at most `maxDepth` edges, like {@link #find} */
+    public static boolean isReachable(final TinkerGraph graph, final long sourceId, final long targetId, final Direction direction,
+                                      final String[] edgeLabels, final int maxDepth) {
+        return find(graph, sourceId, targetId, direction, edgeLabels, maxDepth) != null;
+    }
+
+    /** the edge `forwardId -> backwardId` joining both searches, on the shortest path seen so far */
+    private static final class Meeting {
+        private int length = Integer.MAX_VALUE;
+        private long forwardId;
+        private long backwardId;
+
+        private boolean found() {
+            return length != Integer.MAX_VALUE;
+        }
+    }
+
+    private static final class Search {
+        private final TinkerGraph graph;
+        private final long rootId;
+        private final Direction direction;
+        private final String[] edgeLabels;
+        private final TLongIntMap depthById = new TLongIntHashMap();
+        private final TLongLongMap parentById = new TLongLongHashMap();
+        private TLongArrayList frontier = new TLongArrayList();
+        private int depth;
+
+        private Search(final TinkerGraph graph, final long rootId, final Direction direction, final String[] edgeLabels) {
+            this.graph = graph;
+            this.rootId = rootId;
+            this.direction = direction;
+            this.edgeLabels = edgeLabels;
+            depthById.put(rootId, 0);
+            frontier.add(rootId);
+        }
+
+        /** visits the next level, and records where it meets the other search */
+        private void expand(final Search other, final Meeting meeting, final boolean backward) {
+            final TLongArrayList nextFrontier = new TLongArrayList();
+            for (int i = 0; i < frontier.size(); i++) {
+                final long id = frontier.get(i);
+                final Vertex vertex = graph.vertexById(id);
+                if (vertex == null) continue;
+                ((TinkerVertex) vertex).forEachNeighborId(direction, edgeLabels, neighborId -> {
+                    if (other.depthById.containsKey(neighborId)) {
+                        final int length = depth + 1 + other.depthById.get(neighborId);
+                        if (length < meeting.length) {
+                            meeting.length = length;
+                            meeting.forwardId = backward ? neighborId : id;
+                            meeting.backwardId = backward ? id : neighborId;
+                        }
+                    }
+                    if (!depthById.containsKey(neighborId)) {
+                        depthById.put(neighborId, depth + 1);
+                        parentById.put(neighborId, id);
+                        nextFrontier.add(neighborId);
+                    }
+                    return true;
+                });
+            }
+            frontier = nextFrontier;
+            depth++;
+        }
+
+        /** appends the ids from the given vertex back to the root of this search */
+        private void appendPathFromRoot(long id, final TLongArrayList path) {
+            path.add(id);
+            while (id != rootId) {
+                id = parentById.get(id);
+                path.add(id);
+            }
+        }
+    }
+}
@@ -18,20 +18,53 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
-import org.apache.tinkerpop.gremlin.structure.Vertex;
+import java.util.Map;
+import java.util.Set;
 
 /* To make use of specialized elements (for better memory/performance characteristics), you need to
  * create instances of these factories and register them with TinkerGraph. That way it will instantiate
- * your specialized elements rather than generic ones. */
+ * your specialized elements rather than generic ones.
+ * Factories may also describe the schema of their elements, which allows the optimizer to prune traversals that can't
+ * match anything, see `SpecializedElementSchema` - `null` means unknown, i.e. anything is allowed. */
 public class SpecializedElementFactory {
     public interface ForVertex<T extends SpecializedTinkerVertex> {
         public abstract String forLabel();
         public abstract T createVertex(Long id, TinkerGraph graph);
+
+        /** property keys that vertices with this label support, and the types of their values */
+        public default Map<String, Class<?>> propertyTypes() {
+            return null;
+        }
+
+        /** labels of the outgoing edges that vertices with this label support */
+        public default Set<String> outEdgeLabels() {
+            return null;
+        }
+
+        /** labels of the incoming edges that vertices with this label support */
+        public default Set<String> inEdgeLabels() {
+            return null;
+        }
     }
 
     public interface ForEdge<T extends SpecializedTinkerEdge> {
         public abstract String forLabel();
         public abstract T createEdge(Long id, TinkerGraph graph, Long outVertexId, Long inVertexId);
+
+        /** property keys that edges with this label support, and the types of their values */
+        public default Map<String, Class<?>> propertyTypes() {
+            return null;
+        }
+
+        /** labels of the vertices that edges with this label can start at */
+        public default Set<String> outVertexLabels() {
+            return null;
+        }
+
+        /** labels of the vertices that edges with this label can end at */
+        public default Set<String> inVertexLabels() {
+            return null;
+        }
     }
 }
 
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The schema of a graph with specialized elements, as described by their factories. The set of labels is closed, since
+ * specialized and generic elements can't be mixed, and each label may restrict the property keys and the edges of its
+ * elements. Whatever a factory doesn't describe is treated as unrestricted.
+ */
+public final class SpecializedElementSchema {
+
+    private final Map<String, SpecializedElementFactory.ForVertex> vertexFactories;
+    private final Map<String, SpecializedElementFactory.ForEdge> edgeFactories;
+
+    SpecializedElementSchema(final Map<String, SpecializedElementFactory.ForVertex> vertexFactories,
+                             final Map<String, SpecializedElementFactory.ForEdge> edgeFactories) {
+        this.vertexFactories = new HashMap<>(vertexFactories);
+        this.edgeFactories = new HashMap<>(edgeFactories);
+    }
+
+    public Set<String> vertexLabels() {
+        return Collections.unmodifiableSet(this.vertexFactories.keySet());
+    }
+
+    public Set<String> edgeLabels() {
+        return Collections.unmodifiableSet(this.edgeFactories.keySet());
+    }
+
+    /** @return the given labels, restricted to the ones whose elements can pass the given filter */
+    public Set<String> labelsPassing(final boolean vertices, final Set<String> labels, final HasContainer hasContainer) {
+        final Set<String> result = new HashSet<>();
+        for (final String label : labels) {
+            if (T.label.getAccessor().equals(hasContainer.getKey())) {
+                if (((P<String>) hasContainer.getPredicate()).test(label))
+                    result.add(label);
+            } else if (hasContainer.getKey().startsWith("~")) { // id, key or value
+                result.add(label);
+            } else {
+                final Map<String, Class<?>> propertyTypes = vertices ?
+                        propertyTypes(this.vertexFactories.get(label)) : propertyTypes(this.edgeFactories.get(label));
+                if (null == propertyTypes ||
+                        (propertyTypes.containsKey(hasContainer.getKey()) && mayMatch(propertyTypes.get(hasContainer.getKey()), hasContainer.getPredicate())))
+                    result.add(label);
+            }
+        }
+        return result;
+    }
+
+    /** @return the given labels, restricted to the ones whose elements can have a property with the given key */
+    public Set<String> labelsWithKey(final boolean vertices, final Set<String> labels, final String key) {
+        final Set<String> result = new HashSet<>();
+        for (final String label : labels) {
+            final Map<String, Class<?>> propertyTypes = vertices ?
+                    propertyTypes(this.vertexFactories.get(label)) : propertyTypes(this.edgeFactories.get(label));
+            if (null == propertyTypes || propertyTypes.containsKey(key))
+                result.add(label);
+        }
+        return result;
+    }
+
+    /**
+     * @return the given vertex labels, restricted to the ones whose vertices can have edges with any of the given labels
+     * (or any edges at all, if there are none) in the given direction
+     */
+    public Set<String> vertexLabelsWithEdges(final Set<String> vertexLabels, final Direction direction, final Collection<String> edgeLabels) {
+        final Set<String> result = new HashSet<>();
+        for (final String vertexLabel : vertexLabels) {
+            final Set<String> supported = edgeLabels(Collections.singleton(vertexLabel), direction);
+            if (edgeLabels.isEmpty() ? !supported.isEmpty() : !Collections.disjoint(supported, edgeLabels))
+                result.add(vertexLabel);
+        }
+        return result;
+    }
+
+    /** @return labels of the edges that vertices with the given labels can have in the given direction */
+    public Set<String> edgeLabels(final Set<String> vertexLabels, final Direction direction) {
+        final Set<String> result = new HashSet<>();
+        for (final String vertexLabel : vertexLabels) {
+            final SpecializedElementFactory.ForVertex factory = this.vertexFactories.get(vertexLabel);
+            if (null == factory)
+                continue;
+            if (direction != Direction.IN)
+                addAllOrEverything(result, factory.outEdgeLabels(), this.edgeFactories.keySet());
+            if (direction != Direction.OUT)
+                addAllOrEverything(result, factory.inEdgeLabels(), this.edgeFactories.keySet());
+        }
+        result.retainAll(this.edgeFactories.keySet());
+        return result;
+    }
+
+    /** @return labels of the vertices at the given end of edges with the given labels */
+    public Set<String> vertexLabels(final Set<String> edgeLabels, final Direction end) {
+        final Set<String> result = new HashSet<>();
+        for (final String edgeLabel : edgeLabels) {
+            final SpecializedElementFactory.ForEdge factory = this.edgeFactories.get(edgeLabel);
+            if (null == factory)
+                continue;
+            if (end != Direction.IN)
+                addAllOrEverything(result, factory.outVertexLabels(), this.vertexFactories.keySet());
+            if (end != Direction.OUT)
+                addAllOrEverything(result, factory.inVertexLabels(), this.vertexFactories.keySet());
+        }
+        result.retainAll(this.vertexFactories.keySet());
+        return result;
+    }
+
+    private static void addAllOrEverything(final Set<String> result, final Set<String> labels, final Set<String> everything) {
+        result.addAll(null == labels ? everything : labels);
+    }
+
+    private static Map<String, Class<?>> propertyTypes(final SpecializedElementFactory.ForVertex factory) {
+        return null == factory ? Collections.emptyMap() : factory.propertyTypes();
+    }
+
+    private static Map<String, Class<?>> propertyTypes(final SpecializedElementFactory.ForEdge factory) {
+        return null == factory ? Collections.emptyMap() : factory.propertyTypes();
+    }
+
+    /** only equality with a value of an incompatible type is known to never match - numbers are compared by value */
+    private static boolean mayMatch(final Class<?> type, final P<?> predicate) {
+        final Object value = predicate.getValue();
+        if (predicate.getBiPredicate() != Compare.eq || null == value || null == type)
+            return true;
+        return type.isInstance(value) || (Number.class.isAssignableFrom(type) && value instanceof Number);
+    }
+}
@@ -20,8 +20,10 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.Serializer;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 
@@ -33,6 +35,11 @@ public abstract class SpecializedTinkerEdge extends TinkerEdge {
 
     private final Set<String> specificKeys;
 
+    /** raw properties segment if this edge was deserialized - properties are only decoded on demand.
+     *  as long as this is set, it is the authoritative source for all properties not in `decodedKeys` */
+    private volatile byte[] serializedProperties;
+    private Set<String> decodedKeys;
+
     //using ids instead of hard references, so we can use disk storage
     public final long outVertexId;
     public final long inVertexId;
@@ -51,16 +58,31 @@ public abstract class SpecializedTinkerEdge extends TinkerEdge {
 
     @Override
     public <V> Property<V> property(String key) {
+        decodeSerializedProperty(key);
         return specificProperty(key);
     }
 
     /* implement in concrete specialised instance to avoid using generic HashMaps */
     protected abstract <V> Property<V> specificProperty(String key);
 
+    /** @return the value of the property with the given key, or `null` if there is none - without wrapping it in a `Property` */
+    public <V> V propertyValue(String key) {
+        if (this.removed) return null;
+        decodeSerializedProperty(key);
+        return specificPropertyValue(key);
+    }
+
+    /* You can override this default implementation in concrete specialised instances for performance,
+     * i.e. to return the field's value without allocating a `Property` */
+    protected <V> V specificPropertyValue(String key) {
+        final Property<V> property = specificProperty(key);
+        return property.isPresent() ? property.value() : null;
+    }
+
     @Override
     public <V> Iterator<Property<V>> properties(String... propertyKeys) {
         if (propertyKeys.length == 0) {
-            return (Iterator) specificKeys.stream().map(key -> property(key)).filter(vp -> vp.isPresent()).iterator();
+            return (Iterator) keys().stream().map(key -> property(key)).filter(vp -> vp.isPresent()).iterator();
         } else if (propertyKeys.length == 1) { // treating as special case for performance
             // return IteratorUtils.of(property(propertyKeys[0]));
             final Property<V> prop = property(propertyKeys[0]);
@@ -74,22 +96,34 @@ public abstract class SpecializedTinkerEdge extends TinkerEdge {
     public <V> Property<V> property(String key, V value) {
         if (this.removed) throw elementAlreadyRemoved(Edge.class, id);
         ElementHelper.validateProperty(key, value);
+        decodeSerializedProperties();
         final Property oldProperty = super.property(key);
         acquireModificationLock();
-        modifiedSinceLastSerialization = true;
-        final Property<V> p = updateSpecificProperty(key, value);
-        TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
-        releaseModificationLock();
-        return p;
+        try {
+            modifiedSinceLastSerialization = true;
+            final Property<V> p = updateSpecificProperty(key, value);
+            TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
+            if (graph.mutationLog != null) graph.mutationLog.setEdgeProperty((long) id, key, value);
+            graph.mutated();
+            return p;
+        } finally {
+            releaseModificationLock();
+        }
     }
 
     protected abstract <V> Property<V> updateSpecificProperty(String key, V value);
 
     public void removeProperty(String key) {
+        decodeSerializedProperties();
         acquireModificationLock();
-        modifiedSinceLastSerialization = true;
-        removeSpecificProperty(key);
-        releaseModificationLock();
+        try {
+            modifiedSinceLastSerialization = true;
+            removeSpecificProperty(key);
+            if (graph.mutationLog != null) graph.mutationLog.removeEdgeProperty((long) id, key);
+            graph.mutated();
+        } finally {
+            releaseModificationLock();
+        }
     }
 
     protected abstract void removeSpecificProperty(String key);
@@ -102,25 +136,31 @@ public abstract class SpecializedTinkerEdge extends TinkerEdge {
     @Override
     public void remove() {
         acquireModificationLock();
-        final SpecializedTinkerVertex outVertex = (SpecializedTinkerVertex) this.outVertex();
-        final SpecializedTinkerVertex inVertex = (SpecializedTinkerVertex) this.inVertex();
-
-        Long id = (Long) this.id();
-        outVertex.removeOutEdge(id);
-        inVertex.removeInEdge(id);
-
-        TinkerHelper.removeElementIndex(this);
-        graph.edges.remove(id);
-        if (graph.ondiskOverflowEnabled) {
-            graph.edgeIdsByLabel.get(label()).remove(id);
-            graph.onDiskEdgeOverflow.remove(id);
-            graph.edgeCache.remove(id);
+        try {
+            final SpecializedTinkerVertex outVertex = (SpecializedTinkerVertex) this.outVertex();
+            final SpecializedTinkerVertex inVertex = (SpecializedTinkerVertex) this.inVertex();
+
+            Long id = (Long) this.id();
+            outVertex.removeOutEdge(id);
+            inVertex.removeInEdge(id);
+
+            TinkerHelper.removeElementIndex(this);
+            if (null != graph.edges.remove(id))
+                TinkerGraph.updateElementCount(graph.edgeCountByLabel, label, -1);
+            if (graph.ondiskOverflowEnabled) {
+                graph.edgeIdsByLabel.get(label()).remove(id);
+                graph.onDiskEdgeOverflow.remove(id);
+                graph.edgeCache.remove(id);
+            }
+            if (graph.mutationLog != null) graph.mutationLog.removeEdge(id);
+            graph.edgeRemoved(label, outVertex, inVertex);
+
+            this.properties = null;
+            this.removed = true;
+            modifiedSinceLastSerialization = true;
+        } finally {
+            releaseModificationLock();
         }
-
-        this.properties = null;
-        this.removed = true;
-        modifiedSinceLastSerialization = true;
-        releaseModificationLock();
     }
 
     @Override
@@ -139,6 +179,57 @@ public abstract class SpecializedTinkerEdge extends TinkerEdge {
         return graph.vertexById(this.inVertexId);
     }
 
+    /** do not call directly (other than from deserializer) */
+    public void setSerializedProperties(byte[] serializedProperties) {
+        this.serializedProperties = serializedProperties;
+    }
+
+    /** @return the raw properties segment if no property was modified since deserialization, `null` otherwise */
+    public byte[] getSerializedProperties() {
+        return serializedProperties;
+    }
+
+    /** decodes a single property from the serialized properties segment, if it hasn't been decoded yet.
+     *  concrete specialised instances must call this before accessing their property fields directly */
+    protected void decodeSerializedProperty(String key) {
+        if (serializedProperties == null) return;
+        synchronized (this) {
+            if (serializedProperties == null || (decodedKeys != null && decodedKeys.contains(key))) return;
+            if (decodedKeys == null) decodedKeys = new HashSet<>();
+            decodedKeys.add(key);
+            try {
+                final Object value = Serializer.unpackProperty(serializedProperties, key);
+                if (value != null) updateSpecificProperty(key, value);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (decodedKeys.containsAll(specificKeys)) {
+                serializedProperties = null;
+                decodedKeys = null;
+            }
+        }
+    }
+
+    /** decodes all remaining properties and drops the serialized properties segment, e.g. before modifying properties */
+    protected void decodeSerializedProperties() {
+        if (serializedProperties == null) return;
+        synchronized (this) {
+            if (serializedProperties == null) return;
+            if (decodedKeys == null) decodedKeys = new HashSet<>();
+            try {
+                final Object[] keyValues = Serializer.unpackProperties(serializedProperties);
+                for (int i = 0; i < keyValues.length; i = i + 2) {
+                    final String key = (String) keyValues[i];
+                    if (decodedKeys.add(key)) updateSpecificProperty(key, keyValues[i + 1]);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            serializedProperties = null;
+            decodedKeys = null;
+        }
+    }
+
     public void setModifiedSinceLastSerialization(boolean modifiedSinceLastSerialization) {
       this.modifiedSinceLastSerialization = modifiedSinceLastSerialization;
     }
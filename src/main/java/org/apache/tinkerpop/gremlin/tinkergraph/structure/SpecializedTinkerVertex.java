@@ -18,12 +18,19 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
+import gnu.trove.impl.Constants;
 import gnu.trove.iterator.TLongIterator;
+import gnu.trove.map.TLongLongMap;
+import gnu.trove.map.hash.TLongLongHashMap;
+import gnu.trove.procedure.TLongProcedure;
 import gnu.trove.set.TLongSet;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.Serializer;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.org.apache.tinkerpop.gremlin.util.iterator.TLongMultiIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.Semaphore;
 import java.util.stream.StreamSupport;
@@ -36,6 +43,16 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
     private boolean modifiedSinceLastSerialization = true;
     private Semaphore modificationSemaphore = new Semaphore(1);
 
+    /** raw properties segment if this vertex was deserialized - properties are only decoded on demand.
+     *  as long as this is set, it is the authoritative source for all properties not in `decodedKeys` */
+    private volatile byte[] serializedProperties;
+    private Set<String> decodedKeys;
+
+    private static final long NO_ADJACENT_VERTEX = Long.MIN_VALUE;
+    /** adjacent vertex id by incident edge id, so that `vertices(...)` doesn't need to resolve the edges.
+     *  created on demand - edges that were deserialized without their adjacent vertex ids are resolved instead */
+    private TLongLongMap adjacentVertexIdByEdgeId;
+
     protected SpecializedTinkerVertex(long id, String label, TinkerGraph graph, Set<String> specificKeys) {
         super(id, label, graph);
         this.specificKeys = specificKeys;
@@ -49,6 +66,7 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
     @Override
     public <V> VertexProperty<V> property(String key) {
         if (this.removed) return VertexProperty.empty();
+        decodeSerializedProperty(key);
         return specificProperty(key);
     }
 
@@ -67,17 +85,44 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
     /* implement in concrete specialised instance to avoid using generic HashMaps */
     protected abstract <V> Iterator<VertexProperty<V>> specificProperties(String key);
 
+    /**
+     * @return the value of the property with the given key, or `null` if there is none - without wrapping it in a
+     * `VertexProperty`. Only defined if there is at most one property per key, see `supportsMultiProperties`.
+     */
+    public <V> V propertyValue(String key) {
+        if (this.removed) return null;
+        decodeSerializedProperty(key);
+        return specificPropertyValue(key);
+    }
+
+    /* You can override this default implementation in concrete specialised instances for performance,
+     * i.e. to return the field's value without allocating a `VertexProperty` */
+    protected <V> V specificPropertyValue(String key) {
+        final VertexProperty<V> property = specificProperty(key);
+        return property.isPresent() ? property.value() : null;
+    }
+
+    /** @return `true` if there may be more than one property per key, in which case `propertyValue` can't be used */
+    public boolean supportsMultiProperties() {
+        return false;
+    }
+
     @Override
     public <V> Iterator<VertexProperty<V>> properties(String... propertyKeys) {
         if (this.removed) return Collections.emptyIterator();
         if (propertyKeys.length == 0) { // return all properties
-            return (Iterator) specificKeys.stream().flatMap(key ->
+            decodeSerializedProperties();
+            return (Iterator) keys().stream().flatMap(key ->
                 StreamSupport.stream(Spliterators.spliteratorUnknownSize(
                   specificProperties(key), Spliterator.ORDERED),false)
             ).iterator();
         } else if (propertyKeys.length == 1) { // treating as special case for performance
+            decodeSerializedProperty(propertyKeys[0]);
             return specificProperties(propertyKeys[0]);
         } else {
+            for (String key : propertyKeys) {
+                decodeSerializedProperty(key);
+            }
             return (Iterator) Arrays.stream(propertyKeys).flatMap(key ->
               StreamSupport.stream(Spliterators.spliteratorUnknownSize(
                 specificProperties(key), Spliterator.ORDERED),false)
@@ -90,22 +135,34 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
         if (this.removed) throw elementAlreadyRemoved(Vertex.class, id);
         ElementHelper.legalPropertyKeyValueArray(keyValues);
         ElementHelper.validateProperty(key, value);
+        decodeSerializedProperties();
         acquireModificationLock();
-        this.modifiedSinceLastSerialization = true;
-        final VertexProperty<V> vp = updateSpecificProperty(cardinality, key, value);
-        TinkerHelper.autoUpdateIndex(this, key, value, null);
-        releaseModificationLock();
-        return vp;
+        try {
+            this.modifiedSinceLastSerialization = true;
+            final VertexProperty<V> vp = updateSpecificProperty(cardinality, key, value);
+            TinkerHelper.autoUpdateIndex(this, key, value, null);
+            if (graph.mutationLog != null) graph.mutationLog.setVertexProperty((long) id, cardinality, key, value);
+            graph.mutated();
+            return vp;
+        } finally {
+            releaseModificationLock();
+        }
     }
 
     protected abstract <V> VertexProperty<V> updateSpecificProperty(
       VertexProperty.Cardinality cardinality, String key, V value);
 
     public void removeProperty(String key) {
+        decodeSerializedProperties();
         acquireModificationLock();
-        modifiedSinceLastSerialization = true;
-        removeSpecificProperty(key);
-        releaseModificationLock();
+        try {
+            modifiedSinceLastSerialization = true;
+            removeSpecificProperty(key);
+            if (graph.mutationLog != null) graph.mutationLog.removeVertexProperty((long) id, key);
+            graph.mutated();
+        } finally {
+            releaseModificationLock();
+        }
     }
 
     protected abstract void removeSpecificProperty(String key);
@@ -119,8 +176,8 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
             throw elementAlreadyRemoved(Vertex.class, this.id);
         }
 
-        if (graph.specializedEdgeFactoryByLabel.containsKey(label)) {
-            SpecializedElementFactory.ForEdge factory = graph.specializedEdgeFactoryByLabel.get(label);
+        final SpecializedElementFactory.ForEdge factory = graph.specializedEdgeFactory(label);
+        if (factory != null) {
 
             Long idValue = (Long) graph.edgeIdManager.convert(ElementHelper.getIdValue(keyValues).orElse(null));
             if (null != idValue) {
@@ -135,19 +192,25 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
             TinkerVertex inVertex = (TinkerVertex) vertex;
             TinkerVertex outVertex = this;
             SpecializedTinkerEdge edge = factory.createEdge(idValue, graph, (long) outVertex.id, (long) inVertex.id);
+            if (graph.mutationLog != null) graph.mutationLog.addEdge(idValue, label, (long) outVertex.id, (long) inVertex.id);
             ElementHelper.attachProperties(edge, keyValues);
             if (graph.ondiskOverflowEnabled) {
                 graph.getElementIdsByLabel(graph.edgeIdsByLabel, label).add(idValue);
                 graph.edgeCache.put(idValue, edge);
             } else {
                 graph.edges.put(idValue, edge);
+                TinkerGraph.updateElementCount(graph.edgeCountByLabel, label, 1);
             }
 
             acquireModificationLock();
-            this.addSpecializedOutEdge(edge.label(), (Long) edge.id());
-            ((SpecializedTinkerVertex) inVertex).addSpecializedInEdge(edge.label(), (Long) edge.id());
-            releaseModificationLock();
+            try {
+                this.addSpecializedOutEdge(edge.label(), idValue, (long) inVertex.id);
+                ((SpecializedTinkerVertex) inVertex).addSpecializedInEdge(edge.label(), idValue, (long) outVertex.id);
+            } finally {
+                releaseModificationLock();
+            }
             this.modifiedSinceLastSerialization = true;
+            graph.edgeAdded(label, outVertex, inVertex);
             return edge;
         } else { // edge label not registered for a specialized factory, treating as generic edge
             if (graph.usesSpecializedElements) {
@@ -180,6 +243,29 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
      *  I whish there was an easy way to forbid this in java */
     public abstract void addSpecializedInEdge(String edgeLabel, long edgeId);
 
+    /** like `addSpecializedOutEdge(String, long)`, but also remembers the edge's in vertex */
+    public final void addSpecializedOutEdge(String edgeLabel, long edgeId, long inVertexId) {
+        addSpecializedOutEdge(edgeLabel, edgeId);
+        putAdjacentVertexId(edgeId, inVertexId);
+    }
+
+    /** like `addSpecializedInEdge(String, long)`, but also remembers the edge's out vertex */
+    public final void addSpecializedInEdge(String edgeLabel, long edgeId, long outVertexId) {
+        addSpecializedInEdge(edgeLabel, edgeId);
+        putAdjacentVertexId(edgeId, outVertexId);
+    }
+
+    private void putAdjacentVertexId(long edgeId, long adjacentVertexId) {
+        if (adjacentVertexIdByEdgeId == null)
+            adjacentVertexIdByEdgeId = new TLongLongHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, NO_ADJACENT_VERTEX, NO_ADJACENT_VERTEX);
+        adjacentVertexIdByEdgeId.put(edgeId, adjacentVertexId);
+    }
+
+    /** @return the adjacent vertex ids by incident edge id that are known without resolving the edges, or `null` if there are none */
+    public TLongLongMap adjacentVertexIdByEdgeId() {
+        return adjacentVertexIdByEdgeId;
+    }
+
     @Override
     public Iterator<Edge> edges(final Direction direction, final String... edgeLabels) {
         return graph.edgesById(specificEdges(direction, edgeLabels));
@@ -188,28 +274,155 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
     /* implement in concrete specialised instance to avoid using generic HashMaps */
     protected abstract TLongIterator specificEdges(final Direction direction, final String... edgeLabels);
 
+    /** ids of the incident edges, in the order in which `edges()` returns them */
+    public TLongIterator edgeIds(final Direction direction, final String... edgeLabels) {
+        return specificEdges(direction, edgeLabels);
+    }
+
     @Override
     public Iterator<Vertex> vertices(final Direction direction, final String... edgeLabels) {
-        Iterator<Edge> edges = edges(direction, edgeLabels);
-        if (direction == Direction.IN) {
-            return IteratorUtils.map(edges, Edge::outVertex);
-        } else if (direction == Direction.OUT) {
-            return IteratorUtils.map(edges, Edge::inVertex);
-        } else if (direction == Direction.BOTH) {
-            return IteratorUtils.concat(vertices(Direction.IN, edgeLabels), vertices(Direction.OUT, edgeLabels));
+        return graph.verticesById(adjacentVertexIds(direction, edgeLabels));
+    }
+
+    /** ids of the adjacent vertices, read from the adjacency - the edges are only resolved if their adjacent vertex isn't known */
+    public TLongIterator adjacentVertexIds(final Direction direction, final String... edgeLabels) {
+        if (direction == Direction.BOTH)
+            return new TLongMultiIterator(Arrays.asList(adjacentVertexIds(Direction.IN, edgeLabels), adjacentVertexIds(Direction.OUT, edgeLabels)));
+
+        final TLongIterator edgeIds = specificEdges(direction, edgeLabels);
+        return new TLongIterator() {
+            @Override
+            public boolean hasNext() {
+                return edgeIds.hasNext();
+            }
+
+            @Override
+            public long next() {
+                return adjacentVertexId(edgeIds.next(), direction);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private long adjacentVertexId(long edgeId, Direction direction) {
+        final TLongLongMap adjacentVertexIdByEdgeId = this.adjacentVertexIdByEdgeId;
+        final long adjacentVertexId = adjacentVertexIdByEdgeId == null ? NO_ADJACENT_VERTEX : adjacentVertexIdByEdgeId.get(edgeId);
+        if (adjacentVertexId != NO_ADJACENT_VERTEX) return adjacentVertexId;
+
+        final SpecializedTinkerEdge edge = (SpecializedTinkerEdge) graph.edgeById(edgeId);
+        return direction == Direction.OUT ? edge.inVertexId : edge.outVertexId;
+    }
+
+    /** reads the sizes of the adjacency sets, without loading any edges */
+    @Override
+    public long degree(final Direction direction, final String... edgeLabels) {
+        if (direction == Direction.BOTH)
+            return degree(Direction.OUT, edgeLabels) + degree(Direction.IN, edgeLabels);
+
+        long degree = 0;
+        if (edgeLabels.length == 0) {
+            for (TLongSet edgeIds : edgeIdsByLabel(direction).values())
+                degree += edgeIds.size();
         } else {
-            return Collections.emptyIterator();
+            for (String edgeLabel : edgeLabels) {
+                final TLongSet edgeIds = specificEdgeIds(direction, edgeLabel);
+                if (edgeIds != null) degree += edgeIds.size();
+            }
         }
+        return degree;
+    }
+
+    @Override
+    public long degree(final Direction direction, final String edgeLabel) {
+        if (direction == Direction.BOTH)
+            return degree(Direction.OUT, edgeLabel) + degree(Direction.IN, edgeLabel);
+
+        final TLongSet edgeIds = specificEdgeIds(direction, edgeLabel);
+        return edgeIds == null ? 0 : edgeIds.size();
+    }
+
+    /** @return the adjacency set for the given direction (`IN` or `OUT`) and edge label, or `null` if there is none.
+     *  the default implementation looks it up in `edgeIdsByLabel` - override in concrete specialised instances if
+     *  that creates a new map on every call */
+    protected TLongSet specificEdgeIds(final Direction direction, final String edgeLabel) {
+        return edgeIdsByLabel(direction).get(edgeLabel);
+    }
+
+    @Override
+    public void forEachEdgeId(final Direction direction, final String[] edgeLabels, final TLongProcedure procedure) {
+        if (direction != Direction.IN && !forEachEdgeIdIn(Direction.OUT, edgeLabels, procedure)) return;
+        if (direction != Direction.OUT) forEachEdgeIdIn(Direction.IN, edgeLabels, procedure);
+    }
+
+    @Override
+    public void forEachOutEdgeId(final String edgeLabel, final TLongProcedure procedure) {
+        final TLongSet edgeIds = specificEdgeIds(Direction.OUT, edgeLabel);
+        if (edgeIds != null) edgeIds.forEach(procedure);
+    }
+
+    @Override
+    public void forEachInEdgeId(final String edgeLabel, final TLongProcedure procedure) {
+        final TLongSet edgeIds = specificEdgeIds(Direction.IN, edgeLabel);
+        if (edgeIds != null) edgeIds.forEach(procedure);
+    }
+
+    /** reads the adjacent vertex ids from the adjacency - the edges are only resolved if their adjacent vertex isn't known */
+    @Override
+    public void forEachNeighborId(final Direction direction, final String[] edgeLabels, final TLongProcedure procedure) {
+        final NeighborIdProcedure neighborIdProcedure = new NeighborIdProcedure(procedure);
+        if (direction != Direction.OUT && !neighborIdProcedure.visit(Direction.IN, edgeLabels)) return;
+        if (direction != Direction.IN) neighborIdProcedure.visit(Direction.OUT, edgeLabels);
+    }
+
+    /** maps the visited edge ids to their adjacent vertex ids - one instance serves both directions of a visit */
+    private final class NeighborIdProcedure implements TLongProcedure {
+        private final TLongProcedure procedure;
+        private Direction direction;
+
+        private NeighborIdProcedure(final TLongProcedure procedure) {
+            this.procedure = procedure;
+        }
+
+        private boolean visit(final Direction direction, final String[] edgeLabels) {
+            this.direction = direction;
+            return forEachEdgeIdIn(direction, edgeLabels, this);
+        }
+
+        @Override
+        public boolean execute(final long edgeId) {
+            return procedure.execute(adjacentVertexId(edgeId, direction));
+        }
+    }
+
+    /** visits the adjacency sets for the given direction (`IN` or `OUT`) and edge labels (or all labels if none are given)
+     *  @return `false` if the procedure stopped the visit */
+    private boolean forEachEdgeIdIn(final Direction direction, final String[] edgeLabels, final TLongProcedure procedure) {
+        if (edgeLabels.length == 0) {
+            for (TLongSet edgeIds : edgeIdsByLabel(direction).values())
+                if (!edgeIds.forEach(procedure)) return false;
+        } else {
+            for (String edgeLabel : edgeLabels) {
+                final TLongSet edgeIds = specificEdgeIds(direction, edgeLabel);
+                if (edgeIds != null && !edgeIds.forEach(procedure)) return false;
+            }
+        }
+        return true;
     }
 
     public void removeOutEdge(long edgeId) {
         removeSpecificOutEdge(edgeId);
+        if (adjacentVertexIdByEdgeId != null) adjacentVertexIdByEdgeId.remove(edgeId);
     }
 
     protected abstract void removeSpecificOutEdge(Long edgeId);
 
     public void removeInEdge(long edgeId) {
         removeSpecificInEdge(edgeId);
+        if (adjacentVertexIdByEdgeId != null) adjacentVertexIdByEdgeId.remove(edgeId);
     }
 
     protected abstract void removeSpecificInEdge(Long edgeId);
@@ -218,22 +431,77 @@ public abstract class SpecializedTinkerVertex extends TinkerVertex {
     public void remove() {
         super.remove();
         acquireModificationLock();
-        Long id = (Long) this.id();
+        try {
+            Long id = (Long) this.id();
 
-        if (graph.ondiskOverflowEnabled) {
-            this.graph.vertexCache.remove(id);
-            this.graph.vertexIdsByLabel.get(label()).remove(id);
-            this.graph.onDiskVertexOverflow.remove(id);
-        }
-        this.graph.vertices.remove(id);
-        edges(Direction.BOTH).forEachRemaining(Element::remove);
+            if (graph.ondiskOverflowEnabled) {
+                this.graph.vertexCache.remove(id);
+                this.graph.vertexIdsByLabel.get(label()).remove(id);
+                this.graph.onDiskVertexOverflow.remove(id);
+            }
+            this.graph.vertices.remove(id);
+            edges(Direction.BOTH).forEachRemaining(Element::remove);
+            if (graph.mutationLog != null) graph.mutationLog.removeVertex(id);
 
-        this.modifiedSinceLastSerialization = true;
-        releaseModificationLock();
+            this.modifiedSinceLastSerialization = true;
+        } finally {
+            releaseModificationLock();
+        }
     }
 
     public abstract Map<String, TLongSet> edgeIdsByLabel(Direction direction);
 
+    /** do not call directly (other than from deserializer) */
+    public void setSerializedProperties(byte[] serializedProperties) {
+        this.serializedProperties = serializedProperties;
+    }
+
+    /** @return the raw properties segment if no property was modified since deserialization, `null` otherwise */
+    public byte[] getSerializedProperties() {
+        return serializedProperties;
+    }
+
+    /** decodes a single property from the serialized properties segment, if it hasn't been decoded yet.
+     *  concrete specialised instances must call this before accessing their property fields directly */
+    protected void decodeSerializedProperty(String key) {
+        if (serializedProperties == null) return;
+        synchronized (this) {
+            if (serializedProperties == null || (decodedKeys != null && decodedKeys.contains(key))) return;
+            if (decodedKeys == null) decodedKeys = new HashSet<>();
+            decodedKeys.add(key);
+            try {
+                final Object value = Serializer.unpackProperty(serializedProperties, key);
+                if (value != null) updateSpecificProperty(VertexProperty.Cardinality.list, key, value);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            if (decodedKeys.containsAll(specificKeys)) {
+                serializedProperties = null;
+                decodedKeys = null;
+            }
+        }
+    }
+
+    /** decodes all remaining properties and drops the serialized properties segment, e.g. before modifying properties */
+    protected void decodeSerializedProperties() {
+        if (serializedProperties == null) return;
+        synchronized (this) {
+            if (serializedProperties == null) return;
+            if (decodedKeys == null) decodedKeys = new HashSet<>();
+            try {
+                final Object[] keyValues = Serializer.unpackProperties(serializedProperties);
+                for (int i = 0; i < keyValues.length; i = i + 2) {
+                    final String key = (String) keyValues[i];
+                    if (decodedKeys.add(key)) updateSpecificProperty(VertexProperty.Cardinality.list, key, keyValues[i + 1]);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            serializedProperties = null;
+            decodedKeys = null;
+        }
+    }
+
     public boolean isModifiedSinceLastSerialization() {
         return modifiedSinceLastSerialization;
     }
@@ -63,6 +63,7 @@ public class TinkerEdge extends TinkerElement implements Edge {
         if (null == this.properties) this.properties = new HashMap<>();
         this.properties.put(key, newProperty);
         TinkerHelper.autoUpdateIndex(this, key, value, oldProperty.isPresent() ? oldProperty.value() : null);
+        this.graph.mutated();
         return newProperty;
 
     }
@@ -94,7 +95,9 @@ public class TinkerEdge extends TinkerElement implements Edge {
         }
 
         TinkerHelper.removeElementIndex(this);
-        ((TinkerGraph) this.graph()).edges.remove(this.id());
+        if (null != this.graph.edges.remove(this.id()))
+            TinkerGraph.updateElementCount(this.graph.edgeCountByLabel, this.label, -1);
+        this.graph.edgeRemoved(this.label, outVertex, inVertex);
         this.properties = null;
         this.removed = true;
     }
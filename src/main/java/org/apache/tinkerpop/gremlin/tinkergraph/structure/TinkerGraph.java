@@ -19,18 +19,23 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import gnu.trove.iterator.TLongIterator;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.THashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
@@ -43,9 +48,23 @@ import org.apache.tinkerpop.gremlin.structure.util.GraphFactory;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputer;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.computer.TinkerGraphComputerView;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountByLabelStrategy;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDedupStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDegreeCountStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphFilterOrderStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphIdRangeStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphPropertyStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphResultCacheStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphSampleStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphSchemaStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphShortestPathStrategy;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphStepStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphTopKStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphVertexStepStrategy;
 import org.apache.tinkerpop.gremlin.tinkergraph.storage.EdgeSerializer;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.MutationLog;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.OverflowStoreMaintenance;
 import org.apache.tinkerpop.gremlin.tinkergraph.storage.Serializer;
 import org.apache.tinkerpop.gremlin.tinkergraph.storage.VertexSerializer;
 import org.apache.tinkerpop.gremlin.tinkergraph.storage.org.apache.tinkerpop.gremlin.util.iterator.ArrayBackedTLongIterator;
@@ -61,14 +80,20 @@ import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.ehcache.config.units.MemoryUnit;
 import org.ehcache.event.CacheEventListener;
 import org.ehcache.event.EventType;
+import org.h2.mvstore.Cursor;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -85,10 +110,24 @@ import java.util.stream.StreamSupport;
 @Graph.OptIn(Graph.OptIn.SUITE_PROCESS_STANDARD)
 public final class TinkerGraph implements Graph {
 
+    private static final Logger logger = LoggerFactory.getLogger(TinkerGraph.class);
+
     static {
         TraversalStrategies.GlobalCache.registerStrategies(TinkerGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone().addStrategies(
                 TinkerGraphStepStrategy.instance(),
-                TinkerGraphCountStrategy.instance()));
+                TinkerGraphCountStrategy.instance(),
+                TinkerGraphCountByLabelStrategy.instance(),
+                TinkerGraphDegreeCountStrategy.instance(),
+                TinkerGraphVertexStepStrategy.instance(),
+                TinkerGraphDedupStrategy.instance(),
+                TinkerGraphShortestPathStrategy.instance(),
+                TinkerGraphPropertyStrategy.instance(),
+                TinkerGraphTopKStrategy.instance(),
+                TinkerGraphSampleStrategy.instance(),
+                TinkerGraphIdRangeStrategy.instance(),
+                TinkerGraphSchemaStrategy.instance(),
+                TinkerGraphFilterOrderStrategy.instance(),
+                TinkerGraphResultCacheStrategy.instance()));
     }
 
     public static final Configuration EMPTY_CONFIGURATION() {
@@ -107,18 +146,61 @@ public final class TinkerGraph implements Graph {
     public static final String GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED = "gremlin.tinkergraph.ondiskOverflow.enabled";
     public static final String GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_CACHE_MAX_HEAP_PERCENTAGE = "gremlin.tinkergraph.ondiskOverflow.cacheMaxHeapPercentage";
     public static final String GREMLIN_TINKERGRAPH_ONDISK_ROOT_DIR = "gremlin.tinkergraph.ondiskOverflow.rootDir";
-
+    /* mutation log: makes the overflow stores in `rootDir` persistent and recoverable after a crash - off by default */
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_ENABLED = "gremlin.tinkergraph.ondiskOverflow.mutationLog.enabled";
+    /* one of `always`, `batch` (default) or `never`, see `MutationLog.FsyncPolicy` */
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_FSYNC_POLICY = "gremlin.tinkergraph.ondiskOverflow.mutationLog.fsyncPolicy";
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_FLUSH_INTERVAL_MILLIS = "gremlin.tinkergraph.ondiskOverflow.mutationLog.flushIntervalMillis";
+    /* size of the write buffer of the overflow stores - larger buffers mean fewer and larger chunks, e.g. for bulk loads */
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_AUTO_COMMIT_BUFFER_SIZE_KB = "gremlin.tinkergraph.ondiskOverflow.autoCommitBufferSizeKB";
+    /* background compaction of the overflow stores, see `OverflowStoreMaintenance` - an interval <= 0 disables it */
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_COMPACTION_INTERVAL_MILLIS = "gremlin.tinkergraph.ondiskOverflow.compaction.intervalMillis";
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_COMPACTION_TARGET_FILL_RATE = "gremlin.tinkergraph.ondiskOverflow.compaction.targetFillRate";
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_COMPACTION_WRITE_BUDGET_BYTES = "gremlin.tinkergraph.ondiskOverflow.compaction.writeBudgetBytes";
+    /* keep index postings in the overflow stores rather than on heap - off by default */
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_INDEX_ENABLED = "gremlin.tinkergraph.ondiskOverflow.index.enabled";
+    /* number of postings (i.e. ids for one indexed value) that are cached on heap */
+    public static final String GREMLIN_TINKERGRAPH_ONDISK_INDEX_CACHE_SIZE = "gremlin.tinkergraph.ondiskOverflow.index.cacheSize";
+    /* filtered full scans (e.g. `g.V().has('code', containing('x'))` without an index) are evaluated on a fork-join pool
+     * if they cover at least this many elements - off by default, see `ParallelScanIterator` */
+    public static final String GREMLIN_TINKERGRAPH_PARALLEL_SCAN_THRESHOLD = "gremlin.tinkergraph.parallelScan.threshold";
+    /* number of workers for parallel scans, defaults to the number of available processors */
+    public static final String GREMLIN_TINKERGRAPH_PARALLEL_SCAN_PARALLELISM = "gremlin.tinkergraph.parallelScan.parallelism";
+    /* number of elements the workers scan at a time - they are at most one such chunk each ahead of the traversal */
+    public static final String GREMLIN_TINKERGRAPH_PARALLEL_SCAN_CHUNK_SIZE = "gremlin.tinkergraph.parallelScan.chunkSize";
+    /* number of traversal results that are cached by bytecode until the next mutation, see `TraversalResultCache` - off by default */
+    public static final String GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE = "gremlin.tinkergraph.resultCache.size";
+    /* traversals with more results than this are not cached */
+    public static final String GREMLIN_TINKERGRAPH_RESULT_CACHE_MAX_RESULTS = "gremlin.tinkergraph.resultCache.maxResults";
+    /* number of strategy-applied traversals that are cached by bytecode, see `TraversalTemplateCache` */
+    public static final String GREMLIN_TINKERGRAPH_TRAVERSAL_TEMPLATE_CACHE_SIZE = "gremlin.tinkergraph.traversalTemplateCache.size";
+    /* number of traversers that an adjacency step (e.g. `out()`) expands at once if the vertices keep their adjacency
+     * in primitive id sets, i.e. with specialized elements or on-disk overflow - `1` turns batching off */
+    public static final String GREMLIN_TINKERGRAPH_VERTEX_STEP_BATCH_SIZE = "gremlin.tinkergraph.vertexStep.batchSize";
+
+    /* batched id lookups read the overflow with a single cursor if the ids span at most this many times their number */
+    private static final long DENSE_ID_SPAN_FACTOR = 4;
 
     private final TinkerGraphFeatures features = new TinkerGraphFeatures();
 
     protected AtomicLong currentId = new AtomicLong(-1L);
+    /* bumped by every mutation, see `version()` */
+    private final AtomicLong version = new AtomicLong();
     protected Map<Object, Vertex> vertices = new ConcurrentHashMap<>();
     protected Map<Object, Edge> edges = new ConcurrentHashMap<>();
+    /* element counts by label for in-memory graphs - with on-disk overflow, the label partitions `vertexIdsByLabel` and `edgeIdsByLabel` are used */
+    protected final Map<String, AtomicLong> vertexCountByLabel = new ConcurrentHashMap<>();
+    protected final Map<String, AtomicLong> edgeCountByLabel = new ConcurrentHashMap<>();
 
     protected TinkerGraphVariables variables = null;
     protected TinkerGraphComputerView graphComputerView = null;
     protected TinkerIndex<TinkerVertex> vertexIndex = null;
     protected TinkerIndex<TinkerEdge> edgeIndex = null;
+    protected final Map<Set<String>, ReachabilityIndex> reachabilityIndexes = new ConcurrentHashMap<>();
+    /* positional access into the label partitions, e.g. for sampling */
+    protected final ElementIdArrays vertexIdArrays = new ElementIdArrays(this::vertexIdArraysByLabel);
+    protected final ElementIdArrays edgeIdArrays = new ElementIdArrays(this::edgeIdArraysByLabel);
+    protected final GraphStatistics statistics = new GraphStatistics(this);
 
     protected final IdManager<?> vertexIdManager;
     protected final IdManager<?> edgeIdManager;
@@ -126,8 +208,11 @@ public final class TinkerGraph implements Graph {
     protected final VertexProperty.Cardinality defaultVertexPropertyCardinality;
 
     protected final boolean usesSpecializedElements;
-    protected final Map<String, SpecializedElementFactory.ForVertex> specializedVertexFactoryByLabel = new HashMap();
-    protected final Map<String, SpecializedElementFactory.ForEdge> specializedEdgeFactoryByLabel = new HashMap();
+    /* generic graphs with on-disk overflow use schemaless elements, with factories created on demand for each label */
+    protected final boolean usesSchemalessElements;
+    protected final Map<String, SpecializedElementFactory.ForVertex> specializedVertexFactoryByLabel = new ConcurrentHashMap<>();
+    protected final Map<String, SpecializedElementFactory.ForEdge> specializedEdgeFactoryByLabel = new ConcurrentHashMap<>();
+    private volatile SpecializedElementSchema schema;
 
     private final Configuration configuration;
     private final String graphLocation;
@@ -142,10 +227,25 @@ public final class TinkerGraph implements Graph {
     protected Cache<Long, SpecializedTinkerEdge> edgeCache;
     protected VertexSerializer vertexSerializer;
     protected EdgeSerializer edgeSerializer;
-    private MVStore mvstoreVertices;
-    private MVStore mvstoreEdges;
+    protected MVStore mvstoreVertices;
+    protected MVStore mvstoreEdges;
     protected MVMap<Long, byte[]> onDiskVertexOverflow;
     protected MVMap<Long, byte[]> onDiskEdgeOverflow;
+    protected MutationLog mutationLog;
+    protected OverflowStoreMaintenance overflowStoreMaintenance;
+
+    /* parallel scans, see GREMLIN_TINKERGRAPH_PARALLEL_SCAN_THRESHOLD - the pool is created on first use */
+    private final long parallelScanThreshold;
+    private final int parallelScanParallelism;
+    private final int parallelScanChunkSize;
+    private ForkJoinPool parallelScanPool;
+
+    /* batched adjacency expansion, see GREMLIN_TINKERGRAPH_VERTEX_STEP_BATCH_SIZE */
+    private final int vertexStepBatchSize;
+
+    /* opt-in result cache, see GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE - `null` if disabled */
+    private final TraversalResultCache resultCache;
+    private final TraversalTemplateCache traversalTemplates;
 
     /**
      * An empty private constructor that initializes {@link TinkerGraph}.
@@ -166,6 +266,19 @@ public final class TinkerGraph implements Graph {
               GREMLIN_TINKERGRAPH_GRAPH_LOCATION, GREMLIN_TINKERGRAPH_GRAPH_FORMAT));
 
         ondiskOverflowEnabled = configuration.getBoolean(GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, false);
+        usesSchemalessElements = ondiskOverflowEnabled && !usesSpecializedElements;
+        parallelScanThreshold = configuration.getLong(GREMLIN_TINKERGRAPH_PARALLEL_SCAN_THRESHOLD, 0L);
+        parallelScanParallelism = configuration.getInt(GREMLIN_TINKERGRAPH_PARALLEL_SCAN_PARALLELISM, Runtime.getRuntime().availableProcessors());
+        parallelScanChunkSize = configuration.getInt(GREMLIN_TINKERGRAPH_PARALLEL_SCAN_CHUNK_SIZE, 10000);
+        vertexStepBatchSize = usesSpecializedElements || ondiskOverflowEnabled ?
+            Math.max(1, configuration.getInt(GREMLIN_TINKERGRAPH_VERTEX_STEP_BATCH_SIZE, 64)) : 1;
+        final int resultCacheSize = configuration.getInt(GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE, 0);
+        resultCache = resultCacheSize > 0 ?
+            new TraversalResultCache(this, resultCacheSize, configuration.getInt(GREMLIN_TINKERGRAPH_RESULT_CACHE_MAX_RESULTS, 10000)) :
+            null;
+        traversalTemplates = new TraversalTemplateCache(this, configuration.getInt(GREMLIN_TINKERGRAPH_TRAVERSAL_TEMPLATE_CACHE_SIZE, 1000));
+        vertexSerializer = new VertexSerializer(this);
+        edgeSerializer = new EdgeSerializer(this);
         if (ondiskOverflowEnabled) initializeOnDiskOverflow();
 
         if (graphLocation != null) loadGraph();
@@ -174,25 +287,44 @@ public final class TinkerGraph implements Graph {
     private void initializeOnDiskOverflow() {
         vertexIdsByLabel = new THashMap<>(100);
         edgeIdsByLabel = new THashMap<>(100);
+        final boolean mutationLogEnabled = configuration.getBoolean(GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_ENABLED, false);
 
         final File mvstoreVerticesFile;
         final File mvstoreEdgesFile;
         try {
             String ondiskOverflowRootDir = configuration.getString(GREMLIN_TINKERGRAPH_ONDISK_ROOT_DIR);
             File cacheParentDir = ondiskOverflowRootDir != null ? new File(ondiskOverflowRootDir) : null;
-            mvstoreVerticesFile = File.createTempFile("mvstoreVertices", ".bin", cacheParentDir);
-            mvstoreEdgesFile = File.createTempFile("mvstoreEdges", ".bin", cacheParentDir);
-            mvstoreVerticesFile.deleteOnExit();
-            mvstoreEdgesFile.deleteOnExit();
+            if (mutationLogEnabled) {
+                if (cacheParentDir == null)
+                    throw new IllegalArgumentException(GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_ENABLED + " requires " + GREMLIN_TINKERGRAPH_ONDISK_ROOT_DIR);
+                cacheParentDir.mkdirs();
+                // not temporary, so they can be recovered on the next open
+                mvstoreVerticesFile = new File(cacheParentDir, "vertices.mvstore");
+                mvstoreEdgesFile = new File(cacheParentDir, "edges.mvstore");
+            } else {
+                mvstoreVerticesFile = File.createTempFile("mvstoreVertices", ".bin", cacheParentDir);
+                mvstoreEdgesFile = File.createTempFile("mvstoreEdges", ".bin", cacheParentDir);
+                mvstoreVerticesFile.deleteOnExit();
+                mvstoreEdgesFile.deleteOnExit();
+            }
             System.out.println("on-disk cache overflow files: " + mvstoreVerticesFile + ", " + mvstoreVerticesFile);
         } catch (IOException e) {
             throw new RuntimeException("cannot create tmp file for mvstore", e);
         }
-        mvstoreVertices = new MVStore.Builder().fileName(mvstoreVerticesFile.getAbsolutePath()).open();
-        mvstoreEdges = new MVStore.Builder().fileName(mvstoreEdgesFile.getAbsolutePath()).open();
+        final long compactionIntervalMillis = configuration.getLong(GREMLIN_TINKERGRAPH_ONDISK_COMPACTION_INTERVAL_MILLIS, 60000L);
+        mvstoreVertices = newMVStoreBuilder(compactionIntervalMillis).fileName(mvstoreVerticesFile.getAbsolutePath()).open();
+        mvstoreEdges = newMVStoreBuilder(compactionIntervalMillis).fileName(mvstoreEdgesFile.getAbsolutePath()).open();
         onDiskVertexOverflow = mvstoreVertices.openMap("vertices");
         onDiskEdgeOverflow = mvstoreEdges.openMap("edges");
 
+        final Map<String, MVStore> mvstoresByName = new LinkedHashMap<>();
+        mvstoresByName.put("vertices", mvstoreVertices);
+        mvstoresByName.put("edges", mvstoreEdges);
+        overflowStoreMaintenance = new OverflowStoreMaintenance(mvstoresByName,
+            configuration.getInt(GREMLIN_TINKERGRAPH_ONDISK_COMPACTION_TARGET_FILL_RATE, 50),
+            configuration.getInt(GREMLIN_TINKERGRAPH_ONDISK_COMPACTION_WRITE_BUDGET_BYTES, 16 * 1024 * 1024));
+        if (compactionIntervalMillis > 0) overflowStoreMaintenance.start(compactionIntervalMillis);
+
         // initialize cache (on-heap, overflow to disk)
         float maxMemory = Runtime.getRuntime().maxMemory();
         long cacheMaxHeapMegabytes = (long) (maxMemory / 100f * configuration.getFloat(GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_CACHE_MAX_HEAP_PERCENTAGE) / 1024f / 1024f);
@@ -240,9 +372,17 @@ public final class TinkerGraph implements Graph {
         };
 
         CacheEventListenerConfigurationBuilder vertexCacheEventListenerConfig = CacheEventListenerConfigurationBuilder
-          .newEventListenerConfiguration(vertexCacheEventListener, EventType.EVICTED, EventType.REMOVED).asynchronous().unordered();
+          .newEventListenerConfiguration(vertexCacheEventListener, EventType.EVICTED, EventType.REMOVED).unordered();
         CacheEventListenerConfigurationBuilder edgeCacheEventListenerConfig = CacheEventListenerConfigurationBuilder
-          .newEventListenerConfiguration(edgeCacheEventListener, EventType.EVICTED, EventType.REMOVED).asynchronous().unordered();
+          .newEventListenerConfiguration(edgeCacheEventListener, EventType.EVICTED, EventType.REMOVED).unordered();
+        if (mutationLogEnabled) {
+            // evicted elements must be in the overflow store before a checkpoint truncates the mutation log
+            vertexCacheEventListenerConfig = vertexCacheEventListenerConfig.synchronous();
+            edgeCacheEventListenerConfig = edgeCacheEventListenerConfig.synchronous();
+        } else {
+            vertexCacheEventListenerConfig = vertexCacheEventListenerConfig.asynchronous();
+            edgeCacheEventListenerConfig = edgeCacheEventListenerConfig.asynchronous();
+        }
         final String verticesCacheName = "vertexCache";
         final String edgesCacheName = "edgeCache";
         cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
@@ -254,6 +394,20 @@ public final class TinkerGraph implements Graph {
         edgeCache = cacheManager.getCache(edgesCacheName, Long.class, SpecializedTinkerEdge.class);
     }
 
+    private MVStore.Builder newMVStoreBuilder(long compactionIntervalMillis) {
+        MVStore.Builder builder = new MVStore.Builder()
+            .autoCommitBufferSize(configuration.getInt(GREMLIN_TINKERGRAPH_ONDISK_AUTO_COMMIT_BUFFER_SIZE_KB, 1024));
+        // compaction is managed by `overflowStoreMaintenance`, no need for MVStore's own
+        if (compactionIntervalMillis > 0) builder = builder.autoCompactFillRate(0);
+        return builder;
+    }
+
+    /** @return file size, fill rates and compaction statistics for the on-disk overflow stores, by store name */
+    public Map<String, OverflowStoreMaintenance.StoreStats> onDiskOverflowStats() {
+        if (!ondiskOverflowEnabled) throw new IllegalStateException("on-disk overflow is not enabled");
+        return overflowStoreMaintenance.stats();
+    }
+
     /**
      * Open a new {@link TinkerGraph} instance.
      * <p/>
@@ -280,7 +434,7 @@ public final class TinkerGraph implements Graph {
      * @return a newly opened {@link Graph}
      */
     public static TinkerGraph open(final Configuration configuration) {
-        return new TinkerGraph(configuration, false);
+        return open(configuration, Collections.emptyList(), Collections.emptyList());
     }
 
 
@@ -296,11 +450,154 @@ public final class TinkerGraph implements Graph {
         TinkerGraph tg =  new TinkerGraph(configuration, usesSpecializedElements);
         vertexFactories.forEach(factory -> tg.specializedVertexFactoryByLabel.put(factory.forLabel(), factory));
         edgeFactories.forEach(factory -> tg.specializedEdgeFactoryByLabel.put(factory.forLabel(), factory));
-        tg.vertexSerializer = new VertexSerializer(tg, tg.specializedVertexFactoryByLabel);
-        tg.edgeSerializer = new EdgeSerializer(tg, tg.specializedEdgeFactoryByLabel);
+        if (tg.ondiskOverflowEnabled && configuration.getBoolean(GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_ENABLED, false))
+            tg.initializeMutationLog();
         return tg;
     }
 
+    /** restores the state of the persistent overflow stores, replays all mutations that haven't been checkpointed
+     *  (e.g. because the process crashed) and starts logging new mutations */
+    private void initializeMutationLog() {
+        final File mutationLogFile = new File(configuration.getString(GREMLIN_TINKERGRAPH_ONDISK_ROOT_DIR), "mutations.log");
+        final MutationLog.FsyncPolicy fsyncPolicy = MutationLog.FsyncPolicy.valueOf(
+            configuration.getString(GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_FSYNC_POLICY, MutationLog.FsyncPolicy.BATCH.name()).toUpperCase());
+        final long flushIntervalMillis = configuration.getLong(GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_FLUSH_INTERVAL_MILLIS, 100L);
+        try {
+            restoreElementIdsByLabel(onDiskVertexOverflow, vertexIdsByLabel);
+            restoreElementIdsByLabel(onDiskEdgeOverflow, edgeIdsByLabel);
+
+            final MutationLog log = new MutationLog(mutationLogFile, fsyncPolicy, flushIntervalMillis);
+            final long replayedCount = log.replay(new MutationLogReplayHandler());
+            mutationLog = log;
+            if (replayedCount > 0) {
+                logger.info("replayed {} mutations from {}", replayedCount, mutationLogFile);
+                checkpoint();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("unable to recover from mutation log " + mutationLogFile, e);
+        }
+    }
+
+    private void restoreElementIdsByLabel(final MVMap<Long, byte[]> onDiskElementOverflow,
+                                          final THashMap<String, TLongSet> elementIdsByLabel) throws IOException {
+        for (Map.Entry<Long, byte[]> entry : onDiskElementOverflow.entrySet()) {
+            final Long id = entry.getKey();
+            getElementIdsByLabel(elementIdsByLabel, Serializer.unpackLabel(entry.getValue())).add(id);
+            currentId.set(Long.max(id, currentId.get()));
+        }
+    }
+
+    /**
+     * Writes all cached elements to the on-disk overflow stores, syncs them and truncates the mutation log.
+     * Only has an effect if the mutation log is enabled. Should not be called concurrently with mutations.
+     */
+    public void checkpoint() {
+        if (mutationLog == null) return;
+        try {
+            for (Cache.Entry<Long, SpecializedTinkerVertex> entry : vertexCache) {
+                final SpecializedTinkerVertex vertex = entry.getValue();
+                if (vertex.isModifiedSinceLastSerialization() || !onDiskVertexOverflow.containsKey(entry.getKey())) {
+                    onDiskVertexOverflow.put(entry.getKey(), vertexSerializer.serialize(vertex));
+                    vertex.setModifiedSinceLastSerialization(false);
+                }
+            }
+            for (Cache.Entry<Long, SpecializedTinkerEdge> entry : edgeCache) {
+                final SpecializedTinkerEdge edge = entry.getValue();
+                if (edge.isModifiedSinceLastSerialization() || !onDiskEdgeOverflow.containsKey(entry.getKey())) {
+                    onDiskEdgeOverflow.put(entry.getKey(), edgeSerializer.serialize(edge));
+                    edge.setModifiedSinceLastSerialization(false);
+                }
+            }
+            if (vertexIndex != null) vertexIndex.flush();
+            if (edgeIndex != null) edgeIndex.flush();
+            mvstoreVertices.commit();
+            mvstoreEdges.commit();
+            mvstoreVertices.sync();
+            mvstoreEdges.sync();
+            mutationLog.truncate();
+        } catch (IOException e) {
+            throw new RuntimeException("unable to checkpoint on-disk overflow", e);
+        }
+    }
+
+    /** applies replayed mutations - all of them may already be (partially) contained in the overflow stores */
+    private class MutationLogReplayHandler implements MutationLog.Handler {
+        @Override
+        public void addVertex(long id, String label) {
+            if (!vertexIdAlreadyExists(id)) TinkerGraph.this.addVertex(T.id, id, T.label, label);
+        }
+
+        @Override
+        public void addEdge(long id, String label, long outVertexId, long inVertexId) {
+            final SpecializedTinkerVertex outVertex = (SpecializedTinkerVertex) vertexById(outVertexId);
+            final SpecializedTinkerVertex inVertex = (SpecializedTinkerVertex) vertexById(inVertexId);
+            if (outVertex == null || inVertex == null) return; // removed later on
+            if (edgeById(id) == null) {
+                outVertex.addEdge(label, inVertex, T.id, id);
+            } else { // edge was persisted, but its vertices may have been persisted before it was added
+                outVertex.addSpecializedOutEdge(label, id, inVertexId);
+                inVertex.addSpecializedInEdge(label, id, outVertexId);
+                outVertex.setModifiedSinceLastSerialization(true);
+                inVertex.setModifiedSinceLastSerialization(true);
+            }
+        }
+
+        @Override
+        public void setVertexProperty(long id, VertexProperty.Cardinality cardinality, String key, Object value) {
+            final Vertex vertex = vertexById(id);
+            if (vertex != null) vertex.property(cardinality, key, value);
+        }
+
+        @Override
+        public void setEdgeProperty(long id, String key, Object value) {
+            final Edge edge = edgeById(id);
+            if (edge != null) edge.property(key, value);
+        }
+
+        @Override
+        public void setVertexProperties(long id, byte[] serializedProperties) {
+            final Vertex vertex = vertexById(id);
+            if (vertex == null) return;
+            IteratorUtils.list(vertex.properties()).forEach(VertexProperty::remove);
+            try {
+                for (Object[] vertexProperty : Serializer.unpackVertexProperties(serializedProperties)) {
+                    final Object[] metaKeyValues = (Object[]) vertexProperty[3];
+                    final Object[] keyValues = new Object[metaKeyValues.length + 2];
+                    keyValues[0] = T.id;
+                    keyValues[1] = vertexProperty[1];
+                    System.arraycopy(metaKeyValues, 0, keyValues, 2, metaKeyValues.length);
+                    vertex.property(VertexProperty.Cardinality.list, (String) vertexProperty[0], vertexProperty[2], keyValues);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void removeVertexProperty(long id, String key) {
+            final SpecializedTinkerVertex vertex = (SpecializedTinkerVertex) vertexById(id);
+            if (vertex != null) vertex.removeProperty(key);
+        }
+
+        @Override
+        public void removeEdgeProperty(long id, String key) {
+            final SpecializedTinkerEdge edge = (SpecializedTinkerEdge) edgeById(id);
+            if (edge != null) edge.removeProperty(key);
+        }
+
+        @Override
+        public void removeVertex(long id) {
+            final Vertex vertex = vertexById(id);
+            if (vertex != null) vertex.remove();
+        }
+
+        @Override
+        public void removeEdge(long id) {
+            final Edge edge = edgeById(id);
+            if (edge != null) edge.remove();
+        }
+    }
+
     public Edge edgeById(long id) {
         if (ondiskOverflowEnabled)
             return getElementFromCache(id, edgeCache, onDiskEdgeOverflow, edgeSerializer);
@@ -332,6 +629,23 @@ public final class TinkerGraph implements Graph {
             return vertices.get(id);
     }
 
+    public Iterator<Vertex> verticesById(TLongIterator ids) {
+        if (ondiskOverflowEnabled) {
+            return createElementIteratorForCached(vertexCache, onDiskVertexOverflow, vertexSerializer, ids);
+        } else {
+            return new Iterator<Vertex>() {
+                @Override
+                public boolean hasNext() {
+                    return ids.hasNext();
+                }
+                @Override
+                public Vertex next() {
+                    return vertexById(ids.next());
+                }
+            };
+        }
+    }
+
     ////////////// STRUCTURE API METHODS //////////////////
 
     @Override
@@ -347,16 +661,20 @@ public final class TinkerGraph implements Graph {
             idValue = (Long) vertexIdManager.getNextId(this);
         }
         currentId.set(Long.max(idValue, currentId.get()));
+        mutated();
+        vertexIdArrays.invalidate();
 
-        if (specializedVertexFactoryByLabel.containsKey(label)) {
-            SpecializedElementFactory.ForVertex factory = specializedVertexFactoryByLabel.get(label);
+        final SpecializedElementFactory.ForVertex factory = specializedVertexFactory(label);
+        if (factory != null) {
             SpecializedTinkerVertex vertex = factory.createVertex(idValue, this);
+            if (mutationLog != null) mutationLog.addVertex(idValue, label);
             ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
             if (ondiskOverflowEnabled) {
                 getElementIdsByLabel(vertexIdsByLabel, label).add(idValue);
                 vertexCache.put(idValue, vertex);
             } else {
                 vertices.put(idValue, vertex);
+                updateElementCount(vertexCountByLabel, label, 1);
             }
             return vertex;
         } else { // vertex label not registered for a specialized factory, treating as generic vertex
@@ -367,11 +685,211 @@ public final class TinkerGraph implements Graph {
             }
             final Vertex vertex = new TinkerVertex(idValue, label, this);
             this.vertices.put(vertex.id(), vertex);
+            updateElementCount(vertexCountByLabel, label, 1);
             ElementHelper.attachProperties(vertex, VertexProperty.Cardinality.list, keyValues);
             return vertex;
         }
     }
 
+    /** @return the factory for vertices with the given label, or `null` if there is none.
+     *  Generic graphs with on-disk overflow get a schemaless factory for any label. */
+    public SpecializedElementFactory.ForVertex specializedVertexFactory(final String label) {
+        if (usesSchemalessElements)
+            return specializedVertexFactoryByLabel.computeIfAbsent(label, SchemalessTinkerVertex::factory);
+        else
+            return specializedVertexFactoryByLabel.get(label);
+    }
+
+    /** @return the factory for edges with the given label, or `null` if there is none.
+     *  Generic graphs with on-disk overflow get a schemaless factory for any label. */
+    public SpecializedElementFactory.ForEdge specializedEdgeFactory(final String label) {
+        if (usesSchemalessElements)
+            return specializedEdgeFactoryByLabel.computeIfAbsent(label, SchemalessTinkerEdge::factory);
+        else
+            return specializedEdgeFactoryByLabel.get(label);
+    }
+
+    /** @return the schema described by the specialized element factories, or `null` if this graph doesn't use specialized elements */
+    public SpecializedElementSchema schema() {
+        if (!usesSpecializedElements)
+            return null;
+        if (null == schema)
+            schema = new SpecializedElementSchema(specializedVertexFactoryByLabel, specializedEdgeFactoryByLabel);
+        return schema;
+    }
+
+    static void updateElementCount(final Map<String, AtomicLong> elementCountByLabel, final String label, final long delta) {
+        elementCountByLabel.computeIfAbsent(label, l -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /** @return number of vertices, without iterating over them */
+    public long vertexCount() {
+        return ondiskOverflowEnabled ? elementCount(vertexIdsByLabel, null) : vertices.size();
+    }
+
+    /** @return number of vertices with a label that matches the given predicate, without iterating over them */
+    public long vertexCount(final P<String> labelPredicate) {
+        return ondiskOverflowEnabled ? elementCount(vertexIdsByLabel, labelPredicate) : elementCount(vertexCountByLabel, labelPredicate);
+    }
+
+    /** @return number of edges, without iterating over them */
+    public long edgeCount() {
+        return ondiskOverflowEnabled ? elementCount(edgeIdsByLabel, null) : edges.size();
+    }
+
+    /** @return number of edges with a label that matches the given predicate, without iterating over them */
+    public long edgeCount(final P<String> labelPredicate) {
+        return ondiskOverflowEnabled ? elementCount(edgeIdsByLabel, labelPredicate) : elementCount(edgeCountByLabel, labelPredicate);
+    }
+
+    /** @return number of vertices by label, for all labels that match the given predicate (or all labels if it's `null`), without iterating over them */
+    public Map<String, Long> vertexCountsByLabel(final P<String> labelPredicate) {
+        return ondiskOverflowEnabled ? elementCountsByLabel(vertexIdsByLabel, labelPredicate) : elementCountsByLabel(vertexCountByLabel, labelPredicate);
+    }
+
+    /** @return number of edges by label, for all labels that match the given predicate (or all labels if it's `null`), without iterating over them */
+    public Map<String, Long> edgeCountsByLabel(final P<String> labelPredicate) {
+        return ondiskOverflowEnabled ? elementCountsByLabel(edgeIdsByLabel, labelPredicate) : elementCountsByLabel(edgeCountByLabel, labelPredicate);
+    }
+
+    /* labels without elements are left out, as they would be by counting the elements themselves */
+    private static Map<String, Long> elementCountsByLabel(final THashMap<String, TLongSet> elementIdsByLabel, final P<String> labelPredicate) {
+        final Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, TLongSet> entry : elementIdsByLabel.entrySet()) {
+            final int count = entry.getValue().size();
+            if (count > 0 && (labelPredicate == null || labelPredicate.test(entry.getKey())))
+                counts.put(entry.getKey(), (long) count);
+        }
+        return counts;
+    }
+
+    private static Map<String, Long> elementCountsByLabel(final Map<String, AtomicLong> elementCountByLabel, final P<String> labelPredicate) {
+        final Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : elementCountByLabel.entrySet()) {
+            final long count = entry.getValue().get();
+            if (count > 0 && (labelPredicate == null || labelPredicate.test(entry.getKey())))
+                counts.put(entry.getKey(), count);
+        }
+        return counts;
+    }
+
+    private static long elementCount(final THashMap<String, TLongSet> elementIdsByLabel, final P<String> labelPredicate) {
+        long count = 0;
+        for (Map.Entry<String, TLongSet> entry : elementIdsByLabel.entrySet()) {
+            if (labelPredicate == null || labelPredicate.test(entry.getKey()))
+                count += entry.getValue().size();
+        }
+        return count;
+    }
+
+    private static long elementCount(final Map<String, AtomicLong> elementCountByLabel, final P<String> labelPredicate) {
+        long count = 0;
+        for (Map.Entry<String, AtomicLong> entry : elementCountByLabel.entrySet()) {
+            if (labelPredicate == null || labelPredicate.test(entry.getKey()))
+                count += entry.getValue().get();
+        }
+        return count;
+    }
+
+    /**
+     * Filtered full scan over all vertices (or, with on-disk overflow, the label partitions that match the given
+     * predicate) on the parallel scan pool.
+     * @return `null` if parallel scans are disabled or the scan covers fewer vertices than the threshold
+     */
+    public Iterator<Vertex> parallelVertexScan(final P<String> labelPredicate, final Predicate<Vertex> filter) {
+        if (parallelScanThreshold <= 0) return null;
+        if (ondiskOverflowEnabled) {
+            if (elementCount(vertexIdsByLabel, labelPredicate) < parallelScanThreshold) return null;
+            return new ParallelScanIterator<>(parallelScanPool(), elementIds(vertexIdsByLabel, labelPredicate).mapToObj(this::vertexById), filter, parallelScanChunkSize);
+        } else {
+            if (vertices.size() < parallelScanThreshold) return null;
+            return new ParallelScanIterator<>(parallelScanPool(), vertices.values().stream(), filter, parallelScanChunkSize);
+        }
+    }
+
+    /** like `parallelVertexScan`, for edges */
+    public Iterator<Edge> parallelEdgeScan(final P<String> labelPredicate, final Predicate<Edge> filter) {
+        if (parallelScanThreshold <= 0) return null;
+        if (ondiskOverflowEnabled) {
+            if (elementCount(edgeIdsByLabel, labelPredicate) < parallelScanThreshold) return null;
+            return new ParallelScanIterator<>(parallelScanPool(), elementIds(edgeIdsByLabel, labelPredicate).mapToObj(this::edgeById), filter, parallelScanChunkSize);
+        } else {
+            if (edges.size() < parallelScanThreshold) return null;
+            return new ParallelScanIterator<>(parallelScanPool(), edges.values().stream(), filter, parallelScanChunkSize);
+        }
+    }
+
+    /**
+     * @return `sampleSize` distinct vertices with a label that matches the given predicate (or any label if it's `null`),
+     * chosen uniformly at random by their position in the label partitions, i.e. without iterating over all vertices -
+     * `null` if the graph has ids other than longs
+     */
+    public Iterator<Vertex> sampleVertices(final P<String> labelPredicate, final int sampleSize, final Random random) {
+        final long[] ids = vertexIdArrays.sample(labelPredicate, sampleSize, random);
+        return null == ids ? null : verticesById(TLongArrayList.wrap(ids).iterator());
+    }
+
+    /** like `sampleVertices`, for edges */
+    public Iterator<Edge> sampleEdges(final P<String> labelPredicate, final int sampleSize, final Random random) {
+        final long[] ids = edgeIdArrays.sample(labelPredicate, sampleSize, random);
+        return null == ids ? null : edgesById(TLongArrayList.wrap(ids).iterator());
+    }
+
+    /**
+     * @return vertices with a label that matches the given predicate (or any label if it's `null`), each one chosen with
+     * the given probability - skipping over the ones that aren't chosen, i.e. without iterating over all vertices -
+     * `null` if the graph has ids other than longs
+     */
+    public Iterator<Vertex> coinVertices(final P<String> labelPredicate, final double probability, final Random random) {
+        final long[] ids = vertexIdArrays.coin(labelPredicate, probability, random);
+        return null == ids ? null : verticesById(TLongArrayList.wrap(ids).iterator());
+    }
+
+    /** like `coinVertices`, for edges */
+    public Iterator<Edge> coinEdges(final P<String> labelPredicate, final double probability, final Random random) {
+        final long[] ids = edgeIdArrays.coin(labelPredicate, probability, random);
+        return null == ids ? null : edgesById(TLongArrayList.wrap(ids).iterator());
+    }
+
+    /**
+     * @return vertices with ids between `fromId` and `toId` (both inclusive) and a label that matches the given predicate
+     * (or any label if it's `null`), in ascending order of their ids, skipping the first `skip` of them - e.g. for keyset
+     * pagination - or `null` if the graph has ids other than longs
+     */
+    public Iterator<Vertex> verticesByIdRange(final P<String> labelPredicate, final long fromId, final long toId, final long skip) {
+        final TLongIterator ids = vertexIdArrays.idRange(labelPredicate, fromId, toId, skip);
+        return null == ids ? null : verticesById(ids);
+    }
+
+    /** like `verticesByIdRange`, for edges */
+    public Iterator<Edge> edgesByIdRange(final P<String> labelPredicate, final long fromId, final long toId, final long skip) {
+        final TLongIterator ids = edgeIdArrays.idRange(labelPredicate, fromId, toId, skip);
+        return null == ids ? null : edgesById(ids);
+    }
+
+    private Map<String, long[]> vertexIdArraysByLabel() {
+        return ondiskOverflowEnabled ? ElementIdArrays.fromLabelPartitions(vertexIdsByLabel) : ElementIdArrays.fromElements(vertices.values());
+    }
+
+    private Map<String, long[]> edgeIdArraysByLabel() {
+        return ondiskOverflowEnabled ? ElementIdArrays.fromLabelPartitions(edgeIdsByLabel) : ElementIdArrays.fromElements(edges.values());
+    }
+
+    /** copies the ids of the matching label partitions, so that they can be split up between the workers */
+    private static LongStream elementIds(final THashMap<String, TLongSet> elementIdsByLabel, final P<String> labelPredicate) {
+        final TLongArrayList ids = new TLongArrayList((int) elementCount(elementIdsByLabel, labelPredicate));
+        for (Map.Entry<String, TLongSet> entry : elementIdsByLabel.entrySet()) {
+            if (labelPredicate == null || labelPredicate.test(entry.getKey()))
+                ids.addAll(entry.getValue());
+        }
+        return LongStream.of(ids.toArray());
+    }
+
+    synchronized ForkJoinPool parallelScanPool() {
+        if (parallelScanPool == null) parallelScanPool = new ForkJoinPool(parallelScanParallelism);
+        return parallelScanPool;
+    }
+
     private boolean vertexIdAlreadyExists(Long idValue) {
         if (!ondiskOverflowEnabled) {
             return vertices.containsKey(idValue);
@@ -416,36 +934,46 @@ public final class TinkerGraph implements Graph {
 
     @Override
     public String toString() {
-        final int vertexCount;
-        final int edgeCount;
-        if (usesSpecializedElements && ondiskOverflowEnabled) {
-            int vSum = 0;
-            int eSum = 0;
-            for (TLongSet ids : vertexIdsByLabel.values())
-                vSum += ids.size();
-            for (TLongSet ids : edgeIdsByLabel.values())
-                eSum += ids.size();
-            vertexCount = vSum;
-            edgeCount = eSum;
-        } else {
-            vertexCount = vertices.size();
-            edgeCount = edges.size();
-        }
-        return StringFactory.graphString(this, "vertices: " + vertexCount + ", edges: " + edgeCount);
+        return StringFactory.graphString(this, "vertices: " + vertexCount() + ", edges: " + edgeCount());
     }
 
     public void clear() {
         this.vertices.clear();
-        this.vertexIdsByLabel.clear();
+        this.vertexCountByLabel.clear();
         this.edges.clear();
-        this.edgeIdsByLabel.clear();
-        this.onDiskVertexOverflow.clear();
-        this.onDiskEdgeOverflow.clear();
+        this.edgeCountByLabel.clear();
+        if (ondiskOverflowEnabled) {
+            this.vertexIdsByLabel.clear();
+            this.edgeIdsByLabel.clear();
+            this.onDiskVertexOverflow.clear();
+            this.onDiskEdgeOverflow.clear();
+            this.vertexCache.clear();
+            this.edgeCache.clear();
+        }
+        if (mutationLog != null) {
+            // the cleared stores must be durable before the log is truncated, otherwise a crash in between would replay
+            // an empty log over the old contents of the stores
+            mvstoreVertices.commit();
+            mvstoreEdges.commit();
+            mvstoreVertices.sync();
+            mvstoreEdges.sync();
+            try {
+                mutationLog.truncate();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
         this.variables = null;
         this.currentId.set(-1L);
         this.vertexIndex = null;
         this.edgeIndex = null;
+        this.reachabilityIndexes.values().forEach(ReachabilityIndex::invalidate);
+        this.vertexIdArrays.invalidate();
+        this.edgeIdArrays.invalidate();
+        this.statistics.clear();
+        this.traversalTemplates.clear();
         this.graphComputerView = null;
+        mutated();
     }
 
     /**
@@ -455,8 +983,21 @@ public final class TinkerGraph implements Graph {
      */
     @Override
     public void close() {
+        synchronized (this) {
+            if (parallelScanPool != null) parallelScanPool.shutdownNow();
+        }
         if (graphLocation != null) saveGraph();
         if (ondiskOverflowEnabled) {
+            overflowStoreMaintenance.close();
+            if (mutationLog != null) {
+                checkpoint();
+                try {
+                    mutationLog.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                mutationLog = null;
+            }
             mvstoreVertices.close();
             mvstoreEdges.close();
         }
@@ -474,7 +1015,9 @@ public final class TinkerGraph implements Graph {
 
     @Override
     public Iterator<Vertex> vertices(final Object... ids) {
-        if (usesSpecializedElements && ondiskOverflowEnabled) {
+        if (ondiskOverflowEnabled && ids.length > 0) {
+          return elementsByIds(vertexCache, onDiskVertexOverflow, vertexSerializer, toLongIds(ids));
+        } else if (ondiskOverflowEnabled) {
           return createElementIteratorForCached(vertexCache, onDiskVertexOverflow, vertexSerializer, idsIterator(vertexIdsByLabel, ids));
         } else {
           return createElementIterator(Vertex.class, vertices, vertexIdManager, ids);
@@ -482,17 +1025,19 @@ public final class TinkerGraph implements Graph {
     }
 
     public Iterator<Vertex> verticesByLabel(final P<String> labelPredicate) {
-        if (usesSpecializedElements && ondiskOverflowEnabled) {
+        if (ondiskOverflowEnabled) {
             TLongIterator idsIterator = elementIdsByLabel(vertexIdsByLabel, labelPredicate);
             return createElementIteratorForCached(vertexCache, onDiskVertexOverflow, vertexSerializer, idsIterator);
         } else {
-            throw new NotImplementedException("verticesWithLabel only implemented for specialized elements with ondisk overflow");
+            throw new NotImplementedException("verticesWithLabel only implemented for ondisk overflow");
         }
     }
 
     @Override
     public Iterator<Edge> edges(final Object... ids) {
-      if (usesSpecializedElements && ondiskOverflowEnabled) {
+      if (ondiskOverflowEnabled && ids.length > 0) {
+          return elementsByIds(edgeCache, onDiskEdgeOverflow, edgeSerializer, toLongIds(ids));
+      } else if (ondiskOverflowEnabled) {
           return createElementIteratorForCached(edgeCache, onDiskEdgeOverflow, edgeSerializer, idsIterator(edgeIdsByLabel, ids));
       } else {
         return createElementIterator(Edge.class, edges, edgeIdManager, ids);
@@ -500,11 +1045,11 @@ public final class TinkerGraph implements Graph {
     }
 
     public Iterator<Edge> edgesByLabel(final P<String> labelPredicate) {
-        if (usesSpecializedElements && ondiskOverflowEnabled) {
+        if (ondiskOverflowEnabled) {
             TLongIterator idsIterator = elementIdsByLabel(edgeIdsByLabel, labelPredicate);
             return createElementIteratorForCached(edgeCache, onDiskEdgeOverflow, edgeSerializer, idsIterator);
         } else {
-            throw new NotImplementedException("edgesWithLabel only implemented for specialized elements with ondisk overflow");
+            throw new NotImplementedException("edgesWithLabel only implemented for ondisk overflow");
         }
     }
 
@@ -535,29 +1080,30 @@ public final class TinkerGraph implements Graph {
             }
             idsIterator = new TLongMultiIterator(iterators);
         } else {
-            // unfortunately because the TP api allows for any type of id (and even elements instead of ids) we have to copy the whole array...
-            // unfortunately `arraycopy` fails if `ids` contains Integers, so gotta go the slow way
-//                Long[] longIds = new Long[ids.length];
-//                System.arraycopy(ids, 0, longIds, 0, ids.length);
-            long[] longIds = new long[ids.length];
-            for (int i = 0; i < ids.length; i++) {
-                Object id = ids[i];
-                final long longId;
-                if (id instanceof Long) {
-                    longId = ((Long) id).longValue();
-                } else if (id instanceof Integer) {
-                    longId = ((Integer) id).longValue();
-                } else {
-                    throw new AssertionError("provided ID=" + id + " must be a long (or integer) value, but is a " + id.getClass());
-                }
-                longIds[i] = longId;
-            }
-
-            idsIterator = new ArrayBackedTLongIterator(longIds);
+            idsIterator = new ArrayBackedTLongIterator(toLongIds(ids));
         }
         return idsIterator;
     }
 
+    private static long[] toLongIds(final Object... ids) {
+        // unfortunately because the TP api allows for any type of id (and even elements instead of ids) we have to copy the whole array...
+        // unfortunately `arraycopy` fails if `ids` contains Integers, so gotta go the slow way
+        long[] longIds = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            Object id = ids[i] instanceof Element ? ((Element) ids[i]).id() : ids[i];
+            final long longId;
+            if (id instanceof Long) {
+                longId = ((Long) id).longValue();
+            } else if (id instanceof Integer) {
+                longId = ((Integer) id).longValue();
+            } else {
+                throw new AssertionError("provided ID=" + id + " must be a long (or integer) value, but is a " + id.getClass());
+            }
+            longIds[i] = longId;
+        }
+        return longIds;
+    }
+
     private void loadGraph() {
         final File f = new File(graphLocation);
         if (f.exists() && f.isFile()) {
@@ -624,6 +1170,69 @@ public final class TinkerGraph implements Graph {
     }
 
 
+    /**
+     * Looks up many elements at once: the ids are deduplicated and sorted, so that the ones that aren't in the cache are
+     * read from `onDiskOverflow` in key order - with a single cursor if they're dense, i.e. from neighbouring pages.
+     * The elements are returned in the requested order (including duplicates), unknown ids are skipped.
+     */
+    private <T extends Element> Iterator<T> elementsByIds(final Cache<Long, ? extends T> cache,
+                                                          final MVMap<Long, byte[]> onDiskElementOverflow,
+                                                          final Serializer<? extends T> serializer,
+                                                          final long[] ids) {
+      final long[] sortedIds = ids.clone();
+      Arrays.sort(sortedIds);
+      final TLongObjectMap<T> elementsById = new TLongObjectHashMap<>(sortedIds.length);
+      final TLongArrayList misses = new TLongArrayList();
+      for (int i = 0; i < sortedIds.length; i++) {
+          final long id = sortedIds[i];
+          if (i > 0 && sortedIds[i - 1] == id)
+              continue;
+          final T element = cache.get(id);
+          if (element != null)
+              elementsById.put(id, element);
+          else
+              misses.add(id);
+      }
+
+      if (!misses.isEmpty()) {
+          final long first = misses.get(0);
+          final long last = misses.get(misses.size() - 1);
+          if (last - first < (long) misses.size() * DENSE_ID_SPAN_FACTOR) {
+              final Cursor<Long, byte[]> cursor = onDiskElementOverflow.cursor(first);
+              int i = 0;
+              while (i < misses.size() && cursor.hasNext()) {
+                  final long id = cursor.next();
+                  if (id > last)
+                      break;
+                  while (i < misses.size() && misses.get(i) < id)
+                      i++;
+                  if (i < misses.size() && misses.get(i) == id) {
+                      putIfNotNull(elementsById, id, deserializeIntoCache(id, cursor.getValue(), cache, serializer));
+                      i++;
+                  }
+              }
+          } else {
+              for (int i = 0; i < misses.size(); i++) {
+                  final long id = misses.get(i);
+                  putIfNotNull(elementsById, id, deserializeIntoCache(id, onDiskElementOverflow.get(id), cache, serializer));
+              }
+          }
+      }
+
+      final List<T> elements = new ArrayList<>(ids.length);
+      for (final long id : ids) {
+          final T element = elementsById.get(id);
+          if (element != null)
+              elements.add(element);
+      }
+      return elements.iterator();
+    }
+
+    private static <T> void putIfNotNull(final TLongObjectMap<T> elementsById, final long id, final T element) {
+      if (element != null)
+          elementsById.put(id, element);
+    }
+
     /** check for element in cache, otherwise read from `onDiskOverflow`, deserialize and put back in cache */
     private <T extends Element> T getElementFromCache(final Long id,
                                                       final Cache<Long, ? extends T> cache,
@@ -632,15 +1241,22 @@ public final class TinkerGraph implements Graph {
       if (cache.containsKey(id)) {
           return cache.get(id);
       } else {
-          try {
-              T deserializedElement = serializer.deserialize(onDiskElementOverflow.get(id));
-              if (deserializedElement != null) {
-                  ((Cache<Long, T>) cache).put(id, deserializedElement);
-              }
-              return deserializedElement;
-          } catch (IOException e) {
-              throw new RuntimeException(e);
+          return deserializeIntoCache(id, onDiskElementOverflow.get(id), cache, serializer);
+      }
+    }
+
+    private <T extends Element> T deserializeIntoCache(final Long id,
+                                                       final byte[] bytes,
+                                                       final Cache<Long, ? extends T> cache,
+                                                       final Serializer<? extends T> serializer) {
+      try {
+          T deserializedElement = serializer.deserialize(bytes);
+          if (deserializedElement != null) {
+              ((Cache<Long, T>) cache).put(id, deserializedElement);
           }
+          return deserializedElement;
+      } catch (IOException e) {
+          throw new RuntimeException(e);
       }
     }
 
@@ -821,14 +1437,22 @@ public final class TinkerGraph implements Graph {
      */
     public <E extends Element> void createIndex(final String key, final Class<E> elementClass) {
         if (Vertex.class.isAssignableFrom(elementClass)) {
-            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class);
+            if (null == this.vertexIndex) this.vertexIndex = new TinkerIndex<>(this, TinkerVertex.class, newIndexPostings(mvstoreVertices, "vertexIndex"));
             this.vertexIndex.createKeyIndex(key);
         } else if (Edge.class.isAssignableFrom(elementClass)) {
-            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class);
+            if (null == this.edgeIndex) this.edgeIndex = new TinkerIndex<>(this, TinkerEdge.class, newIndexPostings(mvstoreEdges, "edgeIndex"));
             this.edgeIndex.createKeyIndex(key);
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
+        this.traversalTemplates.clear();
+    }
+
+    private IndexPostings newIndexPostings(final MVStore mvstore, final String mapName) {
+        if (ondiskOverflowEnabled && configuration.getBoolean(GREMLIN_TINKERGRAPH_ONDISK_INDEX_ENABLED, false))
+            return new OnDiskIndexPostings(mvstore.openMap(mapName), configuration.getInt(GREMLIN_TINKERGRAPH_ONDISK_INDEX_CACHE_SIZE, 10000));
+        else
+            return new InMemoryIndexPostings();
     }
 
     /**
@@ -846,6 +1470,7 @@ public final class TinkerGraph implements Graph {
         } else {
             throw new IllegalArgumentException("Class is not indexable: " + elementClass);
         }
+        this.traversalTemplates.clear();
     }
 
     /**
@@ -865,6 +1490,87 @@ public final class TinkerGraph implements Graph {
         }
     }
 
+    /**
+     * Get the reachability index for the outgoing edges with the given labels, or create it. It is built on first use
+     * and rebuilt after edges with these labels are removed (or added between vertices that weren't connected yet),
+     * hence it's meant for mostly static graphs.
+     *
+     * @param edgeLabels the labels of the edges to follow, at least one
+     * @return the reachability index for these labels
+     */
+    public ReachabilityIndex reachabilityIndex(final String... edgeLabels) {
+        if (edgeLabels.length == 0)
+            throw new IllegalArgumentException("reachability index requires at least one edge label");
+        return this.reachabilityIndexes.computeIfAbsent(new HashSet<>(Arrays.asList(edgeLabels)), labels -> new ReachabilityIndex(this, labels));
+    }
+
+    /**
+     * @return the reachability index for exactly the given edge labels, or `null` if it hasn't been created
+     */
+    public ReachabilityIndex getReachabilityIndex(final String... edgeLabels) {
+        return this.reachabilityIndexes.get(new HashSet<>(Arrays.asList(edgeLabels)));
+    }
+
+    /**
+     * Drop the reachability index for the given edge labels.
+     */
+    public void dropReachabilityIndex(final String... edgeLabels) {
+        this.reachabilityIndexes.remove(new HashSet<>(Arrays.asList(edgeLabels)));
+    }
+
+    /** @return the number of traversers that adjacency steps expand at once, `1` if they expand them one by one */
+    public int vertexStepBatchSize() {
+        return this.vertexStepBatchSize;
+    }
+
+    /** @return the statistics about the elements of this graph, which are used to estimate the cost of traversals */
+    public GraphStatistics statistics() {
+        return this.statistics;
+    }
+
+    /**
+     * @return the mutation version of this graph, which is incremented by every addition, removal and property
+     * modification of an element - two reads that return the same version have seen the same graph
+     */
+    public long version() {
+        return this.version.get();
+    }
+
+    void mutated() {
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * @return the traversal result cache, or `null` if it isn't enabled, see {@link #GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE}
+     */
+    public TraversalResultCache resultCache() {
+        return this.resultCache;
+    }
+
+    /**
+     * @return the cache of strategy-applied traversals, see {@link TraversalTemplateCache#traversal(Bytecode)}
+     */
+    public TraversalTemplateCache traversalTemplates() {
+        return this.traversalTemplates;
+    }
+
+    void edgeAdded(final String label, final Vertex outVertex, final Vertex inVertex) {
+        mutated();
+        edgeIdArrays.invalidate();
+        statistics.edgeAdded(label, outVertex, inVertex);
+        for (final ReachabilityIndex reachabilityIndex : this.reachabilityIndexes.values())
+            reachabilityIndex.edgeAdded(label, outVertex.id(), inVertex.id());
+    }
+
+    /** either vertex may be `null` if it's already gone */
+    void edgeRemoved(final String label, final Vertex outVertex, final Vertex inVertex) {
+        mutated();
+        edgeIdArrays.invalidate();
+        statistics.edgeRemoved(label, outVertex, inVertex);
+        for (final ReachabilityIndex reachabilityIndex : this.reachabilityIndexes.values())
+            reachabilityIndex.edgeRemoved(label);
+    }
+
     /**
      * Construct an {@link TinkerGraph.IdManager} from the TinkerGraph {@code Configuration}.
      */
@@ -20,8 +20,11 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.tinkerpop.gremlin.process.computer.GraphFilter;
 import org.apache.tinkerpop.gremlin.process.computer.VertexComputeKey;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.VertexProperty;
@@ -64,8 +67,10 @@ public final class TinkerHelper {
         edge = new TinkerEdge(graph, idValue, outVertex, label, inVertex);
         ElementHelper.attachProperties(edge, keyValues);
         graph.edges.put(edge.id(), edge);
+        TinkerGraph.updateElementCount(graph.edgeCountByLabel, label, 1);
         TinkerHelper.addOutEdge(outVertex, label, edge);
         TinkerHelper.addInEdge(inVertex, label, edge);
+        graph.edgeAdded(label, outVertex, inVertex);
         return edge;
 
     }
@@ -98,6 +103,14 @@ public final class TinkerHelper {
         return null == graph.edgeIndex ? Collections.emptyList() : graph.edgeIndex.get(key, value);
     }
 
+    public static long countVertexIndex(final TinkerGraph graph, final String key, final Object value) {
+        return null == graph.vertexIndex ? 0 : graph.vertexIndex.count(key, value);
+    }
+
+    public static long countEdgeIndex(final TinkerGraph graph, final String key, final Object value) {
+        return null == graph.edgeIndex ? 0 : graph.edgeIndex.count(key, value);
+    }
+
     public static boolean inComputerMode(final TinkerGraph graph) {
         return null != graph.graphComputerView;
     }
@@ -120,13 +133,14 @@ public final class TinkerHelper {
 
     public static void autoUpdateIndex(final TinkerEdge edge, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) edge.graph();
-
+        graph.statistics.propertySet(Edge.class, key, newValue);
         if (graph.edgeIndex != null)
             graph.edgeIndex.autoUpdate(key, newValue, oldValue, (Long) edge.id());
     }
 
     public static void autoUpdateIndex(final TinkerVertex vertex, final String key, final Object newValue, final Object oldValue) {
         final TinkerGraph graph = (TinkerGraph) vertex.graph();
+        graph.statistics.propertySet(Vertex.class, key, newValue);
         if (graph.vertexIndex != null)
             graph.vertexIndex.autoUpdate(key, newValue, oldValue, (Long) vertex.id());
     }
@@ -205,6 +219,43 @@ public final class TinkerHelper {
         return (Iterator) vertices.iterator();
     }
 
+    /**
+     * @return `true` if the property values of the given element can be read directly, i.e. without `Property`
+     * wrappers, see {@link #propertyValue(Element, String)}
+     */
+    public static boolean hasDirectPropertyValues(final Element element) {
+        return element instanceof SpecializedTinkerVertex ?
+                !((SpecializedTinkerVertex) element).supportsMultiProperties() :
+                element instanceof SpecializedTinkerEdge;
+    }
+
+    /** @return the value of the given property, or `null` if there is none - only for elements with {@link #hasDirectPropertyValues(Element)} */
+    public static <V> V propertyValue(final Element element, final String key) {
+        return element instanceof SpecializedTinkerVertex ?
+                ((SpecializedTinkerVertex) element).propertyValue(key) :
+                ((SpecializedTinkerEdge) element).propertyValue(key);
+    }
+
+    /** like {@link HasContainer#testAll(Element, List)}, but reads property values directly where possible */
+    public static <E extends Element> boolean testAll(final E element, final List<HasContainer> hasContainers) {
+        if (!hasDirectPropertyValues(element))
+            return HasContainer.testAll(element, hasContainers);
+        for (final HasContainer hasContainer : hasContainers) {
+            if (!test(element, hasContainer))
+                return false;
+        }
+        return true;
+    }
+
+    /** like {@link HasContainer#test(Element)}, but reads property values directly where possible */
+    public static <E extends Element> boolean test(final E element, final HasContainer hasContainer) {
+        // tokens (`~id`, `~label` etc.) are hidden keys
+        if (Graph.Hidden.isHidden(hasContainer.getKey()) || !hasDirectPropertyValues(element))
+            return hasContainer.test(element);
+        final Object value = propertyValue(element, hasContainer.getKey());
+        return null != value && ((P<Object>) hasContainer.getPredicate()).test(value);
+    }
+
     public static Map<Object, Vertex> getVertices(final TinkerGraph graph) {
         return graph.vertices;
     }
@@ -20,14 +20,12 @@ package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import gnu.trove.iterator.TLongIterator;
 import gnu.trove.set.TLongSet;
-import gnu.trove.set.hash.TLongHashSet;
 import org.apache.tinkerpop.gremlin.structure.Element;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,87 +36,64 @@ import java.util.stream.StreamSupport;
  */
 final class TinkerIndex<T extends Element> {
 
-    protected Map<String, Map<Object, TLongSet>> index = new ConcurrentHashMap<>();
+    protected final IndexPostings postings;
     protected final Class<T> indexClass;
     private final Set<String> indexedKeys = new HashSet<>();
     private final TinkerGraph graph;
 
     public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass) {
+        this(graph, indexClass, new InMemoryIndexPostings());
+    }
+
+    public TinkerIndex(final TinkerGraph graph, final Class<T> indexClass, final IndexPostings postings) {
         this.graph = graph;
         this.indexClass = indexClass;
+        this.postings = postings;
     }
 
     protected void put(final String key, final Object value, final long id) {
-        Map<Object, TLongSet> keyMap = this.index.get(key);
-        if (null == keyMap) {
-            this.index.putIfAbsent(key, new ConcurrentHashMap<>());
-            keyMap = this.index.get(key);
-        }
-        TLongSet ids = keyMap.get(value);
-        if (null == ids) {
-            keyMap.putIfAbsent(value, new TLongHashSet());
-            ids = keyMap.get(value);
-        }
-        ids.add(id);
+        this.postings.add(key, value, id);
     }
 
     public List<T> get(final String key, final Object value) {
-        final Map<Object, TLongSet> keyMap = this.index.get(key);
-        if (null == keyMap) {
+        TLongSet ids = this.postings.get(key, value);
+        if (null == ids)
             return Collections.emptyList();
-        } else {
-            TLongSet ids = keyMap.get(value);
-            if (null == ids)
-                return Collections.emptyList();
-            else {
-                TLongIterator idsIter = ids.iterator();
-                final List<T> elements = new ArrayList<>(ids.size());
-                if (Vertex.class.isAssignableFrom(this.indexClass)) {
-                    while (idsIter.hasNext()) {
-                        elements.add((T) graph.vertexById(idsIter.next()));
-                    }
-                } else {
-                    while (idsIter.hasNext()) {
-                        elements.add((T) graph.edgeById(idsIter.next()));
-                    }
+        else {
+            TLongIterator idsIter = ids.iterator();
+            final List<T> elements = new ArrayList<>(ids.size());
+            if (Vertex.class.isAssignableFrom(this.indexClass)) {
+                while (idsIter.hasNext()) {
+                    elements.add((T) graph.vertexById(idsIter.next()));
+                }
+            } else {
+                while (idsIter.hasNext()) {
+                    elements.add((T) graph.edgeById(idsIter.next()));
                 }
-                return elements;
             }
-
+            return elements;
         }
     }
 
     public long count(final String key, final Object value) {
-        final Map<Object, TLongSet> keyMap = this.index.get(key);
-        if (null == keyMap) {
-            return 0;
-        } else {
-            TLongSet set = keyMap.get(value);
-            if (null == set)
-                return 0;
-            else
-                return set.size();
-        }
+        return this.postings.count(key, value);
     }
 
     public void remove(final String key, final Object value, final long id) {
-        final Map<Object, TLongSet> keyMap = this.index.get(key);
-        if (null != keyMap) {
-            TLongSet ids = keyMap.get(value);
-            if (null != ids) {
-                ids.remove(id);
-                if (ids.size() == 0) {
-                    keyMap.remove(value);
-                }
-            }
-        }
+        this.postings.remove(key, value, id);
     }
 
     public void removeElement(final T element) {
         if (this.indexClass.isAssignableFrom(element.getClass())) {
-            for (Map<Object, TLongSet> map : index.values()) {
-                for (TLongSet set : map.values()) {
-                    set.remove((Long) element.id());
+            final long id = (Long) element.id();
+            for (String key : this.indexedKeys) {
+                if (this.postings instanceof InMemoryIndexPostings) {
+                    this.postings.removeId(key, id);
+                } else { // avoid scanning all postings on disk - look up the element's values instead
+                    final Iterator<? extends Property<Object>> properties = element.properties(key);
+                    while (properties.hasNext()) {
+                        this.postings.remove(key, properties.next().value(), id);
+                    }
                 }
             }
         }
@@ -146,6 +121,7 @@ final class TinkerIndex<T extends Element> {
         if (this.indexedKeys.contains(key))
             return;
         this.indexedKeys.add(key);
+        this.postings.removeKey(key); // postings on disk may be left over from a previous session
 
 
         final Iterator<T> elementsIter;
@@ -163,13 +139,16 @@ final class TinkerIndex<T extends Element> {
     }
 
     public void dropKeyIndex(final String key) {
-        if (this.index.containsKey(key))
-            this.index.remove(key).clear();
-
+        this.postings.removeKey(key);
         this.indexedKeys.remove(key);
     }
 
     public Set<String> getIndexedKeys() {
         return this.indexedKeys;
     }
+
+    /** persists pending changes of on-disk postings */
+    public void flush() {
+        this.postings.flush();
+    }
 }
@@ -76,11 +76,21 @@ public final class TinkerProperty<V> implements Property<V> {
 
     @Override
     public void remove() {
-        if (this.element instanceof Edge) {
+        if (this.element instanceof SpecializedTinkerEdge) {
+            ((SpecializedTinkerEdge) this.element).removeProperty(this.key);
+            TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
+        } else if (this.element instanceof Edge) {
             ((TinkerEdge) this.element).properties.remove(this.key);
             TinkerHelper.removeIndex((TinkerEdge) this.element, this.key, this.value);
+            ((TinkerEdge) this.element).graph.mutated();
         } else {
-            ((TinkerVertexProperty) this.element).properties.remove(this.key);
+            final TinkerVertexProperty vertexProperty = (TinkerVertexProperty) this.element;
+            vertexProperty.properties.remove(this.key);
+            if (vertexProperty.element() instanceof SpecializedTinkerVertex)
+                ((SpecializedTinkerVertex) vertexProperty.element()).setModifiedSinceLastSerialization(true);
+            if (vertexProperty.element() instanceof SchemalessTinkerVertex && ((SchemalessTinkerVertex) vertexProperty.element()).contains(vertexProperty))
+                ((SchemalessTinkerVertex) vertexProperty.element()).logProperties();
+            ((TinkerVertex) vertexProperty.element()).graph.mutated();
         }
     }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
+import gnu.trove.procedure.TLongProcedure;
 import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Graph;
@@ -36,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -106,6 +108,7 @@ public class TinkerVertex extends TinkerElement implements Vertex {
             list.add(vertexProperty);
             this.properties.put(key, list);
             TinkerHelper.autoUpdateIndex(this, key, value, null);
+            this.graph.mutated();
             ElementHelper.attachProperties(vertexProperty, keyValues);
             return vertexProperty;
         }
@@ -131,9 +134,12 @@ public class TinkerVertex extends TinkerElement implements Vertex {
         final List<Edge> edges = new ArrayList<>();
         this.edges(Direction.BOTH).forEachRemaining(edges::add);
         edges.stream().filter(edge -> !((TinkerEdge) edge).removed).forEach(Edge::remove);
-        this.properties = null;
         TinkerHelper.removeElementIndex(this);
-        this.graph.vertices.remove(this.id);
+        this.properties = null;
+        if (null != this.graph.vertices.remove(this.id))
+            TinkerGraph.updateElementCount(this.graph.vertexCountByLabel, this.label, -1);
+        this.graph.mutated();
+        this.graph.vertexIdArrays.invalidate();
         this.removed = true;
     }
 
@@ -161,6 +167,138 @@ public class TinkerVertex extends TinkerElement implements Vertex {
                 (Iterator) TinkerHelper.getVertices(this, direction, edgeLabels);
     }
 
+    /**
+     * @return number of adjacent edges in the given direction with any of the given labels (or any label if none are
+     * given), i.e. the same as counting {@link #edges}, but without iterating over them
+     */
+    public long degree(final Direction direction, final String... edgeLabels) {
+        if (TinkerHelper.inComputerMode(this.graph))
+            return IteratorUtils.count(this.edges(direction, edgeLabels));
+        else if (direction == Direction.BOTH)
+            return degree(this.outEdges, edgeLabels) + degree(this.inEdges, edgeLabels);
+        else
+            return degree(direction == Direction.OUT ? this.outEdges : this.inEdges, edgeLabels);
+    }
+
+    private static long degree(final Map<String, Set<Edge>> edgesByLabel, final String... edgeLabels) {
+        if (null == edgesByLabel) return 0;
+        long degree = 0;
+        if (edgeLabels.length == 0) {
+            for (final Set<Edge> edges : edgesByLabel.values())
+                degree += edges.size();
+        } else {
+            for (final String edgeLabel : edgeLabels) {
+                final Set<Edge> edges = edgesByLabel.get(edgeLabel);
+                if (null != edges) degree += edges.size();
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * @return number of adjacent edges in the given direction with the given label - like {@link #degree(Direction, String...)},
+     * but without the label array
+     */
+    public long degree(final Direction direction, final String edgeLabel) {
+        if (TinkerHelper.inComputerMode(this.graph))
+            return IteratorUtils.count(this.edges(direction, edgeLabel));
+        else if (direction == Direction.BOTH)
+            return degree(this.outEdges, edgeLabel) + degree(this.inEdges, edgeLabel);
+        else
+            return degree(direction == Direction.OUT ? this.outEdges : this.inEdges, edgeLabel);
+    }
+
+    private static long degree(final Map<String, Set<Edge>> edgesByLabel, final String edgeLabel) {
+        if (null == edgesByLabel) return 0;
+        final Set<Edge> edges = edgesByLabel.get(edgeLabel);
+        return null == edges ? 0 : edges.size();
+    }
+
+    /**
+     * Visits the ids of the adjacent edges in the given direction with any of the given labels (or any label if none
+     * are given), straight from the adjacency, i.e. without collecting or resolving the edges.
+     * Like trove's `forEach`, the visit stops as soon as the procedure returns `false`.
+     * The adjacency must not be modified by the procedure.
+     */
+    public void forEachEdgeId(final Direction direction, final String[] edgeLabels, final TLongProcedure procedure) {
+        if (TinkerHelper.inComputerMode(this.graph)) {
+            forEachEdge(this.edges(direction, edgeLabels), TinkerVertex::edgeId, procedure);
+        } else {
+            if (direction != Direction.IN && !forEachEdge(this.outEdges, edgeLabels, TinkerVertex::edgeId, procedure)) return;
+            if (direction != Direction.OUT) forEachEdge(this.inEdges, edgeLabels, TinkerVertex::edgeId, procedure);
+        }
+    }
+
+    /** like {@link #forEachEdgeId}, for the outgoing edges with the given label */
+    public void forEachOutEdgeId(final String edgeLabel, final TLongProcedure procedure) {
+        if (TinkerHelper.inComputerMode(this.graph))
+            forEachEdge(this.edges(Direction.OUT, edgeLabel), TinkerVertex::edgeId, procedure);
+        else
+            forEachEdge(this.outEdges, edgeLabel, TinkerVertex::edgeId, procedure);
+    }
+
+    /** like {@link #forEachEdgeId}, for the incoming edges with the given label */
+    public void forEachInEdgeId(final String edgeLabel, final TLongProcedure procedure) {
+        if (TinkerHelper.inComputerMode(this.graph))
+            forEachEdge(this.edges(Direction.IN, edgeLabel), TinkerVertex::edgeId, procedure);
+        else
+            forEachEdge(this.inEdges, edgeLabel, TinkerVertex::edgeId, procedure);
+    }
+
+    /**
+     * Visits the ids of the adjacent vertices along the edges in the given direction with any of the given labels (or
+     * any label if none are given), i.e. the ids of {@link #vertices} (possibly in a different order), but without
+     * resolving the vertices.
+     * Like trove's `forEach`, the visit stops as soon as the procedure returns `false`.
+     * The adjacency must not be modified by the procedure.
+     */
+    public void forEachNeighborId(final Direction direction, final String[] edgeLabels, final TLongProcedure procedure) {
+        if (TinkerHelper.inComputerMode(this.graph)) {
+            if (direction != Direction.IN && !forEachEdge(this.edges(Direction.OUT, edgeLabels), TinkerVertex::inVertexId, procedure)) return;
+            if (direction != Direction.OUT) forEachEdge(this.edges(Direction.IN, edgeLabels), TinkerVertex::outVertexId, procedure);
+        } else {
+            if (direction != Direction.IN && !forEachEdge(this.outEdges, edgeLabels, TinkerVertex::inVertexId, procedure)) return;
+            if (direction != Direction.OUT) forEachEdge(this.inEdges, edgeLabels, TinkerVertex::outVertexId, procedure);
+        }
+    }
+
+    private static long edgeId(final Edge edge) {
+        return (long) edge.id();
+    }
+
+    private static long inVertexId(final Edge edge) {
+        return (long) edge.inVertex().id();
+    }
+
+    private static long outVertexId(final Edge edge) {
+        return (long) edge.outVertex().id();
+    }
+
+    /** @return `false` if the procedure stopped the visit */
+    private static boolean forEachEdge(final Map<String, Set<Edge>> edgesByLabel, final String[] edgeLabels, final ToLongFunction<Edge> idOf, final TLongProcedure procedure) {
+        if (null == edgesByLabel) return true;
+        if (edgeLabels.length == 0) {
+            for (final Set<Edge> edges : edgesByLabel.values())
+                if (!forEachEdge(edges.iterator(), idOf, procedure)) return false;
+        } else {
+            for (final String edgeLabel : edgeLabels)
+                if (!forEachEdge(edgesByLabel, edgeLabel, idOf, procedure)) return false;
+        }
+        return true;
+    }
+
+    private static boolean forEachEdge(final Map<String, Set<Edge>> edgesByLabel, final String edgeLabel, final ToLongFunction<Edge> idOf, final TLongProcedure procedure) {
+        if (null == edgesByLabel) return true;
+        final Set<Edge> edges = edgesByLabel.get(edgeLabel);
+        return null == edges || forEachEdge(edges.iterator(), idOf, procedure);
+    }
+
+    private static boolean forEachEdge(final Iterator<Edge> edges, final ToLongFunction<Edge> idOf, final TLongProcedure procedure) {
+        while (edges.hasNext())
+            if (!procedure.execute(idOf.applyAsLong(edges.next()))) return false;
+        return true;
+    }
+
     @Override
     public <V> Iterator<VertexProperty<V>> properties(final String... propertyKeys) {
         if (this.removed) return Collections.emptyIterator();
@@ -119,6 +119,11 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
         final Property<U> property = new TinkerProperty<>(this, key, value);
         if (this.properties == null) this.properties = new HashMap<>();
         this.properties.put(key, property);
+        if (this.vertex instanceof SpecializedTinkerVertex)
+            ((SpecializedTinkerVertex) this.vertex).setModifiedSinceLastSerialization(true);
+        if (this.vertex instanceof SchemalessTinkerVertex && ((SchemalessTinkerVertex) this.vertex).contains(this))
+            ((SchemalessTinkerVertex) this.vertex).logProperties();
+        this.vertex.graph.mutated();
         return property;
     }
 
@@ -143,6 +148,11 @@ public class TinkerVertexProperty<V> extends TinkerElement implements VertexProp
             if (delete.get()) TinkerHelper.removeIndex(this.vertex, this.key, this.value);
             this.properties = null;
             this.removed = true;
+            if (this.vertex instanceof SpecializedTinkerVertex)
+                ((SpecializedTinkerVertex) this.vertex).setModifiedSinceLastSerialization(true);
+            if (this.vertex instanceof SchemalessTinkerVertex)
+                ((SchemalessTinkerVertex) this.vertex).logProperties();
+            this.vertex.graph.mutated();
         }
     }
 
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.BulkSet;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.MutablePath;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.Tree;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Property;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Results of read-only traversals by their bytecode, for read-mostly workloads that repeat the same queries: an entry
+ * is only valid for the graph version it was computed for, see {@link TinkerGraph#version()}, so any mutation of the
+ * graph invalidates all of them. Entries are evicted in LRU order once the configured number of entries is reached.
+ * Results are copied when they're cached and again whenever they're handed out, so that callers may modify e.g. the
+ * maps and lists of `valueMap()`, `groupCount()` or `fold()`: only elements, properties and immutable values are shared,
+ * and traversals with results of any other type aren't cached at all.
+ * Enabled via {@link TinkerGraph#GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE}, and used by `TinkerGraphResultCacheStrategy`.
+ */
+public final class TraversalResultCache {
+
+    private final TinkerGraph graph;
+    private final int maxEntries;
+    private final int maxResults;
+    private final Map<Bytecode, Results> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    TraversalResultCache(final TinkerGraph graph, final int maxEntries, final int maxResults) {
+        this.graph = graph;
+        this.maxEntries = maxEntries;
+        this.maxResults = maxResults;
+        this.entries = new LinkedHashMap<Bytecode, Results>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Bytecode, Results> eldest) {
+                if (size() <= TraversalResultCache.this.maxEntries) return false;
+                evictionCount++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return the results of the traversal with the given bytecode, or `null` if they aren't cached for the current
+     * version of the graph
+     */
+    public synchronized Results get(final Bytecode bytecode) {
+        final Results results = entries.get(bytecode);
+        if (results != null && results.version == graph.version()) {
+            hitCount++;
+            return results;
+        }
+        if (results != null) entries.remove(bytecode);
+        missCount++;
+        return null;
+    }
+
+    /** caches the results, unless the graph has been modified since the given version, i.e. while they were computed */
+    public synchronized void put(final Bytecode bytecode, final Results results) {
+        if (results.version == graph.version()) entries.put(bytecode.clone(), results);
+    }
+
+    /** @return the number of results up to which a traversal is cached */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TraversalResultCache[size=" + entries.size() + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "]";
+    }
+
+    /** the objects and bulks of a traversal's results, as of the given graph version */
+    public static final class Results {
+        private final long version;
+        private Object[] objects = new Object[8];
+        private long[] bulks = new long[8];
+        private int size;
+
+        public Results(final long version) {
+            this.version = version;
+        }
+
+        /** @return false if the object can't be cached because it isn't known how to copy it */
+        public boolean add(final Object object, final long bulk) {
+            final Object copy = copy(object);
+            if (copy == UNCOPYABLE) return false;
+            if (size == objects.length) {
+                objects = Arrays.copyOf(objects, size * 2);
+                bulks = Arrays.copyOf(bulks, size * 2);
+            }
+            objects[size] = copy;
+            bulks[size] = bulk;
+            size++;
+            return true;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** @return a copy of the object at the given index, which the caller may modify */
+        public Object get(final int index) {
+            return copy(objects[index]);
+        }
+
+        public long bulk(final int index) {
+            return bulks[index];
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    private static final Object UNCOPYABLE = new Object();
+
+    /**
+     * @return a copy of the given result that shares no mutable state with it, or {@link #UNCOPYABLE}: elements,
+     * properties and immutable values are returned as they are, collections and paths are copied recursively
+     */
+    private static Object copy(final Object object) {
+        if (object == null || object instanceof String || object instanceof Long || object instanceof Integer ||
+                object instanceof Double || object instanceof Float || object instanceof Short || object instanceof Byte ||
+                object instanceof BigInteger || object instanceof BigDecimal || object instanceof Boolean ||
+                object instanceof Character || object instanceof Enum || object instanceof UUID ||
+                object instanceof Element || object instanceof Property)
+            return object;
+        if (object instanceof Path) {
+            final Path path = (Path) object;
+            final List<Object> pathObjects = path.objects();
+            final List<Set<String>> labels = path.labels();
+            Path copy = MutablePath.make();
+            for (int i = 0; i < pathObjects.size(); i++) {
+                final Object objectCopy = copy(pathObjects.get(i));
+                if (objectCopy == UNCOPYABLE) return UNCOPYABLE;
+                copy = copy.extend(objectCopy, new LinkedHashSet<>(labels.get(i)));
+            }
+            return copy;
+        }
+        if (object instanceof BulkSet) {
+            final BulkSet<Object> copy = new BulkSet<>();
+            for (final Map.Entry<Object, Long> entry : ((BulkSet<Object>) object).asBulk().entrySet()) {
+                final Object objectCopy = copy(entry.getKey());
+                if (objectCopy == UNCOPYABLE) return UNCOPYABLE;
+                copy.add(objectCopy, entry.getValue());
+            }
+            return copy;
+        }
+        if (object instanceof Map) {
+            final Map<Object, Object> copy = object instanceof Tree ? (Map) new Tree<>() : new LinkedHashMap<>();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                final Object key = copy(entry.getKey());
+                final Object value = copy(entry.getValue());
+                if (key == UNCOPYABLE || value == UNCOPYABLE) return UNCOPYABLE;
+                copy.put(key, value);
+            }
+            return copy;
+        }
+        if (object instanceof List || object instanceof Set) {
+            final Collection<Object> copy = object instanceof List ? new ArrayList<>() : new LinkedHashSet<>();
+            for (final Object element : (Collection<?>) object) {
+                final Object elementCopy = copy(element);
+                if (elementCopy == UNCOPYABLE) return UNCOPYABLE;
+                copy.add(elementCopy);
+            }
+            return copy;
+        }
+        return UNCOPYABLE;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.structure;
+
+import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerCachedResultsStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerResultCachingStep;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Strategy-applied traversals by their bytecode, for short queries that are issued over and over again, e.g. by a
+ * server that receives bytecode: a repeated query is a copy of the cached template, which is ready for iteration,
+ * i.e. it skips the translation of the bytecode into steps and the application of all strategies. Bound arguments are
+ * part of the key with their values, as strategies fold them into the steps (e.g. ids and `has()` filters into the
+ * `TinkerGraphStep`). Besides the bytecode, a template captures the graph state that strategies read while they're
+ * applied:
+ * - the indices, e.g. whether `TinkerGraphCountStrategy` can count an equality filter from an index: all templates are
+ *   dropped when an index is created or dropped
+ * - the schema of specialized elements, see `TinkerGraphSchemaStrategy`: it's fixed once the graph is opened
+ * - the {@link GraphStatistics} that `TinkerGraphFilterOrderStrategy` orders filters by: all templates are dropped once
+ *   the number of elements has grown or shrunk by more than half since the oldest of them was built. Smaller changes
+ *   of the statistics may leave a template testing its filters in an order that is no longer the cheapest one, which
+ *   affects the cost of the traversal, but never its results
+ * Templates don't capture any elements or property values, and the configuration, e.g. the batch size of
+ * `TinkerGraphVertexStepStrategy`, can't change. If the {@link TraversalResultCache} is enabled, a template hit is
+ * answered from it whenever it holds the results of the bytecode, as `TinkerGraphResultCacheStrategy` would do. Entries are evicted in LRU order once the configured number of entries
+ * is reached, see {@link TinkerGraph#GREMLIN_TINKERGRAPH_TRAVERSAL_TEMPLATE_CACHE_SIZE}.
+ */
+public final class TraversalTemplateCache {
+
+    private final TinkerGraph graph;
+    private final int maxEntries;
+    private final Map<Bytecode, Traversal.Admin<?, ?>> templates;
+    /* number of elements when the oldest of the cached templates was built */
+    private long elementCount;
+    private long hitCount;
+    private long missCount;
+
+    TraversalTemplateCache(final TinkerGraph graph, final int maxEntries) {
+        this.graph = graph;
+        this.maxEntries = maxEntries;
+        this.templates = new LinkedHashMap<Bytecode, Traversal.Admin<?, ?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Bytecode, Traversal.Admin<?, ?>> eldest) {
+                return size() > TraversalTemplateCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return a new traversal for the given bytecode, with all strategies applied - a copy of the cached template if
+     * the same bytecode has been seen before
+     */
+    public <S, E> Traversal.Admin<S, E> traversal(final Bytecode bytecode) {
+        final Traversal.Admin<?, ?> template;
+        final long elementCount = graph.vertexCount() + graph.edgeCount();
+        synchronized (this) {
+            // the statistics that the templates were built with are outdated
+            if (Math.abs(elementCount - this.elementCount) > this.elementCount / 2)
+                templates.clear();
+            template = templates.get(bytecode);
+            if (template != null) hitCount++;
+            else missCount++;
+        }
+        if (template != null) {
+            // like `TinkerGraphResultCacheStrategy`, which only runs when the template is built
+            if (TraversalHelper.hasStepOfClass(TinkerResultCachingStep.class, template)) {
+                final TraversalResultCache.Results results = graph.resultCache().get(bytecode);
+                if (null != results)
+                    return cachedResults(results);
+            }
+            return (Traversal.Admin<S, E>) template.clone();
+        }
+
+        final Traversal.Admin<S, E> traversal = (Traversal.Admin<S, E>) JavaTranslator.of(graph.traversal()).translate(bytecode);
+        traversal.applyStrategies();
+        // results that were taken from the result cache are only valid for the current graph version
+        if (!TraversalHelper.hasStepOfClass(TinkerCachedResultsStep.class, traversal)) {
+            final Traversal.Admin<S, E> newTemplate = traversal.clone();
+            synchronized (this) {
+                if (templates.isEmpty()) this.elementCount = elementCount;
+                templates.put(bytecode.clone(), newTemplate);
+            }
+        }
+        return traversal;
+    }
+
+    /** @return a traversal that emits the given results, ready for iteration */
+    private <S, E> Traversal.Admin<S, E> cachedResults(final TraversalResultCache.Results results) {
+        final Traversal.Admin<S, E> traversal = new DefaultGraphTraversal<>(graph);
+        traversal.setStrategies(new DefaultTraversalStrategies());
+        traversal.addStep(new TinkerCachedResultsStep<>(traversal, results));
+        traversal.applyStrategies();
+        return traversal;
+    }
+
+    public synchronized int size() {
+        return templates.size();
+    }
+
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    public synchronized void clear() {
+        templates.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TraversalTemplateCache[size=" + templates.size() + ", hits=" + hitCount + ", misses=" + missCount + "]";
+    }
+}
@@ -19,14 +19,17 @@
 
 package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
 
+import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
 import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
@@ -74,8 +77,8 @@ public class TinkerGraphCountStrategyTest {
         assertEquals(this.optimized, this.original);
     }
 
-    private static Traversal.Admin<?, ?> countStep(final Class<? extends Element> elementClass) {
-        return new DefaultGraphTraversal<>().addStep(new TinkerCountGlobalStep(EmptyTraversal.instance(), elementClass));
+    private static Traversal.Admin<?, ?> countStep(final Class<? extends Element> elementClass, final HasContainer... hasContainers) {
+        return new DefaultGraphTraversal<>().addStep(new TinkerCountGlobalStep(EmptyTraversal.instance(), elementClass, Arrays.asList(hasContainers)));
 
     }
 
@@ -91,12 +94,21 @@ public class TinkerGraphCountStrategyTest {
                 {__.V().map(out().groupCount()).identity().count().as("a"), null, TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
                 {__.V().label().map(s -> s.get().length()).count(), null, TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
                 {__.V().as("a").map(select("a")).count(), null, TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
+                {__.V().hasLabel("person").count(), countStep(Vertex.class, new HasContainer(T.label.getAccessor(), P.eq("person"))), Collections.emptyList()},
+                {__.V().hasLabel("person", "software").count(), countStep(Vertex.class, new HasContainer(T.label.getAccessor(), P.within("person", "software"))), TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
                 //
                 {__.V(), null, Collections.emptyList()},
                 {__.V().out().count(), null, Collections.emptyList()},
                 {__.V(1).count(), null, Collections.emptyList()},
+                {__.V().has("name", "marko").count(), null, Collections.emptyList()},
+                {__.V().hasLabel("person").has("name", "marko").count(), null, Collections.emptyList()},
                 {__.count(), null, Collections.emptyList()},
                 {__.V().map(out().groupCount("m")).identity().count().as("a"), null, Collections.emptyList()},
+                {__.V().hasLabel("person").sample(10).count(), null, Collections.emptyList()},
+                {__.V().sample(10).hasLabel("person").count(), null, Collections.emptyList()},
+                {__.V().hasLabel("person").sample(10).count(), null, TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
+                {__.V().order().count(), null, Collections.emptyList()},
+                {__.V().barrier().hasLabel("person").count(), null, Collections.emptyList()},
         });
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerDegreeCountStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.bothE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphDegreeCountStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphDegreeCountStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        if (this.optimized == null) {
+            this.optimized = this.original.asAdmin().clone();
+            this.optimized.asAdmin().setStrategies(strategies);
+            this.optimized.asAdmin().applyStrategies();
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static Traversal.Admin<?, ?> degreeCount(final Direction direction, final long limit, final String... edgeLabels) {
+        return new DefaultGraphTraversal<>().addStep(new TinkerDegreeCountStep(EmptyTraversal.instance(), direction, edgeLabels, limit));
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.outE("knows").count(), degreeCount(Direction.OUT, Long.MAX_VALUE, "knows"), Collections.emptyList()},
+                {__.in().count(), degreeCount(Direction.IN, Long.MAX_VALUE), Collections.emptyList()},
+                {__.both("knows", "created").barrier().count(), degreeCount(Direction.BOTH, Long.MAX_VALUE, "knows", "created"), Collections.emptyList()},
+                {__.outE().limit(5).count(), degreeCount(Direction.OUT, 5), Collections.emptyList()},
+                {__.outE().count().is(P.gt(3)), __.start().asAdmin().addStep(new TinkerDegreeCountStep(EmptyTraversal.instance(), Direction.OUT, new String[0], 4)).is(P.gt(3)),
+                        TraversalStrategies.GlobalCache.getStrategies(TinkerGraph.class).toList()},
+                {__.V().local(bothE().count()), __.V().local(degreeCount(Direction.BOTH, Long.MAX_VALUE)), Collections.emptyList()},
+                //
+                {__.out().as("a").count(), null, Collections.emptyList()},
+                {__.outE().range(1, 3).count(), null, Collections.emptyList()},
+                {__.out().has("name", "marko").count(), null, Collections.emptyList()},
+                {__.out().out().count(), __.out().asAdmin().addStep(new TinkerDegreeCountStep(EmptyTraversal.instance(), Direction.OUT, new String[0], Long.MAX_VALUE)), Collections.emptyList()},
+                {__.V().where(outE().count()), __.V().where(degreeCount(Direction.OUT, Long.MAX_VALUE)), Collections.emptyList()},
+        });
+    }
+}
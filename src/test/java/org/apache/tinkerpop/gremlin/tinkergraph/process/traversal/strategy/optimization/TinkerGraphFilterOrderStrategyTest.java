@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphFilterOrderStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphFilterOrderStrategy.instance(), TinkerGraphStepStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        // the expected traversals are written in gremlin too and need their graph steps folded - the filters are already in order
+        if (this.optimized == null)
+            this.optimized = this.original.asAdmin().clone();
+        this.optimized.asAdmin().setStrategies(strategies);
+        this.optimized.asAdmin().applyStrategies();
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    /** 100 people with unique names and two genders, who all live in one of 5 cities and a third of whom know someone */
+    private static TinkerGraph newGraph() {
+        final TinkerGraph graph = TinkerGraph.open();
+        final List<Vertex> cities = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            cities.add(graph.addVertex(T.label, "city", "name", "c" + i));
+        }
+        Vertex previous = null;
+        for (int i = 0; i < 100; i++) {
+            final Vertex person = graph.addVertex(T.label, "person", "name", "p" + i, "gender", i % 2 == 0 ? "m" : "f", "age", i);
+            person.addEdge("livesIn", cities.get(i % 5));
+            if (null != previous && i % 3 == 0)
+                previous.addEdge("knows", person);
+            previous = person;
+        }
+        return graph;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        final GraphTraversalSource g = newGraph().traversal();
+
+        return Arrays.asList(new Object[][]{
+                {g.V().has("gender", "m").has("name", "p1"), g.V().has("name", "p1").has("gender", "m"), Collections.emptyList()},
+                {g.V().has("age", P.gt(30)).has("name", "p1"), g.V().has("name", "p1").has("age", P.gt(30)), Collections.emptyList()},
+                {g.V().has("gender", "m").has("age", P.gt(30)), g.V().has("age", P.gt(30)).has("gender", "m"), Collections.emptyList()},
+                {g.V().out("knows").has("gender", "m").has("name", "p1"), g.V().out("knows").has("name", "p1").has("gender", "m"), Collections.emptyList()},
+                {g.V().filter(out("livesIn")).filter(out("knows")), g.V().filter(out("knows")).filter(out("livesIn")), Collections.emptyList()},
+                {g.V().hasLabel("person").filter(out("livesIn")).filter(out("knows")).values("name"),
+                        g.V().hasLabel("person").filter(out("knows")).filter(out("livesIn")).values("name"), Collections.emptyList()},
+                //
+                {g.V().has("name", "p1").has("gender", "m"), null, Collections.emptyList()},
+                {g.V().has("name", "p1").has("unknownKey", "x"), null, Collections.emptyList()},
+                {g.V().filter(out("knows")).filter(out("livesIn")), null, Collections.emptyList()},
+                {g.V().filter(out("livesIn")).as("a").filter(out("knows")), null, Collections.emptyList()},
+                {g.V().filter(out("livesIn")).out().filter(out("knows")), null, Collections.emptyList()},
+                {EmptyGraph.instance().traversal().V().has("gender", "m").has("name", "p1"), null, Collections.emptyList()},
+        });
+    }
+}
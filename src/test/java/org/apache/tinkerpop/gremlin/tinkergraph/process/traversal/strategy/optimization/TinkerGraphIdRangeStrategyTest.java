@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphIdRangeStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphIdRangeStrategy.instance(), TinkerGraphStepStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        if (this.optimized == null) {
+            this.optimized = this.original.asAdmin().clone();
+            this.optimized.asAdmin().setStrategies(strategies);
+            this.optimized.asAdmin().applyStrategies();
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static <E extends Element> TinkerGraphStep<E, E> graphStep(final GraphTraversal.Admin<?, ?> traversal, final Class<E> returnClass, final HasContainer... hasContainers) {
+        final TinkerGraphStep<E, E> graphStep = new TinkerGraphStep<>(new GraphStep<>(traversal, returnClass, true));
+        Arrays.stream(hasContainers).forEach(graphStep::addHasContainer);
+        traversal.addStep(graphStep);
+        return graphStep;
+    }
+
+    private static GraphTraversal.Admin<?, ?> idRange(final Class<? extends Element> returnClass, final boolean orderedById, final long low, final long high, final HasContainer... hasContainers) {
+        final GraphTraversal.Admin<?, ?> traversal = new DefaultGraphTraversal<>();
+        final TinkerGraphStep<?, ?> graphStep = graphStep(traversal, returnClass, hasContainers);
+        graphStep.setOrderedById(orderedById);
+        if (low > 0)
+            graphStep.setRange(low, high);
+        return traversal;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.V().order().by(T.id), idRange(Vertex.class, true, 0, -1), Collections.emptyList()},
+                {__.V().hasLabel("person").order().by(T.id, Order.asc).limit(10),
+                        idRange(Vertex.class, true, 0, -1, new HasContainer(T.label.getAccessor(), P.eq("person"))).limit(10), Collections.emptyList()},
+                {__.V().hasLabel("person").has(T.id, P.gt(5)).order().by(T.id).range(10, 20),
+                        idRange(Vertex.class, true, 10, 20, new HasContainer(T.label.getAccessor(), P.eq("person")), new HasContainer(T.id.getAccessor(), P.gt(5))), Collections.emptyList()},
+                {__.V().hasLabel("person").range(10, 20), idRange(Vertex.class, false, 10, 20, new HasContainer(T.label.getAccessor(), P.eq("person"))), Collections.emptyList()},
+                {EmptyGraph.instance().traversal().E().skip(100), idRange(Edge.class, false, 100, -1), Collections.emptyList()},
+                {__.V().range(10, 20).out(), idRange(Vertex.class, false, 10, 20).out(), Collections.emptyList()},
+                //
+                {__.V().limit(10), null, Collections.emptyList()},
+                {__.V().has(T.id, P.gt(5)), null, Collections.emptyList()},
+                {__.V().order().by(T.id, Order.decr), null, Collections.emptyList()},
+                {__.V().order().by(T.id).by("name"), null, Collections.emptyList()},
+                {__.V().order().by("name").range(10, 20), null, Collections.emptyList()},
+                {__.V().has("name", "marko").range(10, 20), null, Collections.emptyList()},
+                {__.V().hasLabel("person").has(T.id, P.neq(5)).range(10, 20), null, Collections.emptyList()},
+                {__.V().hasLabel("person").hasLabel("software").range(10, 20), null, Collections.emptyList()},
+                {__.V(1).range(10, 20), null, Collections.emptyList()},
+                {__.V().out().V().range(10, 20), null, Collections.emptyList()},
+                {__.V().identity().range(10, 20), null, Collections.emptyList()},
+        });
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.filter.TinkerHasStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerPropertiesStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerPropertyMapStep;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphPropertyStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphPropertyStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        if (this.optimized == null) {
+            this.optimized = this.original.asAdmin().clone();
+            this.optimized.asAdmin().setStrategies(strategies);
+            this.optimized.asAdmin().applyStrategies();
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static Traversal.Admin<?, ?> values(final Traversal.Admin<?, ?> traversal, final String... keys) {
+        return traversal.addStep(new TinkerPropertiesStep<>(EmptyTraversal.instance(), keys));
+    }
+
+    private static Traversal.Admin<?, ?> valueMap(final Traversal.Admin<?, ?> traversal, final boolean includeTokens, final String... keys) {
+        return traversal.addStep(new TinkerPropertyMapStep<>(EmptyTraversal.instance(), includeTokens, keys));
+    }
+
+    private static Traversal.Admin<?, ?> has(final Traversal.Admin<?, ?> traversal, final String label, final HasContainer... hasContainers) {
+        final TinkerHasStep<?> hasStep = new TinkerHasStep<>(EmptyTraversal.instance(), hasContainers);
+        if (label != null)
+            hasStep.addLabel(label);
+        return traversal.addStep(hasStep);
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.values("name"), values(__.start().asAdmin(), "name"), Collections.emptyList()},
+                {__.out().values("name", "songType"), values(__.out().asAdmin(), "name", "songType"), Collections.emptyList()},
+                {__.values(), values(__.start().asAdmin()), Collections.emptyList()},
+                {__.valueMap(), valueMap(__.start().asAdmin(), false), Collections.emptyList()},
+                {__.valueMap(true, "name"), valueMap(__.start().asAdmin(), true, "name"), Collections.emptyList()},
+                {__.has("performances", P.gt(100)).as("a"),
+                        has(__.start().asAdmin(), "a", new HasContainer("performances", P.gt(100))), Collections.emptyList()},
+                {__.out().has("name", "DARK STAR").values("songType"),
+                        values(has(__.out().asAdmin(), null, new HasContainer("name", P.eq("DARK STAR"))), "songType"), Collections.emptyList()},
+                //
+                {__.properties("name"), null, Collections.emptyList()},
+                {__.propertyMap(), null, Collections.emptyList()},
+        });
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerGraphStep;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphSampleStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphSampleStrategy.instance(), TinkerGraphStepStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        if (this.optimized == null) {
+            this.optimized = this.original.asAdmin().clone();
+            this.optimized.asAdmin().setStrategies(strategies);
+            this.optimized.asAdmin().applyStrategies();
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static <E extends Element> TinkerGraphStep<E, E> graphStep(final GraphTraversal.Admin<?, ?> traversal, final Class<E> returnClass, final HasContainer... hasContainers) {
+        final TinkerGraphStep<E, E> graphStep = new TinkerGraphStep<>(new GraphStep<>(traversal, returnClass, true));
+        Arrays.stream(hasContainers).forEach(graphStep::addHasContainer);
+        traversal.addStep(graphStep);
+        return graphStep;
+    }
+
+    private static GraphTraversal.Admin<?, ?> sample(final Class<? extends Element> returnClass, final int sampleSize, final HasContainer... hasContainers) {
+        final GraphTraversal.Admin<?, ?> traversal = new DefaultGraphTraversal<>();
+        graphStep(traversal, returnClass, hasContainers).setSampleSize(sampleSize);
+        return traversal;
+    }
+
+    private static GraphTraversal.Admin<?, ?> coin(final Class<? extends Element> returnClass, final double probability, final HasContainer... hasContainers) {
+        final GraphTraversal.Admin<?, ?> traversal = new DefaultGraphTraversal<>();
+        graphStep(traversal, returnClass, hasContainers).setCoinProbability(probability);
+        return traversal;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.V().sample(10), sample(Vertex.class, 10), Collections.emptyList()},
+                {__.V().hasLabel("person").sample(10), sample(Vertex.class, 10, new HasContainer(T.label.getAccessor(), P.eq("person"))), Collections.emptyList()},
+                {__.V().hasLabel("person").coin(0.5), coin(Vertex.class, 0.5, new HasContainer(T.label.getAccessor(), P.eq("person"))), Collections.emptyList()},
+                {EmptyGraph.instance().traversal().E().coin(0.1), coin(Edge.class, 0.1), Collections.emptyList()},
+                {__.V().sample(10).out(), sample(Vertex.class, 10).out(), Collections.emptyList()},
+                //
+                {__.V().has("name", "marko").sample(10), null, Collections.emptyList()},
+                {__.V().hasLabel("person").has("age", P.gt(30)).coin(0.5), null, Collections.emptyList()},
+                {__.V().sample(10).by("weight"), null, Collections.emptyList()},
+                {__.V(1).sample(10), null, Collections.emptyList()},
+                {__.V().out().sample(10), null, Collections.emptyList()},
+                {__.V().out().V().sample(10), null, Collections.emptyList()},
+                {__.V().identity().sample(10), null, Collections.emptyList()},
+        });
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.NoneStep;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.structure.util.empty.EmptyGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.Artist;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.FollowedBy;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.Song;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.SungBy;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.WrittenBy;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphSchemaStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphSchemaStrategy.instance(), TinkerGraphStepStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        // the expected traversals are written in gremlin too and need their graph steps folded - the schema strategy leaves them as they are
+        if (this.optimized == null)
+            this.optimized = this.original.asAdmin().clone();
+        this.optimized.asAdmin().setStrategies(strategies);
+        this.optimized.asAdmin().applyStrategies();
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static GraphTraversal.Admin<?, ?> none(final GraphTraversal<?, ?> traversal) {
+        final GraphTraversal.Admin<?, ?> admin = traversal.asAdmin();
+        admin.addStep(new NoneStep<>(admin));
+        return admin;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        final GraphTraversalSource g = TinkerGraph.open(
+                Arrays.asList(Song.factory, Artist.factory),
+                Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)).traversal();
+        final P<String> noLabel = P.within(Collections.emptyList());
+
+        return Arrays.asList(new Object[][]{
+                {g.V().has("performances", P.gt(10)), g.V().has("performances", P.gt(10)).hasLabel("song"), Collections.emptyList()},
+                {g.V().has("songType"), g.V().hasLabel("song").has("songType"), Collections.emptyList()},
+                {g.V().out("sungBy"), g.V().hasLabel("song").out("sungBy"), Collections.emptyList()},
+                {g.V().out(), g.V().hasLabel("song").out(), Collections.emptyList()},
+                {g.E().has("weight", 1), g.E().has("weight", 1).hasLabel("followedBy"), Collections.emptyList()},
+                {g.V().has("performances", "many"), g.V().has("performances", "many").hasLabel(noLabel), Collections.emptyList()},
+                {g.V().hasLabel("song").out("unknownEdge"), none(g.V().hasLabel(noLabel)), Collections.emptyList()},
+                {g.V().hasLabel("artist").out(), none(g.V().hasLabel(noLabel)), Collections.emptyList()},
+                {g.V().out("sungBy").out("followedBy"), none(g.V().hasLabel("song").out("sungBy")), Collections.emptyList()},
+                {g.V().out("followedBy").in("sungBy"), none(g.V().hasLabel("song").out("followedBy")), Collections.emptyList()},
+                //
+                {g.V().has("name", "Garcia"), null, Collections.emptyList()},
+                {g.V().hasLabel("song", "artist"), null, Collections.emptyList()},
+                {g.V().both(), null, Collections.emptyList()},
+                {g.V().values("name"), null, Collections.emptyList()},
+                {g.E(), null, Collections.emptyList()},
+                {g.V().hasLabel("song").out("sungBy").in("writtenBy"), null, Collections.emptyList()},
+                {EmptyGraph.instance().traversal().V().out("unknownEdge"), null, Collections.emptyList()},
+        });
+    }
+}
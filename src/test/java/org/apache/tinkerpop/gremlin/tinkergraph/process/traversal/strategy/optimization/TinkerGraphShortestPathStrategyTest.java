@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerShortestPathStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.ShortestPath;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasId;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasLabel;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphShortestPathStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphShortestPathStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        if (this.optimized == null) {
+            this.optimized = this.original.asAdmin().clone();
+            this.optimized.asAdmin().setStrategies(strategies);
+            this.optimized.asAdmin().applyStrategies();
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static GraphTraversal.Admin<?, ?> shortestPath(final Direction direction, final long targetId, final boolean untilFirst, final String... edgeLabels) {
+        return shortestPath(__.start().asAdmin(), direction, targetId, untilFirst, false, edgeLabels);
+    }
+
+    private static GraphTraversal.Admin<?, ?> shortestPath(final GraphTraversal.Admin<?, ?> traversal, final Direction direction, final long targetId,
+                                                           final boolean untilFirst, final boolean simplePath, final String... edgeLabels) {
+        return traversal.addStep(new TinkerShortestPathStep(EmptyTraversal.instance(), direction, edgeLabels, targetId, ShortestPath.UNLIMITED_DEPTH, untilFirst, simplePath));
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        return Arrays.asList(new Object[][]{
+                {__.repeat(out("CFG")).until(hasId(7L)).path().limit(1), shortestPath(Direction.OUT, 7, false, "CFG").path().limit(1), Collections.emptyList()},
+                {__.V(1L).repeat(out("CFG").simplePath()).until(hasId(7)).limit(1), shortestPath(__.V(1L).asAdmin(), Direction.OUT, 7, false, true, "CFG").limit(1), Collections.emptyList()},
+                {__.<Vertex>until(hasId(7L)).repeat(__.in()).limit(1), shortestPath(Direction.IN, 7, true).limit(1), Collections.emptyList()},
+                //
+                {__.repeat(out("CFG")).until(hasId(7L)).path(), null, Collections.emptyList()},
+                {__.repeat(out("CFG")).until(hasId(7L)).limit(2), null, Collections.emptyList()},
+                {__.repeat(out("CFG")).emit().until(hasId(7L)).limit(1), null, Collections.emptyList()},
+                {__.repeat(out("CFG")).until(hasLabel("METHOD")).limit(1), null, Collections.emptyList()},
+                {__.repeat(out("CFG").out("AST")).until(hasId(7L)).limit(1), null, Collections.emptyList()},
+                {__.repeat(outE("CFG").inV()).until(hasId(7L)).limit(1), null, Collections.emptyList()},
+                {__.repeat(out("CFG").as("a")).until(hasId(7L)).limit(1), null, Collections.emptyList()},
+                {__.repeat(out("CFG").simplePath()).until(hasId(7)).limit(1), null, Collections.emptyList()},
+                {__.V(1L).out().repeat(out("CFG").simplePath()).until(hasId(7)).limit(1), null, Collections.emptyList()},
+        });
+    }
+}
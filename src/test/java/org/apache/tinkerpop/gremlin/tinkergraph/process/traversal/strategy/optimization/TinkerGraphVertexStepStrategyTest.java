@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.DefaultTraversalStrategies;
+import org.apache.tinkerpop.gremlin.process.traversal.util.EmptyTraversal;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(Parameterized.class)
+public class TinkerGraphVertexStepStrategyTest {
+
+    @Parameterized.Parameter(value = 0)
+    public Traversal original;
+
+    @Parameterized.Parameter(value = 1)
+    public Traversal optimized;
+
+    @Parameterized.Parameter(value = 2)
+    public Collection<TraversalStrategy> otherStrategies;
+
+    @Test
+    public void doTest() {
+        final TraversalStrategies strategies = new DefaultTraversalStrategies();
+        strategies.addStrategies(TinkerGraphVertexStepStrategy.instance());
+        for (final TraversalStrategy strategy : this.otherStrategies) {
+            strategies.addStrategies(strategy);
+        }
+        if (this.optimized == null) {
+            this.optimized = this.original.asAdmin().clone();
+            this.optimized.asAdmin().setStrategies(strategies);
+            this.optimized.asAdmin().applyStrategies();
+        }
+        this.original.asAdmin().setStrategies(strategies);
+        this.original.asAdmin().applyStrategies();
+        assertEquals(this.optimized, this.original);
+    }
+
+    private static GraphTraversal.Admin<?, ?> vertexStep(final Class<? extends Element> returnClass, final Direction direction, final List<String> edgeLabels,
+                                                         final List<HasContainer> edgeHasContainers, final List<HasContainer> vertexHasContainers, final String... labels) {
+        final TinkerVertexStep<?> step = new TinkerVertexStep<>(EmptyTraversal.instance(), returnClass, direction, edgeLabels.toArray(new String[edgeLabels.size()]));
+        edgeHasContainers.forEach(step::addEdgeHasContainer);
+        vertexHasContainers.forEach(step::addVertexHasContainer);
+        Arrays.stream(labels).forEach(step::addLabel);
+        return new DefaultGraphTraversal<>().addStep(step);
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Iterable<Object[]> generateTestParameters() {
+        final HasContainer weight = new HasContainer("weight", P.eq(1.0));
+        final HasContainer heavyWeight = new HasContainer("weight", P.gt(0.5));
+        final HasContainer person = new HasContainer(T.label.getAccessor(), P.eq("person"));
+        final HasContainer olderThan30 = new HasContainer("age", P.gt(30));
+        return Arrays.asList(new Object[][]{
+                {__.outE("knows").has("weight", 1.0).inV(), vertexStep(Vertex.class, Direction.OUT, Arrays.asList("knows"), Arrays.asList(weight), Collections.emptyList()), Collections.emptyList()},
+                {__.inE().has("weight", P.gt(0.5)).outV().hasLabel("person"), vertexStep(Vertex.class, Direction.IN, Collections.emptyList(), Arrays.asList(heavyWeight), Arrays.asList(person)), Collections.emptyList()},
+                {__.bothE().has("weight", 1.0).otherV(), vertexStep(Vertex.class, Direction.BOTH, Collections.emptyList(), Arrays.asList(weight), Collections.emptyList()), Collections.emptyList()},
+                {__.bothE().hasLabel("knows", "created"), vertexStep(Edge.class, Direction.BOTH, Arrays.asList("knows", "created"),
+                        Arrays.asList(new HasContainer(T.label.getAccessor(), P.within("knows", "created"))), Collections.emptyList()), Collections.emptyList()},
+                {__.outE("knows", "created").hasLabel("knows"), vertexStep(Edge.class, Direction.OUT, Arrays.asList("knows"),
+                        Arrays.asList(new HasContainer(T.label.getAccessor(), P.eq("knows"))), Collections.emptyList()), Collections.emptyList()},
+                {__.outE("knows").hasLabel("created"), vertexStep(Edge.class, Direction.OUT, Arrays.asList("knows"),
+                        Arrays.asList(new HasContainer(T.label.getAccessor(), P.eq("created"))), Collections.emptyList()), Collections.emptyList()},
+                {__.outE("knows", "knows").has("weight", 1.0).inV(), vertexStep(Vertex.class, Direction.OUT, Arrays.asList("knows", "knows"), Arrays.asList(weight), Collections.emptyList()), Collections.emptyList()},
+                {__.outE("knows", "created", "knows").hasLabel("knows"), vertexStep(Edge.class, Direction.OUT, Arrays.asList("knows", "knows"),
+                        Arrays.asList(new HasContainer(T.label.getAccessor(), P.eq("knows"))), Collections.emptyList()), Collections.emptyList()},
+                {__.out("knows").hasLabel("person").has("age", P.gt(30)), vertexStep(Vertex.class, Direction.OUT, Arrays.asList("knows"), Collections.emptyList(), Arrays.asList(person, olderThan30)), Collections.emptyList()},
+                {__.outE().has("weight", 1.0).as("e").inV(), vertexStep(Edge.class, Direction.OUT, Collections.emptyList(), Arrays.asList(weight), Collections.emptyList(), "e").inV(), Collections.emptyList()},
+                {__.outE().has("weight", 1.0).outV(), vertexStep(Edge.class, Direction.OUT, Collections.emptyList(), Arrays.asList(weight), Collections.emptyList()).outV(), Collections.emptyList()},
+                {__.outE().has("weight", 1.0).inV().path(), vertexStep(Edge.class, Direction.OUT, Collections.emptyList(), Arrays.asList(weight), Collections.emptyList()).inV().path(), Collections.emptyList()},
+                //
+                {__.out("knows"), null, Collections.emptyList()},
+                {__.outE().inV(), null, Collections.emptyList()},
+                {__.outE().limit(1).has("weight", 1.0), null, Collections.emptyList()},
+        });
+    }
+}
@@ -18,14 +18,37 @@
  */
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.jsr223.JavaTranslator;
+import org.apache.tinkerpop.gremlin.process.traversal.Bytecode;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.sideEffect.TinkerCachedResultsStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountByLabelStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDegreeCountStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDedupStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphFilterOrderStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphIdRangeStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphPropertyStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphSchemaStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphShortestPathStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphTopKStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphVertexStepStrategy;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.*;
 import org.apache.tinkerpop.gremlin.util.TimeUtil;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -33,6 +56,14 @@ import java.io.IOException;
 import java.util.*;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.__;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.both;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.bothE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasId;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasLabel;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.is;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
 import static org.junit.Assert.*;
 
 public class SpecializedElementsTest {
@@ -151,6 +182,648 @@ public class SpecializedElementsTest {
         graph.close();
     }
 
+    @Test
+    public void shouldCountByLabelAndIndexWithoutIterating() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        graph.createIndex(FollowedBy.WEIGHT, Edge.class);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Long> labelCount = g.V().hasLabel(Song.label).count().asAdmin();
+        labelCount.applyStrategies();
+        assertTrue(labelCount.getStartStep() instanceof TinkerCountGlobalStep);
+        assertEquals(Long.valueOf(584), labelCount.next());
+        assertEquals(Long.valueOf(808), g.V().count().next());
+        assertEquals(Long.valueOf(808), g.V().hasLabel(Song.label, Artist.label).count().next());
+        assertEquals(Long.valueOf(0), g.V().hasLabel(Song.label).hasLabel(Artist.label).count().next());
+        assertEquals(Long.valueOf(8049), g.E().count().next());
+        assertEquals(Long.valueOf(7047), g.E().hasLabel(FollowedBy.label).count().next());
+
+        GraphTraversal.Admin<Edge, Long> indexCount = g.E().has(FollowedBy.WEIGHT, 1).count().asAdmin();
+        indexCount.applyStrategies();
+        assertTrue(indexCount.getStartStep() instanceof TinkerCountGlobalStep);
+        assertEquals(Long.valueOf(3564), indexCount.next());
+        assertEquals(Long.valueOf(142), g.V().has(Song.PERFORMANCES, 1).count().next());
+
+        Vertex song = g.V().hasLabel(Song.label).has(Song.PERFORMANCES, 1).next();
+        long songEdgeCount = g.V(song).bothE().toList().size();
+        song.remove();
+        assertEquals(Long.valueOf(583), g.V().hasLabel(Song.label).count().next());
+        assertEquals(Long.valueOf(8049 - songEdgeCount), g.E().count().next());
+        graph.close();
+    }
+
+    @Test
+    public void shouldNotFoldSampledCounts() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            assertEquals(Long.valueOf(10), g.V().hasLabel(Song.label).sample(10).count().next());
+            assertTrue(g.V().sample(10).hasLabel(Song.label).count().next() <= 10); // only the songs among 10 vertices
+            assertEquals(Long.valueOf(584), g.V().hasLabel(Song.label).sample(1000).count().next());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldCountDegreesWithoutLoadingEdges() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphDegreeCountStrategy.class);
+            Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+
+            assertEquals(unoptimized.V(garcia).in(WrittenBy.label).count().next(), g.V(garcia).in(WrittenBy.label).count().next());
+            assertEquals(Long.valueOf(7047), g.V().out(FollowedBy.label).count().next());
+            assertEquals(Long.valueOf(2 * 8049), g.V().bothE().count().next());
+            assertEquals(unoptimized.V().local(bothE().count()).toList(), g.V().local(bothE().count()).toList());
+            assertEquals(unoptimized.V().where(outE(SungBy.label).count().is(0)).count().next(), g.V().where(outE(SungBy.label).count().is(0)).count().next());
+            assertEquals(unoptimized.V().where(outE(FollowedBy.label).count().is(P.gt(10))).count().next(), g.V().where(outE(FollowedBy.label).count().is(P.gt(10))).count().next());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldFoldFiltersIntoAdjacencyExpansion() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphVertexStepStrategy.class);
+            Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+
+            assertEquals(unoptimized.V(garcia).in(WrittenBy.label).hasLabel(Song.label).toSet(), g.V(garcia).in(WrittenBy.label).hasLabel(Song.label).toSet());
+            assertEquals(unoptimized.V().outE(FollowedBy.label).has(FollowedBy.WEIGHT, 1).inV().toList(), g.V().outE(FollowedBy.label).has(FollowedBy.WEIGHT, 1).inV().toList());
+            assertEquals(Long.valueOf(3564), g.V().outE(FollowedBy.label).has(FollowedBy.WEIGHT, 1).inV().count().next());
+            assertEquals(unoptimized.V(garcia).bothE().hasLabel(WrittenBy.label).otherV().values(Song.NAME).toSet(), g.V(garcia).bothE().hasLabel(WrittenBy.label).otherV().values(Song.NAME).toSet());
+            assertEquals(unoptimized.V().inE().has(FollowedBy.WEIGHT, P.gt(10)).outV().has(Song.PERFORMANCES, P.gt(100)).toList(), g.V().inE().has(FollowedBy.WEIGHT, P.gt(10)).outV().has(Song.PERFORMANCES, P.gt(100)).toList());
+            assertEquals(Long.valueOf(0), g.V().outE(SungBy.label).hasLabel(WrittenBy.label).count().next());
+            // repeated edge labels emit each edge once per occurrence
+            assertEquals(Long.valueOf(6966), g.V().outE(FollowedBy.label, FollowedBy.label).has(FollowedBy.WEIGHT, P.gt(1)).inV().count().next());
+            assertEquals(Long.valueOf(2 * 7047), g.V().outE(FollowedBy.label, SungBy.label, FollowedBy.label).hasLabel(FollowedBy.label).count().next());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldVisitAdjacencyIds() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+            List<Vertex> vertices = g.V(garcia).both().dedup().toList();
+            vertices.add(garcia);
+            for (Vertex vertex : vertices) {
+                TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+                for (Direction direction : Direction.values()) {
+                    List<Object> neighborIds = new ArrayList<>();
+                    tinkerVertex.forEachNeighborId(direction, new String[0], neighborIds::add);
+                    List<Object> expectedNeighborIds = IteratorUtils.list(IteratorUtils.map(vertex.vertices(direction), Vertex::id));
+                    expectedNeighborIds.sort(null);
+                    neighborIds.sort(null);
+                    assertEquals(expectedNeighborIds, neighborIds);
+                    Set<Object> edgeIds = new HashSet<>();
+                    tinkerVertex.forEachEdgeId(direction, new String[]{WrittenBy.label, SungBy.label}, edgeIds::add);
+                    assertEquals(g.V(vertex).toE(direction, WrittenBy.label, SungBy.label).id().toSet(), edgeIds);
+                    assertEquals(IteratorUtils.count(vertex.edges(direction, FollowedBy.label)), tinkerVertex.degree(direction, FollowedBy.label));
+                }
+                Set<Object> outEdgeIds = new HashSet<>();
+                tinkerVertex.forEachOutEdgeId(FollowedBy.label, outEdgeIds::add);
+                assertEquals(g.V(vertex).outE(FollowedBy.label).id().toSet(), outEdgeIds);
+                Set<Object> inEdgeIds = new HashSet<>();
+                tinkerVertex.forEachInEdgeId(WrittenBy.label, inEdgeIds::add);
+                assertEquals(g.V(vertex).inE(WrittenBy.label).id().toSet(), inEdgeIds);
+                // the visit stops as soon as the procedure returns false
+                List<Object> firstNeighborIds = new ArrayList<>();
+                tinkerVertex.forEachNeighborId(Direction.BOTH, new String[0], neighborId -> {
+                    firstNeighborIds.add(neighborId);
+                    return false;
+                });
+                assertEquals(Math.min(1, IteratorUtils.count(vertex.vertices(Direction.BOTH))), firstNeighborIds.size());
+            }
+            graph.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void shouldScanInParallel() throws Exception {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_PARALLEL_SCAN_THRESHOLD, 100);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_PARALLEL_SCAN_PARALLELISM, 2);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_PARALLEL_SCAN_CHUNK_SIZE, 10);
+        TinkerGraph specializedGraph = TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+        loadGraphMl(specializedGraph);
+        TinkerGraph genericGraph = TinkerGraph.open(configuration);
+        loadGraphMl(genericGraph);
+        for (TinkerGraph graph : Arrays.asList(specializedGraph, genericGraph)) {
+            GraphTraversalSource g = graph.traversal();
+            assertEquals(g.V().filter(has(Song.PERFORMANCES, P.gt(100))).toSet(), g.V().has(Song.PERFORMANCES, P.gt(100)).toSet());
+            assertEquals(g.V().filter(hasLabel(Artist.label).has(Artist.NAME, P.neq("Garcia"))).toSet(), g.V().hasLabel(Artist.label).has(Artist.NAME, P.neq("Garcia")).toSet());
+            assertEquals(Long.valueOf(3564), g.E().has(FollowedBy.WEIGHT, 1).count().next());
+            assertEquals(g.E().filter(has(FollowedBy.WEIGHT, P.gt(10))).toSet(), g.E().has(FollowedBy.WEIGHT, P.gt(10)).toSet());
+
+            // workers stop once the traversal is closed
+            GraphTraversal<Vertex, Vertex> traversal = g.V().has(Song.PERFORMANCES, P.gte(0));
+            assertEquals(5, traversal.limit(5).toList().size());
+            traversal.close();
+            // traversals that are never closed don't hold on to any workers
+            for (int i = 0; i < 10; i++) {
+                assertEquals(1, g.V().has(Song.NAME, P.neq("x")).limit(1).toList().size());
+            }
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldDedupByElementId() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphDedupStrategy.class);
+            Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+
+            assertEquals(unoptimized.V().out(FollowedBy.label).dedup().toList(), g.V().out(FollowedBy.label).dedup().toList());
+            assertEquals(unoptimized.V().bothE().dedup().count().next(), g.V().bothE().dedup().count().next());
+            assertEquals(unoptimized.V().values(Song.SONG_TYPE).dedup().toList(), g.V().values(Song.SONG_TYPE).dedup().toList());
+            assertEquals(unoptimized.V(garcia).repeat(both().dedup()).emit().toList(), g.V(garcia).repeat(both().dedup()).emit().toList());
+            assertEquals(unoptimized.V(garcia).repeat(out().dedup()).until(hasLabel(Artist.label)).toList(), g.V(garcia).repeat(out().dedup()).until(hasLabel(Artist.label)).toList());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldFindShortestPaths() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+            Vertex hunter = g.V().has(Artist.NAME, "Hunter").next();
+            Vertex weir = g.V().has(Artist.NAME, "Weir").next();
+
+            assertEquals(Arrays.asList(darkStar, hunter), g.V(darkStar).repeat(out()).until(is(hunter)).path().limit(1).next().objects());
+            assertFalse(g.V(darkStar).repeat(out()).emit().times(1).is(weir).hasNext());
+            List<Object> path = g.V(darkStar).repeat(out()).until(is(weir)).path().limit(1).next().objects();
+            assertEquals(3, path.size());
+            assertEquals(darkStar, path.get(0));
+            assertTrue(g.V(path.get(1)).out().is(weir).hasNext());
+            assertEquals(weir, g.V(hunter).repeat(both().simplePath()).until(hasId(weir.id())).limit(1).next());
+            assertEquals(darkStar, g.V(darkStar).until(is(darkStar)).repeat(out()).limit(1).next());
+            assertFalse(g.V(hunter).repeat(out()).until(is(darkStar)).limit(1).hasNext());
+
+            // the shortest cycle back to the start
+            assertFalse(g.V(darkStar).out(FollowedBy.label).is(darkStar).hasNext());
+            path = g.V(darkStar).repeat(out(FollowedBy.label)).until(is(darkStar)).path().limit(1).next().objects();
+            assertEquals(3, path.size());
+            assertTrue(g.V(path.get(1)).out(FollowedBy.label).is(darkStar).hasNext());
+
+            assertNull(ShortestPath.find(graph, (Long) darkStar.id(), (Long) weir.id(), Direction.OUT, new String[0], 1));
+            assertEquals(3, ShortestPath.find(graph, (Long) darkStar.id(), (Long) weir.id(), Direction.OUT, new String[0], 2).length);
+            assertNull(ShortestPath.find(graph, (Long) darkStar.id(), (Long) weir.id(), Direction.OUT, new String[]{FollowedBy.label}, ShortestPath.UNLIMITED_DEPTH));
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldOnlyFindSimpleShortestPathsWithSimplePath() {
+        TinkerGraph graph = TinkerGraph.open();
+        Vertex x = graph.addVertex();
+        Vertex y = graph.addVertex();
+        Vertex z = graph.addVertex();
+        x.addEdge("next", y);
+        y.addEdge("next", z);
+        z.addEdge("next", x);
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphShortestPathStrategy.class);
+
+        // a path back to the start is a cycle, which simplePath() filters out
+        assertEquals(Collections.emptyList(), unoptimized.V(x).repeat(out().simplePath()).until(is(x)).limit(1).toList());
+        assertEquals(Collections.emptyList(), g.V(x).repeat(out().simplePath()).until(is(x)).limit(1).toList());
+        assertEquals(Collections.emptyList(), g.V(x).repeat(out().simplePath()).until(is(x)).path().limit(1).toList());
+        assertEquals(Arrays.asList(x, y, z, x), g.V(x).repeat(out()).until(is(x)).path().limit(1).next().objects());
+        assertEquals(Arrays.asList(z), g.V(x).repeat(out().simplePath()).until(is(z)).limit(1).toList());
+
+        // the path before the repeat() is part of the simple path, too: y can only reach w via x, which is on it already
+        Vertex w = graph.addVertex();
+        y.addEdge("next", x);
+        x.addEdge("next", w);
+        assertEquals(unoptimized.V(x).out().repeat(out().simplePath()).until(is(w)).path().limit(1).toList(),
+                g.V(x).out().repeat(out().simplePath()).until(is(w)).path().limit(1).toList());
+        assertEquals(Collections.emptyList(), g.V(x).out().repeat(out().simplePath()).until(is(w)).limit(1).toList());
+        graph.close();
+    }
+
+    @Test
+    public void shouldAnswerReachabilityFromIndex() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            ReachabilityIndex reachabilityIndex = graph.reachabilityIndex(FollowedBy.label);
+            GraphTraversalSource g = graph.traversal();
+            Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+            Vertex hunter = g.V().has(Artist.NAME, "Hunter").next();
+
+            List<Vertex> songs = g.V().hasLabel(Song.label).limit(50).toList();
+            songs.add(hunter);
+            for (Vertex source : songs) {
+                for (Vertex target : songs) {
+                    boolean reachable = ShortestPath.find(graph, (Long) source.id(), (Long) target.id(), Direction.OUT, new String[]{FollowedBy.label}, ShortestPath.UNLIMITED_DEPTH) != null;
+                    assertEquals(reachable, reachabilityIndex.isReachable((Long) source.id(), (Long) target.id()));
+                }
+            }
+            assertTrue(reachabilityIndex.isBuilt());
+            assertSame(reachabilityIndex, graph.getReachabilityIndex(FollowedBy.label));
+
+            // an edge between vertices that are connected already doesn't change anything
+            Vertex next = g.V(darkStar).out(FollowedBy.label).next();
+            next.addEdge(FollowedBy.label, darkStar);
+            assertTrue(reachabilityIndex.isBuilt());
+
+            // an edge to a new vertex does, and so does the removal of an edge
+            Vertex newSong = graph.addVertex(Song.label);
+            Edge newEdge = newSong.addEdge(FollowedBy.label, darkStar);
+            assertFalse(reachabilityIndex.isBuilt());
+            assertTrue(reachabilityIndex.isReachable((Long) newSong.id(), (Long) darkStar.id()));
+            assertFalse(reachabilityIndex.isReachable((Long) darkStar.id(), (Long) newSong.id()));
+            assertEquals(darkStar, g.V(newSong).repeat(out(FollowedBy.label)).until(is(darkStar)).limit(1).next());
+            newEdge.remove();
+            assertFalse(reachabilityIndex.isBuilt());
+            assertFalse(reachabilityIndex.isReachable((Long) newSong.id(), (Long) darkStar.id()));
+            assertFalse(g.V(newSong).repeat(out(FollowedBy.label)).until(is(darkStar)).limit(1).hasNext());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldCacheTraversalResultsUntilNextMutation() throws IOException {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE, 2);
+        TinkerGraph specializedGraph = TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+        loadGraphMl(specializedGraph);
+        TinkerGraph genericGraph = TinkerGraph.open(configuration);
+        loadGraphMl(genericGraph);
+        for (TinkerGraph graph : Arrays.asList(specializedGraph, genericGraph)) {
+            GraphTraversalSource g = graph.traversal();
+            TraversalResultCache resultCache = graph.resultCache();
+            List<Vertex> followers = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList();
+            assertEquals(0, resultCache.hitCount());
+            assertEquals(followers, g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList());
+            assertEquals(Arrays.asList(808L), g.V().count().toList());
+            assertEquals(Arrays.asList(808L), g.V().count().toList());
+            assertEquals(2, resultCache.hitCount());
+            assertEquals(2, resultCache.size());
+
+            // only traversals that are iterated to the end are cached, and only up to the configured number of them
+            g.V().hasLabel(Artist.label).next();
+            g.V().hasLabel(Artist.label).next();
+            g.V().hasLabel(Song.label).toList();
+            assertEquals(2, resultCache.hitCount());
+            assertEquals(2, resultCache.size());
+            assertEquals(1, resultCache.evictionCount());
+
+            // random results and mutations are never cached
+            g.V().sample(1).toList();
+            g.V().sample(1).toList();
+            assertEquals(2, resultCache.hitCount());
+            long version = graph.version();
+            g.addV(Song.label).toList();
+            g.addV(Song.label).toList();
+            assertEquals(Arrays.asList(810L), g.V().count().toList());
+
+            // every mutation invalidates all results
+            assertTrue(graph.version() > version);
+            Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+            Vertex newSong = graph.addVertex(T.label, Song.label, Song.NAME, "NEW SONG");
+            version = graph.version();
+            darkStar.addEdge(FollowedBy.label, newSong);
+            assertTrue(graph.version() > version);
+            assertEquals(followers.size() + 1, g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList().size());
+            version = graph.version();
+            newSong.property(Song.NAME, "RENAMED SONG");
+            assertTrue(graph.version() > version);
+            assertTrue(g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).toList().contains("RENAMED SONG"));
+            assertTrue(g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).toList().contains("RENAMED SONG"));
+            version = graph.version();
+            newSong.remove();
+            assertTrue(graph.version() > version);
+            assertEquals(followers, g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList());
+            assertEquals(3, resultCache.hitCount());
+
+            // callers may modify their results without affecting later hits
+            Map<Object, Long> countsByLabel = g.V().groupCount().by(T.label).toList().get(0);
+            countsByLabel.clear();
+            assertEquals(2, g.V().groupCount().by(T.label).next().size());
+            List<Object> names = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).fold().toList().get(0);
+            names.clear();
+            assertEquals(followers.size(), g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).fold().next().size());
+            Map<String, Object> valueMap = g.V().has(Song.NAME, "DARK STAR").valueMap().toList().get(0);
+            ((List<Object>) valueMap.get(Song.NAME)).clear();
+            assertEquals(Arrays.asList("DARK STAR"), g.V().has(Song.NAME, "DARK STAR").valueMap().next().get(Song.NAME));
+            assertEquals(6, resultCache.hitCount());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldReuseTraversalTemplates() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            TraversalTemplateCache traversalTemplates = graph.traversalTemplates();
+            Bytecode followers = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).asAdmin().getBytecode();
+            Bytecode songCount = g.V().hasLabel(Song.label).count().asAdmin().getBytecode();
+            List<Vertex> expected = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList();
+
+            Traversal.Admin<Vertex, Vertex> first = traversalTemplates.traversal(followers);
+            Traversal.Admin<Vertex, Vertex> second = traversalTemplates.traversal(followers);
+            assertTrue(second.isLocked());
+            assertEquals(1, traversalTemplates.hitCount());
+            // copies of the template are independent of each other
+            assertEquals(expected.get(0), second.next());
+            assertEquals(expected, first.toList());
+            assertEquals(expected.subList(1, expected.size()), second.toList());
+            assertEquals(expected, traversalTemplates.traversal(followers).toList());
+            assertEquals(Arrays.asList(584L), traversalTemplates.traversal(songCount).toList());
+            assertEquals(Arrays.asList(584L), traversalTemplates.traversal(songCount).toList());
+            assertEquals(3, traversalTemplates.hitCount());
+            assertEquals(2, traversalTemplates.size());
+
+            // templates don't capture the graph's elements, but its indices and statistics
+            graph.addVertex(Song.label);
+            assertEquals(Arrays.asList(585L), traversalTemplates.traversal(songCount).toList());
+            assertEquals(4, traversalTemplates.hitCount());
+            graph.createIndex(Song.NAME, Vertex.class);
+            assertEquals(0, traversalTemplates.size());
+            assertEquals(expected, traversalTemplates.traversal(followers).toList());
+            assertEquals(1, traversalTemplates.size());
+            for (int i = 0; i < 5000; i++) {
+                graph.addVertex(Song.label);
+            }
+            assertEquals(Arrays.asList(5585L), traversalTemplates.traversal(songCount).toList());
+            assertEquals(1, traversalTemplates.size());
+            assertEquals(4, traversalTemplates.hitCount());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldAnswerTraversalTemplatesFromResultCache() throws IOException {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE, 10);
+        TinkerGraph graph = TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+        loadGraphMl(graph);
+        GraphTraversalSource g = graph.traversal();
+        TraversalTemplateCache traversalTemplates = graph.traversalTemplates();
+        TraversalResultCache resultCache = graph.resultCache();
+        Bytecode followers = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).asAdmin().getBytecode();
+
+        List<Vertex> expected = traversalTemplates.<Vertex, Vertex>traversal(followers).toList();
+        assertEquals(1, traversalTemplates.size());
+        assertEquals(1, resultCache.size());
+        for (int i = 0; i < 3; i++) {
+            Traversal.Admin<Vertex, Vertex> traversal = traversalTemplates.traversal(followers);
+            assertTrue(TraversalHelper.hasStepOfClass(TinkerCachedResultsStep.class, traversal));
+            assertEquals(expected, traversal.toList());
+        }
+        assertEquals(3, traversalTemplates.hitCount());
+        assertEquals(3, resultCache.hitCount());
+
+        // a mutation invalidates the results, but not the template, which caches the new results again
+        graph.vertices(expected.get(0).id()).next().property(Song.NAME, "RENAMED SONG");
+        Traversal.Admin<Vertex, Vertex> traversal = traversalTemplates.traversal(followers);
+        assertFalse(TraversalHelper.hasStepOfClass(TinkerCachedResultsStep.class, traversal));
+        assertEquals(expected, traversal.toList());
+        assertEquals(expected, traversalTemplates.traversal(followers).toList());
+        assertEquals(5, traversalTemplates.hitCount());
+        assertEquals(4, resultCache.hitCount());
+        graph.close();
+    }
+
+    @Test
+    @Ignore // only run manually since the timings vary depending on the environment
+    public void shouldReduceOverheadOfRepeatedQueriesWithTemplates() throws IOException {
+        int loops = 100000;
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+        Bytecode bytecode = g.V(darkStar.id()).out(FollowedBy.label).has(Song.PERFORMANCES, P.gt(100)).count().asAdmin().getBytecode();
+        Long expected = g.V(darkStar.id()).out(FollowedBy.label).has(Song.PERFORMANCES, P.gt(100)).count().next();
+
+        // warm up both
+        for (int i = 0; i < loops; i++) {
+            assertEquals(expected, JavaTranslator.of(g).translate(bytecode).next());
+            assertEquals(expected, graph.traversalTemplates().traversal(bytecode).next());
+        }
+        double avgTimeWithoutTemplates = TimeUtil.clock(loops, () -> JavaTranslator.of(g).translate(bytecode).next());
+        double avgTimeWithTemplates = TimeUtil.clock(loops, () -> graph.traversalTemplates().traversal(bytecode).next());
+        graph.close();
+
+        System.out.println("avgTimeWithoutTemplates = " + avgTimeWithoutTemplates);
+        System.out.println("avgTimeWithTemplates = " + avgTimeWithTemplates);
+        assertTrue("avg time with templates should be (significantly) less than without templates",
+            avgTimeWithTemplates < avgTimeWithoutTemplates);
+    }
+
+    @Test
+    public void shouldReadPropertyValuesDirectly() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphPropertyStrategy.class);
+
+            assertEquals(unoptimized.V().values(Song.NAME).toList(), g.V().values(Song.NAME).toList());
+            assertEquals(unoptimized.V().values(Song.NAME, Song.PERFORMANCES).toList(), g.V().values(Song.NAME, Song.PERFORMANCES).toList());
+            assertEquals(unoptimized.V().values().toList(), g.V().values().toList());
+            assertEquals(unoptimized.E().values(FollowedBy.WEIGHT).toList(), g.E().values(FollowedBy.WEIGHT).toList());
+            assertEquals(unoptimized.V().valueMap().toList(), g.V().valueMap().toList());
+            assertEquals(unoptimized.V().valueMap(true, Song.NAME, Song.SONG_TYPE).toList(), g.V().valueMap(true, Song.NAME, Song.SONG_TYPE).toList());
+            assertEquals(unoptimized.E().valueMap(true).toList(), g.E().valueMap(true).toList());
+            assertEquals(unoptimized.V().out().as("a").has(Song.PERFORMANCES, P.gt(100)).toList(), g.V().out().as("a").has(Song.PERFORMANCES, P.gt(100)).toList());
+            assertEquals(unoptimized.V().outE().as("e").has(FollowedBy.WEIGHT, P.between(2, 5)).toList(), g.V().outE().as("e").has(FollowedBy.WEIGHT, P.between(2, 5)).toList());
+            assertEquals(unoptimized.V().has(Song.NAME, P.within("DARK STAR", "Garcia")).toList(), g.V().has(Song.NAME, P.within("DARK STAR", "Garcia")).toList());
+
+            Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+            darkStar.property(Song.PERFORMANCES, 100000);
+            assertEquals(new HashSet<>(Arrays.asList(100000, "DARK STAR")), g.V(darkStar).values(Song.PERFORMANCES, Song.NAME).toSet());
+            assertEquals(Arrays.asList(darkStar), g.V().out().dedup().has(Song.PERFORMANCES, P.gt(99999)).toList());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldOrderTopElementsInBoundedHeap() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphTopKStrategy.class);
+
+            assertEquals(unoptimized.V().hasLabel(Song.label).order().by(Song.PERFORMANCES).limit(10).toList(), g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES).limit(10).toList());
+            assertEquals(unoptimized.V().hasLabel(Song.label).order().by(Song.PERFORMANCES, Order.decr).range(5, 15).values(Song.NAME).toList(), g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES, Order.decr).range(5, 15).values(Song.NAME).toList());
+            assertEquals(unoptimized.E().hasLabel(FollowedBy.label).order().by(FollowedBy.WEIGHT, Order.decr).limit(20).toList(), g.E().hasLabel(FollowedBy.label).order().by(FollowedBy.WEIGHT, Order.decr).limit(20).toList());
+            assertEquals(unoptimized.V().hasLabel(Artist.label).order().by(Artist.NAME).limit(1000).toList(), g.V().hasLabel(Artist.label).order().by(Artist.NAME).limit(1000).toList());
+            assertEquals(Collections.emptyList(), g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES).limit(0).toList());
+            assertEquals(10, g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES, Order.decr).limit(10).count().next().longValue());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldCountByLabelFromLabelPartitions() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphCountByLabelStrategy.class);
+
+            assertEquals(unoptimized.V().groupCount().by(T.label).next(), g.V().groupCount().by(T.label).next());
+            assertEquals(unoptimized.E().label().groupCount().next(), g.E().label().groupCount().next());
+            assertEquals(unoptimized.V().hasLabel(Song.label).groupCount().by(T.label).next(), g.V().hasLabel(Song.label).groupCount().by(T.label).next());
+            assertEquals(Collections.emptyMap(), g.V().hasLabel("unknown").groupCount().by(T.label).next());
+            assertEquals(584L, (long) g.V().groupCount().by(T.label).next().get(Song.label));
+
+            graph.addVertex(Song.label);
+            g.E().hasLabel(SungBy.label).limit(10).drop().iterate();
+            assertEquals(unoptimized.V().groupCount().by(T.label).next(), g.V().groupCount().by(T.label).next());
+            assertEquals(unoptimized.E().label().groupCount().next(), g.E().label().groupCount().next());
+            assertEquals(585L, (long) g.V().groupCount().by(T.label).next().get(Song.label));
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldSampleFromLabelPartitions() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+
+            Set<Vertex> songs = g.V().hasLabel(Song.label).sample(10).toSet();
+            assertEquals(10, songs.size());
+            songs.forEach(song -> assertEquals(Song.label, song.label()));
+            assertEquals(584, g.V().hasLabel(Song.label).sample(10000).toSet().size());
+            assertEquals(g.E().hasLabel(SungBy.label).toSet(), g.E().hasLabel(SungBy.label).sample(10000).toSet());
+            assertEquals(584, g.V().hasLabel(Song.label).coin(1.0).toSet().size());
+            assertEquals(0, g.V().hasLabel(Song.label).coin(0.0).toList().size());
+            long coinCount = g.V().hasLabel(Song.label).coin(0.5).toSet().size();
+            assertTrue(coinCount > 0 && coinCount < 584);
+            assertEquals(10, g.V().sample(10).toSet().size());
+
+            graph.addVertex(Song.label);
+            assertEquals(585, g.V().hasLabel(Song.label).sample(10000).toSet().size());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldPaginateByIdRanges() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphIdRangeStrategy.class);
+
+            assertEquals(unoptimized.V().hasLabel(Song.label).order().by(T.id).toList(), g.V().hasLabel(Song.label).order().by(T.id).toList());
+            assertEquals(unoptimized.V().order().by(T.id).range(100, 110).toList(), g.V().order().by(T.id).range(100, 110).toList());
+            long median = (Long) unoptimized.V().hasLabel(Song.label).order().by(T.id).range(292, 293).next().id();
+            assertEquals(unoptimized.V().hasLabel(Song.label).order().by(T.id).range(293, 303).toList(),
+                    g.V().hasLabel(Song.label).has(T.id, P.gt(median)).order().by(T.id).limit(10).toList());
+            assertEquals(unoptimized.V().hasLabel(Song.label).filter(song -> (Long) song.get().id() >= median).toSet(),
+                    g.V().hasLabel(Song.label).has(T.id, P.gte(median)).toSet());
+            assertEquals(0, g.V().has(T.id, P.gt(median)).has(T.id, P.lt(median)).toList().size());
+
+            Set<Vertex> songs = new HashSet<>();
+            for (int low = 0; low < 584; low += 100) {
+                List<Vertex> page = g.V().hasLabel(Song.label).range(low, low + 100).toList();
+                assertEquals(Math.min(100, 584 - low), page.size());
+                songs.addAll(page);
+            }
+            assertEquals(584, songs.size());
+
+            graph.addVertex(Song.label);
+            assertEquals(1, g.V().hasLabel(Song.label).range(584, 1000).toList().size());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldPruneTraversalsBySchema() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphSchemaStrategy.class);
+
+            assertEquals(unoptimized.V().has("performances", P.gt(10)).count().next(), g.V().has("performances", P.gt(10)).count().next());
+            assertEquals(unoptimized.V().has("songType").count().next(), g.V().has("songType").count().next());
+            assertEquals(unoptimized.V().out(SungBy.label).toSet(), g.V().out(SungBy.label).toSet());
+            assertEquals(unoptimized.E().has("weight", P.gt(5)).toSet(), g.E().has("weight", P.gt(5)).toSet());
+            assertEquals(unoptimized.V().out(SungBy.label).in(WrittenBy.label).toSet(), g.V().out(SungBy.label).in(WrittenBy.label).toSet());
+            assertEquals(0, g.V().hasLabel(Song.label).out("unknownEdge").toList().size());
+            assertEquals(Long.valueOf(0), g.V().hasLabel(Artist.label).out().count().next());
+            assertEquals(0, g.V().out(SungBy.label).out(FollowedBy.label).toList().size());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldMaintainGraphStatistics() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGratefulDeadGraphWithGenericElementsWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            GraphStatistics statistics = graph.statistics();
+            long songs = g.V().hasLabel(Song.label).count().next();
+            assertEquals(songs, statistics.vertexCount(P.eq(Song.label)));
+            assertEquals(g.E().count().next().longValue(), statistics.edgeCount(null));
+            // a null label predicate counts all labels
+            assertEquals(g.V().count().next().longValue(), graph.vertexCount(null));
+            assertEquals(g.E().count().next().longValue(), graph.edgeCount(null));
+
+            long songTypes = g.V().values(Song.SONG_TYPE).dedup().count().next();
+            long names = g.V().values(Song.NAME).dedup().count().next();
+            assertEquals(songTypes, statistics.distinctValues(Vertex.class, Song.SONG_TYPE));
+            assertEquals(names, statistics.distinctValues(Vertex.class, Song.NAME), names * 0.1);
+            assertEquals(0, statistics.distinctValues(Vertex.class, "unknownKey"));
+
+            double sungByDegree = (double) g.V().hasLabel(Song.label).outE(SungBy.label).count().next() / songs;
+            assertEquals(sungByDegree, statistics.averageDegree(Song.label, Direction.OUT, SungBy.label), 0.0001);
+            assertEquals(0, statistics.averageDegree(Artist.label, Direction.OUT), 0.0001);
+            Vertex song = g.V().hasLabel(Song.label).has(Song.NAME, "HERE COMES SUNSHINE").next();
+            song.addEdge(SungBy.label, g.V().hasLabel(Artist.label).next());
+            assertEquals(sungByDegree + 1.0 / songs, statistics.averageDegree(Song.label, Direction.OUT, SungBy.label), 0.0001);
+            song.edges(Direction.OUT, SungBy.label).next().remove();
+            assertEquals(sungByDegree, statistics.averageDegree(Song.label, Direction.OUT, SungBy.label), 0.0001);
+
+            GraphTraversalSource unordered = g.withoutStrategies(TinkerGraphFilterOrderStrategy.class);
+            graph.createIndex(Song.SONG_TYPE, Vertex.class);
+            assertEquals(unordered.V().has(Song.SONG_TYPE, "cover").has(Song.NAME, "BERTHA").toSet(), g.V().has(Song.SONG_TYPE, "cover").has(Song.NAME, "BERTHA").toSet());
+            assertEquals(unordered.V().hasLabel(Song.label).has(Song.SONG_TYPE, "original").count().next(), g.V().hasLabel(Song.label).has(Song.SONG_TYPE, "original").count().next());
+            assertEquals(unordered.V().where(out(SungBy.label)).where(out(FollowedBy.label)).toSet(), g.V().where(out(SungBy.label)).where(out(FollowedBy.label)).toSet());
+
+            graph.clear();
+            assertEquals(0, statistics.distinctValues(Vertex.class, Song.NAME));
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldExpandTraversersInBatches() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unbatched = g.withoutStrategies(TinkerGraphVertexStepStrategy.class);
+
+        assertEquals(sortedIds(unbatched.V().out().toList()), sortedIds(g.V().out().toList()));
+        assertEquals(sortedIds(unbatched.V().both(FollowedBy.label).toList()), sortedIds(g.V().both(FollowedBy.label).toList()));
+        assertEquals(sortedIds(unbatched.V().inE(SungBy.label).toList()), sortedIds(g.V().inE(SungBy.label).toList()));
+        assertEquals(sortedIds(unbatched.V().out(FollowedBy.label).has(Song.SONG_TYPE, "cover").toList()),
+                sortedIds(g.V().out(FollowedBy.label).has(Song.SONG_TYPE, "cover").toList()));
+        assertEquals(unbatched.V().out().out().count().next(), g.V().out().out().count().next());
+        assertEquals(unbatched.V().out().out().path().toSet(), g.V().out().out().path().toSet());
+        assertEquals(unbatched.V().repeat(out(FollowedBy.label)).times(2).groupCount().next(),
+                g.V().repeat(out(FollowedBy.label)).times(2).groupCount().next());
+        // traversers come out in the same order as without batching
+        assertEquals(unbatched.V().hasLabel(Artist.label).limit(10).in().id().toList(), g.V().hasLabel(Artist.label).limit(10).in().id().toList());
+        assertEquals(unbatched.V().hasLabel(Song.label).limit(30).outE().id().toList(), g.V().hasLabel(Song.label).limit(30).outE().id().toList());
+        assertEquals(unbatched.V().both().id().toList(), g.V().both().id().toList());
+        assertEquals(unbatched.V().bothE(FollowedBy.label, SungBy.label).id().toList(), g.V().bothE(FollowedBy.label, SungBy.label).id().toList());
+
+        Traversal.Admin<Vertex, Vertex> traversal = g.V().out().asAdmin();
+        traversal.applyStrategies();
+        assertEquals(64, TraversalHelper.getLastStepOfAssignableClass(TinkerVertexStep.class, traversal).get().getBatchSize());
+        traversal = g.V().out().limit(1).asAdmin();
+        traversal.applyStrategies();
+        assertFalse(TraversalHelper.hasStepOfClass(TinkerVertexStep.class, traversal));
+        graph.close();
+    }
+
     @Test
     public void shouldSupportRemovalOfSpecializedElements() throws IOException {
         TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
@@ -370,6 +1043,14 @@ public class SpecializedElementsTest {
     }
 
 
+    /** the ids of the given elements, in ascending order - i.e. the elements irrespective of the order in which they were traversed */
+    private static List<Long> sortedIds(List<? extends Element> elements) {
+        List<Long> ids = new ArrayList<>();
+        elements.forEach(element -> ids.add((Long) element.id()));
+        Collections.sort(ids);
+        return ids;
+    }
+
     private void loadGraphMl(TinkerGraph graph) throws IOException {
         graph.io(IoCore.graphml()).readGraph("src/test/resources/grateful-dead.xml");
     }
@@ -19,24 +19,63 @@
 package org.apache.tinkerpop.gremlin.tinkergraph.structure;
 
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.tinkerpop.gremlin.process.traversal.Order;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Direction;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
 import org.apache.tinkerpop.gremlin.structure.io.IoCore;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerCountGlobalStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.step.map.TinkerVertexStep;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphCountByLabelStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDegreeCountStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphDedupStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphFilterOrderStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphIdRangeStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphPropertyStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphSchemaStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphTopKStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.process.traversal.strategy.optimization.TinkerGraphVertexStepStrategy;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.OverflowStoreMaintenance;
+import org.apache.tinkerpop.gremlin.tinkergraph.storage.Serializer;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.specialized.gratefuldead.*;
 import org.apache.tinkerpop.gremlin.util.TimeUtil;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.__;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.both;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.bothE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasId;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasLabel;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.is;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
 import static org.junit.Assert.*;
 
 /** copy of `SpecializedElementsTest`, only difference being that an on disk cache is used
@@ -101,6 +140,367 @@ public class SpecializedElementsWithOnDiskTest {
         graph.close();
     }
 
+    @Test
+    public void shouldDecodePropertiesLazily() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        Song song = (Song) graph.traversal().V().has(Song.NAME, "CREAM PUFF WAR").next();
+        FollowedBy followedBy = (FollowedBy) graph.traversal().E().hasLabel(FollowedBy.label).has(FollowedBy.WEIGHT, 1).next();
+
+        // unmodified elements can be re-serialized without decoding their properties
+        byte[] songBytes = graph.vertexSerializer.serialize(song);
+        Song deserializedSong = (Song) graph.vertexSerializer.deserialize(songBytes);
+        assertNotNull(deserializedSong.getSerializedProperties());
+        assertArrayEquals(songBytes, graph.vertexSerializer.serialize(deserializedSong));
+        byte[] followedByBytes = graph.edgeSerializer.serialize(followedBy);
+        SpecializedTinkerEdge deserializedFollowedBy = graph.edgeSerializer.deserialize(followedByBytes);
+        assertArrayEquals(followedByBytes, graph.edgeSerializer.serialize(deserializedFollowedBy));
+
+        // properties are decoded on demand
+        assertEquals("CREAM PUFF WAR", deserializedSong.value(Song.NAME));
+        assertEquals(song.getPerformances(), deserializedSong.getPerformances());
+        assertEquals(3, IteratorUtils.count(deserializedSong.properties()));
+        assertNull(deserializedSong.getSerializedProperties());
+        assertEquals(1, (int) deserializedFollowedBy.value(FollowedBy.WEIGHT));
+
+        // modifications are serialized
+        deserializedFollowedBy.property(FollowedBy.WEIGHT, 42);
+        assertNull(deserializedFollowedBy.getSerializedProperties());
+        SpecializedTinkerEdge modifiedFollowedBy = graph.edgeSerializer.deserialize(graph.edgeSerializer.serialize(deserializedFollowedBy));
+        assertEquals(42, (int) modifiedFollowedBy.value(FollowedBy.WEIGHT));
+        graph.close();
+    }
+
+    @Test
+    public void shouldRecoverFromMutationLog() throws IOException {
+        File rootDir = Files.createTempDirectory("tinkergraph").toFile();
+        TinkerGraph graph = newGratefulDeadGraphWithMutationLog(rootDir);
+        loadGraphMl(graph);
+        graph.checkpoint();
+
+        Vertex garcia = graph.traversal().V().has(Artist.NAME, "Garcia").next();
+        garcia.property(Artist.NAME, "Jerry Garcia");
+        Vertex song = graph.addVertex(T.label, Song.label, Song.NAME, "new song");
+        song.addEdge(WrittenBy.label, garcia);
+        graph.traversal().V().has(Song.NAME, "CREAM PUFF WAR").next().remove();
+        int edgeCount = graph.traversal().E().toList().size();
+        graph.mutationLog.sync();
+
+        // simulate a crash: copy the files without checkpointing, i.e. the mutations are only in the log
+        File crashedRootDir = Files.createTempDirectory("tinkergraph").toFile();
+        for (File file : rootDir.listFiles()) {
+            Files.copy(file.toPath(), new File(crashedRootDir, file.getName()).toPath());
+        }
+        graph.close();
+
+        TinkerGraph recovered = newGratefulDeadGraphWithMutationLog(crashedRootDir);
+        assertEquals(808, recovered.traversal().V().toList().size());
+        assertEquals(edgeCount, recovered.traversal().E().toList().size());
+        assertEquals(0, recovered.traversal().V().has(Artist.NAME, "Garcia").toList().size());
+        assertEquals(0, recovered.traversal().V().has(Song.NAME, "CREAM PUFF WAR").toList().size());
+        assertEquals(1, recovered.traversal().V().has(Song.NAME, "new song").out(WrittenBy.label).has(Artist.NAME, "Jerry Garcia").toList().size());
+        recovered.close();
+
+        // nothing left to replay after a clean shutdown
+        assertEquals(0, new File(rootDir, "mutations.log").length());
+        TinkerGraph reopened = newGratefulDeadGraphWithMutationLog(rootDir);
+        assertEquals(1, reopened.traversal().V().has(Artist.NAME, "Jerry Garcia").toList().size());
+        assertEquals(edgeCount, reopened.traversal().E().toList().size());
+        reopened.close();
+
+        for (File dir : new File[]{rootDir, crashedRootDir}) {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void shouldNotRestoreClearedGraphFromMutationLog() throws IOException {
+        File rootDir = Files.createTempDirectory("tinkergraph").toFile();
+        TinkerGraph graph = newGratefulDeadGraphWithMutationLog(rootDir);
+        loadGraphMl(graph);
+        graph.checkpoint();
+        graph.clear();
+
+        // simulate a crash right after clearing the graph
+        File crashedRootDir = Files.createTempDirectory("tinkergraph").toFile();
+        for (File file : rootDir.listFiles()) {
+            Files.copy(file.toPath(), new File(crashedRootDir, file.getName()).toPath());
+        }
+        graph.close();
+
+        TinkerGraph recovered = newGratefulDeadGraphWithMutationLog(crashedRootDir);
+        assertEquals(0, recovered.traversal().V().toList().size());
+        assertEquals(0, recovered.traversal().E().toList().size());
+        recovered.close();
+
+        TinkerGraph reopened = newGratefulDeadGraphWithMutationLog(rootDir);
+        assertEquals(0, reopened.traversal().V().toList().size());
+        reopened.close();
+
+        for (File dir : new File[]{rootDir, crashedRootDir}) {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void shouldCompactOverflowStores() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        graph.mvstoreVertices.setRetentionTime(0); // otherwise superseded versions count as live for 45s
+        // rewrite all vertices a couple of times, like repeated dirty evictions would
+        for (int i = 0; i < 10; i++) {
+            for (Vertex vertex : graph.traversal().V().toList()) {
+                graph.onDiskVertexOverflow.put((Long) vertex.id(), graph.vertexSerializer.serialize(vertex));
+            }
+            graph.mvstoreVertices.commit();
+        }
+        OverflowStoreMaintenance.StoreStats before = graph.onDiskOverflowStats().get("vertices");
+        assertTrue(before.fileSize > 0);
+        assertTrue(before.liveDataRatio < 50);
+
+        graph.overflowStoreMaintenance.compact();
+        OverflowStoreMaintenance.StoreStats after = graph.onDiskOverflowStats().get("vertices");
+        assertEquals(1, after.compactionCount);
+        assertTrue(after.liveDataRatio > before.liveDataRatio);
+        assertEquals(808, graph.onDiskVertexOverflow.size());
+        graph.close();
+    }
+
+    @Test
+    public void shouldOnlyCountCompactionsThatChangedTheStore() throws IOException {
+        File file = Files.createTempFile("tinkergraph", ".mv").toFile();
+        file.delete();
+        MVStore store = new MVStore.Builder().fileName(file.getAbsolutePath()).open();
+        store.setRetentionTime(0);
+        MVMap<Long, byte[]> map = store.openMap("vertices");
+        // overwrite everything once: most data is live, but the file has gaps
+        for (int i = 0; i < 2; i++) {
+            for (long id = 0; id < 800; id++) map.put(id, new byte[300]);
+            store.commit();
+        }
+        for (int i = 0; i < 3; i++) {
+            map.put(-1L, new byte[1]);
+            store.commit();
+        }
+        assertTrue(store.getCurrentFillRate() >= 60);
+        assertTrue(store.getFileStore().getFillRate() < 60);
+
+        OverflowStoreMaintenance maintenance = new OverflowStoreMaintenance(Collections.singletonMap("vertices", store), 60, 16 * 1024 * 1024);
+        store.setReuseSpace(false); // chunks can't be moved
+        maintenance.compact();
+        assertEquals(0, maintenance.stats().get("vertices").compactionCount);
+
+        store.setReuseSpace(true);
+        maintenance.compact();
+        OverflowStoreMaintenance.StoreStats stats = maintenance.stats().get("vertices");
+        assertEquals(1, stats.compactionCount);
+        assertTrue(stats.fileFillRate >= 60);
+        store.close();
+        file.delete();
+    }
+
+    @Test
+    public void shouldKeepIndexPostingsOnDisk() throws IOException {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_INDEX_ENABLED, true);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_INDEX_CACHE_SIZE, 2);
+        TinkerGraph graph = TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+        graph.createIndex(Artist.NAME, Vertex.class);
+        loadGraphMl(graph);
+        graph.createIndex(FollowedBy.WEIGHT, Edge.class);
+        assertTrue(graph.vertexIndex.postings instanceof OnDiskIndexPostings);
+        assertTrue(graph.mvstoreEdges.hasMap("edgeIndex"));
+
+        GraphTraversalSource g = graph.traversal();
+        assertEquals(3564, g.E().has(FollowedBy.WEIGHT, 1).toList().size());
+        assertEquals(3564, graph.edgeIndex.count(FollowedBy.WEIGHT, 1));
+        assertEquals(1, g.V().has(Artist.NAME, "Garcia").toList().size());
+
+        Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+        garcia.property(Artist.NAME, "Jerry Garcia");
+        assertEquals(0, g.V().has(Artist.NAME, "Garcia").toList().size());
+        assertEquals(1, g.V().has(Artist.NAME, "Jerry Garcia").toList().size());
+        g.E().has(FollowedBy.WEIGHT, 1).limit(10).toList().forEach(Edge::remove);
+        assertEquals(3554, graph.edgeIndex.count(FollowedBy.WEIGHT, 1));
+        garcia.remove();
+        assertEquals(0, graph.vertexIndex.count(Artist.NAME, "Jerry Garcia"));
+
+        graph.dropIndex(FollowedBy.WEIGHT, Edge.class);
+        assertEquals(0, graph.edgeIndex.count(FollowedBy.WEIGHT, 1));
+        graph.close();
+    }
+
+    @Test
+    public void shouldKeepDistinctPostingsForValuesWithEqualStrings() {
+        MVStore store = new MVStore.Builder().open();
+        OnDiskIndexPostings postings = new OnDiskIndexPostings(store.openMap("vertexIndex"), 1);
+        postings.add("key", 1, 1);
+        postings.add("key", 1L, 2);
+        postings.add("key", "1", 3);
+        // both are `a=b=c`, but not equal
+        postings.add("key", new AbstractMap.SimpleEntry<>("a=b", "c"), 4);
+        postings.add("key", new AbstractMap.SimpleEntry<>("a", "b=c"), 5);
+        postings.flush();
+
+        assertEquals(1, postings.count("key", 1));
+        assertEquals(1, postings.count("key", 1L));
+        assertEquals(1, postings.count("key", "1"));
+        assertEquals(1, postings.count("key", new AbstractMap.SimpleEntry<>("a=b", "c")));
+        assertEquals(5, postings.get("key", new AbstractMap.SimpleEntry<>("a", "b=c")).iterator().next());
+
+        postings.removeKey("key");
+        assertEquals(0, postings.count("key", 1));
+        assertNull(postings.get("key", new AbstractMap.SimpleEntry<>("a", "b=c")));
+        store.close();
+    }
+
+    @Test
+    public void shouldOverflowGenericElements() throws IOException {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        TinkerGraph graph = TinkerGraph.open(configuration);
+        loadGraphMl(graph);
+        TinkerGraph inMemoryGraph = newGratefulDeadGraphWithGenericElementsWithData();
+
+        GraphTraversalSource g = graph.traversal();
+        assertEquals(808, g.V().toList().size());
+        assertEquals(8049, g.E().toList().size());
+        assertEquals(3564, g.E().has("weight", 1).toList().size());
+        Vertex garcia = g.V().has("name", "Garcia").next();
+        assertTrue(garcia instanceof SchemalessTinkerVertex);
+        assertEquals(
+            inMemoryGraph.traversal().V().has("name", "Garcia").in("writtenBy").out("followedBy").toList().size(),
+            g.V(garcia).in("writtenBy").out("followedBy").toList().size());
+
+        // multi- and meta-properties
+        garcia.property(VertexProperty.Cardinality.list, "alias", "Jerry", "since", 1965);
+        garcia.property(VertexProperty.Cardinality.list, "alias", "Captain Trips");
+        Edge edge = g.V(garcia).inE("writtenBy").next();
+        edge.property("verified", true);
+
+        // roundtrip through the serializers, as happens on eviction from the cache
+        SpecializedTinkerVertex deserialized = graph.vertexSerializer.deserialize(graph.vertexSerializer.serialize((SpecializedTinkerVertex) garcia));
+        assertFalse(deserialized.isModifiedSinceLastSerialization());
+        assertEquals("Garcia", deserialized.value("name"));
+        assertEquals(2, IteratorUtils.count(deserialized.properties("alias")));
+        VertexProperty<String> jerry = IteratorUtils.filter(deserialized.<String>properties("alias"), vp -> vp.value().equals("Jerry")).next();
+        assertEquals(garcia.properties("alias").next().id(), jerry.id());
+        assertEquals(1965, (int) jerry.value("since"));
+        assertFalse("decoding must not mark the vertex as modified", deserialized.isModifiedSinceLastSerialization());
+        assertEquals(IteratorUtils.count(garcia.edges(Direction.BOTH)), IteratorUtils.count(deserialized.edges(Direction.BOTH)));
+        try {
+            deserialized.property("alias");
+            fail("expected multiple properties exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        jerry.property("since").remove();
+        assertTrue(deserialized.isModifiedSinceLastSerialization());
+
+        SpecializedTinkerEdge deserializedEdge = graph.edgeSerializer.deserialize(graph.edgeSerializer.serialize((SpecializedTinkerEdge) edge));
+        assertEquals(true, deserializedEdge.value("verified"));
+        assertEquals(edge.keys(), deserializedEdge.keys());
+        assertEquals(garcia, deserializedEdge.inVertex());
+
+        garcia.remove();
+        assertEquals(807, g.V().toList().size());
+        assertEquals(0, g.V().has("name", "Garcia").toList().size());
+        graph.close();
+    }
+
+    @Test(timeout = 60000)
+    public void shouldReleaseElementLocksWhenLoggingFails() throws IOException {
+        File rootDir = Files.createTempDirectory("tinkergraph").toFile();
+        TinkerGraph graph = newGenericGraphWithMutationLog(rootDir);
+        Vertex garcia = graph.addVertex(T.label, "artist", "name", "Garcia");
+        Edge edge = garcia.addEdge("knows", graph.addVertex(T.label, "artist", "name", "Weir"));
+        Object unpackable = new AbstractMap.SimpleEntry<>("a", 1);
+
+        // the element must not stay locked, or the next modification (or serialization) would block forever
+        for (int i = 0; i < 2; i++) {
+            boolean caughtException = false;
+            try {
+                garcia.property("unpackable", unpackable);
+            } catch (NotImplementedException e) {
+                caughtException = true;
+            }
+            assertTrue(caughtException);
+        }
+        boolean caughtException = false;
+        try {
+            edge.property("unpackable", unpackable);
+        } catch (NotImplementedException e) {
+            caughtException = true;
+        }
+        assertTrue(caughtException);
+        edge.property("weight", 1);
+        assertEquals(1, (int) edge.value("weight"));
+        // the values are set in memory, but can't be serialized when the graph is closed
+        garcia.property("unpackable").remove();
+        edge.property("unpackable").remove();
+        graph.close();
+
+        for (File file : rootDir.listFiles()) file.delete();
+        rootDir.delete();
+    }
+
+    @Test
+    public void shouldRecoverMultiAndMetaPropertiesFromMutationLog() throws IOException {
+        File rootDir = Files.createTempDirectory("tinkergraph").toFile();
+        TinkerGraph graph = newGenericGraphWithMutationLog(rootDir);
+        Vertex garcia = graph.addVertex(T.label, "artist", "name", "Garcia");
+        VertexProperty<String> jerry = garcia.property(VertexProperty.Cardinality.list, "alias", "Jerry", "since", 1965);
+        garcia.property(VertexProperty.Cardinality.list, "alias", "Captain Trips");
+        garcia.property(VertexProperty.Cardinality.list, "alias", "Jerome").remove();
+        jerry.property("until", 1995);
+        jerry.property("since").remove();
+        graph.mutationLog.sync();
+
+        // simulate a crash: the vertex only exists in the log
+        File crashedRootDir = Files.createTempDirectory("tinkergraph").toFile();
+        for (File file : rootDir.listFiles()) {
+            Files.copy(file.toPath(), new File(crashedRootDir, file.getName()).toPath());
+        }
+        graph.close();
+
+        TinkerGraph recovered = newGenericGraphWithMutationLog(crashedRootDir);
+        Vertex recoveredGarcia = recovered.traversal().V().has("name", "Garcia").next();
+        assertEquals(new HashSet<>(Arrays.asList("Jerry", "Captain Trips")), new HashSet<>(IteratorUtils.list(recoveredGarcia.values("alias"))));
+        VertexProperty<String> recoveredJerry = IteratorUtils.filter(recoveredGarcia.<String>properties("alias"), vp -> vp.value().equals("Jerry")).next();
+        assertEquals(jerry.id(), recoveredJerry.id());
+        assertEquals(1995, (int) recoveredJerry.value("until"));
+        assertFalse(recoveredJerry.property("since").isPresent());
+        recovered.close();
+
+        for (File dir : new File[]{rootDir, crashedRootDir}) {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void shouldSerializeVertexPropertyIdsOfBuiltInIdManagers() throws IOException {
+        TinkerGraph graph = TinkerGraph.open();
+        TinkerVertex vertex = (TinkerVertex) graph.addVertex();
+        for (Object id : Arrays.asList(1L, 1, UUID.randomUUID(), "one")) {
+            byte[] serialized = Serializer.packVertexProperties(IteratorUtils.of(new TinkerVertexProperty<>(id, vertex, "alias", "Jerry")));
+            assertEquals(id, Serializer.unpackVertexProperties(serialized).get(0)[1]);
+        }
+        boolean caughtException = false;
+        try {
+            Serializer.packVertexProperties(IteratorUtils.of(new TinkerVertexProperty<>(new AbstractMap.SimpleEntry<>("a", 1), vertex, "alias", "Jerry")));
+        } catch (NotImplementedException e) {
+            caughtException = true;
+        }
+        assertTrue(caughtException);
+        graph.close();
+    }
+
     //    @Test
     // only test manually since the settings depends on the local machine
     public void withTinyCache() throws IOException {
@@ -181,6 +581,524 @@ public class SpecializedElementsWithOnDiskTest {
         graph.close();
     }
 
+    @Test
+    public void shouldCountByLabelAndIndexWithoutIterating() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        graph.createIndex(FollowedBy.WEIGHT, Edge.class);
+        GraphTraversalSource g = graph.traversal();
+
+        GraphTraversal.Admin<Vertex, Long> labelCount = g.V().hasLabel(Song.label).count().asAdmin();
+        labelCount.applyStrategies();
+        assertTrue(labelCount.getStartStep() instanceof TinkerCountGlobalStep);
+        assertEquals(Long.valueOf(584), labelCount.next());
+        assertEquals(Long.valueOf(808), g.V().count().next());
+        assertEquals(Long.valueOf(808), g.V().hasLabel(Song.label, Artist.label).count().next());
+        assertEquals(Long.valueOf(0), g.V().hasLabel(Song.label).hasLabel(Artist.label).count().next());
+        assertEquals(Long.valueOf(8049), g.E().count().next());
+        assertEquals(Long.valueOf(7047), g.E().hasLabel(FollowedBy.label).count().next());
+
+        GraphTraversal.Admin<Edge, Long> indexCount = g.E().has(FollowedBy.WEIGHT, 1).count().asAdmin();
+        indexCount.applyStrategies();
+        assertTrue(indexCount.getStartStep() instanceof TinkerCountGlobalStep);
+        assertEquals(Long.valueOf(3564), indexCount.next());
+        assertEquals(Long.valueOf(142), g.V().has(Song.PERFORMANCES, 1).count().next());
+
+        Vertex song = g.V().hasLabel(Song.label).has(Song.PERFORMANCES, 1).next();
+        long songEdgeCount = g.V(song).bothE().toList().size();
+        song.remove();
+        assertEquals(Long.valueOf(583), g.V().hasLabel(Song.label).count().next());
+        assertEquals(Long.valueOf(8049 - songEdgeCount), g.E().count().next());
+        graph.close();
+    }
+
+    @Test
+    public void shouldNotFoldSampledCounts() throws IOException {
+        for (TinkerGraph graph : Arrays.asList(newGratefulDeadGraphWithSpecializedElementsWithData(), newGenericGraphWithOverflowWithData())) {
+            GraphTraversalSource g = graph.traversal();
+            assertEquals(Long.valueOf(10), g.V().hasLabel(Song.label).sample(10).count().next());
+            assertTrue(g.V().sample(10).hasLabel(Song.label).count().next() <= 10); // only the songs among 10 vertices
+            assertEquals(Long.valueOf(584), g.V().hasLabel(Song.label).sample(1000).count().next());
+            graph.close();
+        }
+    }
+
+    @Test
+    public void shouldCountDegreesWithoutLoadingEdges() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphDegreeCountStrategy.class);
+        Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+
+        assertEquals(unoptimized.V(garcia).in(WrittenBy.label).count().next(), g.V(garcia).in(WrittenBy.label).count().next());
+        assertEquals(Long.valueOf(7047), g.V().out(FollowedBy.label).count().next());
+        assertEquals(Long.valueOf(2 * 8049), g.V().bothE().count().next());
+        assertEquals(unoptimized.V().local(bothE().count()).toList(), g.V().local(bothE().count()).toList());
+        assertEquals(unoptimized.V().where(outE(SungBy.label).count().is(0)).count().next(), g.V().where(outE(SungBy.label).count().is(0)).count().next());
+        assertEquals(unoptimized.V().where(outE(FollowedBy.label).count().is(P.gt(10))).count().next(), g.V().where(outE(FollowedBy.label).count().is(P.gt(10))).count().next());
+        graph.close();
+    }
+
+    @Test
+    public void shouldFoldFiltersIntoAdjacencyExpansion() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphVertexStepStrategy.class);
+        Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+
+        assertEquals(unoptimized.V(garcia).in(WrittenBy.label).hasLabel(Song.label).toSet(), g.V(garcia).in(WrittenBy.label).hasLabel(Song.label).toSet());
+        assertEquals(unoptimized.V().outE(FollowedBy.label).has(FollowedBy.WEIGHT, 1).inV().toList(), g.V().outE(FollowedBy.label).has(FollowedBy.WEIGHT, 1).inV().toList());
+        assertEquals(Long.valueOf(3564), g.V().outE(FollowedBy.label).has(FollowedBy.WEIGHT, 1).inV().count().next());
+        assertEquals(unoptimized.V(garcia).bothE().hasLabel(WrittenBy.label).otherV().values(Song.NAME).toSet(), g.V(garcia).bothE().hasLabel(WrittenBy.label).otherV().values(Song.NAME).toSet());
+        assertEquals(unoptimized.V().inE().has(FollowedBy.WEIGHT, P.gt(10)).outV().has(Song.PERFORMANCES, P.gt(100)).toList(), g.V().inE().has(FollowedBy.WEIGHT, P.gt(10)).outV().has(Song.PERFORMANCES, P.gt(100)).toList());
+        assertEquals(Long.valueOf(0), g.V().outE(SungBy.label).hasLabel(WrittenBy.label).count().next());
+        // repeated edge labels emit each edge once per occurrence
+        assertEquals(Long.valueOf(6966), g.V().outE(FollowedBy.label, FollowedBy.label).has(FollowedBy.WEIGHT, P.gt(1)).inV().count().next());
+        assertEquals(Long.valueOf(2 * 7047), g.V().outE(FollowedBy.label, SungBy.label, FollowedBy.label).hasLabel(FollowedBy.label).count().next());
+        graph.close();
+    }
+
+    @Test
+    public void shouldResolveAdjacentVerticesWithoutLoadingEdges() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        Artist garcia = (Artist) graph.traversal().V().has(Artist.NAME, "Garcia").next();
+        Set<Vertex> songs = graph.traversal().V(garcia).inE(WrittenBy.label).outV().toSet();
+        assertEquals(songs, graph.traversal().V(garcia).in(WrittenBy.label).toSet());
+
+        // adjacent vertex ids are serialized along with the edge ids
+        Artist deserializedGarcia = (Artist) graph.vertexSerializer.deserialize(graph.vertexSerializer.serialize(garcia));
+        assertEquals(IteratorUtils.count(garcia.edges(Direction.BOTH)), deserializedGarcia.adjacentVertexIdByEdgeId().size());
+        assertEquals(songs, IteratorUtils.set(deserializedGarcia.vertices(Direction.IN, WrittenBy.label)));
+
+        // edges without known adjacent vertex are resolved instead
+        Artist garciaWithoutAdjacentVertexIds = Artist.factory.createVertex((Long) garcia.id(), graph);
+        garcia.edgeIdsByLabel(Direction.IN).forEach((label, edgeIds) -> edgeIds.forEach(edgeId -> {
+            garciaWithoutAdjacentVertexIds.addSpecializedInEdge(label, edgeId);
+            return true;
+        }));
+        assertNull(garciaWithoutAdjacentVertexIds.adjacentVertexIdByEdgeId());
+        assertEquals(songs, IteratorUtils.set(garciaWithoutAdjacentVertexIds.vertices(Direction.IN, WrittenBy.label)));
+        graph.close();
+    }
+
+    @Test
+    public void shouldVisitAdjacencyIds() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+        List<Vertex> vertices = g.V(garcia).both().dedup().toList();
+        vertices.add(garcia);
+        for (Vertex vertex : vertices) {
+            TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+            for (Direction direction : Direction.values()) {
+                List<Object> neighborIds = new ArrayList<>();
+                tinkerVertex.forEachNeighborId(direction, new String[0], neighborIds::add);
+                List<Object> expectedNeighborIds = IteratorUtils.list(IteratorUtils.map(vertex.vertices(direction), Vertex::id));
+                expectedNeighborIds.sort(null);
+                neighborIds.sort(null);
+                assertEquals(expectedNeighborIds, neighborIds);
+                Set<Object> edgeIds = new HashSet<>();
+                tinkerVertex.forEachEdgeId(direction, new String[]{WrittenBy.label, SungBy.label}, edgeIds::add);
+                assertEquals(g.V(vertex).toE(direction, WrittenBy.label, SungBy.label).id().toSet(), edgeIds);
+                assertEquals(IteratorUtils.count(vertex.edges(direction, FollowedBy.label)), tinkerVertex.degree(direction, FollowedBy.label));
+            }
+            Set<Object> outEdgeIds = new HashSet<>();
+            tinkerVertex.forEachOutEdgeId(FollowedBy.label, outEdgeIds::add);
+            assertEquals(g.V(vertex).outE(FollowedBy.label).id().toSet(), outEdgeIds);
+            Set<Object> inEdgeIds = new HashSet<>();
+            tinkerVertex.forEachInEdgeId(WrittenBy.label, inEdgeIds::add);
+            assertEquals(g.V(vertex).inE(WrittenBy.label).id().toSet(), inEdgeIds);
+            // the visit stops as soon as the procedure returns false
+            List<Object> firstNeighborIds = new ArrayList<>();
+            tinkerVertex.forEachNeighborId(Direction.BOTH, new String[0], neighborId -> {
+                firstNeighborIds.add(neighborId);
+                return false;
+            });
+            assertEquals(Math.min(1, IteratorUtils.count(vertex.vertices(Direction.BOTH))), firstNeighborIds.size());
+        }
+        graph.close();
+    }
+
+    @Test(timeout = 60000)
+    public void shouldScanInParallel() throws Exception {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_PARALLEL_SCAN_THRESHOLD, 100);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_PARALLEL_SCAN_PARALLELISM, 2);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_PARALLEL_SCAN_CHUNK_SIZE, 10);
+        TinkerGraph graph = TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+        loadGraphMl(graph);
+        GraphTraversalSource g = graph.traversal();
+        assertEquals(g.V().filter(has(Song.PERFORMANCES, P.gt(100))).toSet(), g.V().has(Song.PERFORMANCES, P.gt(100)).toSet());
+        assertEquals(g.V().filter(hasLabel(Artist.label).has(Artist.NAME, P.neq("Garcia"))).toSet(), g.V().hasLabel(Artist.label).has(Artist.NAME, P.neq("Garcia")).toSet());
+        assertEquals(Long.valueOf(3564), g.E().has(FollowedBy.WEIGHT, 1).count().next());
+        assertEquals(g.E().filter(has(FollowedBy.WEIGHT, P.gt(10))).toSet(), g.E().has(FollowedBy.WEIGHT, P.gt(10)).toSet());
+
+        // workers stop once the traversal is closed
+        GraphTraversal<Vertex, Vertex> traversal = g.V().has(Song.PERFORMANCES, P.gte(0));
+        assertEquals(5, traversal.limit(5).toList().size());
+        traversal.close();
+        // traversals that are never closed don't hold on to any workers
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, g.V().has(Song.NAME, P.neq("x")).limit(1).toList().size());
+        }
+        graph.close();
+    }
+
+    @Test
+    public void shouldDedupByElementId() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphDedupStrategy.class);
+        Vertex garcia = g.V().has(Artist.NAME, "Garcia").next();
+
+        assertEquals(unoptimized.V().out(FollowedBy.label).dedup().toList(), g.V().out(FollowedBy.label).dedup().toList());
+        assertEquals(unoptimized.V().bothE().dedup().count().next(), g.V().bothE().dedup().count().next());
+        assertEquals(unoptimized.V().values(Song.SONG_TYPE).dedup().toList(), g.V().values(Song.SONG_TYPE).dedup().toList());
+        assertEquals(unoptimized.V(garcia).repeat(both().dedup()).emit().toList(), g.V(garcia).repeat(both().dedup()).emit().toList());
+        assertEquals(unoptimized.V(garcia).repeat(out().dedup()).until(hasLabel(Artist.label)).toList(), g.V(garcia).repeat(out().dedup()).until(hasLabel(Artist.label)).toList());
+        graph.close();
+    }
+
+    @Test
+    public void shouldFindShortestPaths() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+        Vertex hunter = g.V().has(Artist.NAME, "Hunter").next();
+        Vertex weir = g.V().has(Artist.NAME, "Weir").next();
+
+        assertEquals(Arrays.asList(darkStar, hunter), g.V(darkStar).repeat(out()).until(is(hunter)).path().limit(1).next().objects());
+        assertFalse(g.V(darkStar).repeat(out()).emit().times(1).is(weir).hasNext());
+        List<Object> path = g.V(darkStar).repeat(out()).until(is(weir)).path().limit(1).next().objects();
+        assertEquals(3, path.size());
+        assertEquals(darkStar, path.get(0));
+        assertTrue(g.V(path.get(1)).out().is(weir).hasNext());
+        assertEquals(weir, g.V(hunter).repeat(both().simplePath()).until(hasId(weir.id())).limit(1).next());
+        assertEquals(darkStar, g.V(darkStar).until(is(darkStar)).repeat(out()).limit(1).next());
+        assertFalse(g.V(hunter).repeat(out()).until(is(darkStar)).limit(1).hasNext());
+
+        // the shortest cycle back to the start
+        assertFalse(g.V(darkStar).out(FollowedBy.label).is(darkStar).hasNext());
+        path = g.V(darkStar).repeat(out(FollowedBy.label)).until(is(darkStar)).path().limit(1).next().objects();
+        assertEquals(3, path.size());
+        assertTrue(g.V(path.get(1)).out(FollowedBy.label).is(darkStar).hasNext());
+
+        assertNull(ShortestPath.find(graph, (Long) darkStar.id(), (Long) weir.id(), Direction.OUT, new String[0], 1));
+        assertEquals(3, ShortestPath.find(graph, (Long) darkStar.id(), (Long) weir.id(), Direction.OUT, new String[0], 2).length);
+        assertNull(ShortestPath.find(graph, (Long) darkStar.id(), (Long) weir.id(), Direction.OUT, new String[]{FollowedBy.label}, ShortestPath.UNLIMITED_DEPTH));
+        graph.close();
+    }
+
+    @Test
+    public void shouldAnswerReachabilityFromIndex() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        ReachabilityIndex reachabilityIndex = graph.reachabilityIndex(FollowedBy.label);
+        GraphTraversalSource g = graph.traversal();
+        Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+        Vertex hunter = g.V().has(Artist.NAME, "Hunter").next();
+
+        List<Vertex> songs = g.V().hasLabel(Song.label).limit(50).toList();
+        songs.add(hunter);
+        for (Vertex source : songs) {
+            for (Vertex target : songs) {
+                boolean reachable = ShortestPath.find(graph, (Long) source.id(), (Long) target.id(), Direction.OUT, new String[]{FollowedBy.label}, ShortestPath.UNLIMITED_DEPTH) != null;
+                assertEquals(reachable, reachabilityIndex.isReachable((Long) source.id(), (Long) target.id()));
+            }
+        }
+        assertTrue(reachabilityIndex.isBuilt());
+        assertSame(reachabilityIndex, graph.getReachabilityIndex(FollowedBy.label));
+
+        // an edge between vertices that are connected already doesn't change anything
+        Vertex next = g.V(darkStar).out(FollowedBy.label).next();
+        next.addEdge(FollowedBy.label, darkStar);
+        assertTrue(reachabilityIndex.isBuilt());
+
+        // an edge to a new vertex does, and so does the removal of an edge
+        Vertex newSong = graph.addVertex(Song.label);
+        Edge newEdge = newSong.addEdge(FollowedBy.label, darkStar);
+        assertFalse(reachabilityIndex.isBuilt());
+        assertTrue(reachabilityIndex.isReachable((Long) newSong.id(), (Long) darkStar.id()));
+        assertFalse(reachabilityIndex.isReachable((Long) darkStar.id(), (Long) newSong.id()));
+        assertEquals(darkStar, g.V(newSong).repeat(out(FollowedBy.label)).until(is(darkStar)).limit(1).next());
+        newEdge.remove();
+        assertFalse(reachabilityIndex.isBuilt());
+        assertFalse(reachabilityIndex.isReachable((Long) newSong.id(), (Long) darkStar.id()));
+        assertFalse(g.V(newSong).repeat(out(FollowedBy.label)).until(is(darkStar)).limit(1).hasNext());
+        graph.close();
+    }
+
+    @Test
+    public void shouldCacheTraversalResultsUntilNextMutation() throws IOException {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_RESULT_CACHE_SIZE, 2);
+        TinkerGraph graph = TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+        loadGraphMl(graph);
+        GraphTraversalSource g = graph.traversal();
+        TraversalResultCache resultCache = graph.resultCache();
+        List<Vertex> followers = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList();
+        assertEquals(0, resultCache.hitCount());
+        assertEquals(followers, g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList());
+        assertEquals(Arrays.asList(808L), g.V().count().toList());
+        assertEquals(Arrays.asList(808L), g.V().count().toList());
+        assertEquals(2, resultCache.hitCount());
+        assertEquals(2, resultCache.size());
+
+        // only traversals that are iterated to the end are cached, and only up to the configured number of them
+        g.V().hasLabel(Artist.label).next();
+        g.V().hasLabel(Artist.label).next();
+        g.V().hasLabel(Song.label).toList();
+        assertEquals(2, resultCache.hitCount());
+        assertEquals(2, resultCache.size());
+        assertEquals(1, resultCache.evictionCount());
+
+        // random results and mutations are never cached
+        g.V().sample(1).toList();
+        g.V().sample(1).toList();
+        assertEquals(2, resultCache.hitCount());
+        long version = graph.version();
+        g.addV(Song.label).toList();
+        g.addV(Song.label).toList();
+        assertEquals(Arrays.asList(810L), g.V().count().toList());
+
+        // every mutation invalidates all results
+        assertTrue(graph.version() > version);
+        Vertex darkStar = g.V().has(Song.NAME, "DARK STAR").next();
+        Vertex newSong = graph.addVertex(T.label, Song.label, Song.NAME, "NEW SONG");
+        version = graph.version();
+        darkStar.addEdge(FollowedBy.label, newSong);
+        assertTrue(graph.version() > version);
+        assertEquals(followers.size() + 1, g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList().size());
+        version = graph.version();
+        newSong.property(Song.NAME, "RENAMED SONG");
+        assertTrue(graph.version() > version);
+        assertTrue(g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).toList().contains("RENAMED SONG"));
+        assertTrue(g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).toList().contains("RENAMED SONG"));
+        version = graph.version();
+        newSong.remove();
+        assertTrue(graph.version() > version);
+        assertEquals(followers, g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).toList());
+        assertEquals(3, resultCache.hitCount());
+
+        // callers may modify their results without affecting later hits
+        Map<Object, Long> countsByLabel = g.V().groupCount().by(T.label).toList().get(0);
+        countsByLabel.clear();
+        assertEquals(2, g.V().groupCount().by(T.label).next().size());
+        List<Object> names = g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).fold().toList().get(0);
+        names.clear();
+        assertEquals(followers.size(), g.V().has(Song.NAME, "DARK STAR").out(FollowedBy.label).values(Song.NAME).fold().next().size());
+        Map<String, Object> valueMap = g.V().has(Song.NAME, "DARK STAR").valueMap().toList().get(0);
+        ((List<Object>) valueMap.get(Song.NAME)).clear();
+        assertEquals(Arrays.asList("DARK STAR"), g.V().has(Song.NAME, "DARK STAR").valueMap().next().get(Song.NAME));
+        assertEquals(6, resultCache.hitCount());
+        graph.close();
+    }
+
+    @Test
+    public void shouldReadPropertyValuesDirectly() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphPropertyStrategy.class);
+
+        assertEquals(unoptimized.V().values(Song.NAME, Song.PERFORMANCES).toList(), g.V().values(Song.NAME, Song.PERFORMANCES).toList());
+        assertEquals(unoptimized.E().values(FollowedBy.WEIGHT).toList(), g.E().values(FollowedBy.WEIGHT).toList());
+        assertEquals(unoptimized.V().valueMap(true).toList(), g.V().valueMap(true).toList());
+        assertEquals(unoptimized.V().out().as("a").has(Song.PERFORMANCES, P.gt(100)).toList(), g.V().out().as("a").has(Song.PERFORMANCES, P.gt(100)).toList());
+
+        Song darkStar = (Song) g.V().has(Song.NAME, "DARK STAR").next();
+        assertEquals("DARK STAR", darkStar.propertyValue(Song.NAME));
+        assertEquals(darkStar.getPerformances(), darkStar.propertyValue(Song.PERFORMANCES));
+        assertNull(darkStar.propertyValue("unknown"));
+        graph.close();
+    }
+
+    @Test
+    public void shouldOrderTopElementsInBoundedHeap() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphTopKStrategy.class);
+
+        assertEquals(unoptimized.V().hasLabel(Song.label).order().by(Song.PERFORMANCES).limit(10).toList(), g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES).limit(10).toList());
+        assertEquals(unoptimized.V().hasLabel(Song.label).order().by(Song.PERFORMANCES, Order.decr).range(5, 15).values(Song.NAME).toList(), g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES, Order.decr).range(5, 15).values(Song.NAME).toList());
+        assertEquals(unoptimized.E().hasLabel(FollowedBy.label).order().by(FollowedBy.WEIGHT, Order.decr).limit(20).toList(), g.E().hasLabel(FollowedBy.label).order().by(FollowedBy.WEIGHT, Order.decr).limit(20).toList());
+        assertEquals(unoptimized.V().hasLabel(Artist.label).order().by(Artist.NAME).limit(1000).toList(), g.V().hasLabel(Artist.label).order().by(Artist.NAME).limit(1000).toList());
+        assertEquals(Collections.emptyList(), g.V().hasLabel(Song.label).order().by(Song.PERFORMANCES).limit(0).toList());
+        graph.close();
+    }
+
+    @Test
+    public void shouldCountByLabelFromLabelPartitions() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphCountByLabelStrategy.class);
+
+        assertEquals(unoptimized.V().groupCount().by(T.label).next(), g.V().groupCount().by(T.label).next());
+        assertEquals(unoptimized.E().label().groupCount().next(), g.E().label().groupCount().next());
+        assertEquals(unoptimized.E().hasLabel(FollowedBy.label, SungBy.label).label().groupCount().next(), g.E().hasLabel(FollowedBy.label, SungBy.label).label().groupCount().next());
+
+        graph.addVertex(Song.label);
+        assertEquals(585L, (long) g.V().groupCount().by(T.label).next().get(Song.label));
+        graph.close();
+    }
+
+    @Test
+    public void shouldSampleFromLabelPartitions() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+
+        Set<Vertex> songs = g.V().hasLabel(Song.label).sample(10).toSet();
+        assertEquals(10, songs.size());
+        songs.forEach(song -> assertEquals(Song.label, song.label()));
+        assertEquals(584, g.V().hasLabel(Song.label).coin(1.0).toSet().size());
+        assertEquals(g.E().hasLabel(FollowedBy.label).toSet(), g.E().hasLabel(FollowedBy.label).sample(10000).toSet());
+
+        graph.addVertex(Song.label);
+        assertEquals(585, g.V().hasLabel(Song.label).sample(10000).toSet().size());
+        graph.close();
+    }
+
+    @Test
+    public void shouldPaginateByIdRanges() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphIdRangeStrategy.class);
+
+        assertEquals(unoptimized.V().hasLabel(Song.label).order().by(T.id).range(100, 110).toList(),
+                g.V().hasLabel(Song.label).order().by(T.id).range(100, 110).toList());
+        assertEquals(unoptimized.E().order().by(T.id).range(1000, 1010).toList(), g.E().order().by(T.id).range(1000, 1010).toList());
+        long median = (Long) unoptimized.V().hasLabel(Song.label).order().by(T.id).range(292, 293).next().id();
+        assertEquals(unoptimized.V().hasLabel(Song.label).order().by(T.id).range(293, 303).toList(),
+                g.V().hasLabel(Song.label).has(T.id, P.gt(median)).order().by(T.id).limit(10).toList());
+
+        graph.addVertex(Song.label);
+        assertEquals(1, g.V().hasLabel(Song.label).range(584, 1000).toList().size());
+        graph.close();
+    }
+
+    @Test
+    public void shouldLookUpManyIdsAtOnce() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        List<Object> vertexIds = graph.traversal().V().id().toList();
+        List<Object> edgeIds = graph.traversal().E().id().toList();
+        Collections.reverse(vertexIds);
+        vertexIds.add(vertexIds.get(0));
+        vertexIds.add(vertexIds.get(1));
+
+        // move all vertices to the overflow store, as happens on eviction from the cache
+        for (Vertex vertex : graph.traversal().V().toList()) {
+            graph.onDiskVertexOverflow.put((Long) vertex.id(), graph.vertexSerializer.serialize(vertex));
+        }
+        graph.vertexCache.clear();
+
+        assertEquals(vertexIds, IteratorUtils.list(IteratorUtils.map(graph.vertices(vertexIds.toArray()), Vertex::id)));
+        assertEquals(edgeIds, IteratorUtils.list(IteratorUtils.map(graph.edges(edgeIds.toArray()), Edge::id)));
+        assertEquals(Arrays.asList(vertexIds.get(5), vertexIds.get(3)),
+                IteratorUtils.list(IteratorUtils.map(graph.vertices(vertexIds.get(5), Long.MAX_VALUE, vertexIds.get(3)), Vertex::id)));
+        // unknown ids are skipped no matter how many ids are passed
+        assertFalse(graph.vertices(Long.MAX_VALUE).hasNext());
+        assertFalse(graph.vertices(Long.MAX_VALUE, Long.MAX_VALUE - 1).hasNext());
+        assertFalse(graph.edges(Long.MAX_VALUE).hasNext());
+        assertFalse(graph.edges(Long.MAX_VALUE, Long.MAX_VALUE - 1).hasNext());
+        assertEquals(0, (long) graph.traversal().V(Long.MAX_VALUE).count().next());
+        assertEquals(Arrays.asList(vertexIds.get(5)),
+                IteratorUtils.list(IteratorUtils.map(graph.vertices(vertexIds.get(5)), Vertex::id)));
+        assertEquals(Arrays.asList(vertexIds.get(300), vertexIds.get(0)),
+                IteratorUtils.list(IteratorUtils.map(graph.vertices(vertexIds.get(300), vertexIds.get(0)), Vertex::id)));
+        assertEquals(vertexIds.size(), (long) graph.traversal().V(vertexIds.toArray()).count().next());
+        assertEquals("Garcia", graph.traversal().V(vertexIds.toArray()).has("name", "Garcia").values("name").next());
+        graph.close();
+    }
+
+    @Test
+    public void shouldPruneTraversalsBySchema() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unoptimized = g.withoutStrategies(TinkerGraphSchemaStrategy.class);
+
+        assertEquals(unoptimized.V().has("performances", P.gt(10)).count().next(), g.V().has("performances", P.gt(10)).count().next());
+        assertEquals(unoptimized.V().has("songType").count().next(), g.V().has("songType").count().next());
+        assertEquals(unoptimized.V().out(SungBy.label).toSet(), g.V().out(SungBy.label).toSet());
+        assertEquals(unoptimized.E().has("weight", P.gt(5)).toSet(), g.E().has("weight", P.gt(5)).toSet());
+        assertEquals(unoptimized.V().out(SungBy.label).in(WrittenBy.label).toSet(), g.V().out(SungBy.label).in(WrittenBy.label).toSet());
+        assertEquals(0, g.V().hasLabel(Song.label).out("unknownEdge").toList().size());
+        assertEquals(Long.valueOf(0), g.V().hasLabel(Artist.label).out().count().next());
+        assertEquals(0, g.V().out(SungBy.label).out(FollowedBy.label).toList().size());
+        graph.close();
+    }
+
+    @Test
+    public void shouldMaintainGraphStatistics() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphStatistics statistics = graph.statistics();
+        long songs = g.V().hasLabel(Song.label).count().next();
+        assertEquals(songs, statistics.vertexCount(P.eq(Song.label)));
+        assertEquals(g.E().count().next().longValue(), statistics.edgeCount(null));
+
+        long songTypes = g.V().values(Song.SONG_TYPE).dedup().count().next();
+        long names = g.V().values(Song.NAME).dedup().count().next();
+        assertEquals(songTypes, statistics.distinctValues(Vertex.class, Song.SONG_TYPE));
+        assertEquals(names, statistics.distinctValues(Vertex.class, Song.NAME), names * 0.1);
+        assertEquals(0, statistics.distinctValues(Vertex.class, "unknownKey"));
+
+        double sungByDegree = (double) g.V().hasLabel(Song.label).outE(SungBy.label).count().next() / songs;
+        assertEquals(sungByDegree, statistics.averageDegree(Song.label, Direction.OUT, SungBy.label), 0.0001);
+        assertEquals(0, statistics.averageDegree(Artist.label, Direction.OUT), 0.0001);
+        Vertex song = g.V().hasLabel(Song.label).has(Song.NAME, "HERE COMES SUNSHINE").next();
+        song.addEdge(SungBy.label, g.V().hasLabel(Artist.label).next());
+        assertEquals(sungByDegree + 1.0 / songs, statistics.averageDegree(Song.label, Direction.OUT, SungBy.label), 0.0001);
+        song.edges(Direction.OUT, SungBy.label).next().remove();
+        assertEquals(sungByDegree, statistics.averageDegree(Song.label, Direction.OUT, SungBy.label), 0.0001);
+
+        GraphTraversalSource unordered = g.withoutStrategies(TinkerGraphFilterOrderStrategy.class);
+        graph.createIndex(Song.SONG_TYPE, Vertex.class);
+        assertEquals(unordered.V().has(Song.SONG_TYPE, "cover").has(Song.NAME, "BERTHA").toSet(), g.V().has(Song.SONG_TYPE, "cover").has(Song.NAME, "BERTHA").toSet());
+        assertEquals(unordered.V().hasLabel(Song.label).has(Song.SONG_TYPE, "original").count().next(), g.V().hasLabel(Song.label).has(Song.SONG_TYPE, "original").count().next());
+        assertEquals(unordered.V().where(out(SungBy.label)).where(out(FollowedBy.label)).toSet(), g.V().where(out(SungBy.label)).where(out(FollowedBy.label)).toSet());
+
+        graph.clear();
+        assertEquals(0, statistics.distinctValues(Vertex.class, Song.NAME));
+        graph.close();
+    }
+
+    @Test
+    public void shouldExpandTraversersInBatches() throws IOException {
+        TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
+        GraphTraversalSource g = graph.traversal();
+        GraphTraversalSource unbatched = g.withoutStrategies(TinkerGraphVertexStepStrategy.class);
+
+        assertEquals(sortedIds(unbatched.V().out().toList()), sortedIds(g.V().out().toList()));
+        assertEquals(sortedIds(unbatched.V().both(FollowedBy.label).toList()), sortedIds(g.V().both(FollowedBy.label).toList()));
+        assertEquals(sortedIds(unbatched.V().inE(SungBy.label).toList()), sortedIds(g.V().inE(SungBy.label).toList()));
+        assertEquals(sortedIds(unbatched.V().out(FollowedBy.label).has(Song.SONG_TYPE, "cover").toList()),
+                sortedIds(g.V().out(FollowedBy.label).has(Song.SONG_TYPE, "cover").toList()));
+        assertEquals(unbatched.V().out().out().count().next(), g.V().out().out().count().next());
+        assertEquals(unbatched.V().out().out().path().toSet(), g.V().out().out().path().toSet());
+        assertEquals(unbatched.V().repeat(out(FollowedBy.label)).times(2).groupCount().next(),
+                g.V().repeat(out(FollowedBy.label)).times(2).groupCount().next());
+        // traversers come out in the same order as without batching
+        assertEquals(unbatched.V().hasLabel(Artist.label).limit(10).in().id().toList(), g.V().hasLabel(Artist.label).limit(10).in().id().toList());
+        assertEquals(unbatched.V().hasLabel(Song.label).limit(30).outE().id().toList(), g.V().hasLabel(Song.label).limit(30).outE().id().toList());
+        assertEquals(unbatched.V().both().id().toList(), g.V().both().id().toList());
+        assertEquals(unbatched.V().bothE(FollowedBy.label, SungBy.label).id().toList(), g.V().bothE(FollowedBy.label, SungBy.label).id().toList());
+
+        Traversal.Admin<Vertex, Vertex> traversal = g.V().out().asAdmin();
+        traversal.applyStrategies();
+        assertEquals(64, TraversalHelper.getLastStepOfAssignableClass(TinkerVertexStep.class, traversal).get().getBatchSize());
+        traversal = g.V().out().limit(1).asAdmin();
+        traversal.applyStrategies();
+        assertFalse(TraversalHelper.hasStepOfClass(TinkerVertexStep.class, traversal));
+        graph.close();
+    }
+
     @Test
     public void shouldSupportRemovalOfSpecializedElements() throws IOException {
         TinkerGraph graph = newGratefulDeadGraphWithSpecializedElementsWithData();
@@ -390,12 +1308,40 @@ public class SpecializedElementsWithOnDiskTest {
         );
     }
     
+    private TinkerGraph newGratefulDeadGraphWithMutationLog(File rootDir) {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_ROOT_DIR, rootDir.getAbsolutePath());
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_ENABLED, true);
+        return TinkerGraph.open(
+            configuration,
+            Arrays.asList(Song.factory, Artist.factory),
+            Arrays.asList(FollowedBy.factory, SungBy.factory, WrittenBy.factory)
+        );
+    }
+
+    private TinkerGraph newGenericGraphWithMutationLog(File rootDir) {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_ROOT_DIR, rootDir.getAbsolutePath());
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_MUTATION_LOG_ENABLED, true);
+        return TinkerGraph.open(configuration);
+    }
+
     private TinkerGraph newGratefulDeadGraphWithSpecializedElementsWithData() throws IOException {
         TinkerGraph graph = newGratefulDeadGraphWithSpecializedElements();
         loadGraphMl(graph);
         return graph;
     }
 
+    private TinkerGraph newGenericGraphWithOverflowWithData() throws IOException {
+        Configuration configuration = TinkerGraph.EMPTY_CONFIGURATION();
+        configuration.setProperty(TinkerGraph.GREMLIN_TINKERGRAPH_ONDISK_OVERFLOW_ENABLED, true);
+        TinkerGraph graph = TinkerGraph.open(configuration);
+        loadGraphMl(graph);
+        return graph;
+    }
+
     private TinkerGraph newGratefulDeadGraphWithGenericElementsWithData() throws IOException {
         TinkerGraph graph = TinkerGraph.open();
         loadGraphMl(graph);
@@ -403,6 +1349,14 @@ public class SpecializedElementsWithOnDiskTest {
     }
 
 
+    /** the ids of the given elements, in ascending order - i.e. the elements irrespective of the order in which they were traversed */
+    private static List<Long> sortedIds(List<? extends Element> elements) {
+        List<Long> ids = new ArrayList<>();
+        elements.forEach(element -> ids.add((Long) element.id()));
+        Collections.sort(ids);
+        return ids;
+    }
+
     private void loadGraphMl(TinkerGraph graph) throws IOException {
         graph.io(IoCore.graphml()).readGraph("src/test/resources/grateful-dead.xml");
     }
@@ -64,6 +64,11 @@ public class Artist extends SpecializedTinkerVertex {
         }
     }
 
+    @Override
+    protected <V> V specificPropertyValue(String key) {
+        return NAME.equals(key) ? (V) name : null;
+    }
+
     @Override
     protected <V> VertexProperty<V> updateSpecificProperty(
       VertexProperty.Cardinality cardinality, String key, V value) {
@@ -131,6 +136,19 @@ public class Artist extends SpecializedTinkerVertex {
         return result;
     }
 
+    @Override
+    protected TLongSet specificEdgeIds(Direction direction, String edgeLabel) {
+        if (direction != Direction.IN) {
+            return null;
+        } else if (SungBy.label.equals(edgeLabel)) {
+            return sungByIn;
+        } else if (WrittenBy.label.equals(edgeLabel)) {
+            return writtenByIn;
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public void addSpecializedOutEdge(String edgeLabel, long edgeId) {
         throw new IllegalArgumentException("no out edges allowed here");
@@ -157,9 +175,25 @@ public class Artist extends SpecializedTinkerVertex {
         public Artist createVertex(Long id, TinkerGraph graph) {
             return new Artist(id, graph);
         }
+
+        @Override
+        public Map<String, Class<?>> propertyTypes() {
+            return Collections.singletonMap(NAME, String.class);
+        }
+
+        @Override
+        public Set<String> outEdgeLabels() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Set<String> inEdgeLabels() {
+            return new HashSet<>(Arrays.asList(WrittenBy.label, SungBy.label));
+        }
     };
 
     public String getName() {
+        decodeSerializedProperty(NAME);
         return name;
     }
 
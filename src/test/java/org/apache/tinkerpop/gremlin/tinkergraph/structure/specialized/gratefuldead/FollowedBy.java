@@ -50,6 +50,11 @@ public class FollowedBy extends SpecializedTinkerEdge {
         }
     }
 
+    @Override
+    protected <V> V specificPropertyValue(String key) {
+        return WEIGHT.equals(key) ? (V) weight : null;
+    }
+
     @Override
     protected <V> Property<V> updateSpecificProperty(String key, V value) {
         if (WEIGHT.equals(key)) {
@@ -79,5 +84,20 @@ public class FollowedBy extends SpecializedTinkerEdge {
         public FollowedBy createEdge(Long id, TinkerGraph graph, Long outVertexId, Long inVertexId) {
             return new FollowedBy(graph, id, outVertexId, inVertexId);
         }
+
+        @Override
+        public Map<String, Class<?>> propertyTypes() {
+            return Collections.singletonMap(WEIGHT, Integer.class);
+        }
+
+        @Override
+        public Set<String> outVertexLabels() {
+            return Collections.singleton(Song.label);
+        }
+
+        @Override
+        public Set<String> inVertexLabels() {
+            return Collections.singleton(Song.label);
+        }
     };
 }
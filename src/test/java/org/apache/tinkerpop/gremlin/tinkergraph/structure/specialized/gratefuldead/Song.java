@@ -75,6 +75,19 @@ public class Song extends SpecializedTinkerVertex implements Serializable {
         }
     }
 
+    @Override
+    protected <V> V specificPropertyValue(String key) {
+        if (NAME.equals(key)) {
+            return (V) name;
+        } else if (SONG_TYPE.equals(key)) {
+            return (V) songType;
+        } else if (PERFORMANCES.equals(key)) {
+            return (V) performances;
+        } else {
+            return null;
+        }
+    }
+
     @Override
     protected <V> VertexProperty<V> updateSpecificProperty(
       VertexProperty.Cardinality cardinality, String key, V value) {
@@ -161,6 +174,21 @@ public class Song extends SpecializedTinkerVertex implements Serializable {
         return result;
     }
 
+    @Override
+    protected TLongSet specificEdgeIds(Direction direction, String edgeLabel) {
+        if (direction == Direction.IN) {
+            return FollowedBy.label.equals(edgeLabel) ? followedByIn : null;
+        } else if (FollowedBy.label.equals(edgeLabel)) {
+            return followedByOut;
+        } else if (WrittenBy.label.equals(edgeLabel)) {
+            return writtenByOut;
+        } else if (SungBy.label.equals(edgeLabel)) {
+            return sungByOut;
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public void addSpecializedOutEdge(String edgeLabel, long edgeId) {
         if (FollowedBy.label.equals(edgeLabel)) {
@@ -193,17 +221,39 @@ public class Song extends SpecializedTinkerVertex implements Serializable {
         public Song createVertex(Long id, TinkerGraph graph) {
             return new Song(id, graph);
         }
+
+        @Override
+        public Map<String, Class<?>> propertyTypes() {
+            final Map<String, Class<?>> propertyTypes = new HashMap<>();
+            propertyTypes.put(NAME, String.class);
+            propertyTypes.put(SONG_TYPE, String.class);
+            propertyTypes.put(PERFORMANCES, Integer.class);
+            return propertyTypes;
+        }
+
+        @Override
+        public Set<String> outEdgeLabels() {
+            return new HashSet<>(Arrays.asList(FollowedBy.label, WrittenBy.label, SungBy.label));
+        }
+
+        @Override
+        public Set<String> inEdgeLabels() {
+            return new HashSet<>(Arrays.asList(FollowedBy.label));
+        }
     };
 
     public String getName() {
+        decodeSerializedProperty(NAME);
         return name;
     }
 
     public String getSongType() {
+        decodeSerializedProperty(SONG_TYPE);
         return songType;
     }
 
     public Integer getPerformances() {
+        decodeSerializedProperty(PERFORMANCES);
         return performances;
     }
 }
@@ -61,6 +61,21 @@ public class SungBy extends SpecializedTinkerEdge implements Serializable {
         public SungBy createEdge(Long id, TinkerGraph graph, Long outVertexId, Long inVertexId) {
             return new SungBy(graph, id, outVertexId, inVertexId);
         }
+
+        @Override
+        public Map<String, Class<?>> propertyTypes() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Set<String> outVertexLabels() {
+            return Collections.singleton(Song.label);
+        }
+
+        @Override
+        public Set<String> inVertexLabels() {
+            return Collections.singleton(Artist.label);
+        }
     };
 
 
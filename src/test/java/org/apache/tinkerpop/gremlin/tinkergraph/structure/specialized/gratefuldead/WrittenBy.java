@@ -61,5 +61,20 @@ public class WrittenBy extends SpecializedTinkerEdge implements Serializable {
         public WrittenBy createEdge(Long id, TinkerGraph graph, Long outVertexId, Long inVertexId) {
             return new WrittenBy(graph, id, outVertexId, inVertexId);
         }
+
+        @Override
+        public Map<String, Class<?>> propertyTypes() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Set<String> outVertexLabels() {
+            return Collections.singleton(Song.label);
+        }
+
+        @Override
+        public Set<String> inVertexLabels() {
+            return Collections.singleton(Artist.label);
+        }
     };
 }